@@ -83,6 +83,7 @@ class ActivityLifeCycleManager {
                 new Callable<Void>() {
                     @Override
                     public Void call() throws Exception {
+                        baseEventQueueManager.commitPendingEvents(context);
                         final int now = (int) (System.currentTimeMillis() / 1000);
                         if (coreMetaData.inCurrentSession()) {
                             try {
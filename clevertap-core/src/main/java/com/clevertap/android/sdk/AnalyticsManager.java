@@ -279,7 +279,8 @@ public class AnalyticsManager extends BaseAnalyticsManager {
 
     @Override
     public void pushEvent(String eventName, Map<String, Object> eventActions) {
-        config.getLogger().verbose(config.getAccountId(), "pushEvent: eventName=" + eventName + ", eventActions=" + eventActions);
+        config.getLogger().verbose(config.getAccountId(),
+                () -> "pushEvent: eventName=" + eventName + ", eventActions=" + eventActions);
         Task<Void> task = executors.postAsyncSafelyTask();
         task.execute("pushEvent", () -> {
             _pushEvent(eventName, eventActions);
@@ -51,12 +51,15 @@ import com.clevertap.android.sdk.inapp.store.preference.ImpressionStore;
 import com.clevertap.android.sdk.inapp.store.preference.InAppStore;
 import com.clevertap.android.sdk.inapp.store.preference.StoreRegistry;
 import com.clevertap.android.sdk.inbox.CTInboxActivity;
+import com.clevertap.android.sdk.inbox.CTInboxController;
 import com.clevertap.android.sdk.inbox.CTInboxMessage;
-import com.clevertap.android.sdk.inbox.CTMessageDAO;
+import com.clevertap.android.sdk.inbox.InboxPage;
+import com.clevertap.android.sdk.inbox.InboxPageRequest;
 import com.clevertap.android.sdk.interfaces.NotificationHandler;
 import com.clevertap.android.sdk.interfaces.NotificationRenderedListener;
 import com.clevertap.android.sdk.interfaces.OnInitCleverTapIDListener;
 import com.clevertap.android.sdk.interfaces.SCDomainListener;
+import com.clevertap.android.sdk.interfaces.TaskMetricsListener;
 import com.clevertap.android.sdk.network.NetworkManager;
 import com.clevertap.android.sdk.network.fetch.FetchTrigger;
 import com.clevertap.android.sdk.product_config.CTProductConfigController;
@@ -68,7 +71,9 @@ import com.clevertap.android.sdk.pushnotification.NotificationInfo;
 import com.clevertap.android.sdk.pushnotification.PushConstants;
 import com.clevertap.android.sdk.pushnotification.PushType;
 import com.clevertap.android.sdk.pushnotification.amp.CTPushAmpListener;
+import com.clevertap.android.sdk.task.CTExecutorFactory;
 import com.clevertap.android.sdk.task.Task;
+import com.clevertap.android.sdk.task.TaskMetricsSnapshot;
 import com.clevertap.android.sdk.usereventlogs.UserEventLog;
 import com.clevertap.android.sdk.utils.Clock;
 import com.clevertap.android.sdk.utils.UriHelper;
@@ -1465,6 +1470,42 @@ public class CleverTapAPI implements CTInboxActivity.InboxActivityListener {
         return coreState.getConfig().getAccountId();
     }
 
+    /**
+     * Sets a listener notified of the timings of the background tasks run by the SDK for this
+     * instance, e.g. to report slow or queued up tasks to an APM.
+     * <p>
+     * Timings are only measured while a listener is set, setting one resets the collected stats.
+     *
+     * @param listener the {@link TaskMetricsListener} instance, null to stop measuring
+     */
+    @SuppressWarnings("unused")
+    public void setTaskMetricsListener(@Nullable TaskMetricsListener listener) {
+        CTExecutorFactory.executors(getConfig()).getTaskMetrics().setListener(listener);
+    }
+
+    /**
+     * Sets the run time above which tasks are reported to
+     * {@link TaskMetricsListener#onLongRunningTask(com.clevertap.android.sdk.task.TaskMetrics)}
+     *
+     * @param thresholdMillis the threshold in milliseconds, defaults to 1000
+     */
+    @SuppressWarnings("unused")
+    public void setLongRunningTaskThreshold(long thresholdMillis) {
+        CTExecutorFactory.executors(getConfig()).getTaskMetrics().setLongRunningThresholdMs(thresholdMillis);
+    }
+
+    /**
+     * Returns the queue depth and utilisation of the SDK executors and the latency histograms of
+     * their tasks, measured since a {@link TaskMetricsListener} was set.
+     *
+     * @return the {@link TaskMetricsSnapshot}, empty when no listener was ever set
+     */
+    @SuppressWarnings("unused")
+    @NonNull
+    public TaskMetricsSnapshot getTaskMetricsSnapshot() {
+        return CTExecutorFactory.executors(getConfig()).getTaskMetrics().snapshot();
+    }
+
     /**
      * Getter for retrieving all the Display Units.
      *
@@ -1490,20 +1531,12 @@ public class CleverTapAPI implements CTInboxActivity.InboxActivityListener {
     @SuppressWarnings({"unused", "WeakerAccess"})
     public ArrayList<CTInboxMessage> getAllInboxMessages() {
         Logger.d("CleverTapAPI:getAllInboxMessages: called" );
-        ArrayList<CTInboxMessage> inboxMessageArrayList = new ArrayList<>();
-        synchronized (coreState.getCTLockManager().getInboxControllerLock()) {
-            if (coreState.getControllerManager().getCTInboxController() != null) {
-                ArrayList<CTMessageDAO> messageDAOArrayList =
-                        coreState.getControllerManager().getCTInboxController().getMessages();
-                for (CTMessageDAO messageDAO : messageDAOArrayList) {
-                    Logger.v("CTMessage Dao - " + messageDAO.toJSON().toString());
-                    inboxMessageArrayList.add(new CTInboxMessage(messageDAO.toJSON()));
-                }
-                return inboxMessageArrayList;
-            } else {
-                getConfigLogger().debug(getAccountId(), "Notification Inbox not initialized");
-                return inboxMessageArrayList; //return empty list to avoid null pointer exceptions
-            }
+        CTInboxController inboxController = coreState.getControllerManager().getCTInboxController();
+        if (inboxController != null) {
+            return inboxController.getInboxMessages();
+        } else {
+            getConfigLogger().debug(getAccountId(), "Notification Inbox not initialized");
+            return new ArrayList<>(); //return empty list to avoid null pointer exceptions
         }
     }
 
@@ -1940,13 +1973,12 @@ public class CleverTapAPI implements CTInboxActivity.InboxActivityListener {
      */
     @SuppressWarnings({"unused", "WeakerAccess"})
     public int getInboxMessageCount() {
-        synchronized (coreState.getCTLockManager().getInboxControllerLock()) {
-            if (coreState.getControllerManager().getCTInboxController() != null) {
-                return coreState.getControllerManager().getCTInboxController().count();
-            } else {
-                getConfigLogger().debug(getAccountId(), "Notification Inbox not initialized");
-                return -1;
-            }
+        CTInboxController inboxController = coreState.getControllerManager().getCTInboxController();
+        if (inboxController != null) {
+            return inboxController.count();
+        } else {
+            getConfigLogger().debug(getAccountId(), "Notification Inbox not initialized");
+            return -1;
         }
     }
 
@@ -1959,15 +1991,32 @@ public class CleverTapAPI implements CTInboxActivity.InboxActivityListener {
     @SuppressWarnings({"unused", "WeakerAccess"})
     public CTInboxMessage getInboxMessageForId(String messageId) {
         Logger.d("CleverTapAPI:getInboxMessageForId() called with: messageId = [" + messageId + "]");
-        synchronized (coreState.getCTLockManager().getInboxControllerLock()) {
-            if (coreState.getControllerManager().getCTInboxController() != null) {
-                CTMessageDAO message = coreState.getControllerManager().getCTInboxController()
-                        .getMessageForId(messageId);
-                return (message != null) ? new CTInboxMessage(message.toJSON()) : null;
-            } else {
-                getConfigLogger().debug(getAccountId(), "Notification Inbox not initialized");
-                return null;
-            }
+        CTInboxController inboxController = coreState.getControllerManager().getCTInboxController();
+        if (inboxController != null) {
+            return inboxController.getInboxMessageForId(messageId);
+        } else {
+            getConfigLogger().debug(getAccountId(), "Notification Inbox not initialized");
+            return null;
+        }
+    }
+
+    /**
+     * Returns a page of {@link CTInboxMessage} objects, newest first. Pages are read from the
+     * database, so apps with large inboxes can show them without building every message.
+     * Pass {@link InboxPage#getNextCursor()} in the next request to continue with the following page.
+     *
+     * @param request {@link InboxPageRequest} - the page size, cursor and filters of the page
+     * @return {@link InboxPage} of inbox messages, empty if the inbox is not initialized
+     */
+    @SuppressWarnings({"unused"})
+    @WorkerThread
+    public InboxPage getInboxMessagesPage(InboxPageRequest request) {
+        CTInboxController inboxController = coreState.getControllerManager().getCTInboxController();
+        if (inboxController != null) {
+            return inboxController.getInboxMessagesPage(request);
+        } else {
+            getConfigLogger().debug(getAccountId(), "Notification Inbox not initialized");
+            return new InboxPage(new ArrayList<>(), null); //return empty page to avoid null pointer exceptions
         }
     }
 
@@ -1978,13 +2027,12 @@ public class CleverTapAPI implements CTInboxActivity.InboxActivityListener {
      */
     @SuppressWarnings({"unused"})
     public int getInboxMessageUnreadCount() {
-        synchronized (coreState.getCTLockManager().getInboxControllerLock()) {
-            if (coreState.getControllerManager().getCTInboxController() != null) {
-                return coreState.getControllerManager().getCTInboxController().unreadCount();
-            } else {
-                getConfigLogger().debug(getAccountId(), "Notification Inbox not initialized");
-                return -1;
-            }
+        CTInboxController inboxController = coreState.getControllerManager().getCTInboxController();
+        if (inboxController != null) {
+            return inboxController.unreadCount();
+        } else {
+            getConfigLogger().debug(getAccountId(), "Notification Inbox not initialized");
+            return -1;
         }
     }
 
@@ -2229,19 +2277,12 @@ public class CleverTapAPI implements CTInboxActivity.InboxActivityListener {
      */
     @SuppressWarnings({"unused"})
     public ArrayList<CTInboxMessage> getUnreadInboxMessages() {
-        ArrayList<CTInboxMessage> inboxMessageArrayList = new ArrayList<>();
-        synchronized (coreState.getCTLockManager().getInboxControllerLock()) {
-            if (coreState.getControllerManager().getCTInboxController() != null) {
-                ArrayList<CTMessageDAO> messageDAOArrayList =
-                        coreState.getControllerManager().getCTInboxController().getUnreadMessages();
-                for (CTMessageDAO messageDAO : messageDAOArrayList) {
-                    inboxMessageArrayList.add(new CTInboxMessage(messageDAO.toJSON()));
-                }
-                return inboxMessageArrayList;
-            } else {
-                getConfigLogger().debug(getAccountId(), "Notification Inbox not initialized");
-                return inboxMessageArrayList; //return empty list to avoid null pointer exceptions
-            }
+        CTInboxController inboxController = coreState.getControllerManager().getCTInboxController();
+        if (inboxController != null) {
+            return inboxController.getUnreadInboxMessages();
+        } else {
+            getConfigLogger().debug(getAccountId(), "Notification Inbox not initialized");
+            return new ArrayList<>(); //return empty list to avoid null pointer exceptions
         }
     }
 
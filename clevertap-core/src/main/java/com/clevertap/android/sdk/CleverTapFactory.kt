@@ -31,6 +31,7 @@ import com.clevertap.android.sdk.inapp.evaluation.EvaluationManager
 import com.clevertap.android.sdk.inapp.evaluation.LimitsMatcher
 import com.clevertap.android.sdk.inapp.evaluation.TriggersMatcher
 import com.clevertap.android.sdk.inapp.images.FileResourceProvider
+import com.clevertap.android.sdk.inapp.images.ImageTargetSize
 import com.clevertap.android.sdk.inapp.pipsdk.PIPManager
 import com.clevertap.android.sdk.inbox.InboxDeleteCoordinator
 import com.clevertap.android.sdk.inbox.InboxV2Bridge
@@ -51,12 +52,14 @@ import com.clevertap.android.sdk.network.IJRepo
 import com.clevertap.android.sdk.network.NetworkEncryptionManager
 import com.clevertap.android.sdk.network.NetworkManager
 import com.clevertap.android.sdk.network.NetworkMonitor
+import com.clevertap.android.sdk.network.QueueBatchSizer
 import com.clevertap.android.sdk.network.fetch.FetchThrottle
 import com.clevertap.android.sdk.network.fetch.InboxFetchCall
 import com.clevertap.android.sdk.network.fetch.NetworkScope
 import com.clevertap.android.sdk.network.NetworkRepo
 import com.clevertap.android.sdk.network.QueueHeaderBuilder
 import com.clevertap.android.sdk.network.api.CtApiWrapper
+import com.clevertap.android.sdk.profile.PiiCipherCache
 import com.clevertap.android.sdk.profile.ProfileStateTraverser
 import com.clevertap.android.sdk.pushnotification.PushProviders
 import com.clevertap.android.sdk.pushnotification.work.CTWorkManager
@@ -86,6 +89,7 @@ import com.clevertap.android.sdk.variables.CTVariables
 import com.clevertap.android.sdk.variables.Parser
 import com.clevertap.android.sdk.variables.VarCache
 import com.clevertap.android.sdk.variables.repo.VariablesRepo
+import java.util.concurrent.Executor
 
 internal object CleverTapFactory {
     @JvmStatic
@@ -156,6 +160,8 @@ internal object CleverTapFactory {
 
         val databaseName = DBAdapter.getDatabaseName(config)
 
+        val piiCipherCache = PiiCipherCache(cryptHandler)
+
         val databaseManager = DBManager(
             accountId = config.accountId,
             logger = config.logger,
@@ -164,7 +170,14 @@ internal object CleverTapFactory {
             ijRepo = ijRepo,
             dbEncryptionHandler = dbEncryptionHandler,
             clearFirstRequestTs = networkRepo::clearFirstRequestTs,
-            clearLastRequestTs = networkRepo::clearLastRequestTs
+            clearLastRequestTs = networkRepo::clearLastRequestTs,
+            clearPiiCipherCache = piiCipherCache::clear,
+            eventGroupCommitEnabled = config.isEventGroupCommitEnabled,
+            scheduleCommit = { delayMs, commit ->
+                mainLooperHandler.postDelayed({
+                    executors.postAsyncSafelyTask<Unit>().execute("commitPendingEvents") { commit.run() }
+                }, delayMs)
+            }
         )
 
         val task = executors.postAsyncSafelyTask<Unit>()
@@ -207,7 +220,7 @@ internal object CleverTapFactory {
         val nestedJsonBuilder = NestedJsonBuilder()
 
         val localDataStore =
-            LocalDataStore(context, config, cryptHandler, deviceInfo, databaseManager, profileStateTraverser, nestedJsonBuilder)
+            LocalDataStore(context, config, cryptHandler, deviceInfo, databaseManager, profileStateTraverser, nestedJsonBuilder, piiCipherCache)
 
         val eventMediator =
             EventMediator(config, coreMetaData, networkRepo)
@@ -414,7 +427,19 @@ internal object CleverTapFactory {
             arpResponse = arpResponse,
             networkRepo = networkRepo,
             queueHeaderBuilder = queueHeaderBuilder,
-            cleverTapResponseHandler = responseHandler
+            cleverTapResponseHandler = responseHandler,
+            pipelinedFlush = config.isPipelinedFlushEnabled,
+            batchSizer = QueueBatchSizer(config.isAdaptiveBatchSizeEnabled) {
+                networkMonitor.isUnmeteredConnection()
+            },
+            responseExecutor = if (config.isNetworkLaneEnabled) {
+                Executor { command ->
+                    CTExecutorFactory.executors(config).postAsyncSafelyTask<Unit>()
+                        .execute("processResponse") { command.run() }
+                }
+            } else {
+                null
+            }
         )
 
         val loginInfoProvider = LoginInfoProvider(
@@ -481,7 +506,8 @@ internal object CleverTapFactory {
             storeRegistry,
             templatesManager,
             executors,
-            { FileResourceProvider.initInstance(context, config.logger, networkMonitor) }
+            { FileResourceProvider.initInstance(context, config.logger, networkMonitor) },
+            imageTargetSize = { ImageTargetSize.forDisplay(context) }
         )
 
         networkManager.addNetworkHeadersListener(evaluationManager)
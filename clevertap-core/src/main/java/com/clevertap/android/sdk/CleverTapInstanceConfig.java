@@ -66,6 +66,12 @@ public class CleverTapInstanceConfig implements Parcelable {
     private boolean useGoogleAdId;
     private int encryptionLevel;
     private String encryptionInTransit;
+    private boolean eventGroupCommit;
+    private boolean gzipRequests;
+    private boolean pipelinedFlush;
+    private boolean adaptiveBatchSize;
+    private boolean userEventLogWriteBehind;
+    private boolean networkLane;
 
     /**
      * Creates a CleverTapInstanceConfig with meta data from manifest file
@@ -176,6 +182,12 @@ public class CleverTapInstanceConfig implements Parcelable {
             addPushType(pushType);
         }
         this.encryptionInTransit = config.encryptionInTransit;
+        this.eventGroupCommit = config.eventGroupCommit;
+        this.gzipRequests = config.gzipRequests;
+        this.pipelinedFlush = config.pipelinedFlush;
+        this.adaptiveBatchSize = config.adaptiveBatchSize;
+        this.userEventLogWriteBehind = config.userEventLogWriteBehind;
+        this.networkLane = config.networkLane;
     }
 
     private CleverTapInstanceConfig(
@@ -322,6 +334,12 @@ public class CleverTapInstanceConfig implements Parcelable {
                 }
             }
             this.encryptionInTransit = configJsonObject.optString(KEY_ENCRYPTION_IN_TRANSIT, "0");
+            this.eventGroupCommit = configJsonObject.optBoolean(KEY_EVENT_GROUP_COMMIT, false);
+            this.gzipRequests = configJsonObject.optBoolean(KEY_GZIP_REQUESTS, false);
+            this.pipelinedFlush = configJsonObject.optBoolean(KEY_PIPELINED_FLUSH, false);
+            this.adaptiveBatchSize = configJsonObject.optBoolean(KEY_ADAPTIVE_BATCH_SIZE, false);
+            this.userEventLogWriteBehind = configJsonObject.optBoolean(KEY_USER_EVENT_LOG_WRITE_BEHIND, false);
+            this.networkLane = configJsonObject.optBoolean(KEY_NETWORK_LANE, false);
         } catch (Throwable t) {
             Logger.v("Error constructing CleverTapInstanceConfig from JSON: " + jsonString + ": ", t.getCause());
             throw (t);
@@ -352,6 +370,12 @@ public class CleverTapInstanceConfig implements Parcelable {
         identityKeys = in.createStringArray();
         encryptionLevel = in.readInt();
         encryptionInTransit = in.readString();
+        eventGroupCommit = in.readByte() != 0x00;
+        gzipRequests = in.readByte() != 0x00;
+        pipelinedFlush = in.readByte() != 0x00;
+        adaptiveBatchSize = in.readByte() != 0x00;
+        userEventLogWriteBehind = in.readByte() != 0x00;
+        networkLane = in.readByte() != 0x00;
         try {
             JSONArray allowedTypesJsonArray = new JSONArray(in.readString());
             for (int i = 0; i < allowedTypesJsonArray.length(); i++) {
@@ -528,6 +552,12 @@ public class CleverTapInstanceConfig implements Parcelable {
         dest.writeStringArray(identityKeys);
         dest.writeInt(encryptionLevel);
         dest.writeString(encryptionInTransit);
+        dest.writeByte((byte) (eventGroupCommit ? 0x01 : 0x00));
+        dest.writeByte((byte) (gzipRequests ? 0x01 : 0x00));
+        dest.writeByte((byte) (pipelinedFlush ? 0x01 : 0x00));
+        dest.writeByte((byte) (adaptiveBatchSize ? 0x01 : 0x00));
+        dest.writeByte((byte) (userEventLogWriteBehind ? 0x01 : 0x00));
+        dest.writeByte((byte) (networkLane ? 0x01 : 0x00));
         String allowTypesString = getPushTypesArray().toString();
         dest.writeString(allowTypesString);
     }
@@ -599,6 +629,100 @@ public class CleverTapInstanceConfig implements Parcelable {
         }
     }
 
+    /**
+     * Enables group commit for queued events. When enabled, events are staged in memory and written to
+     * the database in a single transaction once enough events are pending, when the queue is flushed or
+     * when the app goes to background, instead of one insert per event.
+     *
+     * @param eventGroupCommit true to batch event inserts, false to insert every event immediately
+     */
+    @SuppressWarnings({"unused"})
+    public void setEventGroupCommitEnabled(boolean eventGroupCommit) {
+        this.eventGroupCommit = eventGroupCommit;
+    }
+
+    public boolean isEventGroupCommitEnabled() {
+        return eventGroupCommit;
+    }
+
+    /**
+     * Enables gzip compression of event request bodies. Compressed requests are sent with a
+     * <code>Content-Encoding: gzip</code> header. Requests encrypted in transit are not compressed.
+     *
+     * @param gzipRequests true to gzip request bodies, false to send them uncompressed
+     */
+    @SuppressWarnings({"unused"})
+    public void setGzipRequestsEnabled(boolean gzipRequests) {
+        this.gzipRequests = gzipRequests;
+    }
+
+    public boolean isGzipRequestsEnabled() {
+        return gzipRequests;
+    }
+
+    /**
+     * Enables reading the next batch of queued events from the database while the current batch
+     * is being sent. Disabled by default.
+     *
+     * @param pipelinedFlush true to prepare the next batch while the current one is in flight
+     */
+    @SuppressWarnings({"unused"})
+    public void setPipelinedFlushEnabled(boolean pipelinedFlush) {
+        this.pipelinedFlush = pipelinedFlush;
+    }
+
+    public boolean isPipelinedFlushEnabled() {
+        return pipelinedFlush;
+    }
+
+    /**
+     * Selects the adaptive batch size policy for sending queued events. Batches grow on unmetered
+     * connections while a backlog is being drained and shrink after timeouts, 413 or 5xx
+     * responses. When disabled, the default, every batch has 50 events.
+     *
+     * @param adaptiveBatchSize true for adaptive batch sizes, false for fixed batches of 50 events
+     */
+    @SuppressWarnings({"unused"})
+    public void setAdaptiveBatchSizeEnabled(boolean adaptiveBatchSize) {
+        this.adaptiveBatchSize = adaptiveBatchSize;
+    }
+
+    public boolean isAdaptiveBatchSizeEnabled() {
+        return adaptiveBatchSize;
+    }
+
+    /**
+     * Enables counting raised events for the user event logs in memory and writing them to the
+     * database in batches. Reads include the pending counts. Counts of the last couple of seconds
+     * can be lost if the process is killed before they are written. Disabled by default.
+     *
+     * @param userEventLogWriteBehind true to batch user event log writes
+     */
+    @SuppressWarnings({"unused"})
+    public void setUserEventLogWriteBehindEnabled(boolean userEventLogWriteBehind) {
+        this.userEventLogWriteBehind = userEventLogWriteBehind;
+    }
+
+    public boolean isUserEventLogWriteBehindEnabled() {
+        return userEventLogWriteBehind;
+    }
+
+    /**
+     * Sends queued events on a separate background thread so recording events never waits behind
+     * network requests. Responses are still processed on the thread that records events. Disabled by
+     * default.
+     *
+     * @param networkLane true to send queued events on their own thread
+     */
+    @SuppressWarnings({"unused"})
+    public void setNetworkLaneEnabled(boolean networkLane) {
+        this.networkLane = networkLane;
+    }
+
+    public boolean isNetworkLaneEnabled() {
+        return networkLane;
+    }
+
     //Keys used by the SDK
     private static final String KEY_ACCOUNT_ID = "accountId";
     private static final String KEY_ACCOUNT_TOKEN = "accountToken";
@@ -623,6 +747,12 @@ public class CleverTapInstanceConfig implements Parcelable {
     public static final String KEY_ENCRYPTION_LEVEL = "encryptionLevel";
     private static final String KEY_PUSH_TYPES = "allowedPushTypes";
     private static final String KEY_ENCRYPTION_IN_TRANSIT = "encryptionInTransit";
+    private static final String KEY_EVENT_GROUP_COMMIT = "eventGroupCommit";
+    private static final String KEY_GZIP_REQUESTS = "gzipRequests";
+    private static final String KEY_PIPELINED_FLUSH = "pipelinedFlush";
+    private static final String KEY_ADAPTIVE_BATCH_SIZE = "adaptiveBatchSize";
+    private static final String KEY_USER_EVENT_LOG_WRITE_BEHIND = "userEventLogWriteBehind";
+    private static final String KEY_NETWORK_LANE = "networkLane";
     String toJSONString() {
         JSONObject configJsonObject = new JSONObject();
         try {
@@ -647,6 +777,12 @@ public class CleverTapInstanceConfig implements Parcelable {
             configJsonObject.put(KEY_BETA, isBeta());
             configJsonObject.put(KEY_ENCRYPTION_LEVEL , getEncryptionLevel());
             configJsonObject.put(KEY_ENCRYPTION_IN_TRANSIT , encryptionInTransit);
+            configJsonObject.put(KEY_EVENT_GROUP_COMMIT, isEventGroupCommitEnabled());
+            configJsonObject.put(KEY_GZIP_REQUESTS, isGzipRequestsEnabled());
+            configJsonObject.put(KEY_PIPELINED_FLUSH, isPipelinedFlushEnabled());
+            configJsonObject.put(KEY_ADAPTIVE_BATCH_SIZE, isAdaptiveBatchSizeEnabled());
+            configJsonObject.put(KEY_USER_EVENT_LOG_WRITE_BEHIND, isUserEventLogWriteBehindEnabled());
+            configJsonObject.put(KEY_NETWORK_LANE, isNetworkLaneEnabled());
             JSONArray pushTypesArray = getPushTypesArray();
             configJsonObject.put(KEY_PUSH_TYPES, pushTypesArray);
 
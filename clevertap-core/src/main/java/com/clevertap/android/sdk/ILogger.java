@@ -1,6 +1,33 @@
 package com.clevertap.android.sdk;
 
+/**
+ * Lazy variants taking a {@link MessageSupplier} only build the message when it is logged, use them
+ * where building the message is costly, e.g. serialising an event or a response.
+ */
 public interface ILogger {
+
+    /**
+     * Builds a log message on demand
+     */
+    interface MessageSupplier {
+
+        String get();
+    }
+
+    /**
+     * Loggers implemented before the lazy variants existed log everything they are given
+     */
+    default boolean isDebugEnabled() {
+        return true;
+    }
+
+    /**
+     * @see #isDebugEnabled()
+     */
+    default boolean isVerboseEnabled() {
+        return true;
+    }
+
     void debug(String message);
 
     void debug(String suffix, String message);
@@ -28,4 +55,40 @@ public interface ILogger {
     void verbose(String suffix, String message, Throwable t);
 
     void verbose(String message, Throwable t);
+
+    default void debug(MessageSupplier message) {
+        if (isDebugEnabled()) {
+            debug(message.get());
+        }
+    }
+
+    default void debug(String suffix, MessageSupplier message) {
+        if (isDebugEnabled()) {
+            debug(suffix, message.get());
+        }
+    }
+
+    default void verbose(MessageSupplier message) {
+        if (isVerboseEnabled()) {
+            verbose(message.get());
+        }
+    }
+
+    default void verbose(MessageSupplier message, Throwable t) {
+        if (isVerboseEnabled()) {
+            verbose(message.get(), t);
+        }
+    }
+
+    default void verbose(String suffix, MessageSupplier message) {
+        if (isVerboseEnabled()) {
+            verbose(suffix, message.get());
+        }
+    }
+
+    default void verbose(String suffix, MessageSupplier message, Throwable t) {
+        if (isVerboseEnabled()) {
+            verbose(suffix, message.get(), t);
+        }
+    }
 }
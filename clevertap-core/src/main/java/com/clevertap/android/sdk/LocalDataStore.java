@@ -1,6 +1,5 @@
 package com.clevertap.android.sdk;
 
-import static com.clevertap.android.sdk.Constants.GET_MARKER;
 import static com.clevertap.android.sdk.Constants.piiDBKeys;
 
 import static java.util.Collections.emptyMap;
@@ -9,6 +8,7 @@ import android.annotation.SuppressLint;
 import android.content.Context;
 import android.content.SharedPreferences;
 
+import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 import androidx.annotation.RestrictTo.Scope;
 import androidx.annotation.WorkerThread;
@@ -18,10 +18,15 @@ import com.clevertap.android.sdk.cryption.ICryptHandler;
 import com.clevertap.android.sdk.db.BaseDatabaseManager;
 import com.clevertap.android.sdk.db.DBAdapter;
 import com.clevertap.android.sdk.events.EventDetail;
+import com.clevertap.android.sdk.profile.PiiCipherCache;
+import com.clevertap.android.sdk.profile.ProfileSnapshot;
 import com.clevertap.android.sdk.profile.ProfileStateTraverser;
 import com.clevertap.android.sdk.profile.traversal.ProfileOperation;
 import com.clevertap.android.sdk.profile.traversal.ProfileChange;
+import com.clevertap.android.sdk.task.CTExecutorFactory;
+import com.clevertap.android.sdk.task.TaskMetricsRecorder;
 import com.clevertap.android.sdk.usereventlogs.UserEventLog;
+import com.clevertap.android.sdk.usereventlogs.UserEventLogWriteBuffer;
 import com.clevertap.android.sdk.utils.NestedJsonBuilder;
 
 import org.json.JSONArray;
@@ -38,6 +43,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import kotlin.Pair;
 import kotlin.collections.CollectionsKt;
@@ -47,10 +53,15 @@ import kotlin.collections.MapsKt;
 @RestrictTo(Scope.LIBRARY)
 public class LocalDataStore {
 
+    private static final String METRICS_EXECUTOR_NAME = "LocalDataStore";
+
     private static long EXECUTOR_THREAD_ID = 0;
 
     private final JSONObject PROFILE_FIELDS_IN_THIS_SESSION = new JSONObject();
 
+    // copy of PROFILE_FIELDS_IN_THIS_SESSION for lock-free reads, replaced after every change
+    private volatile ProfileSnapshot profileSnapshot = ProfileSnapshot.EMPTY;
+
     private final CleverTapInstanceConfig config;
 
     private final Context context;
@@ -69,7 +80,19 @@ public class LocalDataStore {
     private final ProfileStateTraverser profileStateTraverser;
     private final NestedJsonBuilder nestedJsonBuilder;
 
+    private final PiiCipherCache piiCipherCache;
+
+    // true while a profile write is queued, later changes are picked up by that write
+    private final AtomicBoolean profileWritePending = new AtomicBoolean(false);
+
+    @Nullable
+    private final UserEventLogWriteBuffer userEventLogWriteBuffer;
+
     LocalDataStore(Context context, CleverTapInstanceConfig config, ICryptHandler cryptHandler, DeviceInfo deviceInfo, BaseDatabaseManager baseDatabaseManager, ProfileStateTraverser profileStateTraverser, NestedJsonBuilder nestedJsonBuilder) {
+        this(context, config, cryptHandler, deviceInfo, baseDatabaseManager, profileStateTraverser, nestedJsonBuilder, new PiiCipherCache(cryptHandler));
+    }
+
+    LocalDataStore(Context context, CleverTapInstanceConfig config, ICryptHandler cryptHandler, DeviceInfo deviceInfo, BaseDatabaseManager baseDatabaseManager, ProfileStateTraverser profileStateTraverser, NestedJsonBuilder nestedJsonBuilder, PiiCipherCache piiCipherCache) {
         this.context = context;
         this.config = config;
         this.es = Executors.newFixedThreadPool(1);
@@ -78,11 +101,18 @@ public class LocalDataStore {
         this.baseDatabaseManager = baseDatabaseManager;
         this.profileStateTraverser = profileStateTraverser;
         this.nestedJsonBuilder = nestedJsonBuilder;
+        this.piiCipherCache = piiCipherCache;
+        this.userEventLogWriteBuffer = config.isUserEventLogWriteBehindEnabled() ? new UserEventLogWriteBuffer() : null;
     }
 
     @WorkerThread
     public void changeUser() {
+        flushUserEventLogs();
+        if (userEventLogWriteBuffer != null) {
+            userEventLogWriteBuffer.invalidate();
+        }
         userNormalizedEventLogKeys.clear();
+        piiCipherCache.clear();
         resetLocalProfileSync();
     }
 
@@ -154,6 +184,10 @@ public class LocalDataStore {
     }
     @WorkerThread
     public boolean persistUserEventLogsInBulk(Set<String> eventNames){
+        flushUserEventLogs();
+        if (userEventLogWriteBuffer != null) {
+            userEventLogWriteBuffer.invalidate();
+        }
         Set<Pair<String, String>> setOfActualAndNormalizedEventNamePair = new HashSet<>();
         CollectionsKt.mapTo(eventNames, setOfActualAndNormalizedEventNamePair,
                 (actualEventName) -> new Pair<>(actualEventName, getOrPutNormalizedEventName(actualEventName)));
@@ -171,6 +205,14 @@ public class LocalDataStore {
         String accountId = config.getAccountId();
         try {
             logger.verbose(accountId,"UserEventLog: Persisting EventLog for event "+eventName);
+            if (userEventLogWriteBuffer != null) {
+                String deviceID = deviceInfo.getDeviceID();
+                String normalizedEventName = getOrPutNormalizedEventName(eventName);
+                if (userEventLogWriteBuffer.record(deviceID, eventName, normalizedEventName)) {
+                    return flushUserEventLogs();
+                }
+                return true;
+            }
             if (isUserEventLogExists(eventName)){
                 logger.verbose(accountId,"UserEventLog: Updating EventLog for event "+eventName);
                 return updateUserEventLog(eventName);
@@ -212,6 +254,44 @@ public class LocalDataStore {
         }
     }
 
+    /**
+     * Writes the user event logs counted by the write-behind cache to the database in one transaction.
+     * No-op when the write-behind cache is disabled.
+     *
+     * @return false if writing failed
+     */
+    @WorkerThread
+    public boolean flushUserEventLogs() {
+        if (userEventLogWriteBuffer == null) {
+            return true;
+        }
+        // hold the buffer so reads don't miss logs that are drained but not written yet
+        synchronized (userEventLogWriteBuffer) {
+            List<UserEventLog> logs = userEventLogWriteBuffer.drain();
+            if (logs.isEmpty()) {
+                return true;
+            }
+            boolean upserted = false;
+            try {
+                DBAdapter dbAdapter = baseDatabaseManager.loadDBAdapter(context);
+                upserted = dbAdapter.userEventLogDAO().upsertEventLogs(logs);
+            } catch (Throwable t) {
+                getConfigLogger().verbose(getConfigAccountId(), "UserEventLog: failed to flush EventLogs", t);
+            } finally {
+                if (!upserted) {
+                    // the upsert is one transaction, none of the logs were written
+                    int dropped = userEventLogWriteBuffer.restage(logs);
+                    if (dropped > 0) {
+                        getConfigLogger().verbose(getConfigAccountId(),
+                                "UserEventLog: dropped " + dropped + " EventLogs which could not be flushed");
+                    }
+                }
+            }
+            getConfigLogger().verbose("UserEventLog: flushed " + logs.size() + " EventLogs = " + upserted);
+            return upserted;
+        }
+    }
+
     @WorkerThread
     private boolean updateEventByDeviceIdAndNormalizedEventName(String deviceID, String normalizedEventName) {
         DBAdapter dbAdapter = baseDatabaseManager.loadDBAdapter(context);
@@ -222,6 +302,7 @@ public class LocalDataStore {
 
     @WorkerThread
     public boolean updateUserEventLog(String eventName) {
+        flushUserEventLogs();
         String deviceID = deviceInfo.getDeviceID();
         String normalizedEventName = getOrPutNormalizedEventName(eventName);
         return updateEventByDeviceIdAndNormalizedEventName(deviceID, normalizedEventName);
@@ -252,6 +333,7 @@ public class LocalDataStore {
 
     @WorkerThread
     public boolean insertUserEventLog(String eventName) {
+        flushUserEventLogs();
         String deviceID = deviceInfo.getDeviceID();
         String normalizedEventName = getOrPutNormalizedEventName(eventName);
         long rowId = insertEvent(deviceID, eventName, normalizedEventName);
@@ -268,6 +350,7 @@ public class LocalDataStore {
 
     @WorkerThread
     public boolean isUserEventLogExists(String eventName) {
+        flushUserEventLogs();
         String deviceID = deviceInfo.getDeviceID();
         String normalizedEventName = getOrPutNormalizedEventName(eventName);
         return eventExistsByDeviceIdAndNormalizedEventName(deviceID, normalizedEventName);
@@ -300,6 +383,10 @@ public class LocalDataStore {
 
     @WorkerThread
     public boolean cleanUpExtraEvents(int threshold, int numberOfRowsToCleanup){
+        flushUserEventLogs();
+        if (userEventLogWriteBuffer != null) {
+            userEventLogWriteBuffer.invalidate();
+        }
         DBAdapter dbAdapter = baseDatabaseManager.loadDBAdapter(context);
         boolean cleanUpExtraEvents = dbAdapter.userEventLogDAO().cleanUpExtraEvents(threshold, numberOfRowsToCleanup);
         getConfigLogger().verbose("cleanUpExtraEvents boolean= "+cleanUpExtraEvents);
@@ -308,6 +395,15 @@ public class LocalDataStore {
 
     @WorkerThread
     private UserEventLog readEventByDeviceIdAndNormalizedEventName(String deviceID, String normalizedEventName) {
+        if (userEventLogWriteBuffer != null) {
+            return userEventLogWriteBuffer.read(deviceID, normalizedEventName,
+                    () -> readPersistedEventByDeviceIdAndNormalizedEventName(deviceID, normalizedEventName));
+        }
+        return readPersistedEventByDeviceIdAndNormalizedEventName(deviceID, normalizedEventName);
+    }
+
+    @WorkerThread
+    private UserEventLog readPersistedEventByDeviceIdAndNormalizedEventName(String deviceID, String normalizedEventName) {
         DBAdapter dbAdapter = baseDatabaseManager.loadDBAdapter(context);
         return dbAdapter.userEventLogDAO().readEventByDeviceIdAndNormalizedEventName(deviceID, normalizedEventName);
     }
@@ -321,6 +417,10 @@ public class LocalDataStore {
 
     @WorkerThread
     private int readEventCountByDeviceIdAndNormalizedEventName(String deviceID, String normalizedEventName) {
+        if (userEventLogWriteBuffer != null) {
+            UserEventLog log = readEventByDeviceIdAndNormalizedEventName(deviceID, normalizedEventName);
+            return log != null ? log.getCountOfEvents() : 0;
+        }
         DBAdapter dbAdapter = baseDatabaseManager.loadDBAdapter(context);
         return dbAdapter.userEventLogDAO().readEventCountByDeviceIdAndNormalizedEventName(deviceID, normalizedEventName);
     }
@@ -334,6 +434,7 @@ public class LocalDataStore {
 
     @WorkerThread
     private List<UserEventLog> allEventsByDeviceID(String deviceID) {
+        flushUserEventLogs();
         DBAdapter dbAdapter = baseDatabaseManager.loadDBAdapter(context);
         return dbAdapter.userEventLogDAO().allEventsByDeviceID(deviceID);
     }
@@ -346,6 +447,7 @@ public class LocalDataStore {
 
     @WorkerThread
     public List<UserEventLog> readEventLogsForAllUsers() {
+        flushUserEventLogs();
         DBAdapter dbAdapter = baseDatabaseManager.loadDBAdapter(context);
         return dbAdapter.userEventLogDAO().allEvents();
     }
@@ -399,25 +501,20 @@ public class LocalDataStore {
     }
 
     public JSONObject getProfile() {
-        try {
-            synchronized (PROFILE_FIELDS_IN_THIS_SESSION) {
-                return new JSONObject(PROFILE_FIELDS_IN_THIS_SESSION.toString());
-            }
-        } catch (JSONException e) {
-            // Handle exception or return empty object
-            return new JSONObject();
-        }
+        return profileSnapshot.toJSONObject();
     }
 
+    /**
+     * Reads a profile property from the last published profile snapshot, without locking.
+     *
+     * @param key dot notation path of the property, e.g. "address.city" or "items[0]"
+     * @return the value of the property or null when it is not set
+     */
     public Object getProfileProperty(String key) {
         if (key == null) {
             return null;
         }
-
-        synchronized (PROFILE_FIELDS_IN_THIS_SESSION) {
-            ProfileChange profileChange = processProfileTree(key, GET_MARKER, ProfileOperation.GET).get(key);
-            return profileChange == null ? null : profileChange.getOldValue();
-        }
+        return profileSnapshot.get(key);
     }
 
     /**
@@ -524,6 +621,7 @@ public class LocalDataStore {
                             }
                         }
 
+                        publishProfileSnapshot();
                         getConfigLogger().verbose(getConfigAccountId(),
                                 "Local Data Store - Inflated local profile " + PROFILE_FIELDS_IN_THIS_SESSION);
 
@@ -575,12 +673,19 @@ public class LocalDataStore {
     }
 
     private void persistLocalProfileAsync() {
+        if (!profileWritePending.compareAndSet(false, true)) {
+            getConfigLogger().verbose(getConfigAccountId(),
+                    "Local Data Store - Profile write already queued, coalescing changes");
+            return;
+        }
+
         final String profileID = this.config.getAccountId();
 
         this.postAsyncSafely("LocalDataStore#persistLocalProfileAsync", new Runnable() {
             @Override
             public void run() {
                 synchronized (PROFILE_FIELDS_IN_THIS_SESSION) {
+                    profileWritePending.set(false);
                     JSONObject profile = new JSONObject();
                     boolean encryptionFailed = false;
 
@@ -595,7 +700,7 @@ public class LocalDataStore {
                         getConfigLogger().verbose(getConfigAccountId(), "Failed to copy profile fields", e);
                     }
 
-                    // Encrypts only the pii keys before storing to DB
+                    // Encrypts only the pii keys before storing to DB, unchanged values reuse their cipher text
                     boolean isMediumEncryption = EncryptionLevel.fromInt(config.getEncryptionLevel()) == EncryptionLevel.MEDIUM;
                     for (String piiKey : piiDBKeys) {
                         try {
@@ -603,7 +708,7 @@ public class LocalDataStore {
                                 Object value = profile.opt(piiKey);
                                 if (value instanceof String) {
                                     if (isMediumEncryption) {
-                                        value = cryptHandler.encryptSafe((String) value);
+                                        value = piiCipherCache.encrypt((String) value);
                                         if (value == null) {
                                             encryptionFailed = true;
                                             // Don't update profile with null, keep original
@@ -634,28 +739,42 @@ public class LocalDataStore {
     }
 
     private void postAsyncSafely(final String name, final Runnable runnable) {
+        TaskMetricsRecorder metrics = null;
+        long enqueuedAt = TaskMetricsRecorder.NOT_RECORDED;
         try {
             final boolean executeSync = Thread.currentThread().getId() == EXECUTOR_THREAD_ID;
 
             if (executeSync) {
                 runnable.run();
             } else {
+                metrics = CTExecutorFactory.executors(config).getTaskMetrics();
+                final TaskMetricsRecorder taskMetrics = metrics;
+                final long taskEnqueuedAt = metrics.onEnqueued(METRICS_EXECUTOR_NAME);
+                enqueuedAt = taskEnqueuedAt;
                 es.submit(new Runnable() {
                     @Override
                     public void run() {
                         EXECUTOR_THREAD_ID = Thread.currentThread().getId();
+                        final long startedAt = taskMetrics.onStarted(METRICS_EXECUTOR_NAME, taskEnqueuedAt);
+                        boolean failed = false;
                         try {
                             getConfigLogger().verbose(getConfigAccountId(),
                                     "Local Data Store Executor service: Starting task - " + name);
                             runnable.run();
                         } catch (Throwable t) {
+                            failed = true;
                             getConfigLogger().verbose(getConfigAccountId(),
                                     "Executor service: Failed to complete the scheduled task", t);
+                        } finally {
+                            taskMetrics.onFinished(METRICS_EXECUTOR_NAME, name, taskEnqueuedAt, startedAt, failed);
                         }
                     }
                 });
             }
         } catch (Throwable t) {
+            if (metrics != null) {
+                metrics.onRejected(METRICS_EXECUTOR_NAME, name, enqueuedAt);
+            }
             getConfigLogger().verbose(getConfigAccountId(), "Failed to submit task to the executor service", t);
         }
     }
@@ -695,12 +814,20 @@ public class LocalDataStore {
             for (String key : keysToRemove) {
                 PROFILE_FIELDS_IN_THIS_SESSION.remove(key);
             }
+            publishProfileSnapshot();
         }
 
         // Load the older profile from cache into the db
         inflateLocalProfileAsync(context);
     }
 
+    /**
+     * Must be called holding the PROFILE_FIELDS_IN_THIS_SESSION lock after changing it.
+     */
+    private void publishProfileSnapshot() {
+        profileSnapshot = ProfileSnapshot.of(PROFILE_FIELDS_IN_THIS_SESSION, profileSnapshot.getVersion() + 1);
+    }
+
     private String storageKeyWithSuffix(String key) {
         return key + ":" + this.config.getAccountId();
     }
@@ -736,7 +863,8 @@ public class LocalDataStore {
                     operation
             );
 
-            if (operation != ProfileOperation.GET) {
+            if (operation != ProfileOperation.GET && !result.getChanges().isEmpty()) {
+                publishProfileSnapshot();
                 persistLocalProfileAsync();
             }
 
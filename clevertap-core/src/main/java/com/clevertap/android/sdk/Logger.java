@@ -37,6 +37,12 @@ public final class Logger implements ILogger {
         }
     }
 
+    public static void d(String suffix, MessageSupplier message) {
+        if (getStaticDebugLevel() > CleverTapAPI.LogLevel.INFO.intValue()) {
+            Log.d(Constants.CLEVERTAP_LOG_TAG + ":" + suffix, message.get());
+        }
+    }
+
     /**
      * Logs to Info if the debug level is greater than or equal to 1.
      */
@@ -94,6 +100,40 @@ public final class Logger implements ILogger {
         }
     }
 
+    public static void v(MessageSupplier message) {
+        if (getStaticDebugLevel() > CleverTapAPI.LogLevel.DEBUG.intValue()) {
+            Log.v(Constants.CLEVERTAP_LOG_TAG, message.get());
+        }
+    }
+
+    public static void v(String suffix, MessageSupplier message) {
+        if (getStaticDebugLevel() > CleverTapAPI.LogLevel.DEBUG.intValue()) {
+            Log.v(Constants.CLEVERTAP_LOG_TAG + ":" + suffix, message.get());
+        }
+    }
+
+    public static void v(MessageSupplier message, Throwable t) {
+        if (getStaticDebugLevel() > CleverTapAPI.LogLevel.DEBUG.intValue()) {
+            Log.v(Constants.CLEVERTAP_LOG_TAG, message.get(), t);
+        }
+    }
+
+    /**
+     * @return true when messages logged with {@link #debug(String)} are printed
+     */
+    @Override
+    public boolean isDebugEnabled() {
+        return getStaticDebugLevel() > CleverTapAPI.LogLevel.INFO.intValue();
+    }
+
+    /**
+     * @return true when messages logged with {@link #verbose(String)} are printed
+     */
+    @Override
+    public boolean isVerboseEnabled() {
+        return getStaticDebugLevel() > CleverTapAPI.LogLevel.DEBUG.intValue();
+    }
+
     @Override
     public void debug(String message) {
         if (getStaticDebugLevel() > CleverTapAPI.LogLevel.INFO.intValue()) {
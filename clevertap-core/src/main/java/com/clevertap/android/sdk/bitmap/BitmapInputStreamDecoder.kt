@@ -33,7 +33,7 @@ open class BitmapInputStreamDecoder(
         while (inputStream.read(bufferForHttpInputStream).also { bytesRead = it } != -1) {
             totalBytesRead += bytesRead
             finalDataFromHttpInputStream.write(bufferForHttpInputStream, 0, bytesRead)
-            logger?.verbose("Downloaded $totalBytesRead bytes")
+            logger?.verbose { "Downloaded $totalBytesRead bytes" }
         }
         logger?.verbose("Total download size for bitmap = $totalBytesRead")
 
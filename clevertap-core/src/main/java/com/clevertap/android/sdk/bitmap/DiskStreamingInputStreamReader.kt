@@ -0,0 +1,37 @@
+package com.clevertap.android.sdk.bitmap
+
+import com.clevertap.android.sdk.Logger
+import com.clevertap.android.sdk.Utils
+import com.clevertap.android.sdk.network.DownloadedBitmap
+import com.clevertap.android.sdk.network.DownloadedBitmapFactory
+import java.io.File
+import java.io.InputStream
+import java.net.HttpURLConnection
+
+/**
+ * Streams the response body to a file instead of buffering it in memory.
+ *
+ * @param sink writes the stream to its destination and returns the written file. It receives the
+ * content length reported by the server, -1 if unknown, and should fail if the stream ends early.
+ */
+class DiskStreamingInputStreamReader(
+    private val sink: (source: InputStream, expectedLength: Long) -> File,
+    private val logger: Logger? = null
+) : IBitmapInputStreamReader {
+
+    override fun readInputStream(
+        inputStream: InputStream,
+        connection: HttpURLConnection,
+        downloadStartTimeInMilliseconds: Long
+    ): DownloadedBitmap {
+        logger?.verbose("streaming input stream to disk in DiskStreamingInputStreamReader....")
+
+        val file = sink(inputStream, connection.contentLength.toLong())
+        logger?.verbose("Total download size for file = ${file.length()}")
+
+        return DownloadedBitmapFactory.successFile(
+            downloadTime = Utils.getNowInMillis() - downloadStartTimeInMilliseconds,
+            file = file
+        )
+    }
+}
@@ -69,7 +69,8 @@ class GzipBitmapInputStreamReader(
         )
         return DownloadedBitmapFactory.successBitmap(
             bitmap = bitmap,
-            downloadTime = Utils.getNowInMillis() - downloadStartTimeInMilliseconds
+            downloadTime = Utils.getNowInMillis() - downloadStartTimeInMilliseconds,
+            data = if (saveBytes) dataReadFromStreamInByteArray else null
         )
     }
 }
\ No newline at end of file
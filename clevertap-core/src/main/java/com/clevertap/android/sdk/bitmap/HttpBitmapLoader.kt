@@ -7,6 +7,8 @@ import com.clevertap.android.sdk.bitmap.HttpBitmapLoader.HttpBitmapOperation.DOW
 import com.clevertap.android.sdk.bitmap.HttpBitmapLoader.HttpBitmapOperation.DOWNLOAD_SIZE_CONSTRAINED_GZIP_NOTIFICATION_BITMAP
 import com.clevertap.android.sdk.bitmap.HttpBitmapLoader.HttpBitmapOperation.DOWNLOAD_SIZE_CONSTRAINED_GZIP_NOTIFICATION_BITMAP_WITH_TIME_LIMIT
 import com.clevertap.android.sdk.network.DownloadedBitmap
+import java.io.File
+import java.io.InputStream
 
 
 object HttpBitmapLoader {
@@ -37,10 +39,28 @@ object HttpBitmapLoader {
         DOWNLOAD_SIZE_CONSTRAINED_GZIP_NOTIFICATION_BITMAP_WITH_TIME_LIMIT,
         DOWNLOAD_INAPP_BITMAP,
         DOWNLOAD_ANY_BITMAP,
+        DOWNLOAD_ANY_BITMAP_WITH_BYTES,
         DOWNLOAD_BYTES,
         DOWNLOAD_BYTES_WITH_TIME_LIMIT
     }
 
+    /**
+     * Downloads a file with the in-app connection params and streams the body to [sink] instead of
+     * reading it into memory. [DownloadedBitmap.file] holds the written file on success.
+     */
+    @JvmStatic
+    fun downloadToFile(
+        bitmapDownloadRequest: BitmapDownloadRequest,
+        sink: (source: InputStream, expectedLength: Long) -> File
+    ): DownloadedBitmap {
+        return BitmapDownloadRequestHandler(
+            bitmapDownloader = BitmapDownloader(
+                httpUrlConnectionParams = inAppStandardHttpUrlConnectionParams,
+                bitmapInputStreamReader = DiskStreamingInputStreamReader(sink)
+            )
+        ).handleRequest(bitmapDownloadRequest)
+    }
+
     @JvmStatic
     fun getHttpBitmap(
         bitmapOperation: HttpBitmapOperation,
@@ -115,6 +135,15 @@ object HttpBitmapLoader {
                 ).handleRequest(bitmapDownloadRequest)
             }
 
+            HttpBitmapOperation.DOWNLOAD_ANY_BITMAP_WITH_BYTES -> {
+                BitmapDownloadRequestHandler(
+                    bitmapDownloader = BitmapDownloader(
+                        httpUrlConnectionParams = standardGzipHttpUrlConnectionParams,
+                        bitmapInputStreamReader = GzipBitmapInputStreamReader(saveBytes = true)
+                    )
+                ).handleRequest(bitmapDownloadRequest)
+            }
+
             HttpBitmapOperation.DOWNLOAD_BYTES -> {
                 BitmapDownloadRequestHandler(
                     bitmapDownloader = BitmapDownloader(
@@ -4,6 +4,7 @@ import com.clevertap.android.sdk.Constants.AES_GCM_PREFIX
 import com.clevertap.android.sdk.Constants.AES_GCM_SUFFIX
 import com.clevertap.android.sdk.Logger
 import java.nio.charset.StandardCharsets
+import java.security.InvalidKeyException
 import javax.crypto.Cipher
 import javax.crypto.SecretKey
 import javax.crypto.spec.GCMParameterSpec
@@ -16,6 +17,13 @@ internal class AESGCMCrypt(
     private val ctKeyGenerator: CTKeyGenerator
 ) : Crypt() {
 
+    companion object {
+        private const val TRANSFORMATION = "AES/GCM/NoPadding"
+    }
+
+    // Cipher instances are not thread safe, each thread re-initialises its own one per operation
+    private val threadCipher = ThreadLocal<Cipher>()
+
     /**
      * This method is used internally to encrypt the plain text
      *
@@ -23,9 +31,22 @@ internal class AESGCMCrypt(
      * @return encrypted text appended with iv, prefix and suffix
      */
     override fun encryptInternal(plainText: String): String? {
+        return encryptWithKey(plainText, ctKeyGenerator.generateOrGetKey())
+    }
+
+    /**
+     * Encrypts all texts with one key lookup
+     */
+    override fun encryptAllInternal(plainTexts: List<String>): List<String?> {
+        val secretKey = ctKeyGenerator.generateOrGetKey()
+        return plainTexts.map { encryptWithKey(it, secretKey) }
+    }
+
+    private fun encryptWithKey(plainText: String, secretKey: SecretKey?): String? {
         return performCryptOperation(
             mode = Cipher.ENCRYPT_MODE,
-            data = plainText.toByteArray(StandardCharsets.UTF_8)
+            data = plainText.toByteArray(StandardCharsets.UTF_8),
+            secretKey = secretKey
         )?.let { (iv, encryptedBytes) ->
             // Concatenate IV and encrypted text with a ":" delimiter
             "$AES_GCM_PREFIX${iv.toBase64()}:${encryptedBytes.toBase64()}$AES_GCM_SUFFIX"
@@ -40,11 +61,24 @@ internal class AESGCMCrypt(
      * @return decrypted text
      */
     override fun decryptInternal(cipherText: String): String? {
+        return decryptWithKey(cipherText, ctKeyGenerator.generateOrGetKey())
+    }
+
+    /**
+     * Decrypts all texts with one key lookup
+     */
+    override fun decryptAllInternal(cipherTexts: List<String>): List<String?> {
+        val secretKey = ctKeyGenerator.generateOrGetKey()
+        return cipherTexts.map { decryptWithKey(it, secretKey) }
+    }
+
+    private fun decryptWithKey(cipherText: String, secretKey: SecretKey?): String? {
         return parseCipherText(cipherText)?.let { (iv, encryptedBytes) ->
             performCryptOperation(
                 mode = Cipher.DECRYPT_MODE,
                 data = encryptedBytes,
-                iv = iv
+                iv = iv,
+                secretKey = secretKey
             )
         }?.let { (_, decryptedBytes) ->
             String(decryptedBytes, StandardCharsets.UTF_8)
@@ -97,7 +131,7 @@ internal class AESGCMCrypt(
     ): AESGCMCryptResult? {
         return try {
 
-            val cipher = Cipher.getInstance("AES/GCM/NoPadding")
+            val cipher = threadCipher.get() ?: Cipher.getInstance(TRANSFORMATION).also { threadCipher.set(it) }
 
             when (mode) {
                 Cipher.ENCRYPT_MODE -> {
@@ -124,8 +158,15 @@ internal class AESGCMCrypt(
                     null
                 }
             }
+        } catch (e: InvalidKeyException) {
+            // the keystore key may have been invalidated, read it again on the next operation
+            Logger.v("Invalid key for crypt operation", e)
+            ctKeyGenerator.invalidateKey()
+            threadCipher.remove()
+            null
         } catch (e: Exception) {
             Logger.v("Error performing crypt operation", e)
+            threadCipher.remove()
             null
         }
     }
@@ -2,24 +2,57 @@ package com.clevertap.android.sdk.cryption
 
 import android.security.keystore.KeyGenParameterSpec
 import android.security.keystore.KeyProperties
+import androidx.annotation.VisibleForTesting
 import com.clevertap.android.sdk.Logger
 import java.security.KeyStore
 import javax.crypto.KeyGenerator
 import javax.crypto.SecretKey
 
-internal class CTKeyGenerator(val cryptRepository: CryptRepository) {
+/**
+ * Loads the secret key used by [AESGCMCrypt]
+ */
+internal fun interface KeyLoader {
+
+    fun load(): SecretKey?
+}
+
+internal class CTKeyGenerator @VisibleForTesting internal constructor(
+    val cryptRepository: CryptRepository,
+    private val keyLoader: KeyLoader
+) {
+
+    constructor(cryptRepository: CryptRepository) : this(cryptRepository, AndroidKeystoreKeyLoader)
+
+    // Android Keystore handle of the key, loaded once instead of for every crypt operation
+    @Volatile
+    private var cachedKey: SecretKey? = null
 
     /**
      * Generates or retrieves a secret key for encryption/decryption.
      *
      * This method uses Android Keystore to securely retrieve or create the key.
      * With minSdk 23+, no SharedPreferences fallback path is used.
+     * The key handle is cached until [invalidateKey] is called, failures are not cached.
      *
      * @return The secret key for encryption/decryption, or null if an error occurs.
      */
 
     fun generateOrGetKey(): SecretKey? {
-        return fromAndroidKeystore()
+        cachedKey?.let { return it }
+        synchronized(this) {
+            cachedKey?.let { return it }
+            val key = keyLoader.load()
+            cachedKey = key
+            return key
+        }
+    }
+
+    /**
+     * Drops the cached key handle so the next [generateOrGetKey] reads the keystore again, e.g. after
+     * the key was invalidated by the system.
+     */
+    fun invalidateKey() {
+        cachedKey = null
     }
 
     fun generateSecretKey(): SecretKey {
@@ -29,8 +62,14 @@ internal class CTKeyGenerator(val cryptRepository: CryptRepository) {
         val secretKey = keyGenerator.generateKey()
         return secretKey
     }
+}
+
+/**
+ * Loads the key from the Android Keystore, generating it on first use
+ */
+private object AndroidKeystoreKeyLoader : KeyLoader {
 
-    private fun fromAndroidKeystore() = try {
+    override fun load(): SecretKey? = try {
         val keyStore = KeyStore.getInstance("AndroidKeyStore")
         keyStore.load(null)
 
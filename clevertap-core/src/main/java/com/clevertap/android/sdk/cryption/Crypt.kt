@@ -3,4 +3,14 @@ package com.clevertap.android.sdk.cryption
 abstract class Crypt protected constructor() {
     abstract fun encryptInternal(plainText: String): String?
     abstract fun decryptInternal(cipherText: String): String?
-}
\ No newline at end of file
+
+    /**
+     * Encrypts a batch of texts, the result holds null for every text that could not be encrypted.
+     */
+    open fun encryptAllInternal(plainTexts: List<String>): List<String?> = plainTexts.map { encryptInternal(it) }
+
+    /**
+     * Decrypts a batch of texts, the result holds null for every text that could not be decrypted.
+     */
+    open fun decryptAllInternal(cipherTexts: List<String>): List<String?> = cipherTexts.map { decryptInternal(it) }
+}
@@ -10,6 +10,16 @@ internal interface ICryptHandler {
 
     fun decryptSafe(cipherText: String): String?
 
+    /**
+     * Same as [encryptSafe] for a batch of texts, the result holds one entry per text.
+     */
+    fun encryptAll(plainTexts: List<String>): List<String?> = plainTexts.map { encryptSafe(it) }
+
+    /**
+     * Same as [decryptSafe] for a batch of texts, the result holds one entry per text.
+     */
+    fun decryptAll(cipherTexts: List<String>): List<String?> = cipherTexts.map { decryptSafe(it) }
+
     fun encrypt(plainText: String): String?
 
     fun decrypt(cipherText: String): String?
@@ -64,6 +74,46 @@ internal class CryptHandler constructor(
         return cryptFactory.getCryptInstance(DEFAULT_ALGORITHM).decryptInternal(cipherText)
     }
 
+    /**
+     * Encrypts a batch of texts like [encryptSafe], resolving the crypt instance and key once for the
+     * whole batch.
+     *
+     * @param plainTexts - The texts to encrypt.
+     * @return The encrypted texts in the same order, null for texts that could not be encrypted.
+     */
+    override fun encryptAll(plainTexts: List<String>): List<String?> {
+        return cryptBatch(plainTexts, skip = { isTextAESGCMEncrypted(it) }) { pending ->
+            cryptFactory.getCryptInstance(DEFAULT_ALGORITHM).encryptAllInternal(pending)
+        }
+    }
+
+    /**
+     * Decrypts a batch of texts like [decryptSafe], resolving the crypt instance and key once for the
+     * whole batch.
+     *
+     * @param cipherTexts - The texts to decrypt.
+     * @return The decrypted texts in the same order, null for texts that could not be decrypted.
+     */
+    override fun decryptAll(cipherTexts: List<String>): List<String?> {
+        return cryptBatch(cipherTexts, skip = { !isTextAESGCMEncrypted(it) }) { pending ->
+            cryptFactory.getCryptInstance(DEFAULT_ALGORITHM).decryptAllInternal(pending)
+        }
+    }
+
+    // Texts matching skip are returned as they are, the others are crypted in one call
+    private inline fun cryptBatch(
+        texts: List<String>,
+        skip: (String) -> Boolean,
+        crypt: (List<String>) -> List<String?>
+    ): List<String?> {
+        val pending = texts.filterNot(skip)
+        if (pending.isEmpty()) {
+            return texts
+        }
+        val crypted = crypt(pending).iterator()
+        return texts.map { if (skip(it)) it else crypted.next() }
+    }
+
     /**
      * Encrypts the given plain text without any checks
      *
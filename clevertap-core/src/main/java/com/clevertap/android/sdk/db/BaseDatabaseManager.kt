@@ -15,25 +15,53 @@ internal interface BaseDatabaseManager {
      * @param context Android context
      * @param batchSize Number of events to fetch (typically 50)
      * @param eventGroup Type of events to fetch
+     * @param maxBytes Soft bound for the stored size of the batch, at least one event is returned
      * @return QueueData containing events and their IDs for cleanup
      */
     fun getQueuedEvents(
         context: Context,
         batchSize: Int,
-        eventGroup: EventGroup
+        eventGroup: EventGroup,
+        maxBytes: Int = Int.MAX_VALUE
     ): QueueData
 
     /**
      * Fetches a combined batch of events from both events and profileEvents tables
      * Returns QueueData with events data and ids, also if there are more events to fetch
      */
-    fun getCombinedQueuedEvents(context: Context, batchSize: Int): QueueData
+    fun getCombinedQueuedEvents(
+        context: Context,
+        batchSize: Int,
+        maxBytes: Int = Int.MAX_VALUE
+    ): QueueData
 
     fun queueEventToDB(context: Context, event: JSONObject, type: Int)
 
     fun queuePushNotificationViewedEventToDB(context: Context, event: JSONObject)
 
-    fun getPushNotificationViewedQueuedEvents(context: Context, batchSize: Int): QueueData
+    fun getPushNotificationViewedQueuedEvents(
+        context: Context,
+        batchSize: Int,
+        maxBytes: Int = Int.MAX_VALUE
+    ): QueueData
+
+    /**
+     * Fetches the batch that follows [previous], skipping the rows of [previous] even though they
+     * are not cleaned up yet. Used to prepare the next batch while [previous] is being sent.
+     */
+    fun getQueuedEventsAfter(
+        context: Context,
+        batchSize: Int,
+        eventGroup: EventGroup,
+        previous: QueueData,
+        maxBytes: Int = Int.MAX_VALUE
+    ): QueueData
+
+    /**
+     * Writes any events staged for group commit to the database.
+     * No-op when group commit is disabled.
+     */
+    fun commitPendingEvents(context: Context)
 
     /**
      * Cleans up successfully sent events from the database
@@ -31,7 +31,7 @@ class DatabaseHelper internal constructor(
 
     companion object {
 
-        private const val DATABASE_VERSION = 7
+        private const val DATABASE_VERSION = 8
         private const val DB_LIMIT = 24 * 1024 * 1024 //24mb
     }
 
@@ -59,6 +59,7 @@ class DatabaseHelper internal constructor(
         executeStatement(db, UNINSTALL_TS_INDEX)
         executeStatement(db, PUSH_NOTIFICATIONS_TIME_INDEX)
         executeStatement(db, INBOX_MESSAGES_COMP_ID_USERID_INDEX)
+        executeStatement(db, INBOX_MESSAGES_USER_CREATED_AT_INDEX)
         executeStatement(db, NOTIFICATION_VIEWED_INDEX)
     }
 
@@ -107,6 +108,9 @@ class DatabaseHelper internal constructor(
             executeStatement(db, ALTER_INBOX_MESSAGES_ADD_SOURCE)
             executeStatement(db, ALTER_INBOX_MESSAGES_ADD_INDEX_STATE)
         }
+        if (oldVersion < 8) {
+            executeStatement(db, INBOX_MESSAGES_USER_CREATED_AT_INDEX)
+        }
     }
 
     private fun getDeviceIdForAccountIdFromPrefs(accountId: String): String {
@@ -338,6 +342,15 @@ private val INBOX_MESSAGES_COMP_ID_USERID_INDEX = """
         ${Column.ID}
     );
 """
+
+// Serves the inbox pages, newest first per user
+private val INBOX_MESSAGES_USER_CREATED_AT_INDEX = """
+    CREATE INDEX IF NOT EXISTS inbox_user_created_idx ON ${INBOX_MESSAGES.tableName} (
+        ${Column.USER_ID},
+        ${Column.CREATED_AT}
+    );
+"""
+
 private val EVENTS_TIME_INDEX = """
     CREATE INDEX IF NOT EXISTS time_idx ON ${EVENTS.tableName} (${Column.CREATED_AT});
 """
@@ -7,6 +7,7 @@ import com.clevertap.android.sdk.CleverTapInstanceConfig
 import com.clevertap.android.sdk.ILogger
 import com.clevertap.android.sdk.db.dao.*
 import com.clevertap.android.sdk.inbox.CTMessageDAO
+import com.clevertap.android.sdk.inbox.InboxPageRequest
 import com.clevertap.android.sdk.usereventlogs.UserEventLogDAO
 import com.clevertap.android.sdk.usereventlogs.UserEventLogDAOImpl
 import com.clevertap.android.sdk.utils.Clock
@@ -67,11 +68,25 @@ internal class DBAdapter constructor(
 
     @WorkerThread
     @Synchronized
-    fun fetchEvents(table: Table, limit: Int): QueueData = eventDAO.fetchEvents(table, limit)
+    fun storeObjects(events: List<StagedEvent>): Long = eventDAO.storeEvents(events)
 
     @WorkerThread
     @Synchronized
-    fun fetchCombinedEvents(batchSize: Int): QueueData = eventDAO.fetchCombinedEvents(batchSize)
+    fun fetchEvents(
+        table: Table,
+        limit: Int,
+        afterId: String? = null,
+        maxBytes: Int = Int.MAX_VALUE
+    ): QueueData = eventDAO.fetchEvents(table, limit, afterId, maxBytes)
+
+    @WorkerThread
+    @Synchronized
+    fun fetchCombinedEvents(
+        batchSize: Int,
+        afterEventId: String? = null,
+        afterProfileEventId: String? = null,
+        maxBytes: Int = Int.MAX_VALUE
+    ): QueueData = eventDAO.fetchCombinedEvents(batchSize, afterEventId, afterProfileEventId, maxBytes)
 
     @WorkerThread
     @Synchronized
@@ -95,7 +110,17 @@ internal class DBAdapter constructor(
 
     @WorkerThread
     @Synchronized
-    fun upsertMessages(inboxMessages: List<CTMessageDAO>) = inboxMessageDAO.upsertMessages(inboxMessages)
+    fun getMessagesPage(
+        userId: String,
+        request: InboxPageRequest,
+        nowSeconds: Long,
+        limit: Int
+    ): ArrayList<CTMessageDAO> = inboxMessageDAO.getMessagesPage(userId, request, nowSeconds, limit)
+
+    @WorkerThread
+    @Synchronized
+    fun upsertMessages(inboxMessages: List<CTMessageDAO>): List<CTMessageDAO> =
+        inboxMessageDAO.upsertMessages(inboxMessages)
 
     @WorkerThread
     @Synchronized
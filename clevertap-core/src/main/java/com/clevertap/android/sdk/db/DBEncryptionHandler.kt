@@ -53,6 +53,26 @@ internal class DBEncryptionHandler(
         }
     }
 
+    /**
+     * Same as [unwrapDbData] for a batch of rows, decrypted with a single [ICryptHandler.decryptAll] call.
+     *
+     * @return one entry per row, null for rows that could not be decrypted
+     */
+    fun unwrapDbDataAll(data: List<String>) : List<String?> {
+        if (data.isEmpty()) {
+            return emptyList()
+        }
+        return measureTimeInMillisAndLog(TAG, "unwrapDbDataAll(${data.size})") {
+            val op = crypt.decryptAll(data)
+            op.forEachIndexed { index, decrypted ->
+                if (decrypted == null) {
+                    logger.verbose(TAG, "unwrapDbDataAll: Decryption failed for ${data[index]}")
+                }
+            }
+            op
+        }
+    }
+
     /**
      * Wraps database data as per encryption level and returns original data in case of failure.
      */
@@ -70,6 +90,23 @@ internal class DBEncryptionHandler(
         }
     }
 
+    /**
+     * Same as [wrapDbData] for a batch of rows, encrypted with a single [ICryptHandler.encryptAll] call.
+     */
+    fun wrapDbDataAll(data: List<String>) : List<String> {
+        if (data.isEmpty() || encryptionLevel != EncryptionLevel.FULL_DATA) {
+            return data
+        }
+        return measureTimeInMillisAndLog(TAG, "wrapDbDataAll(${data.size})") {
+            val op = crypt.encryptAll(data)
+            data.mapIndexed { index, plain ->
+                op[index] ?: plain.also {
+                    logger.verbose(TAG, "wrapDbDataAll: Encryption failed for $plain")
+                }
+            }
+        }
+    }
+
     /**
      * Checks if the given data string can be successfully decrypted, indicating it's in the correct format.
      */
@@ -10,6 +10,7 @@ import com.clevertap.android.sdk.db.Table.PROFILE_EVENTS
 import com.clevertap.android.sdk.db.Table.PUSH_NOTIFICATION_VIEWED
 import com.clevertap.android.sdk.events.EventGroup
 import com.clevertap.android.sdk.network.IJRepo
+import com.clevertap.android.sdk.utils.Clock
 import org.json.JSONObject
 
 internal class DBManager constructor(
@@ -20,7 +21,11 @@ internal class DBManager constructor(
     private val ijRepo: IJRepo,
     private val dbEncryptionHandler: DBEncryptionHandler,
     private val clearFirstRequestTs: () -> Unit = {},
-    private val clearLastRequestTs: () -> Unit = {}
+    private val clearLastRequestTs: () -> Unit = {},
+    private val clearPiiCipherCache: () -> Unit = {},
+    eventGroupCommitEnabled: Boolean = false,
+    clock: Clock = Clock.SYSTEM,
+    private val scheduleCommit: (delayMs: Long, commit: Runnable) -> Unit = { _, _ -> }
 ) : BaseDatabaseManager {
 
     private companion object {
@@ -30,6 +35,13 @@ internal class DBManager constructor(
 
     private var dbAdapter: DBAdapter? = null
 
+    /**
+     * Staging area for group commit, null when every event is inserted immediately.
+     * Guarded by [CTLockManager.eventLock].
+     */
+    private val eventWriteBuffer: EventWriteBuffer? =
+        if (eventGroupCommitEnabled) EventWriteBuffer(clock = clock) else null
+
     @WorkerThread
     @Synchronized
     override fun loadDBAdapter(context: Context): DBAdapter {
@@ -58,6 +70,7 @@ internal class DBManager constructor(
     override fun clearQueues(context: Context) {
         synchronized(ctLockManager.eventLock) {
             val adapter = loadDBAdapter(context)
+            commitPendingEvents(adapter)
             var tableName = EVENTS
             adapter.removeEvents(tableName)
             tableName = PROFILE_EVENTS
@@ -73,16 +86,17 @@ internal class DBManager constructor(
     override fun getQueuedEvents(
         context: Context,
         batchSize: Int,
-        eventGroup: EventGroup
+        eventGroup: EventGroup,
+        maxBytes: Int
     ): QueueData {
         return when (eventGroup) {
             EventGroup.PUSH_NOTIFICATION_VIEWED -> {
                 logger.verbose(accountId, "Returning Queued Notification Viewed events")
-                getPushNotificationViewedQueuedEvents(context, batchSize)
+                getPushNotificationViewedQueuedEvents(context, batchSize, maxBytes)
             }
             else -> {
                 logger.verbose(accountId, "Returning combined queued events")
-                getCombinedQueuedEvents(context, batchSize)
+                getCombinedQueuedEvents(context, batchSize, maxBytes)
             }
         }
     }
@@ -91,12 +105,17 @@ internal class DBManager constructor(
      * Fetches a combined batch of events from both events and profileEvents tables
      * Returns QueueData with events data and ids, also if there are more events to fetch
      */
-    override fun getCombinedQueuedEvents(context: Context, batchSize: Int): QueueData {
+    override fun getCombinedQueuedEvents(
+        context: Context,
+        batchSize: Int,
+        maxBytes: Int
+    ): QueueData {
         synchronized(ctLockManager.eventLock) {
             val adapter = loadDBAdapter(context)
+            commitPendingEvents(adapter)
 
             // Fetch combined batch of events with cleanup info
-            return adapter.fetchCombinedEvents(batchSize)
+            return adapter.fetchCombinedEvents(batchSize, maxBytes = maxBytes)
         }
     }
 
@@ -191,13 +210,44 @@ internal class DBManager constructor(
      */
     override fun getPushNotificationViewedQueuedEvents(
         context: Context,
-        batchSize: Int
+        batchSize: Int,
+        maxBytes: Int
     ): QueueData {
         synchronized(ctLockManager.eventLock) {
             val adapter = loadDBAdapter(context)
+            commitPendingEvents(adapter)
 
             // Use the optimized fetchEvents method that returns QueueData
-            return adapter.fetchEvents(PUSH_NOTIFICATION_VIEWED, batchSize)
+            return adapter.fetchEvents(PUSH_NOTIFICATION_VIEWED, batchSize, maxBytes = maxBytes)
+        }
+    }
+
+    override fun getQueuedEventsAfter(
+        context: Context,
+        batchSize: Int,
+        eventGroup: EventGroup,
+        previous: QueueData,
+        maxBytes: Int
+    ): QueueData {
+        synchronized(ctLockManager.eventLock) {
+            val adapter = loadDBAdapter(context)
+            commitPendingEvents(adapter)
+
+            return when (eventGroup) {
+                EventGroup.PUSH_NOTIFICATION_VIEWED -> adapter.fetchEvents(
+                    PUSH_NOTIFICATION_VIEWED,
+                    batchSize,
+                    previous.eventIds.lastOrNull(),
+                    maxBytes
+                )
+
+                else -> adapter.fetchCombinedEvents(
+                    batchSize,
+                    previous.eventIds.lastOrNull(),
+                    previous.profileEventIds.lastOrNull(),
+                    maxBytes
+                )
+            }
         }
     }
 
@@ -213,6 +263,35 @@ internal class DBManager constructor(
         queueEventForTable(context, event, PUSH_NOTIFICATION_VIEWED)
     }
 
+    @WorkerThread
+    override fun commitPendingEvents(context: Context) {
+        if (eventWriteBuffer == null) {
+            return
+        }
+        synchronized(ctLockManager.eventLock) {
+            if (!eventWriteBuffer.isEmpty) {
+                commitPendingEvents(loadDBAdapter(context))
+            }
+        }
+    }
+
+    /**
+     * Writes all staged events in one transaction. Must be called while holding [CTLockManager.eventLock].
+     */
+    @WorkerThread
+    private fun commitPendingEvents(adapter: DBAdapter) {
+        val staged = eventWriteBuffer?.drain() ?: return
+        if (staged.isEmpty()) {
+            return
+        }
+        val returnCode = adapter.storeObjects(staged)
+        if (returnCode > 0) {
+            logger.verbose(accountId, "Committed $returnCode staged events to DB")
+        } else {
+            logger.verbose(accountId, "Failed to commit ${staged.size} staged events to DB, code: $returnCode")
+        }
+    }
+
     //Session
     private fun clearIJ(context: Context) {
         ijRepo.clearIJ(context)
@@ -228,6 +307,7 @@ internal class DBManager constructor(
         clearIJ(context)
         clearFirstRequestTimestamp()
         clearLastRequestTimestamp()
+        clearPiiCipherCache()
     }
 
     //Session
@@ -239,10 +319,23 @@ internal class DBManager constructor(
     private fun queueEventForTable(context: Context, event: JSONObject, table: Table) {
         synchronized(ctLockManager.eventLock) {
             val adapter = loadDBAdapter(context)
+            if (eventWriteBuffer != null) {
+                val eventJson = event.toString()
+                val commitDue = eventWriteBuffer.stage(eventJson, table)
+                logger.debug(accountId) { "Queued event: $eventJson" }
+                logger.verbose(accountId) { "Staged event for DB table $table: $eventJson" }
+                if (commitDue) {
+                    commitPendingEvents(adapter)
+                } else if (eventWriteBuffer.size == 1) {
+                    // commit the staged events in time even if no other event is queued meanwhile
+                    scheduleCommit(eventWriteBuffer.maxPendingAgeMs) { commitPendingEvents(context) }
+                }
+                return
+            }
             val returnCode = adapter.storeObject(event, table)
             if (returnCode > 0) {
-                logger.debug(accountId, "Queued event: $event")
-                logger.verbose(accountId, "Queued event to DB table $table: $event")
+                logger.debug(accountId) { "Queued event: $event" }
+                logger.verbose(accountId) { "Queued event to DB table $table: $event" }
             }
         }
     }
@@ -0,0 +1,70 @@
+package com.clevertap.android.sdk.db
+
+import com.clevertap.android.sdk.utils.Clock
+
+/**
+ * An event waiting in [EventWriteBuffer] to be written to [table].
+ *
+ * @property data serialized event json
+ * @property createdAt the time at which the event was queued, used as the row's created_at
+ */
+internal class StagedEvent(
+    val table: Table,
+    val data: String,
+    val createdAt: Long
+)
+
+/**
+ * In-memory staging area used for group commit of queued events.
+ *
+ * Events are staged instead of being inserted one by one and are drained into a single transaction
+ * once [maxPendingEvents] are waiting or the oldest staged event is older than [maxPendingAgeMs].
+ * The age is checked when the next event is staged, the owner also schedules a commit after
+ * [maxPendingAgeMs] once the buffer stops being empty.
+ * Callers are expected to drain the buffer before reading the event tables so staged events are
+ * never skipped by a flush.
+ *
+ * This class is not thread safe, all access is guarded by [com.clevertap.android.sdk.CTLockManager.eventLock].
+ */
+internal class EventWriteBuffer(
+    private val maxPendingEvents: Int = DEFAULT_MAX_PENDING_EVENTS,
+    val maxPendingAgeMs: Long = DEFAULT_MAX_PENDING_AGE_MS,
+    private val clock: Clock = Clock.SYSTEM
+) {
+
+    companion object {
+        const val DEFAULT_MAX_PENDING_EVENTS = 50
+        const val DEFAULT_MAX_PENDING_AGE_MS = 2_000L
+    }
+
+    private val pending = ArrayList<StagedEvent>(maxPendingEvents)
+
+    val size: Int
+        get() = pending.size
+
+    val isEmpty: Boolean
+        get() = pending.isEmpty()
+
+    /**
+     * Stages an event for the next commit.
+     *
+     * @return true if the buffer has reached its size or age threshold and should be committed
+     */
+    fun stage(data: String, table: Table): Boolean {
+        val now = clock.currentTimeMillis()
+        pending.add(StagedEvent(table, data, now))
+        return pending.size >= maxPendingEvents || now - pending[0].createdAt >= maxPendingAgeMs
+    }
+
+    /**
+     * Removes and returns all staged events in the order they were staged.
+     */
+    fun drain(): List<StagedEvent> {
+        if (pending.isEmpty()) {
+            return emptyList()
+        }
+        val drained = ArrayList(pending)
+        pending.clear()
+        return drained
+    }
+}
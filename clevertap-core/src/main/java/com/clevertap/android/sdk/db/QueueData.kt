@@ -8,9 +8,12 @@ import org.json.JSONArray
  */
 internal class QueueData {
     internal val data: JSONArray = JSONArray()
+    internal val serializedData: MutableList<String> = mutableListOf()  // stored json text of each item in data
     internal val eventIds: MutableList<String> = mutableListOf()  // IDs from events table
     internal val profileEventIds: MutableList<String> = mutableListOf()  // IDs from profileEvents table
     internal var hasMore: Boolean = false
+    internal var byteSize: Int = 0  // size of the stored event data encoded as UTF-8
+    internal var stoppedOnBytes: Boolean = false  // the next row did not fit in the byte bound
 
     internal val isEmpty: Boolean
         get() = data.length() <= 0
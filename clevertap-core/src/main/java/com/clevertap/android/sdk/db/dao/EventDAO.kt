@@ -2,18 +2,44 @@ package com.clevertap.android.sdk.db.dao
 
 import androidx.annotation.WorkerThread
 import com.clevertap.android.sdk.db.QueueData
+import com.clevertap.android.sdk.db.StagedEvent
 import com.clevertap.android.sdk.db.Table
 import org.json.JSONObject
 
 internal interface EventDAO {
     @WorkerThread
     fun storeEvent(event: JSONObject, table: Table): Long
+
+    @WorkerThread
+    fun storeEvents(events: List<StagedEvent>): Long
     
+    /**
+     * @param afterId only rows with an _id greater than this are fetched, null to fetch from the start
+     * @param maxBytes stop before the stored data of the fetched rows, encoded as UTF-8, exceeds this,
+     * the first row is always fetched
+     */
     @WorkerThread
-    fun fetchEvents(table: Table, limit: Int): QueueData
+    fun fetchEvents(
+        table: Table,
+        limit: Int,
+        afterId: String? = null,
+        maxBytes: Int = Int.MAX_VALUE
+    ): QueueData
 
+    /**
+     * @param afterEventId only events with an _id greater than this are fetched
+     * @param afterProfileEventId only profile events with an _id greater than this are fetched
+     * @param maxBytes bound for the stored data of the whole batch, see [fetchEvents]. Events are
+     * only added while they fit next to the profile events, none are added once a profile event did
+     * not fit
+     */
     @WorkerThread
-    fun fetchCombinedEvents(batchSize: Int): QueueData
+    fun fetchCombinedEvents(
+        batchSize: Int,
+        afterEventId: String? = null,
+        afterProfileEventId: String? = null,
+        maxBytes: Int = Int.MAX_VALUE
+    ): QueueData
     
     @WorkerThread
     fun cleanupEventsFromLastId(lastId: String, table: Table)
@@ -1,6 +1,7 @@
 package com.clevertap.android.sdk.db.dao
 
 import android.content.ContentValues
+import android.database.sqlite.SQLiteStatement
 import android.database.sqlite.SQLiteException
 import androidx.annotation.WorkerThread
 import com.clevertap.android.sdk.ILogger
@@ -11,6 +12,7 @@ import com.clevertap.android.sdk.db.DBAdapter.Companion.NOT_ENOUGH_SPACE_LOG
 import com.clevertap.android.sdk.db.DBEncryptionHandler
 import com.clevertap.android.sdk.db.DatabaseHelper
 import com.clevertap.android.sdk.db.QueueData
+import com.clevertap.android.sdk.db.StagedEvent
 import com.clevertap.android.sdk.db.Table
 import com.clevertap.android.sdk.utils.Clock
 import org.json.JSONObject
@@ -24,6 +26,28 @@ internal class EventDAOImpl(
 
     companion object {
         private const val DATA_EXPIRATION = 1000L * 60 * 60 * 24 * 5
+
+        /**
+         * Size of [data] encoded as UTF-8, without encoding it
+         */
+        internal fun utf8Length(data: String): Int {
+            var length = 0
+            var i = 0
+            while (i < data.length) {
+                val c = data[i]
+                length += when {
+                    c.code < 0x80 -> 1
+                    c.code < 0x800 -> 2
+                    Character.isHighSurrogate(c) && i + 1 < data.length && Character.isLowSurrogate(data[i + 1]) -> {
+                        i++
+                        4
+                    }
+                    else -> 3
+                }
+                i++
+            }
+            return length
+        }
     }
 
     @WorkerThread
@@ -48,6 +72,53 @@ internal class EventDAOImpl(
         }
     }
 
+    /**
+     * Inserts all staged events in a single transaction, reusing one compiled insert statement per table.
+     * Rows keep the created_at of the time they were staged so fetch order is unchanged.
+     *
+     * @param events the events to insert, in the order they were staged
+     * @return the number of rows inserted, or an error code if the batch could not be written
+     */
+    @WorkerThread
+    override fun storeEvents(events: List<StagedEvent>): Long {
+        if (events.isEmpty()) {
+            return 0
+        }
+        if (!dbHelper.belowMemThreshold()) {
+            logger.verbose(NOT_ENOUGH_SPACE_LOG)
+            return DB_OUT_OF_MEMORY_ERROR
+        }
+
+        val statements = HashMap<Table, SQLiteStatement>()
+        return try {
+            val db = dbHelper.writableDatabase
+            db.beginTransaction()
+            try {
+                for (event in events) {
+                    val statement = statements.getOrPut(event.table) {
+                        db.compileStatement(
+                            "INSERT INTO ${event.table.tableName} (${Column.DATA}, ${Column.CREATED_AT}) VALUES (?, ?)"
+                        )
+                    }
+                    statement.bindString(1, dbEncryptionHandler.wrapDbData(event.data))
+                    statement.bindLong(2, event.createdAt)
+                    statement.executeInsert()
+                    statement.clearBindings()
+                }
+                db.setTransactionSuccessful()
+            } finally {
+                statements.values.forEach { it.close() }
+                db.endTransaction()
+            }
+            logger.verbose("Committed ${events.size} staged events")
+            events.size.toLong()
+        } catch (e: Exception) {
+            logger.verbose("Error committing ${events.size} staged events. Recreating DB", e)
+            dbHelper.deleteDatabase()
+            DB_UPDATE_ERROR
+        }
+    }
+
     /**
      * Returns a JSONObject keyed with the lastId retrieved and a value of a JSONArray of the retrieved JSONObject
      * events
@@ -56,7 +127,24 @@ internal class EventDAOImpl(
      * @return JSONObject containing the max row ID and a JSONArray of the JSONObject events or null
      */
     @Synchronized
-    override fun fetchEvents(table: Table, limit: Int): QueueData {
+    override fun fetchEvents(
+        table: Table,
+        limit: Int,
+        afterId: String?,
+        maxBytes: Int
+    ): QueueData = fetchEvents(table, limit, afterId, maxBytes, alwaysFetchFirst = true)
+
+    /**
+     * @param alwaysFetchFirst fetch the first row even when it exceeds [maxBytes], false when the
+     * rows are added to a batch which already has rows
+     */
+    private fun fetchEvents(
+        table: Table,
+        limit: Int,
+        afterId: String?,
+        maxBytes: Int,
+        alwaysFetchFirst: Boolean
+    ): QueueData {
         val queueData = QueueData()
 
         val tName = table.tableName
@@ -64,8 +152,11 @@ internal class EventDAOImpl(
             dbHelper.readableDatabase.query(
                 tName,
                 arrayOf(Column.ID, Column.DATA, Column.CREATED_AT),
-                null, null, null, null,
-                "${Column.CREATED_AT} ASC",
+                afterId?.let { "${Column.ID} > ?" },
+                afterId?.let { arrayOf(it) },
+                null, null,
+                // the same order as the keyset above, so a batch never skips rows
+                "${Column.ID} ASC",
                 (limit + 1).toString()
             ).use { cursor ->
                 val rowCount = cursor.count
@@ -74,28 +165,46 @@ internal class EventDAOImpl(
                 val colId = cursor.getColumnIndexOrThrow(Column.ID)
                 val colData = cursor.getColumnIndexOrThrow(Column.DATA)
 
-                var pos = 0
+                // Read the rows of the batch first so the whole batch is decrypted in one call
+                val ids = ArrayList<String>(minOf(rowCount, limit))
+                val rows = ArrayList<String>(minOf(rowCount, limit))
+                val rowBytes = ArrayList<Int>(minOf(rowCount, limit))
+                var storedBytes = 0
                 while (cursor.moveToNext()) {
-                    if (pos == limit) {
+                    if (rows.size == limit) {
                         break
                     }
-                    val id = cursor.getString(colId)
                     val eventData = cursor.getString(colData)
+                    val eventBytes = utf8Length(eventData)
+                    if ((rows.isNotEmpty() || !alwaysFetchFirst) && storedBytes + eventBytes > maxBytes) {
+                        queueData.hasMore = true
+                        queueData.stoppedOnBytes = true
+                        break
+                    }
+                    ids.add(cursor.getString(colId))
+                    rows.add(eventData)
+                    rowBytes.add(eventBytes)
+                    storedBytes += eventBytes
+                }
 
-                    val decryptedData = dbEncryptionHandler.unwrapDbData(eventData)
+                val decryptedRows = dbEncryptionHandler.unwrapDbDataAll(rows)
+                for (pos in rows.indices) {
+                    val id = ids[pos]
+                    val decryptedData = decryptedRows[pos]
                     if (decryptedData == null) {
                         logger.verbose("Error parsing event data for id: $id from table: $tName")
                         continue
                     }
                     val jsonEvent = JSONObject(decryptedData)
                     queueData.data.put(jsonEvent)
+                    queueData.serializedData.add(decryptedData)
+                    queueData.byteSize += rowBytes[pos]
 
                     if (table == Table.PROFILE_EVENTS) {
                         queueData.profileEventIds.add(id)
                     } else {
                         queueData.eventIds.add(id)
                     }
-                    pos++
                 }
             }
         } catch (e: Exception) {
@@ -119,32 +228,53 @@ internal class EventDAOImpl(
      * @return QueueData containing the events and their IDs for cleanup
      */
     @Synchronized
-    override fun fetchCombinedEvents(batchSize: Int): QueueData {
+    override fun fetchCombinedEvents(
+        batchSize: Int,
+        afterEventId: String?,
+        afterProfileEventId: String?,
+        maxBytes: Int
+    ): QueueData {
         val combinedQueueData = QueueData()
 
         // First priority: Fetch from profileEvents table using the base fetchEvents method
-        val profileData = fetchEvents(Table.PROFILE_EVENTS, batchSize)
+        val profileData = fetchEvents(Table.PROFILE_EVENTS, batchSize, afterProfileEventId, maxBytes)
 
         // Add profile events to combined data
         for (i in 0 until profileData.data.length()) {
             combinedQueueData.data.put(profileData.data.getJSONObject(i))
         }
+        combinedQueueData.serializedData.addAll(profileData.serializedData)
         combinedQueueData.profileEventIds.addAll(profileData.profileEventIds)
         combinedQueueData.hasMore = profileData.hasMore
+        combinedQueueData.byteSize = profileData.byteSize
 
         // Calculate remaining slots for normal events
         val eventsNeeded = batchSize - combinedQueueData.profileEventIds.size
+        val bytesLeft = maxBytes - combinedQueueData.byteSize
 
         // Second priority: Fill remaining slots from events table
-        if (eventsNeeded > 0 || combinedQueueData.hasMore.not()) {
-            val eventsData = fetchEvents(Table.EVENTS, eventsNeeded)
+        if (profileData.stoppedOnBytes || (combinedQueueData.hasProfileEvents && bytesLeft <= 0)) {
+            // byte budget used up by profile events, events go in the next batch
+            combinedQueueData.hasMore = true
+            combinedQueueData.stoppedOnBytes = true
+        } else if (eventsNeeded > 0 || combinedQueueData.hasMore.not()) {
+            val eventsData = fetchEvents(
+                Table.EVENTS,
+                eventsNeeded,
+                afterEventId,
+                bytesLeft,
+                alwaysFetchFirst = !combinedQueueData.hasProfileEvents
+            )
 
             // Add events to combined data
             for (i in 0 until eventsData.data.length()) {
                 combinedQueueData.data.put(eventsData.data.getJSONObject(i))
             }
+            combinedQueueData.serializedData.addAll(eventsData.serializedData)
             combinedQueueData.eventIds.addAll(eventsData.eventIds)
-            combinedQueueData.hasMore = eventsData.hasMore
+            combinedQueueData.byteSize += eventsData.byteSize
+            combinedQueueData.hasMore = combinedQueueData.hasMore || eventsData.hasMore
+            combinedQueueData.stoppedOnBytes = eventsData.stoppedOnBytes
         }
 
         logger.verbose("Fetched combined batch: ${combinedQueueData.profileEventIds.size} profile events, ${combinedQueueData.eventIds.size} events")
@@ -209,7 +339,9 @@ internal class EventDAOImpl(
         var rowsUpdated = 0
 
         try {
-            // First, read all rows
+            // First, read all rows in the wrong format
+            val ids = ArrayList<String>()
+            val rows = ArrayList<String>()
             dbHelper.readableDatabase.query(
                 tName,
                 arrayOf(Column.ID, Column.DATA),
@@ -218,39 +350,51 @@ internal class EventDAOImpl(
                 val colId = cursor.getColumnIndexOrThrow(Column.ID)
                 val colData = cursor.getColumnIndexOrThrow(Column.DATA)
 
-                // Process each row
                 while (cursor.moveToNext()) {
                     val id = cursor.getString(colId)
                     val eventData = cursor.getString(colData)
 
-                    if (eventData != null && dbEncryptionHandler.isInCorrectEncryptionFormat(eventData)) {
+                    if (eventData == null) {
+                        logger.verbose("Error decrypting data for id: $id from table: $tName, skipping")
                         continue
                     }
-                    // Decrypt the existing data
-                    val decryptedData = dbEncryptionHandler.unwrapDbData(eventData)
-                    if (decryptedData == null) {
-                        logger.verbose("Error decrypting data for id: $id from table: $tName, skipping")
+                    if (dbEncryptionHandler.isInCorrectEncryptionFormat(eventData)) {
                         continue
                     }
+                    ids.add(id)
+                    rows.add(eventData)
+                }
+            }
 
-                    // Re-encrypt with current encryption settings
-                    val reEncryptedData = dbEncryptionHandler.wrapDbData(decryptedData)
+            // Decrypt the existing data and re-encrypt it with current encryption settings in bulk
+            val decryptedRows = dbEncryptionHandler.unwrapDbDataAll(rows)
+            val decryptedIds = ArrayList<String>(ids.size)
+            val plainRows = ArrayList<String>(rows.size)
+            decryptedRows.forEachIndexed { index, decryptedData ->
+                if (decryptedData == null) {
+                    logger.verbose("Error decrypting data for id: ${ids[index]} from table: $tName, skipping")
+                } else {
+                    decryptedIds.add(ids[index])
+                    plainRows.add(decryptedData)
+                }
+            }
+            val reEncryptedRows = dbEncryptionHandler.wrapDbDataAll(plainRows)
 
-                    // Update the row with re-encrypted data
-                    val cv = ContentValues().apply {
-                        put(Column.DATA, reEncryptedData)
-                    }
+            // Update the rows with re-encrypted data
+            reEncryptedRows.forEachIndexed { index, reEncryptedData ->
+                val cv = ContentValues().apply {
+                    put(Column.DATA, reEncryptedData)
+                }
 
-                    val updated = dbHelper.writableDatabase.update(
-                        tName,
-                        cv,
-                        "${Column.ID} = ?",
-                        arrayOf(id)
-                    )
+                val updated = dbHelper.writableDatabase.update(
+                    tName,
+                    cv,
+                    "${Column.ID} = ?",
+                    arrayOf(decryptedIds[index])
+                )
 
-                    if (updated > 0) {
-                        rowsUpdated++
-                    }
+                if (updated > 0) {
+                    rowsUpdated++
                 }
             }
 
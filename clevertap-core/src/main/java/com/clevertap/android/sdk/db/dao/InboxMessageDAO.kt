@@ -2,13 +2,35 @@ package com.clevertap.android.sdk.db.dao
 
 import androidx.annotation.WorkerThread
 import com.clevertap.android.sdk.inbox.CTMessageDAO
+import com.clevertap.android.sdk.inbox.InboxPageRequest
 
 interface InboxMessageDAO {
     @WorkerThread
     fun getMessages(userId: String): ArrayList<CTMessageDAO>
+
+    /**
+     * Returns a page of the unexpired messages of [userId], newest first, applying the cursor, tag
+     * and read filters of [request] in SQL.
+     *
+     * @param nowSeconds Epoch-seconds used to skip expired rows.
+     * @param limit Maximum number of rows to return, callers ask for one more row than the page size
+     *   to know whether a following page exists.
+     */
+    @WorkerThread
+    fun getMessagesPage(
+        userId: String,
+        request: InboxPageRequest,
+        nowSeconds: Long,
+        limit: Int
+    ): ArrayList<CTMessageDAO>
     
+    /**
+     * Inserts or updates [inboxMessages], rows which could not be written are skipped.
+     *
+     * @return the messages which were written, empty when the database is over its size threshold
+     */
     @WorkerThread
-    fun upsertMessages(inboxMessages: List<CTMessageDAO>)
+    fun upsertMessages(inboxMessages: List<CTMessageDAO>): List<CTMessageDAO>
     
     @WorkerThread
     fun deleteMessage(messageId: String, userId: String): Boolean
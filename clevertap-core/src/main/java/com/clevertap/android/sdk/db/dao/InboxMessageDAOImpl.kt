@@ -12,6 +12,7 @@ import com.clevertap.android.sdk.db.Table.INBOX_MESSAGES
 import com.clevertap.android.sdk.inbox.CTMessageDAO
 import com.clevertap.android.sdk.inbox.InboxIndexState
 import com.clevertap.android.sdk.inbox.InboxMessageSource
+import com.clevertap.android.sdk.inbox.InboxPageRequest
 import org.json.JSONObject
 
 internal class InboxMessageDAOImpl(
@@ -22,13 +23,62 @@ internal class InboxMessageDAOImpl(
 
     @WorkerThread
     override fun getMessages(userId: String): ArrayList<CTMessageDAO> {
+        return queryMessages("${Column.USER_ID} = ?", arrayOf(userId), "${Column.CREATED_AT} DESC", null)
+    }
+
+    @WorkerThread
+    override fun getMessagesPage(
+        userId: String,
+        request: InboxPageRequest,
+        nowSeconds: Long,
+        limit: Int
+    ): ArrayList<CTMessageDAO> {
+        val selection = StringBuilder("${Column.USER_ID} = ?")
+        val selectionArgs = arrayListOf(userId)
+
+        // expired rows are deleted by the next trim, don't page them in the meantime
+        selection.append(" AND (${Column.EXPIRES} = 0 OR ${Column.EXPIRES} >= ?)")
+        selectionArgs.add(nowSeconds.toString())
+
+        request.cursor?.let { cursor ->
+            selection.append(
+                " AND (${Column.CREATED_AT} < ?" +
+                        " OR (${Column.CREATED_AT} = ? AND ${Column.ID} < ?))"
+            )
+            selectionArgs.add(cursor.date.toString())
+            selectionArgs.add(cursor.date.toString())
+            selectionArgs.add(cursor.messageId)
+        }
+        request.tag?.let { tag ->
+            // tags are stored comma separated, LIKE ignores the case of ASCII characters
+            selection.append(" AND (',' || ${Column.TAGS} || ',') LIKE ? ESCAPE '\\'")
+            selectionArgs.add("%,${escapeLike(tag)},%")
+        }
+        if (request.unreadOnly) {
+            selection.append(" AND ${Column.IS_READ} = 0")
+        }
+
+        return queryMessages(
+            selection.toString(),
+            selectionArgs.toTypedArray(),
+            "${Column.CREATED_AT} DESC, ${Column.ID} DESC",
+            limit.toString()
+        )
+    }
+
+    private fun queryMessages(
+        selection: String,
+        selectionArgs: Array<String>,
+        orderBy: String,
+        limit: String?
+    ): ArrayList<CTMessageDAO> {
         val tName = INBOX_MESSAGES.tableName
         val messageDAOArrayList = ArrayList<CTMessageDAO>()
         
         try {
             dbHelper.readableDatabase.query(
-                tName, null, "${Column.USER_ID} = ?", arrayOf(userId), 
-                null, null, "${Column.CREATED_AT} DESC"
+                tName, null, selection, selectionArgs,
+                null, null, orderBy, limit
             )?.use { cursor ->
                 // find indices
                 val idColumnIndex = cursor.getColumnIndexOrThrow(Column.ID)
@@ -74,10 +124,10 @@ internal class InboxMessageDAOImpl(
     }
 
     @WorkerThread
-    override fun upsertMessages(inboxMessages: List<CTMessageDAO>) {
+    override fun upsertMessages(inboxMessages: List<CTMessageDAO>): List<CTMessageDAO> {
         if (!dbHelper.belowMemThreshold()) {
             logger.verbose(NOT_ENOUGH_SPACE_LOG)
-            return
+            return emptyList()
         }
 
         // SQLite UPSERT — INSERT writes index_state for fresh rows; the
@@ -112,6 +162,7 @@ internal class InboxMessageDAOImpl(
         """.trimIndent()
 
         val db = dbHelper.writableDatabase
+        val upserted = ArrayList<CTMessageDAO>(inboxMessages.size)
         for (messageDAO in inboxMessages) {
             try {
                 val encryptedData = dbEncryptionHandler.wrapDbData(messageDAO.jsonData.toString())
@@ -129,10 +180,12 @@ internal class InboxMessageDAOImpl(
                     messageDAO.indexState ?: InboxIndexState.PENDING_INDEXING
                 )
                 db.execSQL(sql, args)
+                upserted.add(messageDAO)
             } catch (e: SQLiteException) {
                 logger.verbose("Error adding data to table ${INBOX_MESSAGES.tableName}", e)
             }
         }
+        return upserted
     }
 
     @WorkerThread
@@ -298,6 +351,10 @@ internal class InboxMessageDAOImpl(
         }
     }
 
+    private fun escapeLike(value: String): String {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_")
+    }
+
     private fun getTemplateMarkersList(count: Int): String {
         return buildString {
             if (count > 0) {
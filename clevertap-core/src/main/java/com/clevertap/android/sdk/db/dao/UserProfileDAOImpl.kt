@@ -28,10 +28,13 @@ internal class UserProfileDAOImpl(
         }
         
         val tableName = USER_PROFILES.tableName
-        logger.verbose("Inserting or updating userProfile for accountID = $accountId + deviceID = $deviceId")
-        
+        val encryptedProfile = dbEncryptionHandler.wrapDbData(profile.toString())
+        logger.verbose(
+            "Inserting or updating userProfile for accountID = $accountId + deviceID = $deviceId, " +
+                "writing ${encryptedProfile.length} chars"
+        )
+
         val cv = ContentValues().apply {
-            val encryptedProfile = dbEncryptionHandler.wrapDbData(profile.toString())
             put(Column.DATA, encryptedProfile)
             put(Column.ID, accountId)
             put(Column.DEVICE_ID, deviceId)
@@ -36,4 +36,14 @@ public abstract class BaseEventQueueManager {
     public abstract void sendImmediately(Context context, EventGroup eventGroup, JSONObject eventData);
 
     public abstract void scheduleQueueFlush(final Context context);
+
+    @WorkerThread
+    public abstract void commitPendingEvents(final Context context);
+
+    /**
+     * Runs {@code action} while the queue is not being sent by any other thread, e.g. to flush and
+     * clear the queue and switch the device id without a flush of the network lane in between.
+     */
+    @WorkerThread
+    public abstract void withFlushLock(final Runnable action);
 }
@@ -97,18 +97,32 @@ internal class EventQueueManager(
     }
 
     override fun flushQueueAsync(context: Context, eventGroup: EventGroup) {
-        val task = executors(config).postAsyncSafelyTask<Void?>()
+        // the network lane keeps requests from delaying the events recorded meanwhile
+        val networkLane = config.isNetworkLaneEnabled
+        val task = if (networkLane) {
+            executors(config).networkTask<Void?>()
+        } else {
+            executors(config).postAsyncSafelyTask<Void?>()
+        }
         task.execute("CommsManager#flushQueueAsync") {
                 if (eventGroup == EventGroup.PUSH_NOTIFICATION_VIEWED) {
                     logger.verbose(config.accountId, "Pushing Notification Viewed event onto queue flush sync")
                 } else {
                     logger.verbose(config.accountId, "Pushing event onto queue flush sync")
                 }
-                flushQueueSync(context, eventGroup)
+                if (networkLane) {
+                    networkManager.runOnNetworkLane { flushQueueSync(context, eventGroup) }
+                } else {
+                    flushQueueSync(context, eventGroup)
+                }
                  null
             }
     }
 
+    override fun withFlushLock(action: Runnable) {
+        networkManager.withFlushLock { action.run() }
+    }
+
     /**
      * Flushes the events queue synchronously with a default null value for the caller.
      * This is an overloaded method that internally calls [EventQueueManager.flushQueueSync].
@@ -137,6 +151,9 @@ internal class EventQueueManager(
         caller: String?,
         isUserSwitchFlush: Boolean
     ) {
+        // Write events staged for group commit even if they can't be sent right now
+        commitPendingEvents(context)
+
         // Check if network connectivity is available
         if (!networkMonitor.isNetworkOnline()) {
             logger.verbose(
@@ -159,19 +176,22 @@ internal class EventQueueManager(
             return
         }
 
-        // Check if handshake is required for the domain associated with the event group
-        if (networkManager.needsHandshakeForDomain(eventGroup)) {
-            networkManager.initHandshake(eventGroup) {
+        // Check if handshake is required for the domain associated with the event group, the
+        // domain is only changed while no other thread sends the queue
+        networkManager.withFlushLock {
+            if (networkManager.needsHandshakeForDomain(eventGroup)) {
+                networkManager.initHandshake(eventGroup) {
+                    networkManager.flushDBQueue(context, eventGroup, caller, isUserSwitchFlush)
+                }
+            } else {
+                logger.verbose(
+                    config.accountId,
+                    "Pushing Notification Viewed event onto queue DB flush"
+                )
+
+                // No handshake required, directly flush the DB queue
                 networkManager.flushDBQueue(context, eventGroup, caller, isUserSwitchFlush)
             }
-        } else {
-            logger.verbose(
-                config.accountId,
-                "Pushing Notification Viewed event onto queue DB flush"
-            )
-
-            // No handshake required, directly flush the DB queue
-            networkManager.flushDBQueue(context, eventGroup, caller, isUserSwitchFlush)
         }
     }
 
@@ -199,12 +219,14 @@ internal class EventQueueManager(
 
         val singleEventQueue = JSONArray().put(eventData)
 
-        if (networkManager.needsHandshakeForDomain(eventGroup)) {
-            networkManager.initHandshake(eventGroup) {
+        networkManager.withFlushLock {
+            if (networkManager.needsHandshakeForDomain(eventGroup)) {
+                networkManager.initHandshake(eventGroup) {
+                    networkManager.sendQueue(context, eventGroup, singleEventQueue, null, false)
+                }
+            } else {
                 networkManager.sendQueue(context, eventGroup, singleEventQueue, null, false)
             }
-        } else {
-            networkManager.sendQueue(context, eventGroup, singleEventQueue, null, false)
         }
     }
 
@@ -290,7 +312,7 @@ internal class EventQueueManager(
         val userLocation = cleverTapMetaData.locationFromUser
         updateLocalStore(eventName, eventType)
 
-        config.logger.verbose(config.accountId, "FlattenedEventData : $flattenedEventData")
+        config.logger.verbose(config.accountId) { "FlattenedEventData : $flattenedEventData" }
 
         // Early return for no-data scenarios
         if (flattenedEventData is NoData) {
@@ -524,6 +546,12 @@ internal class EventQueueManager(
             }
     }
 
+    @WorkerThread
+    override fun commitPendingEvents(context: Context) {
+        baseDatabaseManager.commitPendingEvents(context)
+        localDataStore.flushUserEventLogs()
+    }
+
     override fun scheduleQueueFlush(context: Context) {
         if (commsRunnable == null) {
             commsRunnable = Runnable {
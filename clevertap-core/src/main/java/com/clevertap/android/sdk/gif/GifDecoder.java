@@ -176,6 +176,12 @@ class GifDecoder {
 
     private Bitmap previousImage;
 
+    // The frames are decoded alternately into these bitmaps, the one shown stays untouched while
+    // the next frame is decoded.
+    private final Bitmap[] frameBitmaps = new Bitmap[2];
+
+    private int frameBitmapIndex;
+
     // Raw GIF data from input source.
     private ByteBuffer rawData;
 
@@ -210,7 +216,7 @@ class GifDecoder {
     }
 
     GifDecoder() {
-        this(new SimpleBitmapProvider());
+        this(PooledBitmapProvider.getInstance());
     }
 
     /**
@@ -235,13 +241,19 @@ class GifDecoder {
         return true;
     }
 
-    void clear() {
+    /**
+     * Releases the decoding buffers to the {@link BitmapProvider}. The frame bitmaps are not
+     * released since the last ones returned by {@link #getNextFrame()} may still be shown.
+     */
+    synchronized void clear() {
         header = null;
         if (mainPixels != null) {
             bitmapProvider.release(mainPixels);
+            mainPixels = null;
         }
         if (mainScratch != null) {
             bitmapProvider.release(mainScratch);
+            mainScratch = null;
         }
         if (previousImage != null) {
             bitmapProvider.release(previousImage);
@@ -251,9 +263,11 @@ class GifDecoder {
         isFirstFrameTransparent = false;
         if (block != null) {
             bitmapProvider.release(block);
+            block = null;
         }
         if (workBuffer != null) {
             bitmapProvider.release(workBuffer);
+            workBuffer = null;
         }
     }
 
@@ -336,6 +350,9 @@ class GifDecoder {
 
     /**
      * Get the next frame in the animation sequence.
+     * <p>
+     * Frames are double-buffered: the returned bitmap is overwritten by the frame after the next one,
+     * callers must not hold on to it for longer.
      *
      * @return Bitmap representation of frame.
      */
@@ -725,6 +742,22 @@ class GifDecoder {
         return parser;
     }
 
+    private Bitmap nextFrameBitmap() {
+        frameBitmapIndex = (frameBitmapIndex + 1) % frameBitmaps.length;
+        Bitmap bitmap = frameBitmaps[frameBitmapIndex];
+        Bitmap.Config config = isFirstFrameTransparent
+                ? Bitmap.Config.ARGB_8888 : Bitmap.Config.RGB_565;
+        if (bitmap == null || bitmap.isRecycled() || bitmap.getWidth() != downsampledWidth
+                || bitmap.getHeight() != downsampledHeight || bitmap.getConfig() != config) {
+            if (bitmap != null) {
+                bitmapProvider.release(bitmap);
+            }
+            bitmap = getNextBitmap();
+            frameBitmaps[frameBitmapIndex] = bitmap;
+        }
+        return bitmap;
+    }
+
     private Bitmap getNextBitmap() {
         Bitmap.Config config = isFirstFrameTransparent
                 ? Bitmap.Config.ARGB_8888 : Bitmap.Config.RGB_565;
@@ -928,7 +961,7 @@ class GifDecoder {
         }
 
         // Set pixels for current image.
-        Bitmap result = getNextBitmap();
+        Bitmap result = nextFrameBitmap();
         result.setPixels(dest, 0, downsampledWidth, 0, 0, downsampledWidth, downsampledHeight);
         return result;
     }
@@ -0,0 +1,178 @@
+package com.clevertap.android.sdk.gif;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.view.Choreographer;
+import androidx.annotation.MainThread;
+import androidx.annotation.WorkerThread;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * Drives all the playing {@link GifImageView}s from the main thread's {@link Choreographer},
+ * decoding their frames on a single shared background thread instead of a thread per view.
+ * <p>
+ * The frames of an animation are decoded one at a time: the next frame is only decoded after the
+ * previous one was shown, which lets {@link GifDecoder} double-buffer its frame bitmaps.
+ */
+final class GifFrameScheduler implements Choreographer.FrameCallback {
+
+    interface Animation {
+
+        /**
+         * Decodes the next frame of the animation
+         *
+         * @return the delay in milliseconds before the following frame, negative when the animation
+         * is over
+         */
+        @WorkerThread
+        long decodeNextFrame();
+
+        /**
+         * Shows the last decoded frame
+         */
+        @MainThread
+        void showDecodedFrame();
+
+        /**
+         * The animation ended or was stopped, no more frames will be decoded until it is started
+         * again
+         */
+        @MainThread
+        void onStopped();
+    }
+
+    private static GifFrameScheduler instance;
+
+    static synchronized GifFrameScheduler getInstance() {
+        if (instance == null) {
+            instance = new GifFrameScheduler();
+        }
+        return instance;
+    }
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private Handler decodeHandler;
+
+    // due time of the next frame of the playing animations, in uptime millis, main thread only
+    private final Map<Animation, Long> dueTimes = new HashMap<>();
+
+    private final HashSet<Animation> decoding = new HashSet<>();
+
+    private GifFrameScheduler() {
+    }
+
+    void start(final Animation animation) {
+        runOnMainThread(new Runnable() {
+            @Override
+            public void run() {
+                if (!dueTimes.containsKey(animation)) {
+                    dueTimes.put(animation, SystemClock.uptimeMillis());
+                    scheduleFrame();
+                }
+            }
+        });
+    }
+
+    void stop(final Animation animation) {
+        runOnMainThread(new Runnable() {
+            @Override
+            public void run() {
+                if (dueTimes.remove(animation) != null) {
+                    animation.onStopped();
+                    scheduleFrame();
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs a task on the decode thread after the frames already being decoded, e.g. to release the
+     * buffers of a decoder that is no longer used.
+     */
+    void runOnDecodeThread(Runnable task) {
+        getDecodeHandler().post(task);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        long now = SystemClock.uptimeMillis();
+        for (Map.Entry<Animation, Long> entry : dueTimes.entrySet()) {
+            final Animation animation = entry.getKey();
+            if (entry.getValue() <= now && decoding.add(animation)) {
+                getDecodeHandler().post(new Runnable() {
+                    @Override
+                    public void run() {
+                        decode(animation);
+                    }
+                });
+            }
+        }
+        scheduleFrame();
+    }
+
+    @WorkerThread
+    private void decode(final Animation animation) {
+        long start = SystemClock.uptimeMillis();
+        final long delay = animation.decodeNextFrame();
+        // the time spent decoding counts towards the delay of the frame
+        final long decodeTime = SystemClock.uptimeMillis() - start;
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                decoding.remove(animation);
+                if (!dueTimes.containsKey(animation)) {
+                    // stopped while decoding
+                    return;
+                }
+                animation.showDecodedFrame();
+                if (delay < 0) {
+                    dueTimes.remove(animation);
+                    animation.onStopped();
+                } else {
+                    dueTimes.put(animation, SystemClock.uptimeMillis() + Math.max(0, delay - decodeTime));
+                }
+                scheduleFrame();
+            }
+        });
+    }
+
+    @MainThread
+    private void scheduleFrame() {
+        Choreographer choreographer = Choreographer.getInstance();
+        choreographer.removeFrameCallback(this);
+
+        long nextDueTime = Long.MAX_VALUE;
+        for (Map.Entry<Animation, Long> entry : dueTimes.entrySet()) {
+            if (!decoding.contains(entry.getKey())) {
+                nextDueTime = Math.min(nextDueTime, entry.getValue());
+            }
+        }
+        if (nextDueTime == Long.MAX_VALUE) {
+            return;
+        }
+        choreographer.postFrameCallbackDelayed(this, Math.max(0, nextDueTime - SystemClock.uptimeMillis()));
+    }
+
+    private synchronized Handler getDecodeHandler() {
+        if (decodeHandler == null) {
+            HandlerThread thread = new HandlerThread("CleverTap-GifDecoder", Process.THREAD_PRIORITY_BACKGROUND);
+            thread.start();
+            decodeHandler = new Handler(thread.getLooper());
+        }
+        return decodeHandler;
+    }
+
+    private void runOnMainThread(Runnable task) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            task.run();
+        } else {
+            mainHandler.post(task);
+        }
+    }
+}
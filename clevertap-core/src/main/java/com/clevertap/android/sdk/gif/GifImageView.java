@@ -27,34 +27,37 @@ public class GifImageView extends AppCompatImageView implements Runnable {
 
     private static final String TAG = "GifDecoderView";
 
-    private boolean animating;
+    private volatile boolean animating;
 
     private OnAnimationStart animationStartCallback = null;
 
     private OnAnimationStop animationStopCallback = null;
 
-    private Thread animationThread;
-
     private OnFrameAvailable frameCallback = null;
 
     private long framesDisplayDuration = -1L;
 
-    private GifDecoder gifDecoder;
+    private volatile GifDecoder gifDecoder;
 
     private final Handler handler = new Handler(Looper.getMainLooper());
 
-    private boolean renderFrame;
+    private volatile boolean renderFrame;
+
+    private final GifFrameScheduler scheduler = GifFrameScheduler.getInstance();
+
+    // whether the view is driven by the scheduler
+    private volatile boolean scheduled;
 
     private boolean shouldClear;
 
-    private Bitmap tmpBitmap;
+    private volatile Bitmap tmpBitmap;
 
     private final Runnable cleanupRunnable = new Runnable() {
         @Override
         public void run() {
             tmpBitmap = null;
+            releaseDecoder(gifDecoder);
             gifDecoder = null;
-            animationThread = null;
             shouldClear = false;
         }
     };
@@ -68,6 +71,48 @@ public class GifImageView extends AppCompatImageView implements Runnable {
         }
     };
 
+    private final GifFrameScheduler.Animation animation = new GifFrameScheduler.Animation() {
+        @Override
+        public long decodeNextFrame() {
+            GifDecoder decoder = gifDecoder;
+            if ((!animating && !renderFrame) || decoder == null) {
+                return -1;
+            }
+            boolean advance = decoder.advance();
+            try {
+                tmpBitmap = decoder.getNextFrame();
+                if (frameCallback != null) {
+                    tmpBitmap = frameCallback.onFrameAvailable(tmpBitmap);
+                }
+            } catch (final ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+                //Log.w(TAG, e);
+            }
+
+            renderFrame = false;
+            if (!animating || !advance) {
+                animating = false;
+                return -1;
+            }
+            return framesDisplayDuration > 0 ? framesDisplayDuration : decoder.getNextDelay();
+        }
+
+        @Override
+        public void showDecodedFrame() {
+            updateResults.run();
+        }
+
+        @Override
+        public void onStopped() {
+            scheduled = false;
+            if (shouldClear) {
+                cleanupRunnable.run();
+            }
+            if (animationStopCallback != null) {
+                animationStopCallback.onAnimationStop();
+            }
+        }
+    };
+
     public GifImageView(final Context context, final AttributeSet attrs) {
         super(context, attrs);
     }
@@ -151,62 +196,21 @@ public class GifImageView extends AppCompatImageView implements Runnable {
         gotoFrame(0);
     }
 
+    /**
+     * Decodes the next frame and shows it, on the calling thread.
+     *
+     * @deprecated frames are decoded on a thread shared by all the views and scheduled with the
+     * display frames, use {@link #startAnimation()} or {@link #gotoFrame(int)} instead.
+     */
+    @Deprecated
     @Override
     public void run() {
-        if (animationStartCallback != null) {
-            animationStartCallback.onAnimationStart();
-        }
-
-        do {
-            if (!animating && !renderFrame) {
-                break;
-            }
-            boolean advance = gifDecoder.advance();
-
-            //milliseconds spent on frame decode
-            long frameDecodeTime = 0;
-            try {
-                long before = System.nanoTime();
-                tmpBitmap = gifDecoder.getNextFrame();
-                if (frameCallback != null) {
-                    tmpBitmap = frameCallback.onFrameAvailable(tmpBitmap);
-                }
-                frameDecodeTime = (System.nanoTime() - before) / 1000000;
-                handler.post(updateResults);
-            } catch (final ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
-                //Log.w(TAG, e);
-            }
-
-            renderFrame = false;
-            if (!animating || !advance) {
-                animating = false;
-                break;
-            }
-            try {
-                int delay = gifDecoder.getNextDelay();
-                // Sleep for frame duration minus time already spent on frame decode
-                // Actually we need next frame decode duration here,
-                // but I use previous frame time to make code more readable
-                delay -= frameDecodeTime;
-                if (delay > 0) {
-                    Thread.sleep(framesDisplayDuration > 0 ? framesDisplayDuration : delay);
-                }
-            } catch (final InterruptedException e) {
-                // suppress exception
-            }
-        } while (animating);
-
-        if (shouldClear) {
-            handler.post(cleanupRunnable);
-        }
-        animationThread = null;
-
-        if (animationStopCallback != null) {
-            animationStopCallback.onAnimationStop();
-        }
+        animation.decodeNextFrame();
+        handler.post(updateResults);
     }
 
     public void setBytes(final byte[] bytes) {
+        releaseDecoder(gifDecoder);
         gifDecoder = new GifDecoder();
         try {
             gifDecoder.read(bytes);
@@ -234,11 +238,7 @@ public class GifImageView extends AppCompatImageView implements Runnable {
 
     public void stopAnimation() {
         animating = false;
-
-        if (animationThread != null) {
-            animationThread.interrupt();
-            animationThread = null;
-        }
+        scheduler.stop(animation);
     }
 
     @Override
@@ -248,13 +248,29 @@ public class GifImageView extends AppCompatImageView implements Runnable {
     }
 
     private boolean canStart() {
-        return (animating || renderFrame) && gifDecoder != null && animationThread == null;
+        return (animating || renderFrame) && gifDecoder != null && !scheduled;
+    }
+
+    private void releaseDecoder(final GifDecoder decoder) {
+        if (decoder == null) {
+            return;
+        }
+        // the decode thread may still be decoding a frame with it
+        scheduler.runOnDecodeThread(new Runnable() {
+            @Override
+            public void run() {
+                decoder.clear();
+            }
+        });
     }
 
     private void startAnimationThread() {
         if (canStart()) {
-            animationThread = new Thread(this);
-            animationThread.start();
+            scheduled = true;
+            if (animationStartCallback != null) {
+                animationStartCallback.onAnimationStart();
+            }
+            scheduler.start(animation);
         }
     }
 
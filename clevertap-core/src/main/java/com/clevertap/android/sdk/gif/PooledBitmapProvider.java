@@ -0,0 +1,129 @@
+package com.clevertap.android.sdk.gif;
+
+import android.graphics.Bitmap;
+import androidx.annotation.NonNull;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * {@link GifDecoder.BitmapProvider} reusing the bitmaps and decoding buffers released by decoders,
+ * so GIFs shown one after the other, e.g. in an inbox list, don't allocate new full frame buffers
+ * for every decoder.
+ * <p>
+ * The pools are shared by all decoders and bounded by {@link #MAX_POOL_SIZE_BYTES}, the least
+ * recently released buffers are dropped first.
+ */
+final class PooledBitmapProvider implements GifDecoder.BitmapProvider {
+
+    static final int MAX_POOL_SIZE_BYTES = 4 * 1024 * 1024;
+
+    private static final PooledBitmapProvider INSTANCE = new PooledBitmapProvider(MAX_POOL_SIZE_BYTES);
+
+    static PooledBitmapProvider getInstance() {
+        return INSTANCE;
+    }
+
+    private final ArrayDeque<Bitmap> bitmaps = new ArrayDeque<>();
+
+    private final ArrayDeque<byte[]> byteArrays = new ArrayDeque<>();
+
+    private final ArrayDeque<int[]> intArrays = new ArrayDeque<>();
+
+    private final int maxSizeBytes;
+
+    private int sizeBytes;
+
+    PooledBitmapProvider(int maxSizeBytes) {
+        this.maxSizeBytes = maxSizeBytes;
+    }
+
+    @NonNull
+    @Override
+    public synchronized Bitmap obtain(int width, int height, Bitmap.Config config) {
+        Iterator<Bitmap> iterator = bitmaps.iterator();
+        while (iterator.hasNext()) {
+            Bitmap bitmap = iterator.next();
+            if (bitmap.getWidth() == width && bitmap.getHeight() == height && bitmap.getConfig() == config) {
+                iterator.remove();
+                sizeBytes -= bitmap.getAllocationByteCount();
+                return bitmap;
+            }
+        }
+        return Bitmap.createBitmap(width, height, config);
+    }
+
+    @Override
+    public synchronized byte[] obtainByteArray(int size) {
+        Iterator<byte[]> iterator = byteArrays.iterator();
+        while (iterator.hasNext()) {
+            byte[] array = iterator.next();
+            if (array.length == size) {
+                iterator.remove();
+                sizeBytes -= size;
+                return array;
+            }
+        }
+        return new byte[size];
+    }
+
+    @Override
+    public synchronized int[] obtainIntArray(int size) {
+        Iterator<int[]> iterator = intArrays.iterator();
+        while (iterator.hasNext()) {
+            int[] array = iterator.next();
+            if (array.length == size) {
+                iterator.remove();
+                sizeBytes -= size * 4;
+                return array;
+            }
+        }
+        return new int[size];
+    }
+
+    @Override
+    public synchronized void release(byte[] bytes) {
+        if (bytes.length > maxSizeBytes) {
+            return;
+        }
+        byteArrays.addFirst(bytes);
+        sizeBytes += bytes.length;
+        trimToSize();
+    }
+
+    @Override
+    public synchronized void release(Bitmap bitmap) {
+        if (bitmap.isRecycled() || !bitmap.isMutable() || bitmap.getAllocationByteCount() > maxSizeBytes) {
+            return;
+        }
+        bitmaps.addFirst(bitmap);
+        sizeBytes += bitmap.getAllocationByteCount();
+        trimToSize();
+    }
+
+    @Override
+    public synchronized void release(int[] array) {
+        if (array.length * 4 > maxSizeBytes) {
+            return;
+        }
+        intArrays.addFirst(array);
+        sizeBytes += array.length * 4;
+        trimToSize();
+    }
+
+    synchronized int getSizeBytes() {
+        return sizeBytes;
+    }
+
+    private void trimToSize() {
+        while (sizeBytes > maxSizeBytes) {
+            // bitmaps hold the most memory, drop them first
+            if (!bitmaps.isEmpty()) {
+                sizeBytes -= bitmaps.removeLast().getAllocationByteCount();
+            } else if (!intArrays.isEmpty()) {
+                sizeBytes -= intArrays.removeLast().length * 4;
+            } else {
+                sizeBytes -= byteArrays.removeLast().length;
+            }
+        }
+    }
+}
@@ -187,23 +187,7 @@ internal class ImpressionManager @JvmOverloads constructor(
      * @return The count of impressions within the specified time interval.
      */
     internal fun getImpressionCount(campaignId: String, timestampStart: Long): Int {
-
-        val timestamps = getImpressions(campaignId)
-
-        var low = 0
-        var high = timestamps.size - 1
-
-        while (low <= high) {
-            val mid = (low + high).ushr(1) // safe from overflows
-            val midVal = timestamps[mid]
-
-            if (midVal < timestampStart) {
-                low = mid + 1
-            } else {
-                high = mid - 1
-            }
-        }
-        return timestamps.size - low
+        return storeRegistry.impressionStore?.countSince(campaignId, timestampStart) ?: 0
     }
 
     fun getImpressions(campaignId: String): List<Long> {
@@ -5,6 +5,7 @@ import com.clevertap.android.sdk.Constants
 import com.clevertap.android.sdk.inapp.customtemplates.TemplatesManager
 import com.clevertap.android.sdk.inapp.data.CtCacheType
 import com.clevertap.android.sdk.inapp.images.FileResourceProvider
+import com.clevertap.android.sdk.inapp.images.ImageTargetSize
 import com.clevertap.android.sdk.inapp.images.repo.FileResourcesRepoImpl
 import com.clevertap.android.sdk.inapp.store.preference.StoreRegistry
 import com.clevertap.android.sdk.task.CTExecutors
@@ -18,7 +19,8 @@ internal class InAppNotificationInflater(
     private val templatesManager: TemplatesManager,
     private val executors: CTExecutors,
     fileResourceProvider: () -> FileResourceProvider,
-    private val isVideoSupported: Boolean = VideoLibChecker.haveVideoPlayerSupport
+    private val isVideoSupported: Boolean = VideoLibChecker.haveVideoPlayerSupport,
+    private val imageTargetSize: () -> ImageTargetSize? = { null }
 ) {
 
     @get:WorkerThread
@@ -90,7 +92,12 @@ internal class InAppNotificationInflater(
                 }
 
                 media.isImage() -> {
-                    val bitmap = fileResourceProvider.fetchInAppImageV1(media.mediaUrl)
+                    val targetSize = imageTargetSize()
+                    val bitmap = if (targetSize != null) {
+                        fileResourceProvider.fetchInAppImageV1(media.mediaUrl, targetSize)
+                    } else {
+                        fileResourceProvider.fetchInAppImageV1(media.mediaUrl)
+                    }
                     if (bitmap == null) {
                         inApp.error = "Error processing image as bitmap was NULL"
                         break
@@ -0,0 +1,140 @@
+package com.clevertap.android.sdk.inapp.evaluation
+
+import com.clevertap.android.sdk.Constants
+import com.clevertap.android.sdk.inapp.customtemplates.CustomTemplateInAppData
+import com.clevertap.android.sdk.inapp.store.preference.ImpressionRetention
+import com.clevertap.android.sdk.isNotNullAndEmpty
+import com.clevertap.android.sdk.orEmptyArray
+import com.clevertap.android.sdk.toList
+import org.json.JSONObject
+import java.util.concurrent.TimeUnit
+
+/**
+ * An in-app payload together with everything [EvaluationManager] needs to evaluate it, parsed once.
+ *
+ * The original [inApp] json is kept as is, since it is what gets suppressed, displayed or scheduled.
+ *
+ * @property inApp The in-app payload.
+ * @property campaignId The campaign id of the in-app.
+ * @property templateName The custom template name, or null if the in-app is not a custom template.
+ * @property whenTriggers The parsed trigger conditions of the in-app.
+ * @property whenLimits The parsed frequency and occurrence limits of the in-app.
+ * @property impressionRetention How many impressions its limits need, or null if none of them count impressions.
+ */
+internal class CompiledInApp(
+    val inApp: JSONObject,
+    val campaignId: String,
+    val templateName: String?,
+    val whenTriggers: List<TriggerAdapter>,
+    val whenLimits: List<LimitAdapter>
+) {
+
+    val impressionRetention: ImpressionRetention? = impressionRetention(whenLimits)
+
+    companion object {
+
+        // calendar based windows start at the beginning of a day, a spare day covers that and DST shifts
+        private val DAY_SECONDS = TimeUnit.DAYS.toSeconds(1)
+
+        fun compile(inApp: JSONObject): CompiledInApp {
+            return CompiledInApp(
+                inApp = inApp,
+                campaignId = inApp.optString(Constants.INAPP_ID_IN_PAYLOAD),
+                templateName = CustomTemplateInAppData.createFromJson(inApp)?.templateName,
+                whenTriggers = parseWhenTriggers(inApp),
+                whenLimits = parseWhenLimits(inApp)
+            )
+        }
+
+        fun parseWhenTriggers(inApp: JSONObject): List<TriggerAdapter> {
+            val whenTriggers = inApp.optJSONArray(Constants.INAPP_WHEN_TRIGGERS).orEmptyArray()
+            return (0 until whenTriggers.length()).mapNotNull {
+                val jsonObject = whenTriggers[it] as? JSONObject
+                jsonObject?.let { nonNullJsonObject -> TriggerAdapter(nonNullJsonObject) }
+            }
+        }
+
+        fun parseWhenLimits(inApp: JSONObject): List<LimitAdapter> {
+            val frequencyLimits = inApp.optJSONArray(Constants.INAPP_FC_LIMITS).orEmptyArray()
+            val occurrenceLimits = inApp.optJSONArray(Constants.INAPP_OCCURRENCE_LIMITS).orEmptyArray()
+
+            return (frequencyLimits.toList<JSONObject>() + occurrenceLimits.toList()).mapNotNull {
+                if (it.isNotNullAndEmpty()) {
+                    LimitAdapter(it)
+                } else null
+            }
+        }
+
+        /**
+         * Derives the [ImpressionRetention] covering every limit in [whenLimits] that is checked
+         * against stored impressions. Session limits use in-memory impressions and trigger based
+         * limits don't use impressions at all.
+         */
+        fun impressionRetention(whenLimits: List<LimitAdapter>): ImpressionRetention? {
+            var maxCount = 0
+            var maxAgeSeconds: Long? = 0
+            var hasImpressionLimit = false
+            for (limit in whenLimits) {
+                val windowSeconds = when (limit.limitType) {
+                    LimitType.Seconds -> limit.frequency.toLong()
+                    LimitType.Minutes -> TimeUnit.MINUTES.toSeconds(limit.frequency.toLong())
+                    LimitType.Hours -> TimeUnit.HOURS.toSeconds(limit.frequency.toLong())
+                    LimitType.Days -> (limit.frequency + 2) * DAY_SECONDS
+                    LimitType.Weeks -> (limit.frequency + 1) * 7 * DAY_SECONDS + DAY_SECONDS
+                    LimitType.Ever -> null
+                    LimitType.Session, LimitType.OnEvery, LimitType.OnExactly -> continue
+                }
+                hasImpressionLimit = true
+                maxCount = maxOf(maxCount, limit.limit)
+                maxAgeSeconds = if (windowSeconds == null || maxAgeSeconds == null) {
+                    null
+                } else {
+                    maxOf(maxAgeSeconds, windowSeconds)
+                }
+            }
+            return if (hasImpressionLimit) ImpressionRetention(maxCount, maxAgeSeconds) else null
+        }
+    }
+}
+
+/**
+ * Holds the compiled form of the in-app lists read from [com.clevertap.android.sdk.inapp.store.preference.InAppStore].
+ *
+ * The store keeps each decrypted list in memory and replaces the list instance whenever in-apps are
+ * written, removed or the user changes. Lists are therefore matched by identity: evaluating the same
+ * stored list again reuses its parsed triggers, limits and [InAppTriggerIndex], while a new list is
+ * compiled on first use, so replaced in-apps never need to be invalidated explicitly.
+ * Only the [maxEntries] most recently used lists are kept, which covers the client side, delayed and
+ * server side lists the store serves at any point in time, lists the store replaced are evicted as
+ * new ones are compiled.
+ */
+internal class CompiledInAppCache(private val maxEntries: Int = DEFAULT_MAX_ENTRIES) {
+
+    companion object {
+        const val DEFAULT_MAX_ENTRIES = 4
+    }
+
+    private class Entry(val source: List<JSONObject>, val index: InAppTriggerIndex)
+
+    // most recently used first
+    private val entries = ArrayList<Entry>(maxEntries)
+
+    /**
+     * @return the compiled in-apps of [source], indexed by the names they are triggered by
+     */
+    @Synchronized
+    fun get(source: List<JSONObject>): InAppTriggerIndex {
+        val position = entries.indexOfFirst { it.source === source }
+        if (position >= 0) {
+            val entry = entries.removeAt(position)
+            entries.add(0, entry)
+            return entry.index
+        }
+        val index = InAppTriggerIndex(source.map { CompiledInApp.compile(it) })
+        entries.add(0, Entry(source, index))
+        if (entries.size > maxEntries) {
+            entries.removeAt(entries.lastIndex)
+        }
+        return index
+    }
+}
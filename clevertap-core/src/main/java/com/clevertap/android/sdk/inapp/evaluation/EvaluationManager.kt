@@ -6,7 +6,6 @@ import androidx.annotation.WorkerThread
 import com.clevertap.android.sdk.Constants
 import com.clevertap.android.sdk.Logger
 import com.clevertap.android.sdk.inapp.TriggerManager
-import com.clevertap.android.sdk.inapp.customtemplates.CustomTemplateInAppData
 import com.clevertap.android.sdk.inapp.customtemplates.TemplatesManager
 import com.clevertap.android.sdk.inapp.data.ClientSideInAppsResult
 import com.clevertap.android.sdk.inapp.data.EvaluatedInAppsResult
@@ -17,7 +16,6 @@ import com.clevertap.android.sdk.isNotNullAndEmpty
 import com.clevertap.android.sdk.network.EndpointId
 import com.clevertap.android.sdk.network.EndpointId.ENDPOINT_A1
 import com.clevertap.android.sdk.network.NetworkHeadersListener
-import com.clevertap.android.sdk.orEmptyArray
 import com.clevertap.android.sdk.toList
 import com.clevertap.android.sdk.utils.Clock
 import com.clevertap.android.sdk.variables.JsonUtil
@@ -66,6 +64,9 @@ internal class EvaluationManager(
 
     private val dateFormatter = SimpleDateFormat("yyyyMMdd", Locale.getDefault())
 
+    // Parsed triggers and limits of the in-app lists held by the InAppStore
+    private val compiledInAppCache = CompiledInAppCache()
+
     /**
      * Evaluates in-app notifications based on a specific event, incorporating the event name,
      * additional properties associated with the event, and the user's location.
@@ -257,7 +258,7 @@ internal class EvaluationManager(
     internal fun evaluateServerSide(events: List<EventAdapter>) {
         // Access the in-app store from the store registry.
         storeRegistry.inAppStore?.let { store ->
-            val metadata = store.readServerSideInAppsMetaData().toList<JSONObject>()
+            val metadata = store.readServerSideInAppsMetaData()
             val eligibleInApps = evaluateEventsAgainstMetadata(events, metadata)
             trackAndSaveEvaluatedCampaignIds(eligibleInApps)
         }
@@ -273,7 +274,7 @@ internal class EvaluationManager(
      */
     internal fun evaluateServerSideInAction(events: List<EventAdapter>): List<JSONObject> {
         return storeRegistry.inAppStore?.let { store ->
-            val metadata = store.readServerSideInActionMetaData().toList<JSONObject>()
+            val metadata = store.readServerSideInActionMetaData()
             val eligibleInApps = evaluateEventsAgainstMetadata(events, metadata)
             trackAndSaveEvaluatedCampaignIds(eligibleInApps)
             eligibleInApps
@@ -323,7 +324,7 @@ internal class EvaluationManager(
         return executeClientSideEvaluationFlow(
             events,
             InAppSelectionStrategy.Immediate
-        ) { store -> store.readClientSideInApps().toList() }
+        ) { store -> store.readClientSideInApps() }
     }
 
     /**
@@ -334,7 +335,7 @@ internal class EvaluationManager(
         return executeClientSideEvaluationFlow(
             events,
             InAppSelectionStrategy.Delayed
-        ) { store -> store.readClientSideDelayedInApps().toList() }
+        ) { store -> store.readClientSideDelayedInApps() }
     }
 
     /**
@@ -359,34 +360,37 @@ internal class EvaluationManager(
     ): List<JSONObject> {
         val eligibleInApps: MutableList<JSONObject> = mutableListOf()
 
-        for (inApp in inappNotifs) {
-            val templateName = CustomTemplateInAppData.createFromJson(inApp)?.templateName
+        // only in-apps with a trigger for this event can match it
+        for (compiledInApp in compiledInAppCache.get(inappNotifs).candidatesFor(event)) {
+            val inApp = compiledInApp.inApp
+            val templateName = compiledInApp.templateName
             if (templateName != null && !templatesManager.isTemplateRegistered(templateName)) {
                 continue
             }
 
-            val campaignId = inApp.optString(Constants.INAPP_ID_IN_PAYLOAD)
+            val campaignId = compiledInApp.campaignId
 
             val matchesTrigger =
-                triggersMatcher.matchEvent(getWhenTriggers(inApp), event)
+                triggersMatcher.matchEvent(compiledInApp.whenTriggers, event)
             if (matchesTrigger) {
-                Logger.v("INAPP", "Triggers matched for event ${event.eventName} against inApp $campaignId")
+                Logger.v("INAPP") { "Triggers matched for event ${event.eventName} against inApp $campaignId" }
                 triggersManager.increment(campaignId)
+                storeRegistry.impressionStore?.setRetention(campaignId, compiledInApp.impressionRetention)
 
-                val matchesLimits = limitsMatcher.matchWhenLimits(getWhenLimits(inApp), campaignId)
-                val discardData = limitsMatcher.shouldDiscard(getWhenLimits(inApp), campaignId)
+                val matchesLimits = limitsMatcher.matchWhenLimits(compiledInApp.whenLimits, campaignId)
+                val discardData = limitsMatcher.shouldDiscard(compiledInApp.whenLimits, campaignId)
 
                 if (discardData) {
                     clearResource.invoke("") // todo pass correct url
                 }
                 if (matchesLimits) {
-                    Logger.v("INAPP", "Limits matched for event ${event.eventName} against inApp $campaignId")
+                    Logger.v("INAPP") { "Limits matched for event ${event.eventName} against inApp $campaignId" }
                     eligibleInApps.add(inApp)
                 } else {
-                    Logger.v("INAPP", "Limits did not matched for event ${event.eventName} against inApp $campaignId")
+                    Logger.v("INAPP") { "Limits did not matched for event ${event.eventName} against inApp $campaignId" }
                 }
             } else {
-                Logger.v("INAPP", "Triggers did not matched for event ${event.eventName} against inApp $campaignId")
+                Logger.v("INAPP") { "Triggers did not matched for event ${event.eventName} against inApp $campaignId" }
             }
         }
         return eligibleInApps
@@ -496,24 +500,11 @@ internal class EvaluationManager(
     }
 
     @VisibleForTesting
-    internal fun getWhenTriggers(triggerJson: JSONObject): List<TriggerAdapter> {
-        val whenTriggers = triggerJson.optJSONArray(Constants.INAPP_WHEN_TRIGGERS).orEmptyArray()
-        return (0 until whenTriggers.length()).mapNotNull {
-            val jsonObject = whenTriggers[it] as? JSONObject
-            jsonObject?.let { nonNullJsonObject -> TriggerAdapter(nonNullJsonObject) }
-        }
-    }
+    internal fun getWhenTriggers(triggerJson: JSONObject): List<TriggerAdapter> =
+        CompiledInApp.parseWhenTriggers(triggerJson)
 
-    internal fun getWhenLimits(limitJSON: JSONObject): List<LimitAdapter> {
-        val frequencyLimits = limitJSON.optJSONArray(Constants.INAPP_FC_LIMITS).orEmptyArray()
-        val occurrenceLimits = limitJSON.optJSONArray(Constants.INAPP_OCCURRENCE_LIMITS).orEmptyArray()
-
-        return (frequencyLimits.toList<JSONObject>() + occurrenceLimits.toList()).mapNotNull {
-            if (it.isNotNullAndEmpty()) {
-                LimitAdapter(it)
-            } else null
-        }
-    }
+    internal fun getWhenLimits(limitJSON: JSONObject): List<LimitAdapter> =
+        CompiledInApp.parseWhenLimits(limitJSON)
 
     /**
      * Sorts list of InApp objects with priority(100 highest - 1 lowest) and if equal priority
@@ -0,0 +1,62 @@
+package com.clevertap.android.sdk.inapp.evaluation
+
+import com.clevertap.android.sdk.Utils
+
+/**
+ * Inverted index from normalized event and profile attribute names to the in-apps that have a
+ * trigger for them.
+ *
+ * [TriggersMatcher.match] only looks further into a trigger when the normalized event names or the
+ * normalized profile attribute names are equal, so an in-app that is not indexed under one of the
+ * names of an event can never match it. Charged triggers are indexed under the normalized charged
+ * event name like any other event. In-apps without any trigger are always returned so the matcher
+ * stays the only place deciding what they match.
+ *
+ * Candidates are returned in the order of the compiled list.
+ */
+internal class InAppTriggerIndex(val inApps: List<CompiledInApp>) {
+
+    private val byEventName = HashMap<String, MutableList<Int>>()
+    private val byProfileAttrName = HashMap<String, MutableList<Int>>()
+    private val withoutTriggers = mutableListOf<Int>()
+
+    init {
+        inApps.forEachIndexed { position, inApp ->
+            if (inApp.whenTriggers.isEmpty()) {
+                withoutTriggers.add(position)
+            }
+            inApp.whenTriggers.forEach { trigger ->
+                Utils.getNormalizedName(trigger.eventName)?.let { name ->
+                    byEventName.addPosition(name, position)
+                }
+                Utils.getNormalizedName(trigger.profileAttrName)?.let { name ->
+                    byProfileAttrName.addPosition(name, position)
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the in-apps that have at least one trigger for the name or profile attribute name of
+     * [event], plus the in-apps without triggers
+     */
+    fun candidatesFor(event: EventAdapter): List<CompiledInApp> {
+        val byName = Utils.getNormalizedName(event.eventName)?.let { byEventName[it] }
+        val byProfileAttr = Utils.getNormalizedName(event.profileAttrName)?.let { byProfileAttrName[it] }
+
+        val buckets = listOfNotNull(byName, byProfileAttr, withoutTriggers.takeIf { it.isNotEmpty() })
+        return when (buckets.size) {
+            0 -> emptyList()
+            1 -> buckets[0].map { inApps[it] }
+            else -> buckets.flatten().toSortedSet().map { inApps[it] }
+        }
+    }
+
+    private fun HashMap<String, MutableList<Int>>.addPosition(name: String, position: Int) {
+        val positions = getOrPut(name) { mutableListOf() }
+        // an in-app can have several triggers for the same name
+        if (positions.lastOrNull() != position) {
+            positions.add(position)
+        }
+    }
+}
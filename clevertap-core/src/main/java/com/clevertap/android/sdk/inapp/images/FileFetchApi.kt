@@ -9,9 +9,27 @@ import com.clevertap.android.sdk.inapp.data.CtCacheType.IMAGE
 import com.clevertap.android.sdk.network.DownloadedBitmap
 import com.clevertap.android.sdk.network.DownloadedBitmapFactory
 import com.clevertap.android.sdk.network.NetworkMonitor
+import java.io.File
+import java.io.InputStream
 
 interface FileFetchApiContract {
     fun makeApiCallForFile(urlMeta: Pair<String,CtCacheType>): DownloadedBitmap
+
+    /**
+     * Downloads the file and hands its content to [sink] as a stream, [DownloadedBitmap.file] holds the
+     * file returned by [sink] on success.
+     *
+     * The default implementation streams the response body to [sink] without reading it into memory.
+     */
+    fun makeApiCallForFileToDisk(
+        urlMeta: Pair<String, CtCacheType>,
+        sink: (source: InputStream, expectedLength: Long) -> File
+    ): DownloadedBitmap {
+        return HttpBitmapLoader.downloadToFile(
+            bitmapDownloadRequest = BitmapDownloadRequest(urlMeta.first),
+            sink = sink
+        )
+    }
 }
 
 internal class FileFetchApi(
@@ -32,4 +50,14 @@ internal class FileFetchApi(
             bitmapDownloadRequest = request
         )
     }
+
+    override fun makeApiCallForFileToDisk(
+        urlMeta: Pair<String, CtCacheType>,
+        sink: (source: InputStream, expectedLength: Long) -> File
+    ): DownloadedBitmap {
+        if (networkMonitor != null && !networkMonitor.isNetworkOnline()) {
+            return DownloadedBitmapFactory.nullBitmapWithStatus(DownloadedBitmap.Status.NO_NETWORK)
+        }
+        return super.makeApiCallForFileToDisk(urlMeta, sink)
+    }
 }
\ No newline at end of file
@@ -16,12 +16,24 @@ import com.clevertap.android.sdk.inapp.images.memory.MemoryCreator
 import com.clevertap.android.sdk.inapp.images.memory.MemoryDataTransformationType.ToBitmap
 import com.clevertap.android.sdk.inapp.images.memory.MemoryDataTransformationType.ToByteArray
 import com.clevertap.android.sdk.inapp.images.memory.MemoryDataTransformationType.ToFile
+import com.clevertap.android.sdk.inapp.images.memory.fileToBitmap
+import com.clevertap.android.sdk.inapp.images.memory.fileToBytes
 import com.clevertap.android.sdk.inapp.images.repo.TAG_FILE_DOWNLOAD
 import com.clevertap.android.sdk.network.DownloadedBitmap
 import com.clevertap.android.sdk.network.NetworkMonitor
 import com.clevertap.android.sdk.utils.CTCaches
 import java.io.File
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.FutureTask
 
+/**
+ * Fetches images, gifs and files from the in-memory and disk caches, downloading them on a cache miss.
+ *
+ * Concurrent fetches of the same url and type share a single download. With [streamToDisk] the
+ * response body is written straight to the disk cache and the data is read back from the file,
+ * instead of buffering the whole body in memory before saving it.
+ */
 internal class FileResourceProvider(
     images: File,
     gifs: File,
@@ -42,8 +54,26 @@ internal class FileResourceProvider(
         logger
     ),
     private val fileMAO: FileMemoryAccessObject = FileMemoryAccessObject(ctCaches, logger),
-    private val deepLogging: Boolean = false
+    private val deepLogging: Boolean = false,
+    private val streamToDisk: Boolean = false
 ) {
+    // "type:memory key" to the download in flight for it
+    private val inFlightDownloads = ConcurrentHashMap<String, FutureTask<Any?>>()
+
+    // url to the in-memory keys of the bitmaps decoded for a target size, in access order. The least
+    // recently used url is dropped past MAX_TRACKED_IMAGE_URLS together with its bitmaps, since
+    // deleteData could no longer remove them.
+    private val imageVariantKeys =
+        object : LinkedHashMap<String, MutableSet<String>>(16, 0.75f, true) {
+            override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, MutableSet<String>>): Boolean {
+                if (size <= MAX_TRACKED_IMAGE_URLS) {
+                    return false
+                }
+                eldest.value.forEach { imageMAO.removeInMemory(it) }
+                return true
+            }
+        }
+
     private val mapOfMAO: Map<CtCacheType, List<MemoryAccessObject<*>>> =
         mapOf<CtCacheType, List<MemoryAccessObject<*>>>(
             IMAGE to listOf(imageMAO, fileMAO, gifMAO),
@@ -57,13 +87,15 @@ internal class FileResourceProvider(
         images = context.getDir(IMAGE_DIRECTORY_NAME, Context.MODE_PRIVATE),
         gifs = context.getDir(GIF_DIRECTORY_NAME, Context.MODE_PRIVATE),
         allFileTypesDir = context.getDir(ALL_FILE_TYPES_DIRECTORY_NAME, Context.MODE_PRIVATE),
-        logger = logger
+        logger = logger,
+        streamToDisk = true
     )
 
     companion object {
         private const val IMAGE_DIRECTORY_NAME = "CleverTap.Images."
         private const val GIF_DIRECTORY_NAME = "CleverTap.Gif."
         private const val ALL_FILE_TYPES_DIRECTORY_NAME = "CleverTap.Files."
+        internal const val MAX_TRACKED_IMAGE_URLS = 256
 
         @Volatile
         private var instance: FileResourceProvider? = null
@@ -83,7 +115,8 @@ internal class FileResourceProvider(
                         Context.MODE_PRIVATE
                     ),
                     logger = logger,
-                    inAppRemoteSource = FileFetchApi(networkMonitor)
+                    inAppRemoteSource = FileFetchApi(networkMonitor),
+                    streamToDisk = true
                 ).also { instance = it }
             }
         }
@@ -99,11 +132,25 @@ internal class FileResourceProvider(
 
     private fun <T> saveData(
         cacheKey: String,
+        memoryKey: String,
         data: Pair<T, ByteArray>,
         mao: MemoryAccessObject<T>
     ) {
         val savedFile = mao.saveDiskMemory(cacheKey, data.second)
-        mao.saveInMemory(cacheKey, Pair(data.first, savedFile))
+        saveInMemory(cacheKey, memoryKey, Pair(data.first, savedFile), mao)
+    }
+
+    private fun <T> saveInMemory(
+        cacheKey: String,
+        memoryKey: String,
+        data: Pair<T, File>,
+        mao: MemoryAccessObject<T>
+    ) {
+        if (mao.saveInMemory(memoryKey, data) && memoryKey != cacheKey) {
+            synchronized(imageVariantKeys) {
+                imageVariantKeys.getOrPut(cacheKey) { HashSet() }.add(memoryKey)
+            }
+        }
     }
 
     fun isFileCached(url: String): Boolean {
@@ -119,6 +166,26 @@ internal class FileResourceProvider(
     fun cachedInAppImageV1(cacheKey: String?): Bitmap? =
         fetchCachedData(Pair(cacheKey, IMAGE), ToBitmap)
 
+    /**
+     * Returns the cached image decoded for [targetSize], the in-memory cache keeps one bitmap per url
+     * and target size. Images larger than [targetSize] are downsampled when decoded from disk.
+     */
+    fun cachedInAppImageV1(cacheKey: String?, targetSize: ImageTargetSize): Bitmap? {
+        if (cacheKey == null) {
+            log("IMAGE data for null key requested")
+            return null
+        }
+        val memoryKey = targetSize.cacheKey(cacheKey)
+        imageMAO.fetchInMemory(memoryKey)?.let {
+            log("Returning requested $cacheKey IMAGE for $targetSize from in-memory cache")
+            return it.first
+        }
+        val file = mapOfMAO[IMAGE]?.firstNotNullOfOrNull { it.fetchDiskMemory(cacheKey) } ?: return null
+        val bitmap = SampledBitmapDecoder.decodeFile(file, targetSize) ?: return null
+        saveInMemory(cacheKey, memoryKey, Pair(bitmap, file), imageMAO)
+        return bitmap
+    }
+
     fun cachedInAppGifV1(cacheKey: String?): ByteArray? =
         fetchCachedData(Pair(cacheKey, GIF), ToByteArray)
 
@@ -137,7 +204,8 @@ internal class FileResourceProvider(
         return fetchData(
             urlMeta = Pair(url, IMAGE),
             mao = imageMAO,
-            cachedDataFetcherBlock = ::cachedInAppImageV1
+            cachedDataFetcherBlock = ::cachedInAppImageV1,
+            fileToDataBlock = fileToBitmap
         ) { downloadedBitmap ->
             when (downloadedBitmap.status) {
                 DownloadedBitmap.Status.SUCCESS -> {
@@ -151,11 +219,33 @@ internal class FileResourceProvider(
         }
     }
 
+    /**
+     * Same as [fetchInAppImageV1] but decodes the image downsampled to [targetSize], the full resolution
+     * bitmap is not kept in memory.
+     */
+    fun fetchInAppImageV1(url: String, targetSize: ImageTargetSize): Bitmap? {
+        return fetchData(
+            urlMeta = Pair(url, IMAGE),
+            mao = imageMAO,
+            memoryKey = targetSize.cacheKey(url),
+            cachedDataFetcherBlock = { cachedInAppImageV1(it, targetSize) },
+            fileToDataBlock = { SampledBitmapDecoder.decodeFile(it, targetSize) }
+        ) { downloadedBitmap ->
+            val bytes = downloadedBitmap.bytes
+            if (downloadedBitmap.status == DownloadedBitmap.Status.SUCCESS && bytes != null) {
+                SampledBitmapDecoder.decodeByteArray(bytes, targetSize)?.let { Pair(it, bytes) }
+            } else {
+                null
+            }
+        }
+    }
+
     fun fetchInAppGifV1(url: String): ByteArray? {
         return fetchData(
             urlMeta = Pair(url, GIF),
             mao = gifMAO,
             cachedDataFetcherBlock = ::cachedInAppGifV1,
+            fileToDataBlock = fileToBytes,
             dataToSaveBlock = ::downloadedBytesFromApi
         )
     }
@@ -165,6 +255,7 @@ internal class FileResourceProvider(
             urlMeta = Pair(url, FILES),
             mao = fileMAO,
             cachedDataFetcherBlock = ::cachedFileInBytes,
+            fileToDataBlock = fileToBytes,
             dataToSaveBlock = ::downloadedBytesFromApi
         )
     }
@@ -181,7 +272,25 @@ internal class FileResourceProvider(
         }
     }
 
+    /**
+     * Saves an image downloaded outside of this provider, e.g. by push notifications, in the
+     * in-memory and disk caches so later fetches of the url are served from the cache.
+     */
+    fun saveInAppImageV1(cacheKey: String, bitmap: Bitmap, bytes: ByteArray) {
+        saveData(cacheKey = cacheKey, memoryKey = cacheKey, data = Pair(bitmap, bytes), mao = imageMAO)
+    }
+
+    /**
+     * Same as [saveInAppImageV1] for the bytes of a gif.
+     */
+    fun saveInAppGifV1(cacheKey: String, bytes: ByteArray) {
+        saveData(cacheKey = cacheKey, memoryKey = cacheKey, data = Pair(bytes, bytes), mao = gifMAO)
+    }
+
     fun deleteData(cacheKey: String) {
+        synchronized(imageVariantKeys) {
+            imageVariantKeys.remove(cacheKey)
+        }?.forEach { imageMAO.removeInMemory(it) }
         mapOfMAO[IMAGE]?.forEach { mao ->
             val cacheType = when (mao) {
                 is InAppImageMemoryAccessObjectV1 -> IMAGE
@@ -224,7 +333,9 @@ internal class FileResourceProvider(
     private fun <T> fetchData(
         urlMeta: Pair<String, CtCacheType>,
         mao: MemoryAccessObject<T>,
+        memoryKey: String = urlMeta.first,
         cachedDataFetcherBlock: (String) -> T?,
+        fileToDataBlock: (File) -> T?,
         dataToSaveBlock: (DownloadedBitmap) -> Pair<T, ByteArray>?
     ): T? {
         val cachedData = cachedDataFetcherBlock(urlMeta.first)
@@ -234,12 +345,57 @@ internal class FileResourceProvider(
             return cachedData
         }
 
+        return singleFlight(urlMeta, memoryKey) {
+            // the download of a concurrent caller may have completed since the cache was checked
+            cachedDataFetcherBlock(urlMeta.first) ?: if (streamToDisk) {
+                downloadToDisk(urlMeta, memoryKey, mao, fileToDataBlock)
+            } else {
+                download(urlMeta, memoryKey, mao, dataToSaveBlock)
+            }
+        }
+    }
+
+    /**
+     * Runs [block] unless a fetch of the same type and memory key is in flight, in which case its
+     * result is awaited and returned instead.
+     */
+    private fun <T> singleFlight(urlMeta: Pair<String, CtCacheType>, memoryKey: String, block: () -> T?): T? {
+        val key = "${urlMeta.second.name}:$memoryKey"
+        val task = FutureTask<Any?> { block() }
+        val inFlight = inFlightDownloads.putIfAbsent(key, task)
+        if (inFlight == null) {
+            try {
+                task.run()
+            } finally {
+                inFlightDownloads.remove(key, task)
+            }
+        } else {
+            log("Waiting for in-flight download of ${urlMeta.first} ${urlMeta.second.name}")
+        }
+        return try {
+            @Suppress("UNCHECKED_CAST")
+            (inFlight ?: task).get() as T?
+        } catch (e: ExecutionException) {
+            throw e.cause ?: e
+        }
+    }
+
+    private fun <T> download(
+        urlMeta: Pair<String, CtCacheType>,
+        memoryKey: String,
+        mao: MemoryAccessObject<T>,
+        dataToSaveBlock: (DownloadedBitmap) -> Pair<T, ByteArray>?
+    ): T? {
         val downloadedData: DownloadedBitmap = inAppRemoteSource.makeApiCallForFile(urlMeta)
         return when (downloadedData.status) {
             DownloadedBitmap.Status.SUCCESS -> {
-                val dataToSave: Pair<T, ByteArray> = dataToSaveBlock(downloadedData)!! // can force unwrap since success case
+                val dataToSave: Pair<T, ByteArray> = dataToSaveBlock(downloadedData) ?: run {
+                    log("Could not decode downloaded ${urlMeta.first} ${urlMeta.second.name}")
+                    return null
+                }
                 saveData(
                     cacheKey = urlMeta.first,
+                    memoryKey = memoryKey,
                     data = dataToSave,
                     mao = mao
                 )
@@ -253,6 +409,32 @@ internal class FileResourceProvider(
         }
     }
 
+    private fun <T> downloadToDisk(
+        urlMeta: Pair<String, CtCacheType>,
+        memoryKey: String,
+        mao: MemoryAccessObject<T>,
+        fileToDataBlock: (File) -> T?
+    ): T? {
+        val downloadedData: DownloadedBitmap =
+            inAppRemoteSource.makeApiCallForFileToDisk(urlMeta) { source, expectedLength ->
+                mao.saveDiskMemory(urlMeta.first, source, expectedLength)
+            }
+        val file = downloadedData.file
+        if (downloadedData.status != DownloadedBitmap.Status.SUCCESS || file == null) {
+            log("There was a problem fetching data for ${urlMeta.second.name}, status: ${downloadedData.status}")
+            return null
+        }
+        val data = fileToDataBlock(file)
+        if (data == null) {
+            log("Could not read ${urlMeta.first} ${urlMeta.second.name} from disk, removing it")
+            mao.removeDiskMemory(urlMeta.first)
+            return null
+        }
+        saveInMemory(urlMeta.first, memoryKey, Pair(data, file), mao)
+        log("Returning requested ${urlMeta.first} ${urlMeta.second.name} with network, saved in cache")
+        return data
+    }
+
     private fun log(message: String) {
         if (deepLogging) {
             logger?.verbose(TAG_FILE_DOWNLOAD, message)
@@ -0,0 +1,101 @@
+package com.clevertap.android.sdk.inapp.images
+
+import android.content.Context
+import android.graphics.Bitmap
+import android.graphics.BitmapFactory
+import java.io.File
+
+/**
+ * The size in pixels an image is displayed at, images larger than it are decoded downsampled.
+ *
+ * @property width The target width in pixels.
+ * @property height The target height in pixels.
+ * @property allowRgb565 Decode opaque images with [Bitmap.Config.RGB_565], halving their memory at
+ * the cost of colour depth.
+ */
+data class ImageTargetSize(
+    val width: Int,
+    val height: Int,
+    val allowRgb565: Boolean = false
+) {
+
+    /**
+     * Key of the bitmap decoded for this size in the in-memory cache, the disk cache keeps a single
+     * file per url.
+     */
+    internal fun cacheKey(url: String): String {
+        val config = if (allowRgb565) "_565" else ""
+        return "${url}#${width}x${height}$config"
+    }
+
+    companion object {
+
+        /**
+         * Target size of an image shown at most full screen.
+         */
+        @JvmStatic
+        @JvmOverloads
+        fun forDisplay(context: Context, allowRgb565: Boolean = false): ImageTargetSize {
+            val displayMetrics = context.resources.displayMetrics
+            return ImageTargetSize(displayMetrics.widthPixels, displayMetrics.heightPixels, allowRgb565)
+        }
+    }
+}
+
+/**
+ * Decodes bitmaps at the smallest power of two sample size that still covers an [ImageTargetSize].
+ */
+internal object SampledBitmapDecoder {
+
+    private const val MIME_TYPE_JPEG = "image/jpeg"
+
+    /**
+     * @return the largest power of two that keeps both dimensions of the decoded image at least as
+     * large as the requested ones
+     */
+    fun calculateInSampleSize(width: Int, height: Int, reqWidth: Int, reqHeight: Int): Int {
+        var inSampleSize = 1
+        if (reqWidth <= 0 || reqHeight <= 0) {
+            return inSampleSize
+        }
+        val halfWidth = width / 2
+        val halfHeight = height / 2
+        while (halfWidth / inSampleSize >= reqWidth && halfHeight / inSampleSize >= reqHeight) {
+            inSampleSize *= 2
+        }
+        return inSampleSize
+    }
+
+    fun decodeFile(file: File, targetSize: ImageTargetSize): Bitmap? {
+        return decode(targetSize) { options -> BitmapFactory.decodeFile(file.path, options) }
+    }
+
+    fun decodeByteArray(bytes: ByteArray, targetSize: ImageTargetSize): Bitmap? {
+        return decode(targetSize) { options -> BitmapFactory.decodeByteArray(bytes, 0, bytes.size, options) }
+    }
+
+    private fun decode(
+        targetSize: ImageTargetSize,
+        decodeBlock: (BitmapFactory.Options) -> Bitmap?
+    ): Bitmap? {
+        val options = BitmapFactory.Options()
+        options.inJustDecodeBounds = true
+        decodeBlock(options)
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null
+        }
+
+        options.inSampleSize = calculateInSampleSize(
+            options.outWidth,
+            options.outHeight,
+            targetSize.width,
+            targetSize.height
+        )
+        // jpeg has no alpha channel
+        if (targetSize.allowRgb565 && options.outMimeType == MIME_TYPE_JPEG) {
+            options.inPreferredConfig = Bitmap.Config.RGB_565
+        }
+        options.inJustDecodeBounds = false
+        return decodeBlock(options)
+    }
+}
@@ -7,6 +7,7 @@ import com.clevertap.android.sdk.inapp.images.memory.MemoryDataTransformationTyp
 import com.clevertap.android.sdk.inapp.images.repo.TAG_FILE_DOWNLOAD
 import com.clevertap.android.sdk.utils.CTCaches
 import java.io.File
+import java.io.InputStream
 
 /**
  * An implementation of [MemoryAccessObject] for managing files in memory and on disk.
@@ -94,6 +95,18 @@ internal class FileMemoryAccessObject(private val ctCaches: CTCaches,private val
         val fileDiskMemory = ctCaches.fileDiskMemory()
         return fileDiskMemory.addAndReturnFileInstance(key, data)
     }
+    /**
+     * Streams a file to disk memory.
+     *
+     * @param key The key to save the file under.
+     * @param source The stream to read the file data from.
+     * @param expectedLength The expected number of bytes, -1 if unknown.
+     * @return The saved [File] object.
+     */
+    override fun saveDiskMemory(key: String, source: InputStream, expectedLength: Long): File {
+        val fileDiskMemory = ctCaches.fileDiskMemory()
+        return fileDiskMemory.addStreamAndReturnFileInstance(key, source, expectedLength)
+    }
     /**
      * Removes a file from disk memory by key.
      *
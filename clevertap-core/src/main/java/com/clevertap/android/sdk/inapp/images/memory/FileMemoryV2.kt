@@ -52,11 +52,7 @@ class FileMemoryV2(
         if (fileDiskMemory == null) {
             synchronized(diskMemoryLock) {
                 if (fileDiskMemory == null) {
-                    fileDiskMemory = DiskMemory(
-                        directory = config.diskDirectory,
-                        maxFileSizeKb = config.maxDiskSizeKB.toInt(),
-                        logger = logger
-                    )
+                    fileDiskMemory = config.createDiskMemory(logger)
                 }
             }
         }
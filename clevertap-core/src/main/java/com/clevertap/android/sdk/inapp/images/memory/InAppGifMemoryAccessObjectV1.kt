@@ -7,6 +7,7 @@ import com.clevertap.android.sdk.inapp.images.memory.MemoryDataTransformationTyp
 import com.clevertap.android.sdk.inapp.images.repo.TAG_FILE_DOWNLOAD
 import com.clevertap.android.sdk.utils.CTCaches
 import java.io.File
+import java.io.InputStream
 /**
  * An implementation of [MemoryAccessObject] for managing GIF images in memory and on disk.
  *
@@ -95,6 +96,18 @@ internal class InAppGifMemoryAccessObjectV1(private val ctCaches: CTCaches,priva
         val gifDiskMemory = ctCaches.gifDiskMemory()
         return gifDiskMemory.addAndReturnFileInstance(key, data)
     }
+    /**
+     * Streams a GIF to disk memory.
+     *
+     * @param key The key to save the GIF under.
+     * @param source The stream to read the GIF data from.
+     * @param expectedLength The expected number of bytes, -1 if unknown.
+     * @return The saved [File] object.
+     */
+    override fun saveDiskMemory(key: String, source: InputStream, expectedLength: Long): File {
+        val gifDiskMemory = ctCaches.gifDiskMemory()
+        return gifDiskMemory.addStreamAndReturnFileInstance(key, source, expectedLength)
+    }
     /**
      * Removes a GIF image from disk memory by key.
      *
@@ -53,11 +53,7 @@ class InAppGifMemoryV1(
         if (gifDiskMemory == null) {
             synchronized(diskMemoryLock) {
                 if (gifDiskMemory == null) {
-                    gifDiskMemory = DiskMemory(
-                        directory = config.diskDirectory,
-                        maxFileSizeKb = config.maxDiskSizeKB.toInt(),
-                        logger = logger
-                    )
+                    gifDiskMemory = config.createDiskMemory(logger)
                 }
             }
         }
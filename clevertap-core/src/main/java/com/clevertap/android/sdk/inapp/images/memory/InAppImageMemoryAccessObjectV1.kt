@@ -8,6 +8,7 @@ import com.clevertap.android.sdk.inapp.images.memory.MemoryDataTransformationTyp
 import com.clevertap.android.sdk.inapp.images.repo.TAG_FILE_DOWNLOAD
 import com.clevertap.android.sdk.utils.CTCaches
 import java.io.File
+import java.io.InputStream
 /**
  * An implementation of [MemoryAccessObject] for managing images in memory and on disk.
  *
@@ -106,6 +107,18 @@ internal class InAppImageMemoryAccessObjectV1(private val ctCaches: CTCaches,pri
         val imageDiskMemory = ctCaches.imageDiskMemory()
         return imageDiskMemory.addAndReturnFileInstance(key, data)
     }
+    /**
+     * Streams an image to disk memory.
+     *
+     * @param key The key to save the image under.
+     * @param source The stream to read the image data from.
+     * @param expectedLength The expected number of bytes, -1 if unknown.
+     * @return The saved [File] object.
+     */
+    override fun saveDiskMemory(key: String, source: InputStream, expectedLength: Long): File {
+        val imageDiskMemory = ctCaches.imageDiskMemory()
+        return imageDiskMemory.addStreamAndReturnFileInstance(key, source, expectedLength)
+    }
     /**
      * Removes an image from disk memory by key.
      *
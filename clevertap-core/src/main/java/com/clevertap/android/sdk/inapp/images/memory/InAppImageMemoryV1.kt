@@ -52,11 +52,7 @@ class InAppImageMemoryV1(
         if (imageDiskMemory == null) {
             synchronized(diskMemoryLock) {
                 if (imageDiskMemory == null) {
-                    imageDiskMemory = DiskMemory(
-                        directory = config.diskDirectory,
-                        maxFileSizeKb = config.maxDiskSizeKB.toInt(),
-                        logger = logger
-                    )
+                    imageDiskMemory = config.createDiskMemory(logger)
                 }
             }
         }
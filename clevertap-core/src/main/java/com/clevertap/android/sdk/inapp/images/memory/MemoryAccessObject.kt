@@ -5,6 +5,8 @@ import android.graphics.BitmapFactory
 import com.clevertap.android.sdk.inapp.images.hasValidBitmap
 import java.io.ByteArrayOutputStream
 import java.io.File
+import java.io.IOException
+import java.io.InputStream
 /**
  * Represents the types of transformations that can be applied to stored data.
  *
@@ -122,6 +124,31 @@ interface MemoryAccessObject<T> {
      */
     fun saveDiskMemory(key: String, data: ByteArray): File
 
+    /**
+     * Saves data read from [source] to disk memory without holding all of it in memory.
+     * @param key The key to save the data under.
+     * @param source The stream to read the data from, it is not closed.
+     * @param expectedLength The expected number of bytes, -1 if unknown.
+     * @return The saved [File] if successful.
+     * @throws IOException if [source] fails or ends before [expectedLength] bytes were read.
+     *
+     * The default implementation saves an empty file for [key] and copies [source] into it.
+     */
+    fun saveDiskMemory(key: String, source: InputStream, expectedLength: Long): File {
+        val file = saveDiskMemory(key, ByteArray(0))
+        val copied = try {
+            file.outputStream().use { source.copyTo(it) }
+        } catch (e: IOException) {
+            removeDiskMemory(key)
+            throw e
+        }
+        if (expectedLength != -1L && copied != expectedLength) {
+            removeDiskMemory(key)
+            throw IOException("Incomplete Download, read $copied of $expectedLength bytes")
+        }
+        return file
+    }
+
     /**
      * Removes a file from disk memory by key.
      * @param key The key to remove the data for.
@@ -1,5 +1,8 @@
 package com.clevertap.android.sdk.inapp.images.memory
 
+import com.clevertap.android.sdk.ILogger
+import com.clevertap.android.sdk.utils.DiskMemory
+import com.clevertap.android.sdk.utils.LruDiskMemory
 import java.io.File
 /**
  * Configuration dataclass for memory management.
@@ -10,10 +13,33 @@ import java.io.File
  * @property optimistic An optimistic estimate of memory availability, potentially used for additional caching.
  * @property maxDiskSizeKB The maximum size of the file allowed on disk in kilobytes.
  * @property diskDirectory The directory on disk where cached files will be stored.
+ * @property maxDiskTotalSizeKB The maximum total size of the files on disk in kilobytes, least recently used
+ * files are evicted beyond it. 0 keeps the disk storage unbounded.
  */
 data class MemoryConfig(
     val minInMemorySizeKB: Long,
     val optimistic: Long,
     val maxDiskSizeKB: Long,
-    val diskDirectory: File
-)
\ No newline at end of file
+    val diskDirectory: File,
+    val maxDiskTotalSizeKB: Long = 0
+)
+/**
+ * Creates the [DiskMemory] described by this config, a [LruDiskMemory] when [MemoryConfig.maxDiskTotalSizeKB]
+ * bounds the disk storage.
+ */
+internal fun MemoryConfig.createDiskMemory(logger: ILogger?): DiskMemory {
+    return if (maxDiskTotalSizeKB > 0) {
+        LruDiskMemory(
+            directory = diskDirectory,
+            maxFileSizeKb = maxDiskSizeKB.toInt(),
+            maxTotalSizeKb = maxDiskTotalSizeKB,
+            logger = logger
+        )
+    } else {
+        DiskMemory(
+            directory = diskDirectory,
+            maxFileSizeKb = maxDiskSizeKB.toInt(),
+            logger = logger
+        )
+    }
+}
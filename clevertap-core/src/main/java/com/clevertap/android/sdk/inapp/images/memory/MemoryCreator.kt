@@ -16,6 +16,9 @@ class MemoryCreator {
         private const val FILE_CACHE_MIN_KB: Long = 15 * 1024
         private const val IMAGE_SIZE_MAX_DISK: Long = 5 * 1024
         private const val FILE_SIZE_MAX_DISK: Long = 5 * 1024
+        private const val IMAGE_DISK_TOTAL_MAX_KB: Long = 50 * 1024
+        private const val GIF_DISK_TOTAL_MAX_KB: Long = 25 * 1024
+        private const val FILE_DISK_TOTAL_MAX_KB: Long = 50 * 1024
 
         /**
          * Creates a [InAppGifMemoryV1] object for storing GIF images.
@@ -29,7 +32,8 @@ class MemoryCreator {
                 minInMemorySizeKB = GIF_CACHE_MIN_KB,
                 optimistic = Runtime.getRuntime().maxMemory() / (1024 * 32),
                 maxDiskSizeKB = IMAGE_SIZE_MAX_DISK,
-                diskDirectory = diskMemoryLocation
+                diskDirectory = diskMemoryLocation,
+                maxDiskTotalSizeKB = GIF_DISK_TOTAL_MAX_KB
             )
             return InAppGifMemoryV1(config = defaultGifConfig, logger = logger)
         }
@@ -46,7 +50,8 @@ class MemoryCreator {
                 minInMemorySizeKB = IMAGE_CACHE_MIN_KB,
                 optimistic = Runtime.getRuntime().maxMemory() / (1024 * 32),
                 maxDiskSizeKB = IMAGE_SIZE_MAX_DISK,
-                diskDirectory = diskMemoryLocation
+                diskDirectory = diskMemoryLocation,
+                maxDiskTotalSizeKB = IMAGE_DISK_TOTAL_MAX_KB
             )
             return InAppImageMemoryV1(config = defaultImageConfig, logger = logger)
         }
@@ -63,7 +68,8 @@ class MemoryCreator {
                 minInMemorySizeKB = FILE_CACHE_MIN_KB,
                 optimistic = Runtime.getRuntime().maxMemory() / (1024 * 32),
                 maxDiskSizeKB = FILE_SIZE_MAX_DISK,
-                diskDirectory = diskMemoryLocation
+                diskDirectory = diskMemoryLocation,
+                maxDiskTotalSizeKB = FILE_DISK_TOTAL_MAX_KB
             )
             return FileMemoryV2(config = defaultFileConfig, logger = logger)
         }
@@ -5,6 +5,7 @@ import android.widget.ImageView
 import android.widget.RelativeLayout
 import com.clevertap.android.sdk.inapp.CTInAppNotificationMedia
 import com.clevertap.android.sdk.inapp.images.FileResourceProvider
+import com.clevertap.android.sdk.inapp.images.ImageTargetSize
 
 /**
  * Handler for static image media in InApp notifications.
@@ -20,8 +21,12 @@ internal class InAppImageHandler(
         config: InAppMediaConfig,
         clickListener: View.OnClickListener?
     ) {
-        val bitmap = resourceProvider.cachedInAppImageV1(media.mediaUrl) ?: return
-        val imageView = relativeLayout?.findViewById<ImageView>(config.imageViewId)
+        val layout = relativeLayout ?: return
+        val bitmap = resourceProvider.cachedInAppImageV1(
+            media.mediaUrl,
+            ImageTargetSize.forDisplay(layout.context)
+        ) ?: return
+        val imageView = layout.findViewById<ImageView>(config.imageViewId)
         imageView?.setContentDescriptionIfNotBlank(media.contentDescription)
         imageView?.setImageBitmap(bitmap)
         imageView?.visibility = View.VISIBLE
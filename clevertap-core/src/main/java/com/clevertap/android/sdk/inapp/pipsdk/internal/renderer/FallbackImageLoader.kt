@@ -4,6 +4,7 @@ import android.graphics.Bitmap
 import android.view.ViewGroup
 import android.widget.ImageView
 import com.clevertap.android.sdk.inapp.images.FileResourceProvider
+import com.clevertap.android.sdk.inapp.images.ImageTargetSize
 import com.clevertap.android.sdk.inapp.pipsdk.PIPCallbacks
 import java.util.concurrent.ExecutorService
 
@@ -57,7 +58,8 @@ internal object FallbackImageLoader {
         }
 
         val fallbackUrl = request.fallbackUrl
-        val cached = request.resourceProvider.cachedInAppImageV1(fallbackUrl)
+        val targetSize = ImageTargetSize.forDisplay(request.container.context)
+        val cached = request.resourceProvider.cachedInAppImageV1(fallbackUrl, targetSize)
         if (cached != null) {
             if (request.onBitmapReady?.invoke(cached) != true) {
                 addFallbackImageView(request.container, cached)
@@ -65,7 +67,7 @@ internal object FallbackImageLoader {
             request.onSuccess?.invoke()
         } else {
             request.mediaExecutor.execute {
-                val fetched = request.resourceProvider.fetchInAppImageV1(fallbackUrl)
+                val fetched = request.resourceProvider.fetchInAppImageV1(fallbackUrl, targetSize)
                 request.container.post {
                     if (request.isReleased()) return@post
                     if (fetched != null) {
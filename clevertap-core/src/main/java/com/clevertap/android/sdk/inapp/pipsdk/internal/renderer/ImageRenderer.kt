@@ -3,6 +3,7 @@ package com.clevertap.android.sdk.inapp.pipsdk.internal.renderer
 import android.view.ViewGroup
 import android.widget.ImageView
 import com.clevertap.android.sdk.inapp.images.FileResourceProvider
+import com.clevertap.android.sdk.inapp.images.ImageTargetSize
 import com.clevertap.android.sdk.inapp.pipsdk.PIPConfig
 import com.clevertap.android.sdk.inapp.pipsdk.internal.session.PIPSession
 import java.util.concurrent.ExecutorService
@@ -45,14 +46,15 @@ internal class ImageRenderer(
         )
 
         // Cache-first: try memory cache on main thread
-        val cached = resourceProvider.cachedInAppImageV1(config.mediaUrl)
+        val targetSize = ImageTargetSize.forDisplay(container.context)
+        val cached = resourceProvider.cachedInAppImageV1(config.mediaUrl, targetSize)
         if (cached != null) {
             iv.setImageBitmap(cached)
             onMediaReady?.invoke()
         } else {
             // Background fetch
             mediaExecutor.execute {
-                val fetched = resourceProvider.fetchInAppImageV1(config.mediaUrl)
+                val fetched = resourceProvider.fetchInAppImageV1(config.mediaUrl, targetSize)
                 iv.post {
                     if (released) return@post
                     if (fetched != null) {
@@ -0,0 +1,133 @@
+package com.clevertap.android.sdk.inapp.store.preference
+
+/**
+ * Bounds how many impressions of a campaign [ImpressionStore] keeps.
+ *
+ * Limit checks only compare an impression count against a limit, so keeping the latest [maxCount]
+ * impressions, where [maxCount] is the highest limit of the campaign, gives the same result as
+ * keeping all of them. Impressions older than [maxAgeSeconds] fall outside every frequency window of
+ * the campaign and are dropped as well. A null [maxAgeSeconds] keeps impressions regardless of age,
+ * which is needed for lifetime limits.
+ */
+internal data class ImpressionRetention(
+    val maxCount: Int,
+    val maxAgeSeconds: Long? = null
+)
+
+/**
+ * Impression timestamps (in seconds) of one campaign kept in ascending order in a circular
+ * `long[]`, so appending and dropping the oldest entries doesn't allocate per impression.
+ *
+ * This class is not thread safe, [ImpressionStore] guards all access to it.
+ */
+internal class ImpressionLog(initialCapacity: Int = DEFAULT_CAPACITY) {
+
+    companion object {
+        private const val DEFAULT_CAPACITY = 8
+
+        fun fromSerialized(serialized: String?): ImpressionLog {
+            val log = ImpressionLog()
+            if (serialized.isNullOrBlank()) {
+                return log
+            }
+            serialized.split(",").forEach { value ->
+                value.toLongOrNull()?.let { log.add(it) }
+            }
+            return log
+        }
+    }
+
+    private var timestamps = LongArray(initialCapacity.coerceAtLeast(1))
+    private var head = 0
+
+    var size = 0
+        private set
+
+    operator fun get(index: Int): Long = timestamps[(head + index) % timestamps.size]
+
+    /**
+     * Adds [timestamp] keeping the log sorted. Timestamps normally arrive in order so this is an
+     * append to the tail.
+     */
+    fun add(timestamp: Long) {
+        if (size == timestamps.size) {
+            grow()
+        }
+        var index = size
+        // shift newer entries for the rare out of order timestamp
+        while (index > 0 && get(index - 1) > timestamp) {
+            set(index, get(index - 1))
+            index--
+        }
+        set(index, timestamp)
+        size++
+    }
+
+    /**
+     * @return number of timestamps greater than or equal to [timestampStart]
+     */
+    fun countSince(timestampStart: Long): Int {
+        var low = 0
+        var high = size - 1
+        while (low <= high) {
+            val mid = (low + high).ushr(1)
+            if (get(mid) < timestampStart) {
+                low = mid + 1
+            } else {
+                high = mid - 1
+            }
+        }
+        return size - low
+    }
+
+    /**
+     * Drops the oldest entries that are not needed under [retention] anymore.
+     *
+     * @param now current time in seconds
+     * @return true if any entry was dropped
+     */
+    fun trim(retention: ImpressionRetention, now: Long): Boolean {
+        val initialSize = size
+        val cutoff = retention.maxAgeSeconds?.let { now - it }
+        while (size > 0 && (size > retention.maxCount || (cutoff != null && get(0) < cutoff))) {
+            head = (head + 1) % timestamps.size
+            size--
+        }
+        return size != initialSize
+    }
+
+    /**
+     * @return an immutable snapshot of the timestamps in ascending order
+     */
+    fun snapshot(): List<Long> {
+        val copy = LongArray(size) { get(it) }
+        return object : AbstractList<Long>() {
+            override val size: Int = copy.size
+            override fun get(index: Int): Long = copy[index]
+        }
+    }
+
+    fun serialize(): String {
+        val builder = StringBuilder(size * 11)
+        for (i in 0 until size) {
+            if (i > 0) {
+                builder.append(',')
+            }
+            builder.append(get(i))
+        }
+        return builder.toString()
+    }
+
+    private fun set(index: Int, timestamp: Long) {
+        timestamps[(head + index) % timestamps.size] = timestamp
+    }
+
+    private fun grow() {
+        val grown = LongArray(timestamps.size * 2)
+        for (i in 0 until size) {
+            grown[i] = get(i)
+        }
+        timestamps = grown
+        head = 0
+    }
+}
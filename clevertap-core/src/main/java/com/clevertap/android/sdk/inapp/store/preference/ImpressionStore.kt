@@ -9,6 +9,15 @@ import com.clevertap.android.sdk.store.preference.ICTPreference
  * Responsible for storing impressions count for a given campaign ID.
  * It stores impressions in the shared preferences named "WizRocket_counts_per_inapp:<<account_id>>:<<device_id>>"
  * with keys in the format "__impression_<<campaign_id>>".
+ *
+ * Impressions of a campaign are loaded into an [ImpressionLog] on first access and served from memory
+ * afterwards. When an [ImpressionRetention] is known for the campaign, impressions that can no longer
+ * affect any of its limits are dropped on write, so the stored list stays bounded.
+ *
+ * Writes don't rewrite the full list. New impressions are appended to a short pending list stored
+ * under "__pending_impressions_<<campaign_id>>" and every [COMPACTION_THRESHOLD] impressions the
+ * trimmed in-memory list is written back under the main key and the pending list is removed. Both
+ * lists are merged when a campaign is loaded.
  */
 class ImpressionStore(
     private val ctPreference: ICTPreference,
@@ -17,16 +26,41 @@ class ImpressionStore(
     companion object {
 
         const val PREF_PREFIX = "__impressions"
+        const val PENDING_PREF_PREFIX = "__pending_impressions"
+
+        /**
+         * Number of appended impressions after which a campaign's impressions are compacted.
+         */
+        const val COMPACTION_THRESHOLD = 16
     }
 
+    private class PendingImpressions(val serialized: StringBuilder = StringBuilder(), var count: Int = 0)
+
+    private val logs = HashMap<String, ImpressionLog>()
+    private val pending = HashMap<String, PendingImpressions>()
+    private val retentions = HashMap<String, ImpressionRetention>()
+
     /**
      * Reads the impressions for a given campaign ID.
      *
      * @param campaignId The campaign ID for which to read the impressions.
      * @return A list of impressions for the given campaign ID.
      */
+    @Synchronized
     fun read(campaignId: String): List<Long> {
-        return getLongListFromPrefs("${PREF_PREFIX}_$campaignId")
+        return getLog(campaignId).snapshot()
+    }
+
+    /**
+     * Counts the impressions for a given campaign ID recorded at or after [timestampStart].
+     *
+     * @param campaignId The campaign ID for which to count the impressions.
+     * @param timestampStart The start timestamp in seconds.
+     * @return The count of impressions since [timestampStart].
+     */
+    @Synchronized
+    fun countSince(campaignId: String, timestampStart: Long): Int {
+        return getLog(campaignId).countSince(timestampStart)
     }
 
     /**
@@ -35,11 +69,38 @@ class ImpressionStore(
      * @param campaignId The campaign ID for which to write the impression.
      * @param timestamp The timestamp of the impression.
      */
+    @Synchronized
     fun write(campaignId: String, timestamp: Long) {
-        val records = read(campaignId).toMutableList()
-        records.add(timestamp)
+        val log = getLog(campaignId)
+        log.add(timestamp)
+        retentions[campaignId]?.let { log.trim(it, timestamp) }
 
-        saveLongListToPrefs("${PREF_PREFIX}_$campaignId", records)
+        val appended = pending.getOrPut(campaignId) { PendingImpressions() }
+        if (appended.count + 1 >= COMPACTION_THRESHOLD) {
+            compact(campaignId, log, appended)
+            return
+        }
+        if (appended.count > 0) {
+            appended.serialized.append(',')
+        }
+        appended.serialized.append(timestamp)
+        appended.count++
+        ctPreference.writeString("${PENDING_PREF_PREFIX}_$campaignId", appended.serialized.toString())
+    }
+
+    /**
+     * Sets how many impressions are kept for a given campaign ID. Applied on the next [write].
+     *
+     * @param campaignId The campaign ID the retention applies to.
+     * @param retention The retention derived from the campaign limits or null to keep all impressions.
+     */
+    @Synchronized
+    internal fun setRetention(campaignId: String, retention: ImpressionRetention?) {
+        if (retention == null) {
+            retentions.remove(campaignId)
+        } else {
+            retentions[campaignId] = retention
+        }
     }
 
     /**
@@ -47,38 +108,45 @@ class ImpressionStore(
      *
      * @param campaignId The campaign ID for which to clear the impressions.
      */
+    @Synchronized
     fun clear(campaignId: String) {
+        logs.remove(campaignId)
+        pending.remove(campaignId)
+        retentions.remove(campaignId)
         ctPreference.remove("${PREF_PREFIX}_$campaignId")
+        ctPreference.remove("${PENDING_PREF_PREFIX}_$campaignId")
     }
 
-    /**
-     * Saves a list of timestamp values to shared preferences as a serialized string.
-     *
-     * @param list   The list of long timestamp values to be stored.
-     * @param prefs  The SharedPreferences instance.
-     * @param key    The key under which to store the data.
-     */
-    private fun saveLongListToPrefs(key: String, list: List<Long>) {
-        val serialized = list.joinToString(",")
-        ctPreference.writeString(key, serialized)
+    private fun getLog(campaignId: String): ImpressionLog {
+        return logs.getOrPut(campaignId) {
+            val log = ImpressionLog.fromSerialized(ctPreference.readString("${PREF_PREFIX}_$campaignId", ""))
+            val storedPending = ctPreference.readString("${PENDING_PREF_PREFIX}_$campaignId", "")
+            val appended = PendingImpressions()
+            if (!storedPending.isNullOrBlank()) {
+                appended.serialized.append(storedPending)
+                storedPending.split(",").forEach { value ->
+                    value.toLongOrNull()?.let { log.add(it) }
+                    appended.count++
+                }
+            }
+            pending[campaignId] = appended
+            log
+        }
     }
 
-    /**
-     * Retrieves a list of timestamp values from shared preferences for a given key.
-     *
-     * @param prefs  The SharedPreferences instance.
-     * @param key    The key under which the data is stored.
-     * @return A list of long timestamp values, or an empty list if no data is found.
-     */
-    private fun getLongListFromPrefs(key: String): List<Long> {
-        val serialized = ctPreference.readString(key, "")
-        if (serialized.isNullOrBlank()) return emptyList()
-        return serialized.split(",").mapNotNull { it.toLongOrNull() }
+    private fun compact(campaignId: String, log: ImpressionLog, appended: PendingImpressions) {
+        ctPreference.writeString("${PREF_PREFIX}_$campaignId", log.serialize())
+        ctPreference.remove("${PENDING_PREF_PREFIX}_$campaignId")
+        appended.serialized.setLength(0)
+        appended.count = 0
     }
 
+    @Synchronized
     override fun onChangeUser(deviceId: String, accountId: String) {
         val newPrefName =
             StoreProvider.getInstance().constructStorePreferenceName(STORE_TYPE_IMPRESSION, deviceId, accountId)
         ctPreference.changePreferenceName(newPrefName)
+        logs.clear()
+        pending.clear()
     }
 }
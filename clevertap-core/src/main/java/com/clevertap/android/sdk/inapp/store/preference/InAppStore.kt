@@ -387,6 +387,7 @@ internal class InAppStore(
      *
      * When called, it constructs a new
      * preference name using the `StoreProvider` and updates the `ctPreference` instance to use the new preference name.
+     * In-memory copies of the previous user's in-apps are dropped so they are read again from the new preference.
      *
      * @param deviceId The new unique device identifier for the changed user.
      * @param accountId The new unique account identifier for the changed user.
@@ -395,5 +396,10 @@ internal class InAppStore(
         val newPrefName =
             StoreProvider.getInstance().constructStorePreferenceName(STORE_TYPE_INAPP, deviceId, accountId)
         ctPreference.changePreferenceName(newPrefName)
+        clientSideInAppsCache = null
+        serverSideInAppsCache = null
+        clientSideDelayedInAppsCache = null
+        serverSideMetaCache = null
+        serverSideInActionCache = null
     }
 }
\ No newline at end of file
@@ -21,8 +21,11 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Locale;
 import java.util.Set;
 import java.util.concurrent.Callable;
 
@@ -44,6 +47,23 @@ public class CTInboxController {
 
     private ArrayList<CTMessageDAO> messages;
 
+    // Indexes of messages, maintained with every change of messages under messagesLock
+    private final HashMap<String, CTMessageDAO> messagesById = new HashMap<>();
+
+    // lower-cased tag to the number of messages with that tag
+    private final HashMap<String, Integer> tagCounts = new HashMap<>();
+
+    // public messages built from the DAOs, dropped when their DAO changes. Callers get copies
+    // since the inbox UI marks its messages read before the controller does
+    private final HashMap<String, CTInboxMessage> inboxMessagesById = new HashMap<>();
+
+    private int unreadMessageCount;
+
+    // earliest expiry of the messages in seconds, trimMessages() has nothing to do before it
+    private long nextExpirySeconds = Long.MAX_VALUE;
+
+    private boolean trimRequired;
+
     private final Object messagesLock = new Object();
 
     private final String userId;
@@ -80,17 +100,21 @@ public class CTInboxController {
                       Clock clock) {
         this.userId = guid;
         this.dbAdapter = adapter;
-        this.messages = this.dbAdapter.getMessages(this.userId);
         this.videoSupported = videoSupported;
         this.ctLockManager = ctLockManager;
         this.callbackManager = callbackManager;
         this.config = config;
         this.inboxDeleteCoordinator = inboxDeleteCoordinator;
         this.clock = clock;
+        setMessages(this.dbAdapter.getMessages(this.userId));
     }
 
+    @AnyThread
     public int count() {
-        return getMessages().size();
+        synchronized (messagesLock) {
+            trimMessages();
+            return messages.size();
+        }
     }
 
     @AnyThread
@@ -145,10 +169,11 @@ public class CTInboxController {
                 final List<CTInboxMessage> v2Messages = new ArrayList<>();
                 final List<PendingDelete> pendingRows = new ArrayList<>();
                 synchronized (messagesLock) {
-                    for (CTMessageDAO d : messages) {
-                        if (!idSet.contains(d.getId())) continue;
+                    for (String id : idSet) {
+                        CTMessageDAO d = messagesById.get(id);
+                        if (d == null) continue;
                         if (d.getSource() != InboxMessageSource.V2) continue;
-                        v2Messages.add(new CTInboxMessage(d.toJSON()));
+                        v2Messages.add(inboxMessageFor(d));
                         pendingRows.add(new PendingDelete(
                                 d.getId(),
                                 d.getWzrkParams(),
@@ -174,10 +199,100 @@ public class CTInboxController {
         });
     }
 
+    /**
+     * Returns the public message for the given id. Messages are built once and copied for every
+     * caller, so changes to the read state of a returned message are not seen by other callers.
+     */
     @AnyThread
-    private CTInboxMessage getInboxMessageForId(String messageId) {
-        CTMessageDAO dao = findMessageById(messageId);
-        return dao == null ? null : new CTInboxMessage(dao.toJSON());
+    public CTInboxMessage getInboxMessageForId(String messageId) {
+        synchronized (messagesLock) {
+            CTMessageDAO dao = findMessageById(messageId);
+            return dao == null ? null : inboxMessageFor(dao);
+        }
+    }
+
+    /**
+     * Returns the public messages in inbox order, copied like {@link #getInboxMessageForId(String)}.
+     */
+    @AnyThread
+    public ArrayList<CTInboxMessage> getInboxMessages() {
+        synchronized (messagesLock) {
+            trimMessages();
+            ArrayList<CTInboxMessage> inboxMessages = new ArrayList<>(messages.size());
+            for (CTMessageDAO message : messages) {
+                inboxMessages.add(inboxMessageFor(message));
+            }
+            return inboxMessages;
+        }
+    }
+
+    /**
+     * Same as {@link #getInboxMessages()} restricted to unread messages.
+     */
+    @AnyThread
+    public ArrayList<CTInboxMessage> getUnreadInboxMessages() {
+        synchronized (messagesLock) {
+            trimMessages();
+            ArrayList<CTInboxMessage> inboxMessages = new ArrayList<>(unreadMessageCount);
+            for (CTMessageDAO message : messages) {
+                if (message.isRead() == 0) {
+                    inboxMessages.add(inboxMessageFor(message));
+                }
+            }
+            return inboxMessages;
+        }
+    }
+
+    /**
+     * Returns a page of the public messages in inbox order. The page is queried from the database,
+     * the in-memory messages only supply the local read and delete state and the messages already
+     * built for the other accessors. Rows left out for that state are replaced by the following
+     * rows, so a page is only short when it is the last one.
+     */
+    @WorkerThread
+    public InboxPage getInboxMessagesPage(InboxPageRequest request) {
+        final int pageSize = request.getPageSize();
+        final long nowSeconds = clock.currentTimeSeconds();
+        final ArrayList<CTInboxMessage> inboxMessages = new ArrayList<>(pageSize);
+        InboxPageRequest query = request;
+        CTMessageDAO lastRow = null;
+        boolean hasMoreRows = true;
+        while (inboxMessages.size() < pageSize && hasMoreRows) {
+            final int needed = pageSize - inboxMessages.size();
+            List<CTMessageDAO> rows = dbAdapter.getMessagesPage(userId, query, nowSeconds, needed + 1);
+            hasMoreRows = rows.size() > needed;
+            if (hasMoreRows) {
+                rows = rows.subList(0, needed);
+            }
+            if (rows.isEmpty()) {
+                break;
+            }
+            synchronized (messagesLock) {
+                for (CTMessageDAO row : rows) {
+                    // rows deleted locally are only removed from the database asynchronously
+                    CTMessageDAO message = messagesById.get(row.getId());
+                    if (message == null) {
+                        continue;
+                    }
+                    if (request.getUnreadOnly() && message.isRead() == 1) {
+                        continue;
+                    }
+                    if (!videoSupported && message.containsVideoOrAudio()) {
+                        continue;
+                    }
+                    inboxMessages.add(inboxMessageFor(message));
+                }
+            }
+            lastRow = rows.get(rows.size() - 1);
+            query = new InboxPageRequest(pageSize, new InboxPageCursor(lastRow.getDate(), lastRow.getId()),
+                    request.getTag(), request.getUnreadOnly());
+        }
+
+        InboxPageCursor nextCursor = null;
+        if (hasMoreRows && lastRow != null) {
+            nextCursor = new InboxPageCursor(lastRow.getDate(), lastRow.getId());
+        }
+        return new InboxPage(inboxMessages, nextCursor);
     }
 
     @AnyThread
@@ -195,16 +310,16 @@ public class CTInboxController {
 
     @AnyThread
     public ArrayList<CTMessageDAO> getUnreadMessages() {
-        ArrayList<CTMessageDAO> unread = new ArrayList<>();
         synchronized (messagesLock) {
             ArrayList<CTMessageDAO> messages = getMessages();
+            ArrayList<CTMessageDAO> unread = new ArrayList<>(unreadMessageCount);
             for (CTMessageDAO message : messages) {
                 if (message.isRead() == 0) {
                     unread.add(message);
                 }
             }
+            return unread;
         }
-        return unread;
     }
 
     @AnyThread
@@ -243,7 +358,26 @@ public class CTInboxController {
 
     @AnyThread
     public int unreadCount() {
-        return getUnreadMessages().size();
+        synchronized (messagesLock) {
+            trimMessages();
+            return unreadMessageCount;
+        }
+    }
+
+    /**
+     * Returns the number of messages with the given tag, tags are matched ignoring case like the
+     * inbox tabs do.
+     */
+    @AnyThread
+    public int tagCount(String tag) {
+        if (tag == null) {
+            return 0;
+        }
+        synchronized (messagesLock) {
+            trimMessages();
+            Integer count = tagCounts.get(tag.toLowerCase(Locale.ROOT));
+            return count == null ? 0 : count;
+        }
     }
 
     // always call async
@@ -282,7 +416,7 @@ public class CTInboxController {
             haveUpdates = true;
             Logger.v("New Notification Inbox messages added");
             synchronized (messagesLock) {
-                this.messages = this.dbAdapter.getMessages(this.userId);
+                setMessages(this.dbAdapter.getMessages(this.userId));
                 trimMessages();
             }
         }
@@ -294,7 +428,9 @@ public class CTInboxController {
      * Caller must hold {@code inboxControllerLock}; firing the UI callback
      * is the caller's responsibility (mirrors the V1 {@link #updateMessages}
      * contract). The dual-filter math lives in {@link InboxV2Merger} as pure
-     * functions; this method only sequences DB reads/writes around it.
+     * functions; this method only sequences DB reads/writes around it. The
+     * in-memory list is updated with the rows the DB reports as written only,
+     * the inbox is not re-read from the DB.
      *
      * <p>When {@code source} is {@link InboxV2DeliverySource#FETCH} the method
      * additionally runs the cross-device delete sweep:
@@ -304,7 +440,7 @@ public class CTInboxController {
      *   <li>Identifies V2 rows that are {@code INDEXED} (or stale
      *       {@code PENDING_INDEXING} older than {@link #INDEXING_GRACE_SECONDS})
      *       but absent from this response — these are treated as cross-device
-     *       deletes and removed from the DB before the post-read cleanup re-read.</li>
+     *       deletes and removed from the DB and the in-memory list.</li>
      * </ol>
      * When {@code source} is {@link InboxV2DeliverySource#A1} the sweep is
      * skipped: an {@code /a1} payload is not a complete inbox snapshot, so
@@ -314,6 +450,8 @@ public class CTInboxController {
     public boolean processV2Response(List<CTMessageDAO> incoming, InboxV2DeliverySource source) {
         long nowSec = clock.currentTimeSeconds();
         boolean updated = false;
+        Set<String> indexedIds = Collections.emptySet();
+        Set<String> sweptIds = Collections.emptySet();
 
         // ── FETCH-only: promote PENDING_INDEXING rows that appeared in this
         // response to INDEXED, then sweep V2 rows absent from the authoritative
@@ -327,15 +465,17 @@ public class CTInboxController {
                 config.getLogger().verbose(config.getAccountId(),
                         "InboxV2: markIndexed " + incomingIds.size() + " msg(s)");
                 dbAdapter.markIndexed(new ArrayList<>(incomingIds), userId);
+                indexedIds = incomingIds;
             }
 
             // Sweep: INDEXED V2 rows (and stale PENDING_INDEXING older than
             // the grace cutoff) that are absent from this fetch response are
-            // treated as cross-device deletes. Deleted from DB here so the
-            // postReadCleanup re-read below won't see them.
+            // treated as cross-device deletes. Deleted from DB here and from
+            // the in-memory list by the merge below.
             long graceCutoff = nowSec - INDEXING_GRACE_SECONDS;
             Set<String> sweepable = dbAdapter.findSweepableV2Ids(userId, graceCutoff);
             sweepable.removeAll(incomingIds);
+            sweptIds = sweepable;
             if (!sweepable.isEmpty()) {
                 config.getLogger().verbose(config.getAccountId(),
                         "InboxV2: cross-device sweep — removing " + sweepable.size() + " msg(s): " + sweepable);
@@ -382,6 +522,7 @@ public class CTInboxController {
 
         List<CTMessageDAO> toUpsert = InboxV2Merger.INSTANCE.preWriteFilter(
                 incoming, pendingDeletes, pendingReads, videoSupported, nowSec);
+        List<CTMessageDAO> upserted = Collections.emptyList();
         if (!toUpsert.isEmpty()) {
             // FETCH is the authoritative source — new rows from this response are
             // server-confirmed, so write them as INDEXED directly. ON CONFLICT
@@ -391,12 +532,17 @@ public class CTInboxController {
                     dao.setIndexState(InboxIndexState.INDEXED);
                 }
             }
-            dbAdapter.upsertMessages(toUpsert);
+            upserted = dbAdapter.upsertMessages(toUpsert);
+            if (upserted.size() < toUpsert.size()) {
+                config.getLogger().verbose(config.getAccountId(), "InboxV2: wrote "
+                        + upserted.size() + " of " + toUpsert.size() + " msg(s), skipping the rest");
+            }
         }
-        updated = updated || !toUpsert.isEmpty();
+        updated = updated || !upserted.isEmpty();
 
         synchronized (messagesLock) {
-            List<CTMessageDAO> full = dbAdapter.getMessages(userId);
+            // Mirror the writes above in memory instead of re-reading the whole inbox
+            List<CTMessageDAO> full = mergeMessages(upserted, indexedIds, sweptIds);
             CleanupResult cleanup = InboxV2Merger.INSTANCE.postReadCleanup(
                     full, pendingDeletes, pendingReads, videoSupported, nowSec);
 
@@ -404,7 +550,7 @@ public class CTInboxController {
                 dbAdapter.deleteMessagesForIDs(cleanup.getToDelete(), userId);
                 updated = true;
             }
-            this.messages = new ArrayList<>(cleanup.getFinalList());
+            setMessages(cleanup.getFinalList());
         }
         return updated;
     }
@@ -416,7 +562,9 @@ public class CTInboxController {
             return false;
         }
         synchronized (messagesLock) {
-            this.messages.remove(messageDAO);
+            if (this.messages.remove(messageDAO)) {
+                removeFromIndex(messageDAO);
+            }
         }
 
         Task<Void> task = CTExecutorFactory.executors(config).postAsyncSafelyTask();
@@ -445,7 +593,13 @@ public class CTInboxController {
             return false;
 
         synchronized (messagesLock) {
-            this.messages.removeAll(messageDAOList);
+            final Set<CTMessageDAO> toRemove = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (CTMessageDAO messageDAO : messageDAOList) {
+                if (toRemove.add(messageDAO)) {
+                    removeFromIndex(messageDAO);
+                }
+            }
+            this.messages.removeAll(toRemove);
         }
 
         Task<Void> task = CTExecutorFactory.executors(config).postAsyncSafelyTask();
@@ -473,7 +627,7 @@ public class CTInboxController {
                 : 0L;
 
         synchronized (messagesLock) {
-            messageDAO.setRead(1);
+            markRead(messageDAO);
         }
         Task<Void> task = CTExecutorFactory.executors(config).postAsyncSafelyTask();
         task.addOnSuccessListener(unused -> callbackManager._notifyInboxMessagesDidUpdate() );//  //OR callbackManager.getInboxListener().inboxMessagesDidUpdate();
@@ -502,10 +656,11 @@ public class CTInboxController {
 
         synchronized (messagesLock) {
             final long now = clock.currentTimeSeconds();
-            for (CTMessageDAO dao : messages) {
-                if (!idSet.contains(dao.getId())) continue;
+            for (String id : idSet) {
+                CTMessageDAO dao = messagesById.get(id);
+                if (dao == null) continue;
                 atleastOneMessageIsValid = true;
-                dao.setRead(1);
+                markRead(dao);
                 if (dao.getSource() == InboxMessageSource.V2) {
                     pendingReadRows.add(new PendingRead(dao.getId(), resolvePendingActionExpiry(dao, now)));
                 }
@@ -536,7 +691,7 @@ public class CTInboxController {
     /**
      * Single entry point for callers that need to branch on V1 vs V2 without
      * reading source off the public {@link CTInboxMessage}. Looks up the DAO
-     * in the in-memory list under {@code messagesLock}.
+     * in the in-memory index under {@code messagesLock}.
      *
      * @return {@code true} only when the message exists in cache and is V2.
      *         Unknown ids and V1 messages both return {@code false} — both
@@ -546,22 +701,17 @@ public class CTInboxController {
     public boolean isV2Message(final String id) {
         if (id == null) return false;
         synchronized (messagesLock) {
-            for (CTMessageDAO message : messages) {
-                if (id.equals(message.getId())) {
-                    return message.getSource() == InboxMessageSource.V2;
-                }
-            }
+            CTMessageDAO message = messagesById.get(id);
+            return message != null && message.getSource() == InboxMessageSource.V2;
         }
-        return false;
     }
 
     @AnyThread
     private CTMessageDAO findMessageById(String id) {
         synchronized (messagesLock) {
-            for (CTMessageDAO message : messages) {
-                if (message.getId().equals(id)) {
-                    return message;
-                }
+            CTMessageDAO message = messagesById.get(id);
+            if (message != null) {
+                return message;
             }
         }
         Logger.v("Inbox Message for message id - " + id + " not found");
@@ -570,9 +720,15 @@ public class CTInboxController {
 
     @AnyThread
     private void trimMessages() {
-        Logger.v( "CTInboxController:trimMessages() called");
         ArrayList<CTMessageDAO> toDelete = new ArrayList<>();
         synchronized (messagesLock) {
+            final long now = clock.currentTimeSeconds();
+            if (!trimRequired && now <= nextExpirySeconds) {
+                return;
+            }
+            Logger.v( "CTInboxController:trimMessages() called");
+            trimRequired = false;
+            nextExpirySeconds = Long.MAX_VALUE;
             for (CTMessageDAO message : this.messages) {
                 if (!videoSupported && message.containsVideoOrAudio()) {
                     Logger.d(
@@ -581,10 +737,12 @@ public class CTInboxController {
                     continue;
                 }
                 long expires = message.getExpires();
-                boolean expired = (expires > 0 && clock.currentTimeSeconds() > expires);
+                boolean expired = (expires > 0 && now > expires);
                 if (expired) {
                     Logger.v("Inbox Message: " + message.getId() + " is expired - removing");
                     toDelete.add(message);
+                } else if (expires > 0) {
+                    nextExpirySeconds = Math.min(nextExpirySeconds, expires);
                 }
             }
 
@@ -598,6 +756,142 @@ public class CTInboxController {
         }
     }
 
+    /**
+     * Returns the in-memory messages with the changes of a V2 response applied, as
+     * {@link #processV2Response} wrote them to the database.
+     */
+    private List<CTMessageDAO> mergeMessages(List<CTMessageDAO> upserted, Set<String> indexedIds,
+            Set<String> sweptIds) {
+        final HashMap<String, CTMessageDAO> upsertedById = new HashMap<>(upserted.size());
+        for (CTMessageDAO dao : upserted) {
+            upsertedById.put(dao.getId(), dao);
+        }
+
+        final ArrayList<CTMessageDAO> merged = new ArrayList<>(messages.size() + upserted.size());
+        for (CTMessageDAO message : messages) {
+            if (sweptIds.contains(message.getId())) {
+                continue;
+            }
+            CTMessageDAO update = upsertedById.remove(message.getId());
+            if (update != null) {
+                // the upsert keeps the index state of existing rows
+                update.setIndexState(message.getIndexState());
+                message = update;
+            }
+            if (indexedIds.contains(message.getId())) {
+                message.setIndexState(InboxIndexState.INDEXED);
+            }
+            merged.add(message);
+        }
+        merged.addAll(upsertedById.values());
+        if (!upserted.isEmpty()) {
+            // same order as the database reads, newest first
+            Collections.sort(merged, (first, second) -> Long.compare(second.getDate(), first.getDate()));
+        }
+        return merged;
+    }
+
+    /**
+     * Replaces the in-memory messages and rebuilds their indexes. Public messages are kept for the
+     * messages that did not change.
+     */
+    private void setMessages(List<CTMessageDAO> newMessages) {
+        synchronized (messagesLock) {
+            final HashMap<String, CTMessageDAO> previousById = new HashMap<>(messagesById);
+            final HashMap<String, CTInboxMessage> previousInboxMessages = new HashMap<>(inboxMessagesById);
+            this.messages = new ArrayList<>(newMessages);
+            messagesById.clear();
+            tagCounts.clear();
+            inboxMessagesById.clear();
+            unreadMessageCount = 0;
+            for (CTMessageDAO message : this.messages) {
+                addToIndex(message);
+                CTInboxMessage inboxMessage = previousInboxMessages.get(message.getId());
+                if (inboxMessage != null && isUnchanged(previousById.get(message.getId()), message)) {
+                    inboxMessagesById.put(message.getId(), inboxMessage);
+                }
+            }
+            trimRequired = true;
+        }
+    }
+
+    private void addToIndex(CTMessageDAO message) {
+        messagesById.put(message.getId(), message);
+        if (message.isRead() == 0) {
+            unreadMessageCount++;
+        }
+        for (String tag : tagsOf(message)) {
+            Integer count = tagCounts.get(tag);
+            tagCounts.put(tag, count == null ? 1 : count + 1);
+        }
+    }
+
+    private void removeFromIndex(CTMessageDAO message) {
+        if (messagesById.get(message.getId()) == message) {
+            messagesById.remove(message.getId());
+            inboxMessagesById.remove(message.getId());
+        }
+        if (message.isRead() == 0) {
+            unreadMessageCount--;
+        }
+        for (String tag : tagsOf(message)) {
+            Integer count = tagCounts.get(tag);
+            if (count == null || count <= 1) {
+                tagCounts.remove(tag);
+            } else {
+                tagCounts.put(tag, count - 1);
+            }
+        }
+    }
+
+    private void markRead(CTMessageDAO message) {
+        if (message.isRead() == 1) {
+            return;
+        }
+        message.setRead(1);
+        unreadMessageCount--;
+        inboxMessagesById.remove(message.getId());
+    }
+
+    private CTInboxMessage inboxMessageFor(CTMessageDAO message) {
+        CTInboxMessage inboxMessage = inboxMessagesById.get(message.getId());
+        if (inboxMessage == null) {
+            inboxMessage = new CTInboxMessage(message.toJSON());
+            inboxMessagesById.put(message.getId(), inboxMessage);
+        }
+        return new CTInboxMessage(inboxMessage);
+    }
+
+    private static Set<String> tagsOf(CTMessageDAO message) {
+        final String tags = message.getTags();
+        if (tags == null || tags.isEmpty()) {
+            return Collections.emptySet();
+        }
+        final Set<String> result = new HashSet<>();
+        for (String tag : tags.split(",")) {
+            if (!tag.isEmpty()) {
+                result.add(tag.toLowerCase(Locale.ROOT));
+            }
+        }
+        return result;
+    }
+
+    private static boolean isUnchanged(CTMessageDAO previous, CTMessageDAO current) {
+        if (previous == null) {
+            return false;
+        }
+        if (previous == current) {
+            return true;
+        }
+        return previous.isRead() == current.isRead()
+                && previous.getDate() == current.getDate()
+                && previous.getExpires() == current.getExpires()
+                && previous.getTags().equals(current.getTags())
+                && String.valueOf(previous.getCampaignId()).equals(String.valueOf(current.getCampaignId()))
+                && String.valueOf(previous.getJsonData()).equals(String.valueOf(current.getJsonData()))
+                && String.valueOf(previous.getWzrkParams()).equals(String.valueOf(current.getWzrkParams()));
+    }
+
     private static long resolvePendingActionExpiry(CTMessageDAO dao, long nowSeconds) {
         long ttl = dao == null ? 0L : dao.getExpires();
         if (ttl == 0L) return 0L; // infinite TTL — never expires
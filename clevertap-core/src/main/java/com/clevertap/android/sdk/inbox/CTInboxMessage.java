@@ -132,6 +132,31 @@ public class CTInboxMessage implements Parcelable {
         }
     }
 
+    /**
+     * Copies a message so the copy's read state can change independently of the original. The
+     * contents and JSON data are shared, they are not modified after the message is built.
+     */
+    CTInboxMessage(CTInboxMessage other) {
+        actionUrl = other.actionUrl;
+        bgColor = other.bgColor;
+        body = other.body;
+        campaignId = other.campaignId;
+        customData = other.customData;
+        data = other.data;
+        date = other.date;
+        expires = other.expires;
+        imageUrl = other.imageUrl;
+        inboxMessageContents = other.inboxMessageContents == null ? null
+                : new ArrayList<>(other.inboxMessageContents);
+        isRead = other.isRead;
+        messageId = other.messageId;
+        orientation = other.orientation;
+        tags = other.tags == null ? null : new ArrayList<>(other.tags);
+        title = other.title;
+        type = other.type;
+        wzrkParams = other.wzrkParams;
+    }
+
     private CTInboxMessage(Parcel in) {
         try {
             title = in.readString();
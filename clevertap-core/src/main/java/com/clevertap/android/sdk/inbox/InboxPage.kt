@@ -0,0 +1,52 @@
+package com.clevertap.android.sdk.inbox
+
+/**
+ * Position of a page in the inbox, pages continue after the message it points at.
+ *
+ * Pages are keyed on the message date and id instead of an offset, so messages arriving or being
+ * deleted between two page reads don't shift the following pages.
+ *
+ * @property date The date in seconds of the last message of the previous page.
+ * @property messageId The id of the last message of the previous page.
+ */
+data class InboxPageCursor(
+    val date: Long,
+    val messageId: String
+)
+
+/**
+ * A request for a page of inbox messages, newest first.
+ *
+ * @property pageSize The maximum number of messages of the page.
+ * @property cursor The position to continue from, null for the first page.
+ * @property tag Only return the messages with this tag, tags are matched ignoring case like the
+ * inbox tabs do. Null returns messages of all tags.
+ * @property unreadOnly Only return the unread messages.
+ */
+data class InboxPageRequest @JvmOverloads constructor(
+    val pageSize: Int,
+    val cursor: InboxPageCursor? = null,
+    val tag: String? = null,
+    val unreadOnly: Boolean = false
+) {
+    init {
+        require(pageSize > 0) { "pageSize must be positive, was $pageSize" }
+    }
+
+    /**
+     * @return the request for the page following [page]
+     */
+    fun next(page: InboxPage): InboxPageRequest? = page.nextCursor?.let { copy(cursor = it) }
+}
+
+/**
+ * A page of inbox messages.
+ *
+ * @property messages The messages of the page, newest first. Messages are shared with the other
+ * inbox accessors, callers must not modify them.
+ * @property nextCursor The cursor of the following page, null when this is the last page.
+ */
+data class InboxPage(
+    val messages: List<CTInboxMessage>,
+    val nextCursor: InboxPageCursor?
+)
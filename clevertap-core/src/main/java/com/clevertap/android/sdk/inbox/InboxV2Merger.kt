@@ -40,7 +40,8 @@ internal object InboxV2Merger {
     }
 
     /**
-     * Pass 2 — runs after re-reading the full DB. Produces the batch delete
+     * Pass 2 — runs over the full inbox once the writes are merged into the
+     * in-memory list. Produces the batch delete
      * list plus the updated in-memory list (with pending-reads applied).
      */
     fun postReadCleanup(
@@ -0,0 +1,36 @@
+package com.clevertap.android.sdk.interfaces;
+
+import androidx.annotation.NonNull;
+import com.clevertap.android.sdk.task.TaskMetrics;
+
+/**
+ * Notifies about the timings of the background tasks run by the SDK, e.g. to report them to an APM.
+ * <p>
+ * Callbacks are made on the thread that ran the task and must return quickly, slow callbacks delay
+ * the following tasks of the same executor.
+ */
+public interface TaskMetricsListener {
+
+    /**
+     * Callback after a task finished running, successfully or not
+     *
+     * @param metrics the timings of the task
+     */
+    void onTaskCompleted(@NonNull TaskMetrics metrics);
+
+    /**
+     * Callback after a task ran longer than the long running threshold, in addition to
+     * {@link #onTaskCompleted(TaskMetrics)}
+     *
+     * @param metrics the timings of the task
+     */
+    void onLongRunningTask(@NonNull TaskMetrics metrics);
+
+    /**
+     * Callback when an executor refused to run a task, e.g. because it was shut down
+     *
+     * @param executorName the name of the executor
+     * @param taskName     the name of the task
+     */
+    void onTaskRejected(@NonNull String executorName, @NonNull String taskName);
+}
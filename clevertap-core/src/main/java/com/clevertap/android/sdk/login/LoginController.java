@@ -125,26 +125,29 @@ public class LoginController {
                     // unregister the device token on the current user
                     pushProviders.forcePushDeviceToken(false);
 
-                    // try and flush and then reset the queues
-                    baseEventQueueManager.flushQueueSync(context, EventGroup.REGULAR, null, true);
-                    baseEventQueueManager.flushQueueSync(context, EventGroup.PUSH_NOTIFICATION_VIEWED, null, true);
-                    contentFetchManager.cancelAllResponseJobs();
-                    cancelScheduledInApps();
-                    dbManager.clearQueues(context);
-
-                    // clear out the old data
-                    CoreMetaData.setActivityCount(1);
-                    sessionManager.destroySession();
-
-                    // either force restore the cached GUID or generate a new one
-                    if (cacheGuid != null) {
-                        deviceInfo.forceUpdateDeviceId(cacheGuid);
-                        callbackManager.notifyUserProfileInitialized(cacheGuid);
-                    } else if (config.getEnableCustomCleverTapId()) {
-                        deviceInfo.forceUpdateCustomCleverTapID(cleverTapID);
-                    } else {
-                        deviceInfo.forceNewDeviceID();
-                    }
+                    // try and flush and then reset the queues; a network lane flush must not send the old
+                    // user's events under the new device id, so hold the flush lock until it is set
+                    baseEventQueueManager.withFlushLock(() -> {
+                        baseEventQueueManager.flushQueueSync(context, EventGroup.REGULAR, null, true);
+                        baseEventQueueManager.flushQueueSync(context, EventGroup.PUSH_NOTIFICATION_VIEWED, null, true);
+                        contentFetchManager.cancelAllResponseJobs();
+                        cancelScheduledInApps();
+                        dbManager.clearQueues(context);
+
+                        // clear out the old data
+                        CoreMetaData.setActivityCount(1);
+                        sessionManager.destroySession();
+
+                        // either force restore the cached GUID or generate a new one
+                        if (cacheGuid != null) {
+                            deviceInfo.forceUpdateDeviceId(cacheGuid);
+                            callbackManager.notifyUserProfileInitialized(cacheGuid);
+                        } else if (config.getEnableCustomCleverTapId()) {
+                            deviceInfo.forceUpdateCustomCleverTapID(cleverTapID);
+                        } else {
+                            deviceInfo.forceNewDeviceID();
+                        }
+                    });
 
                     localDataStore.changeUser();
                     callbackManager.notifyUserProfileInitialized(deviceInfo.getDeviceID());
@@ -1,6 +1,7 @@
 package com.clevertap.android.sdk.network
 
 import android.graphics.Bitmap
+import java.io.File
 
 /**
  * Represents a downloaded bitmap with its associated status and download time.
@@ -8,13 +9,15 @@ import android.graphics.Bitmap
  * @property bitmap The downloaded bitmap. Can be null if the download was unsuccessful.
  * @property status The status of the downloaded bitmap.
  * @property downloadTime The time taken to download the bitmap, in milliseconds.
+ * @property file The file the download was streamed to, when it was not read into memory.
  */
 data class DownloadedBitmap constructor(
     val bitmap: Bitmap?,
     val status: Status,
     val downloadTime: Long,
     val bytes: ByteArray? = null,
-    val failureReason: String? = null
+    val failureReason: String? = null,
+    val file: File? = null
 ) {
 
     /**
@@ -43,6 +46,7 @@ data class DownloadedBitmap constructor(
         if (downloadTime != other.downloadTime) return false
         if (!bytes.contentEquals(other.bytes)) return false
         if (failureReason != other.failureReason) return false
+        if (file != other.file) return false
 
         return true
     }
@@ -53,6 +57,7 @@ data class DownloadedBitmap constructor(
         result = 31 * result + downloadTime.hashCode()
         result = 31 * result + bytes.contentHashCode()
         result = 31 * result + (failureReason?.hashCode() ?: 0)
+        result = 31 * result + (file?.hashCode() ?: 0)
         return result
     }
 }
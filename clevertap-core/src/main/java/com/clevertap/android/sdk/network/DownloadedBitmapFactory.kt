@@ -1,6 +1,7 @@
 package com.clevertap.android.sdk.network
 
 import android.graphics.Bitmap
+import java.io.File
 import com.clevertap.android.sdk.network.DownloadedBitmap.Status
 import com.clevertap.android.sdk.network.DownloadedBitmap.Status.SUCCESS
 
@@ -52,4 +53,22 @@ object DownloadedBitmapFactory {
             bytes = data
         )
     }
+
+    /**
+     * Creates a DownloadedBitmap object for a download that was streamed to a file.
+     *
+     * @param downloadTime The time taken for the download operation in millis.
+     * @param file The file holding the downloaded data.
+     */
+    fun successFile(
+        downloadTime: Long,
+        file: File
+    ): DownloadedBitmap {
+        return DownloadedBitmap(
+            bitmap = null,
+            status = SUCCESS,
+            downloadTime = downloadTime,
+            file = file
+        )
+    }
 }
@@ -38,6 +38,14 @@ import com.clevertap.android.sdk.toJsonOrNull
 import org.json.JSONArray
 import org.json.JSONException
 import org.json.JSONObject
+import java.net.SocketTimeoutException
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executor
+import java.util.concurrent.FutureTask
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.locks.ReentrantLock
 
 internal class NetworkManager constructor(
     private val context: Context,
@@ -53,20 +61,41 @@ internal class NetworkManager constructor(
     private val networkRepo: NetworkRepo,
     private val queueHeaderBuilder: QueueHeaderBuilder,
     private val cleverTapResponseHandler: ClevertapResponseHandler,
-    private val logger: ILogger = config.logger
+    private val logger: ILogger = config.logger,
+    private val pipelinedFlush: Boolean = false,
+    private val batchSizer: QueueBatchSizer = QueueBatchSizer(adaptive = false) { false },
+    private val prefetchExecutor: Executor = Executor { command ->
+        CTExecutorFactory.executors(config).ioTaskNonUi<Unit>()
+            .execute("prefetchQueuedEvents") { command.run() }
+    },
+    private val responseExecutor: Executor? = null
 ) {
 
     companion object {
-        private const val BATCH_SIZE = 50
+        // Wakes up a thread waiting for the flush lock, see lockFlush
+        private val FLUSH_LOCK_RELEASED = Runnable { }
     }
 
-    private var responseFailureCount = 0
+    // Only one thread sends the queue at a time, the network lane and the threads flushing
+    // synchronously. The domain and handshake state is only changed while holding it.
+    private val flushLock = ReentrantLock()
 
-    private var networkRetryCount = 0
+    // Responses handed to responseExecutor and the releases of flushLock awaited by lockFlush
+    private val pendingResponses = LinkedBlockingQueue<Runnable>()
 
+    private val flushLockWaiters = AtomicInteger()
+
+    // Set while the queue is sent from the network lane, see runOnNetworkLane
+    private val onNetworkLane = ThreadLocal<Boolean>()
+
+    private val responseFailureCount = AtomicInteger()
+
+    private val networkRetryCount = AtomicInteger()
+
+    // guarded by this, see getDelayFrequency
     private var minDelayFrequency = 0
 
-    private val mNetworkHeadersListeners: MutableList<NetworkHeadersListener> = ArrayList()
+    private val mNetworkHeadersListeners: MutableList<NetworkHeadersListener> = CopyOnWriteArrayList()
 
     fun addNetworkHeadersListener(listener: NetworkHeadersListener) {
         mNetworkHeadersListeners.add(listener)
@@ -79,6 +108,13 @@ internal class NetworkManager constructor(
     /**
      * Flushes the events queue from the local database to CleverTap servers.
      *
+     * When [pipelinedFlush] is enabled the next batch is read from the database while the current
+     * one is being sent. The next batch only contains rows after the current one and sent rows are
+     * still deleted batch by batch after the server acknowledged them, so a failed request leaves the
+     * queue exactly as it would be without pipelining.
+     *
+     * The size of every batch is chosen by [batchSizer].
+     *
      * @param context    The Context object.
      * @param eventGroup The EventGroup indicating the type of events to be flushed.
      * @param caller     The optional caller identifier.
@@ -89,18 +125,121 @@ internal class NetworkManager constructor(
         eventGroup: EventGroup,
         caller: String?,
         isUserSwitchFlush: Boolean
+    ) {
+        withFlushLock {
+            flushDBQueueLocked(context, eventGroup, caller, isUserSwitchFlush)
+        }
+    }
+
+    /**
+     * Runs [block], which sends the queue, on the network lane: its responses are handed to
+     * [responseExecutor] and processed there.
+     */
+    fun <T> runOnNetworkLane(block: () -> T): T {
+        onNetworkLane.set(true)
+        try {
+            return block()
+        } finally {
+            onNetworkLane.remove()
+        }
+    }
+
+    private fun isOnNetworkLane(): Boolean = responseExecutor != null && onNetworkLane.get() == true
+
+    /**
+     * Runs [block] while no other thread sends the queue, e.g. to send requests and change the
+     * domain, or to clear the queue and switch the device id without a flush running meanwhile.
+     * The lock is reentrant, [block] may flush the queue itself.
+     */
+    fun <T> withFlushLock(block: () -> T): T {
+        lockFlush()
+        try {
+            return block()
+        } finally {
+            flushLock.unlock()
+            if (!flushLock.isHeldByCurrentThread && flushLockWaiters.get() > 0) {
+                pendingResponses.add(FLUSH_LOCK_RELEASED)
+            }
+        }
+    }
+
+    /**
+     * Waits for a flush running on another thread. A flush on the network lane may wait for its
+     * responses to be processed on this thread, so they are handed over and processed while
+     * waiting, until the flush releases the lock.
+     */
+    private fun lockFlush() {
+        if (responseExecutor == null || isOnNetworkLane()) {
+            flushLock.lock()
+            return
+        }
+        if (flushLock.tryLock()) {
+            return
+        }
+        // registered before trying again, so a release after the failed try always wakes us up
+        flushLockWaiters.incrementAndGet()
+        try {
+            while (!flushLock.tryLock()) {
+                pendingResponses.take().run()
+            }
+        } finally {
+            flushLockWaiters.decrementAndGet()
+        }
+    }
+
+    /**
+     * Runs [handleResponse] on [responseExecutor] and waits for it, so responses are processed on the
+     * thread recording events while the queue is sent from the network lane.
+     */
+    private fun processResponse(handleResponse: () -> Unit) {
+        val executor = responseExecutor
+        if (executor == null || !isOnNetworkLane()) {
+            handleResponse()
+            return
+        }
+        val task = FutureTask<Unit> { handleResponse() }
+        pendingResponses.add(task)
+        executor.execute { processPendingResponses() }
+        try {
+            task.get()
+        } catch (e: ExecutionException) {
+            throw e.cause ?: e
+        }
+    }
+
+    private fun processPendingResponses() {
+        while (true) {
+            val task = pendingResponses.poll() ?: return
+            if (task === FLUSH_LOCK_RELEASED && flushLockWaiters.get() > 0) {
+                // meant for a thread waiting in lockFlush
+                pendingResponses.add(task)
+                return
+            }
+            task.run()
+        }
+    }
+
+    private fun flushDBQueueLocked(
+        context: Context,
+        eventGroup: EventGroup,
+        caller: String?,
+        isUserSwitchFlush: Boolean
     ) {
         config.logger.verbose(config.accountId, "Starting queue flush to CleverTap servers")
         var continueProcessing = true
         var totalEventsSent = 0
+        var prefetchedBatch: FutureTask<QueueData>? = null
 
         while (continueProcessing) {
             // Retrieve combined batch of events (events + profile events)
-            val queueData: QueueData = databaseManager.getQueuedEvents(
-                context = context,
-                batchSize = BATCH_SIZE,
-                eventGroup = eventGroup
-            )
+            val queueData: QueueData = prefetchedBatch?.let { awaitPrefetchedBatch(it) }
+                ?: databaseManager.getQueuedEvents(
+                    context = context,
+                    batchSize = batchSizer.batchSize,
+                    eventGroup = eventGroup,
+                    maxBytes = batchSizer.maxBytes
+                )
+            prefetchedBatch = null
 
             if (queueData.isEmpty) {
                 config.logger.verbose(config.accountId, "No more events in queue")
@@ -113,18 +252,25 @@ internal class NetworkManager constructor(
                 config.accountId,
                 "Processing batch of $batchSize events (${queueData.eventIds.size} from events, ${queueData.profileEventIds.size} from profile)"
             )
+            if (pipelinedFlush && queueData.hasMore) {
+                prefetchedBatch = prefetchBatchAfter(context, eventGroup, queueData)
+            }
+
             // Send the combined batch to CleverTap servers
             val networkCallSuccess = sendQueue(
                 context = context,
                 eventGroup = eventGroup,
                 queue = queue,
                 caller = caller,
-                isUserSwitchFlush = isUserSwitchFlush
+                isUserSwitchFlush = isUserSwitchFlush,
+                batchSizer = batchSizer,
+                serializedQueue = queueData.serializedData
             )
 
             if (networkCallSuccess.not()) {
                 // Network error - don't cleanup, events will be retried
                 config.logger.verbose(config.accountId, "Failed to send batch - will retry later")
+                prefetchedBatch?.cancel(false)
                 controllerManager.invokeCallbacksForNetworkError()
                 controllerManager.invokeBatchListener(queue, false)
                 break
@@ -133,6 +279,7 @@ internal class NetworkManager constructor(
             // Notify success listeners
             controllerManager.invokeBatchListener(queue, true)
             totalEventsSent += batchSize
+            batchSizer.onBatchSent(queueData)
 
             // cleanup events from table
             if (eventGroup == EventGroup.PUSH_NOTIFICATION_VIEWED) {
@@ -161,8 +308,47 @@ internal class NetworkManager constructor(
         )
     }
 
+    private fun prefetchBatchAfter(
+        context: Context,
+        eventGroup: EventGroup,
+        previous: QueueData
+    ): FutureTask<QueueData>? {
+        // read on the flushing thread, batchSizer is not used from the prefetch thread
+        val batchSize = batchSizer.batchSize
+        val maxBytes = batchSizer.maxBytes
+        val task = FutureTask {
+            databaseManager.getQueuedEventsAfter(
+                context = context,
+                batchSize = batchSize,
+                eventGroup = eventGroup,
+                previous = previous,
+                maxBytes = maxBytes
+            )
+        }
+        return try {
+            prefetchExecutor.execute(task)
+            task
+        } catch (e: Exception) {
+            logger.verbose(config.accountId, "Could not prefetch next batch, it will be read after sending", e)
+            null
+        }
+    }
+
+    /**
+     * @return the prefetched batch or null when prefetching failed and the batch should be read again
+     */
+    private fun awaitPrefetchedBatch(task: FutureTask<QueueData>): QueueData? {
+        return try {
+            task.get()
+        } catch (e: Exception) {
+            logger.verbose(config.accountId, "Prefetching next batch failed, reading it again", e)
+            null
+        }
+    }
+
+    @Synchronized
     fun getDelayFrequency(): Int {
-        minDelayFrequency = networkRepo.getMinDelayFrequency(minDelayFrequency, networkRetryCount)
+        minDelayFrequency = networkRepo.getMinDelayFrequency(minDelayFrequency, networkRetryCount.get())
         logger.debug(
             config.accountId, "Setting delay frequency to $minDelayFrequency"
         )
@@ -172,7 +358,7 @@ internal class NetworkManager constructor(
     @WorkerThread
     fun initHandshake(eventGroup: EventGroup, handshakeSuccessCallback: Runnable) {
         // Always set this to 0 so that the handshake is not performed during a HTTP failure
-        responseFailureCount = 0
+        responseFailureCount.set(0)
         performHandshakeForDomain(eventGroup, handshakeSuccessCallback)
     }
 
@@ -181,7 +367,7 @@ internal class NetworkManager constructor(
         val needsHandshake = ctApiWrapper.needsHandshake(
             eventGroup == EventGroup.PUSH_NOTIFICATION_VIEWED
         )
-        val needHandshakeDueToFailure = responseFailureCount > 5
+        val needHandshakeDueToFailure = responseFailureCount.get() > 5
 
         if (needHandshakeDueToFailure) {
             setDomain(null)
@@ -308,6 +494,9 @@ internal class NetworkManager constructor(
      * @param eventGroup The EventGroup representing the type of event queue.
      * @param queue      The JSON array containing the event queue.
      * @param caller     The optional caller identifier.
+     * @param batchSizer Notified of timeouts and response codes when sending a batch of the queue.
+     * @param serializedQueue Optional json text of every item of [queue], written instead of
+     * serializing [queue] again.
      * @return True if the queue was sent successfully, false otherwise.
      */
     fun sendQueue(
@@ -315,7 +504,9 @@ internal class NetworkManager constructor(
         eventGroup: EventGroup,
         queue: JSONArray?,
         caller: String?,
-        isUserSwitchFlush: Boolean = false
+        isUserSwitchFlush: Boolean = false,
+        batchSizer: QueueBatchSizer? = null,
+        serializedQueue: List<String>? = null
     ): Boolean {
         if (queue == null || queue.length() <= 0) {
             // Empty queue, no need to send
@@ -331,11 +522,8 @@ internal class NetworkManager constructor(
         val queueHeader: JSONObject? = getQueueHeader(caller)
         applyQueueHeaderListeners(queueHeader, endpointId)
 
-        val requestBody = SendQueueRequestBody(queueHeader, queue)
-        logger.debug(
-            config.accountId,
-            "Send queue contains " + queue.length() + " items: " + requestBody
-        )
+        val requestBody = SendQueueRequestBody(queueHeader, queue, serializedQueue)
+        logger.debug(config.accountId) { "Send queue contains " + queue.length() + " items: " + requestBody }
         try {
             val headersDoneListener = {
                 notifyHeaderListeners(
@@ -343,10 +531,13 @@ internal class NetworkManager constructor(
                     endpointId
                 )
             }
-            return networkCall(eventGroup, requestBody, headersDoneListener, isUserSwitchFlush)
+            return networkCall(eventGroup, requestBody, headersDoneListener, isUserSwitchFlush, batchSizer)
         } catch (e: Exception) {
-            networkRetryCount++
-            responseFailureCount++
+            if (e is SocketTimeoutException) {
+                batchSizer?.onTimeout()
+            }
+            networkRetryCount.incrementAndGet()
+            responseFailureCount.incrementAndGet()
             logger.debug(
                 config.accountId,
                 "An exception occurred while sending the queue, will retry: ", e)
@@ -361,9 +552,11 @@ internal class NetworkManager constructor(
         eventGroup: EventGroup,
         requestBody: SendQueueRequestBody,
         notifyNetworkHeaderListeners: () -> Unit,
-        isUserSwitchFlush: Boolean
+        isUserSwitchFlush: Boolean,
+        batchSizer: QueueBatchSizer?
     ): Boolean = callApiForEventGroup(eventGroup, requestBody).use { response ->
-        networkRetryCount = 0
+        networkRetryCount.set(0)
+        batchSizer?.onResponseCode(response.code)
         return when (eventGroup) {
             EventGroup.VARIABLES -> {
                 handleVariablesResponse(response = response)
@@ -376,18 +569,26 @@ internal class NetworkManager constructor(
                     notifyNetworkHeaderListeners = notifyNetworkHeaderListeners,
                     isUserSwitchFlush = isUserSwitchFlush
                 ).also { isProcessed ->
-                    responseFailureCount = if (isProcessed) 0 else responseFailureCount + 1
+                    updateResponseFailureCount(isProcessed)
                 }
             }
 
             EventGroup.PUSH_NOTIFICATION_VIEWED -> {
                 handlePushImpressionsResponse(response = response).also { isProcessed ->
-                    responseFailureCount = if (isProcessed) 0 else responseFailureCount + 1
+                    updateResponseFailureCount(isProcessed)
                 }
             }
         }
     }
 
+    private fun updateResponseFailureCount(isProcessed: Boolean) {
+        if (isProcessed) {
+            responseFailureCount.set(0)
+        } else {
+            responseFailureCount.incrementAndGet()
+        }
+    }
+
     private fun notifyHeaderListeners(
         requestBody: SendQueueRequestBody,
         endpointId: EndpointId
@@ -503,11 +704,11 @@ internal class NetworkManager constructor(
                 logger.verbose(config.accountId, "Normal Request cause encryption failed = $body")
             }
         }
-        return ctApiWrapper.ctApi.sendQueue(body = body.toString())
+        return ctApiWrapper.ctApi.sendQueue(body = body)
     }
 
     private fun sendImpressionsApi(body: SendQueueRequestBody): Response {
-        return ctApiWrapper.ctApi.sendImpressions(body = body.toString())
+        return ctApiWrapper.ctApi.sendImpressions(body = body)
     }
 
     private fun handleVariablesResponse(response: Response): Boolean {
@@ -515,7 +716,7 @@ internal class NetworkManager constructor(
             val bodyString = response.readBody()
             val bodyJson = bodyString.toJsonOrNull()
 
-            logger.verbose(config.accountId, "Processing variables response : $bodyJson")
+            logger.verbose(config.accountId) { "Processing variables response : $bodyJson" }
 
             arpResponse.processResponse(bodyJson, bodyString, this.context)
             return true
@@ -577,10 +778,7 @@ internal class NetworkManager constructor(
         networkRepo.setLastRequestTs(currentRequestTimestamp)
         setFirstRequestTimestampIfNeeded(currentRequestTimestamp)
 
-        logger.verbose(
-            config.accountId,
-            "Processing response : ${response.readBody().toJsonOrNull()}"
-        )
+        logger.verbose(config.accountId) { "Processing response : ${response.readBody().toJsonOrNull()}" }
         return true
     }
 
@@ -611,7 +809,7 @@ internal class NetworkManager constructor(
         var bodyString: String? = response.readBody()
         var bodyJson: JSONObject? = bodyString.toJsonOrNull()
 
-        logger.verbose(config.accountId, "Processing response : $bodyJson")
+        logger.verbose(config.accountId) { "Processing response : $bodyJson" }
         if (bodyString.isNullOrBlank() || bodyJson == null) {
             // no-op: there is nothing to handle, considering success as per legacy contract.
             return true
@@ -633,12 +831,16 @@ internal class NetworkManager constructor(
                 }
             }
         }
-        cleverTapResponseHandler.handleResponse(
-            isFullResponse,
-            bodyJson,
-            bodyString,
-            isUserSwitchFlush
-        )
+        val responseJson = bodyJson
+        val responseString = bodyString
+        processResponse {
+            cleverTapResponseHandler.handleResponse(
+                isFullResponse,
+                responseJson,
+                responseString,
+                isUserSwitchFlush
+            )
+        }
         return true
     }
 
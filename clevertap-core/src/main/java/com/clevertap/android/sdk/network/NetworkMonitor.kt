@@ -169,6 +169,15 @@ internal class NetworkMonitor constructor(
         return connected
     }
 
+    /**
+     * Wifi and ethernet are treated as unmetered, fast connections.
+     */
+    fun isUnmeteredConnection(): Boolean {
+        val state = getCurrentNetworkState()
+        return state.isAvailable &&
+                (state.networkType == NetworkType.WIFI || state.networkType == NetworkType.ETHERNET)
+    }
+
     fun getNetworkType(): NetworkType {
         val type = getCurrentNetworkState().networkType
         logger.verbose(accountId, "getNetworkType: result=$type")
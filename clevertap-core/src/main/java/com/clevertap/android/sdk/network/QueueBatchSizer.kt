@@ -0,0 +1,75 @@
+package com.clevertap.android.sdk.network
+
+import com.clevertap.android.sdk.db.QueueData
+import java.net.HttpURLConnection
+
+/**
+ * Chooses how many events, and how many bytes of stored event data encoded as UTF-8, go in one
+ * request of [NetworkManager.flushDBQueue].
+ *
+ * With the fixed policy every batch has [DEFAULT_BATCH_SIZE] events and no byte bound. With the
+ * adaptive policy batches double, in count and in bytes, after a batch was sent on an unmetered
+ * connection while more events are waiting, whether it stopped on the count or on the byte bound,
+ * so large offline queues drain in fewer round trips. They halve after a timeout, a 413 or a 5xx response, so an oversized batch is not resent as
+ * it is on a poor network. Sizes stay between the MIN and MAX bounds.
+ *
+ * Only used from the thread flushing the queue.
+ */
+internal class QueueBatchSizer(
+    private val adaptive: Boolean,
+    private val isUnmeteredConnection: () -> Boolean
+) {
+
+    companion object {
+        const val DEFAULT_BATCH_SIZE = 50
+        const val MIN_BATCH_SIZE = 10
+        const val MAX_BATCH_SIZE = 400
+
+        const val DEFAULT_MAX_BYTES = 256 * 1024
+        const val MIN_MAX_BYTES = 32 * 1024
+        const val MAX_MAX_BYTES = 2 * 1024 * 1024
+
+        private const val HTTP_PAYLOAD_TOO_LARGE = 413
+    }
+
+    var batchSize: Int = DEFAULT_BATCH_SIZE
+        private set
+
+    var maxBytes: Int = if (adaptive) DEFAULT_MAX_BYTES else Int.MAX_VALUE
+        private set
+
+    /**
+     * Called after [queueData] was sent successfully, grows the batches if [QueueData.hasMore].
+     */
+    fun onBatchSent(queueData: QueueData) {
+        if (!adaptive || !queueData.hasMore || !isUnmeteredConnection()) {
+            return
+        }
+        batchSize = (batchSize * 2).coerceAtMost(MAX_BATCH_SIZE)
+        maxBytes = (maxBytes * 2).coerceAtMost(MAX_MAX_BYTES)
+    }
+
+    /**
+     * Called when a request timed out.
+     */
+    fun onTimeout() {
+        shrink()
+    }
+
+    /**
+     * Called with the status code of every queue request that got a response.
+     */
+    fun onResponseCode(code: Int) {
+        if (code == HTTP_PAYLOAD_TOO_LARGE || code >= HttpURLConnection.HTTP_INTERNAL_ERROR) {
+            shrink()
+        }
+    }
+
+    private fun shrink() {
+        if (!adaptive) {
+            return
+        }
+        batchSize = (batchSize / 2).coerceAtLeast(MIN_BATCH_SIZE)
+        maxBytes = (maxBytes / 2).coerceAtLeast(MIN_MAX_BYTES)
+    }
+}
@@ -6,6 +6,7 @@ import com.clevertap.android.sdk.isNotNullAndBlank
 import com.clevertap.android.sdk.network.http.CtHttpClient
 import com.clevertap.android.sdk.network.http.Request
 import com.clevertap.android.sdk.network.http.Response
+import com.clevertap.android.sdk.network.http.StreamingBody
 import androidx.core.net.toUri
 
 internal class CtApi(
@@ -21,7 +22,8 @@ internal class CtApi(
     accountToken: String,
     sdkVersion: String,
     private val logger: Logger,
-    private val logTag: String
+    private val logTag: String,
+    private val gzipRequests: Boolean = false
 ) {
 
     companion object {
@@ -81,6 +83,31 @@ internal class CtApi(
             )
         )
 
+    /**
+     * Sends the queue by streaming [body] to the connection, gzip compressed if enabled.
+     */
+    fun sendQueue(body: SendQueueRequestBody): Response =
+        httpClient.execute(
+            createRequest(
+                baseUrl = getActualDomain(isViewedEvent = false) ?: defaultDomain,
+                relativeUrl = "a1",
+                body = null,
+                streamingBody = body,
+                gzip = gzipRequests
+            )
+        )
+
+    fun sendImpressions(body: SendQueueRequestBody): Response =
+        httpClient.execute(
+            createRequest(
+                baseUrl = getActualDomain(isViewedEvent = true) ?: defaultDomain,
+                relativeUrl = "a1",
+                body = null,
+                streamingBody = body,
+                gzip = gzipRequests
+            )
+        )
+
     fun sendImpressions(body: String): Response =
         httpClient.execute(
             createRequest(
@@ -263,7 +290,9 @@ internal class CtApi(
         relativeUrl: String,
         body: String?,
         includeTs: Boolean = true,
-        headers: Map<String, String> = defaultHeaders
+        headers: Map<String, String> = defaultHeaders,
+        streamingBody: StreamingBody? = null,
+        gzip: Boolean = false
     ) = Request(
         url = getUriForPath(
             baseUrl = baseUrl,
@@ -271,7 +300,9 @@ internal class CtApi(
             includeTs = includeTs
         ),
         headers = headers,
-        body = body
+        body = body,
+        streamingBody = streamingBody,
+        gzip = gzip
     )
 
     private fun getUriForPath(
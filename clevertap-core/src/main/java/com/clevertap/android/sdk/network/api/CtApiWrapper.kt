@@ -67,7 +67,8 @@ internal object CtApiProvider {
             accountToken = config.accountToken,
             sdkVersion = deviceInfo.sdkVersion.toString(),
             logger = config.logger,
-            logTag = config.accountId
+            logTag = config.accountId,
+            gzipRequests = config.isGzipRequestsEnabled
         )
     }
 }
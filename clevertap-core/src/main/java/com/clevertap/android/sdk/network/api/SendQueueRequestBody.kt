@@ -1,17 +1,66 @@
 package com.clevertap.android.sdk.network.api
 
+import com.clevertap.android.sdk.network.http.StreamingBody
 import org.json.JSONArray
 import org.json.JSONObject
+import java.io.StringWriter
+import java.io.Writer
 
+/**
+ * @param serializedQueue optional json text of every element of [queue], in the same order. When
+ * given it is written as is instead of serializing [queue] again, e.g. for events read from the
+ * database where the stored text already is the json of the event.
+ */
 class SendQueueRequestBody(
     val queueHeader: JSONObject?,
-    val queue: JSONArray
-) {
+    val queue: JSONArray,
+    serializedQueue: List<String>? = null
+) : StreamingBody {
 
-    override fun toString(): String = if (queueHeader == null) {
-        queue.toString()
-    } else {
-        // prepend header to the queue array
-        "[${queueHeader.toString()},${queue.toString().substring(1)}"
+    private val serializedQueue: List<String>? =
+        serializedQueue?.takeIf { it.size == queue.length() }
+
+    override fun toString(): String {
+        if (serializedQueue != null) {
+            val writer = StringWriter()
+            writeTo(writer)
+            return writer.toString()
+        }
+        return if (queueHeader == null) {
+            queue.toString()
+        } else {
+            // prepend header to the queue array
+            "[${queueHeader.toString()},${queue.toString().substring(1)}"
+        }
+    }
+
+    /**
+     * Writes the same json as [toString] one element at a time, so the whole payload is never held
+     * as a single string.
+     */
+    override fun writeTo(writer: Writer) {
+        writer.write("[")
+        var first = true
+        if (queueHeader != null) {
+            writer.write(queueHeader.toString())
+            first = false
+        }
+        for (index in 0 until queue.length()) {
+            if (!first) {
+                writer.write(",")
+            }
+            first = false
+            writer.write(serializedQueue?.get(index) ?: elementToString(queue.opt(index)))
+        }
+        writer.write("]")
+    }
+
+    private fun elementToString(element: Any?): String {
+        // a one element array serializes the value exactly like the enclosing queue would
+        return when (element) {
+            is JSONObject -> element.toString()
+            is JSONArray -> element.toString()
+            else -> JSONArray().put(element).toString().let { it.substring(1, it.length - 1) }
+        }
     }
 }
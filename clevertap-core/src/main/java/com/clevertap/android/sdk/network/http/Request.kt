@@ -1,9 +1,40 @@
 package com.clevertap.android.sdk.network.http
 
 import android.net.Uri
+import java.io.Writer
 
+/**
+ * A request body that is written straight to the connection instead of being materialized as a
+ * [String] first.
+ */
+fun interface StreamingBody {
+
+    fun writeTo(writer: Writer)
+}
+
+/**
+ * @property body The request body, null if the request has no body or uses [streamingBody].
+ * @property streamingBody Writes the request body when [body] is null.
+ * @property gzip Whether the body is sent gzip compressed with a `Content-Encoding: gzip` header.
+ */
 class Request(
     val url: Uri,
     val headers: Map<String, String>,
-    val body: String?
-)
+    val body: String?,
+    val streamingBody: StreamingBody? = null,
+    val gzip: Boolean = false
+) {
+
+    fun hasBody(): Boolean = body != null || streamingBody != null
+
+    /**
+     * Writes the body of this request to [writer].
+     */
+    fun writeBody(writer: Writer) {
+        if (body != null) {
+            writer.write(body)
+        } else {
+            streamingBody?.writeTo(writer)
+        }
+    }
+}
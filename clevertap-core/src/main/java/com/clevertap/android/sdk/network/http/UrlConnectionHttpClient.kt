@@ -3,12 +3,14 @@ package com.clevertap.android.sdk.network.http
 import android.net.TrafficStats
 import com.clevertap.android.sdk.Logger
 import java.io.BufferedInputStream
+import java.io.ByteArrayOutputStream
 import java.io.InputStream
 import java.net.HttpURLConnection
 import java.net.URL
 import java.security.KeyStore
 import java.security.cert.CertificateFactory
 import java.security.cert.X509Certificate
+import java.util.zip.GZIPOutputStream
 import javax.net.ssl.HttpsURLConnection
 import javax.net.ssl.SSLContext
 import javax.net.ssl.SSLSocketFactory
@@ -24,6 +26,9 @@ class UrlConnectionHttpClient(
         const val READ_TIMEOUT = 10000
         const val CONNECT_TIMEOUT = 10000
         const val NETWORK_TAG_HTTP_REQUESTS = 17
+        const val HEADER_CONTENT_ENCODING = "Content-Encoding"
+        const val CONTENT_ENCODING_GZIP = "gzip"
+        private const val BUFFER_SIZE = 8 * 1024
     }
 
     private val socketFactory: SSLSocketFactory? by lazy {
@@ -88,14 +93,41 @@ class UrlConnectionHttpClient(
             if (isSslPinningEnabled && sslContext != null) {
                 sslSocketFactory = socketFactory
             }
-            if (request.body != null) {
-                doOutput = true
-                outputStream.use {
-                    it.write(request.body.toByteArray(Charsets.UTF_8))
+            writeRequestBody(this, request)
+        }
+        return connection
+    }
+
+    /**
+     * Writes the body of [request] to [connection]. Bodies which are streamed or gzip compressed
+     * have no known length up front, they are sent in chunks, otherwise [HttpURLConnection] would
+     * buffer the whole body in memory to compute the Content-Length header.
+     */
+    internal fun writeRequestBody(connection: HttpURLConnection, request: Request) {
+        if (request.gzip) {
+            connection.setRequestProperty(HEADER_CONTENT_ENCODING, CONTENT_ENCODING_GZIP)
+        }
+        if (!request.hasBody()) {
+            return
+        }
+        connection.doOutput = true
+        if (!request.gzip) {
+            // without the gzip opt-in the body is sent with a Content-Length, as it always was
+            val bytes = request.body?.toByteArray(Charsets.UTF_8) ?: ByteArrayOutputStream(BUFFER_SIZE).also { buffer ->
+                buffer.bufferedWriter(Charsets.UTF_8).use {
+                    request.writeBody(it)
                 }
+            }.toByteArray()
+            connection.setFixedLengthStreamingMode(bytes.size)
+            connection.outputStream.use {
+                it.write(bytes)
             }
+            return
+        }
+        connection.setChunkedStreamingMode(0)
+        GZIPOutputStream(connection.outputStream, BUFFER_SIZE).bufferedWriter(Charsets.UTF_8).use {
+            request.writeBody(it)
         }
-        return connection
     }
 
     private fun createSslContext(): SSLContext? {
@@ -0,0 +1,47 @@
+package com.clevertap.android.sdk.profile
+
+import com.clevertap.android.sdk.cryption.ICryptHandler
+
+/**
+ * Remembers the plain text of the cipher text written for the PII values of the current profile so
+ * persisting the local profile only encrypts the PII values that changed since the last write.
+ *
+ * Only cipher text produced by [encrypt] is cached, values inflated from the database are encrypted
+ * again on the first write so they are stored with the current algorithm. The cache is cleared on a
+ * user switch and when the queues are cleared, cipher text is never reused for another profile.
+ */
+internal class PiiCipherCache @JvmOverloads constructor(
+    private val cryptHandler: ICryptHandler,
+    private val maxEntries: Int = DEFAULT_MAX_ENTRIES
+) {
+
+    companion object {
+        // the PII keys of a profile, see Constants.piiDBKeys, and a few values they changed from
+        const val DEFAULT_MAX_ENTRIES = 8
+    }
+
+    // cipher text to plain text, least recently used first
+    private val entries = object : LinkedHashMap<String, String>(16, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, String>?): Boolean =
+            size > maxEntries
+    }
+
+    /**
+     * @return the cipher text of [plainText], null if the encryption failed
+     */
+    @Synchronized
+    fun encrypt(plainText: String): String? {
+        entries.entries.firstOrNull { it.value == plainText }?.key?.let { cipherText ->
+            entries[cipherText] // marks it as recently used
+            return cipherText
+        }
+        val cipherText = cryptHandler.encryptSafe(plainText) ?: return null
+        entries[cipherText] = plainText
+        return cipherText
+    }
+
+    @Synchronized
+    fun clear() {
+        entries.clear()
+    }
+}
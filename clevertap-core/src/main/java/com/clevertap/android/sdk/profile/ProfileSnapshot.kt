@@ -0,0 +1,110 @@
+package com.clevertap.android.sdk.profile
+
+import org.json.JSONArray
+import org.json.JSONObject
+
+/**
+ * Immutable copy of the user profile, published after every profile change so it can be read
+ * without holding the profile lock.
+ *
+ * Properties are indexed by the dot notation paths used by [ProfileStateTraverser], e.g.
+ * "address.city" or "items[0].name", and resolve to the same values as a
+ * [com.clevertap.android.sdk.profile.traversal.ProfileOperation.GET] traversal.
+ *
+ * @property version incremented on every published change
+ */
+class ProfileSnapshot private constructor(
+    val version: Long,
+    private val profile: JSONObject,
+    private val index: Map<String, Any>
+) {
+
+    /**
+     * @param path dot notation path of the property
+     * @return the value of the property, JSON objects and arrays are returned as copies
+     */
+    fun get(path: String): Any? {
+        return when (val value = index[path]) {
+            is JSONObject -> value.deepCopy()
+            is JSONArray -> value.deepCopy()
+            else -> value
+        }
+    }
+
+    /**
+     * @return a mutable copy of the whole profile
+     */
+    fun toJSONObject(): JSONObject = profile.deepCopy()
+
+    companion object {
+
+        @JvmField
+        val EMPTY = ProfileSnapshot(0, JSONObject(), emptyMap())
+
+        /**
+         * Copies and indexes the profile. Callers must hold the profile lock.
+         *
+         * @param profile the current profile
+         * @param version the version of the snapshot
+         */
+        @JvmStatic
+        fun of(profile: JSONObject, version: Long): ProfileSnapshot {
+            val copy = profile.deepCopy()
+            val index = HashMap<String, Any>()
+            indexObject(copy, "", index)
+            return ProfileSnapshot(version, copy, index)
+        }
+
+        private fun indexObject(json: JSONObject, basePath: String, index: MutableMap<String, Any>) {
+            val keys = json.keys()
+            while (keys.hasNext()) {
+                val key = keys.next()
+                val path = if (basePath.isEmpty()) key else "$basePath.$key"
+                val value = json.opt(key) ?: continue
+                index[path] = value
+                when (value) {
+                    is JSONObject -> indexObject(value, path, index)
+                    is JSONArray -> indexArray(value, path, index)
+                }
+            }
+        }
+
+        private fun indexArray(array: JSONArray, basePath: String, index: MutableMap<String, Any>) {
+            for (i in 0 until array.length()) {
+                val element = array.opt(i) ?: continue
+                val path = "$basePath[$i]"
+                index[path] = element
+                // as in GET traversals, only objects nested in arrays are resolved further
+                if (element is JSONObject) {
+                    indexObject(element, path, index)
+                }
+            }
+        }
+
+        private fun JSONObject.deepCopy(): JSONObject {
+            val copy = JSONObject()
+            val keys = keys()
+            while (keys.hasNext()) {
+                val key = keys.next()
+                copy.put(key, copyValue(opt(key)))
+            }
+            return copy
+        }
+
+        private fun JSONArray.deepCopy(): JSONArray {
+            val copy = JSONArray()
+            for (i in 0 until length()) {
+                copy.put(copyValue(opt(i)))
+            }
+            return copy
+        }
+
+        private fun copyValue(value: Any?): Any? {
+            return when (value) {
+                is JSONObject -> value.deepCopy()
+                is JSONArray -> value.deepCopy()
+                else -> value
+            }
+        }
+    }
+}
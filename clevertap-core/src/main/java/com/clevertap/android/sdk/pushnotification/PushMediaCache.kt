@@ -0,0 +1,129 @@
+package com.clevertap.android.sdk.pushnotification
+
+import android.content.Context
+import android.graphics.Bitmap
+import androidx.annotation.RestrictTo
+import com.clevertap.android.sdk.StoreProvider
+import com.clevertap.android.sdk.inapp.images.FileResourceProvider
+import com.clevertap.android.sdk.inapp.store.preference.FileStore
+import com.clevertap.android.sdk.inapp.store.preference.InAppAssetsStore
+import com.clevertap.android.sdk.store.preference.CTPreference
+import com.clevertap.android.sdk.utils.Clock
+import kotlin.math.max
+
+/**
+ * Caches the media of push notifications, keyed by url, in the size bounded in-memory and disk
+ * caches of [FileResourceProvider], so media shared by several notifications, or by notifications
+ * and in-apps, is downloaded once per device.
+ *
+ * The expiry of every url saved here is the latest expiry of the notifications using it. Expired
+ * media is removed from the caches unless the in-apps of the account still use it, media cached by
+ * in-apps without an expiry saved here is served as is.
+ *
+ * @param inAppStores the stores of the in-app assets and files of the account, their expiry is
+ * checked before removing media from the caches
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
+class PushMediaCache internal constructor(
+    private val fileResourceProvider: FileResourceProvider,
+    private val expiryStore: FileStore,
+    private val inAppStores: Pair<FileStore, InAppAssetsStore>?,
+    private val clock: Clock = Clock.SYSTEM
+) {
+
+    constructor(context: Context, accountId: String?) : this(
+        fileResourceProvider = FileResourceProvider.getInstance(context),
+        expiryStore = FileStore(CTPreference(context, PREF_NAME)),
+        inAppStores = accountId?.let {
+            val storeProvider = StoreProvider.getInstance()
+            Pair(storeProvider.provideFileStore(context, it), storeProvider.provideInAppAssetsStore(context, it))
+        }
+    )
+
+    companion object {
+        private const val PREF_NAME = "ct_push_media_expiry"
+    }
+
+    /**
+     * @return the cached image of [url], null when it is not cached or has expired
+     */
+    fun getBitmap(url: String): Bitmap? {
+        if (removeIfExpired(url)) {
+            return null
+        }
+        return fileResourceProvider.cachedInAppImageV1(url)
+    }
+
+    /**
+     * @return the cached bytes of [url], e.g. of a gif, null when they are not cached or have expired
+     */
+    fun getBytes(url: String): ByteArray? {
+        if (removeIfExpired(url)) {
+            return null
+        }
+        return fileResourceProvider.cachedInAppGifV1(url)
+    }
+
+    /**
+     * Caches a downloaded image until [expiresAtMillis]
+     *
+     * @param bytes the downloaded bytes of [bitmap], saved in the disk cache
+     */
+    fun putBitmap(url: String, bitmap: Bitmap, bytes: ByteArray, expiresAtMillis: Long) {
+        saveExpiry(url, expiresAtMillis)
+        fileResourceProvider.saveInAppImageV1(url, bitmap, bytes)
+    }
+
+    /**
+     * Caches downloaded bytes, e.g. of a gif, until [expiresAtMillis]
+     */
+    fun putBytes(url: String, bytes: ByteArray, expiresAtMillis: Long) {
+        saveExpiry(url, expiresAtMillis)
+        fileResourceProvider.saveInAppGifV1(url, bytes)
+    }
+
+    /**
+     * Removes all the expired media from the caches
+     */
+    fun removeExpired() {
+        val now = clock.currentTimeMillis()
+        expiryStore.getAllFileUrls()
+            .filter { now > expiryStore.expiryForUrl(it) }
+            .forEach { remove(it, now) }
+    }
+
+    private fun saveExpiry(url: String, expiresAtMillis: Long) {
+        // the media may be used by notifications which expire later
+        if (expiresAtMillis > expiryStore.expiryForUrl(url)) {
+            expiryStore.saveFileUrl(url, expiresAtMillis)
+        }
+    }
+
+    private fun removeIfExpired(url: String): Boolean {
+        val expiry = expiryStore.expiryForUrl(url)
+        val now = clock.currentTimeMillis()
+        if (expiry == 0L || now <= expiry) {
+            return false
+        }
+        return remove(url, now)
+    }
+
+    /**
+     * Stops tracking [url], its media is removed from the caches unless in-apps still use it.
+     *
+     * @return true if the media was removed
+     */
+    private fun remove(url: String, now: Long): Boolean {
+        expiryStore.clearFileUrl(url)
+        if (now <= inAppExpiryForUrl(url)) {
+            return false
+        }
+        fileResourceProvider.deleteData(url)
+        return true
+    }
+
+    private fun inAppExpiryForUrl(url: String): Long {
+        val (fileStore, inAppAssetsStore) = inAppStores ?: return 0L
+        return max(fileStore.expiryForUrl(url), inAppAssetsStore.expiryForUrl(url))
+    }
+}
@@ -16,6 +16,16 @@ import java.util.concurrent.Executor;
 @RestrictTo(RestrictTo.Scope.LIBRARY_GROUP)
 public class CTExecutors {
 
+    private static final String NETWORK_TAG_SUFFIX = ":network";
+
+    static final String IO_EXECUTOR_NAME = "IO";
+
+    static final String MAIN_EXECUTOR_NAME = "Main";
+
+    static final String POST_ASYNC_SAFELY_EXECUTOR_NAME = "PostAsyncSafely";
+
+    static final String NETWORK_EXECUTOR_NAME = "Network";
+
     public final IOExecutor IO_EXECUTOR;
 
     public final MainThreadExecutor MAIN_EXECUTOR = new MainThreadExecutor();
@@ -30,6 +40,8 @@ public class CTExecutors {
 
     private final HashMap<String, PostAsyncSafelyExecutor> postAsyncSafelyTasks = new HashMap<>();
 
+    private final TaskMetricsRecorder taskMetrics = new TaskMetricsRecorder();
+
     CTExecutors(CleverTapInstanceConfig config) {
         this.config = config;
         IO_EXECUTOR = new IOExecutor();
@@ -53,7 +65,7 @@ public class CTExecutors {
      * @return
      */
     public <TResult> Task<TResult> ioTask() {
-        return taskOnExecutorWithName(IO_EXECUTOR, DEFAULT_CALLBACK_EXECUTOR, "ioTask");
+        return newTask(IO_EXECUTOR, DEFAULT_CALLBACK_EXECUTOR, "ioTask", IO_EXECUTOR_NAME);
     }
 
     /**
@@ -62,7 +74,7 @@ public class CTExecutors {
      * @return
      */
     public <TResult> Task<TResult> ioTaskNonUi() {
-        return taskOnExecutorWithName(IO_EXECUTOR, IO_EXECUTOR, "ioTaskNonUi");
+        return newTask(IO_EXECUTOR, IO_EXECUTOR, "ioTaskNonUi", IO_EXECUTOR_NAME);
     }
     /**
      * Use this task when you want to offload some background task and receive callback on current thread
@@ -70,7 +82,8 @@ public class CTExecutors {
      * @return
      */
     public <TResult> Task<TResult> ioTaskWithCallbackOnCurrentThread() {
-        return taskOnExecutorWithName(IO_EXECUTOR, CURRENT_THREAD_EXECUTOR, "ioTaskWithCallbackOnCurrentThread");
+        return newTask(IO_EXECUTOR, CURRENT_THREAD_EXECUTOR, "ioTaskWithCallbackOnCurrentThread",
+                IO_EXECUTOR_NAME);
     }
 
     /**
@@ -80,7 +93,7 @@ public class CTExecutors {
      */
 
     public <TResult> Task<TResult> mainTask() {
-        return taskOnExecutorWithName(MAIN_EXECUTOR, DEFAULT_CALLBACK_EXECUTOR, "Main");
+        return newTask(MAIN_EXECUTOR, DEFAULT_CALLBACK_EXECUTOR, "Main", MAIN_EXECUTOR_NAME);
     }
 
     /**
@@ -93,13 +106,16 @@ public class CTExecutors {
         if (featureTag == null) {
             throw new IllegalArgumentException("Tag can't be null");
         }
-        PostAsyncSafelyExecutor postAsyncSafelyExecutor = postAsyncSafelyTasks.get(featureTag);
-
-        if (postAsyncSafelyExecutor == null) {
-            postAsyncSafelyExecutor = new PostAsyncSafelyExecutor();
-            postAsyncSafelyTasks.put(featureTag, postAsyncSafelyExecutor);
+        PostAsyncSafelyExecutor postAsyncSafelyExecutor;
+        synchronized (postAsyncSafelyTasks) {
+            postAsyncSafelyExecutor = postAsyncSafelyTasks.get(featureTag);
+            if (postAsyncSafelyExecutor == null) {
+                postAsyncSafelyExecutor = new PostAsyncSafelyExecutor();
+                postAsyncSafelyTasks.put(featureTag, postAsyncSafelyExecutor);
+            }
         }
-        return taskOnExecutorWithName(postAsyncSafelyExecutor, DEFAULT_CALLBACK_EXECUTOR, "PostAsyncSafely");
+        return newTask(postAsyncSafelyExecutor, DEFAULT_CALLBACK_EXECUTOR, "PostAsyncSafely",
+                postAsyncSafelyExecutorName(featureTag));
     }
 
     /**
@@ -109,13 +125,45 @@ public class CTExecutors {
      * @return
      */
     public <TResult> Task<TResult> postAsyncSafelyTask() {
-        String key;
+        return postAsyncSafelyTask(accountTag());
+    }
+
+    /**
+     * Single thread pool for a particular account that sends the queued events to the servers.
+     * Keeps blocking network requests from delaying the jobs of {@link #postAsyncSafelyTask()},
+     * the two only share the events through the database.
+     * @param <TResult>
+     * @return
+     */
+    public <TResult> Task<TResult> networkTask() {
+        return postAsyncSafelyTask(accountTag() + NETWORK_TAG_SUFFIX);
+    }
+
+    /**
+     * Timings of the tasks run on these executors, recorded once a listener is set.
+     * @return the metrics recorder of the account
+     */
+    public TaskMetricsRecorder getTaskMetrics() {
+        return taskMetrics;
+    }
+
+    private String postAsyncSafelyExecutorName(String featureTag) {
+        String accountTag = accountTag();
+        if (featureTag.equals(accountTag)) {
+            return POST_ASYNC_SAFELY_EXECUTOR_NAME;
+        } else if (featureTag.equals(accountTag + NETWORK_TAG_SUFFIX)) {
+            return NETWORK_EXECUTOR_NAME;
+        } else {
+            return POST_ASYNC_SAFELY_EXECUTOR_NAME + ":" + featureTag;
+        }
+    }
+
+    private String accountTag() {
         if (config != null) {
-            key = config.getAccountId();
+            return config.getAccountId();
         } else {
-            key = singleThreadExecutorTag;
+            return singleThreadExecutorTag;
         }
-        return postAsyncSafelyTask(key);
     }
 
     /**
@@ -139,10 +187,15 @@ public class CTExecutors {
      */
     public <TResult> Task<TResult> taskOnExecutorWithName(Executor taskExecutor,
             Executor callbackExecutor, String taskName) {
+        return newTask(taskExecutor, callbackExecutor, taskName, taskName);
+    }
+
+    private <TResult> Task<TResult> newTask(Executor taskExecutor, Executor callbackExecutor,
+            String taskName, String executorName) {
         if (taskExecutor == null || callbackExecutor == null) {
             throw new IllegalArgumentException("Can't create task "
                     + taskName + " with null executors");
         }
-        return new Task<>(config, taskExecutor, callbackExecutor, taskName);
+        return new Task<>(config, taskExecutor, callbackExecutor, taskName, taskMetrics, executorName);
     }
 }
\ No newline at end of file
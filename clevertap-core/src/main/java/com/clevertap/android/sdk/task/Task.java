@@ -4,6 +4,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.clevertap.android.sdk.CleverTapInstanceConfig;
+import com.clevertap.android.sdk.ILogger.MessageSupplier;
 import com.clevertap.android.sdk.Logger;
 
 import java.util.ArrayList;
@@ -13,6 +14,7 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -38,12 +40,25 @@ public class Task<TResult> {
     protected STATE taskState = STATE.READY_TO_RUN;
     private final String taskName;
 
+    @Nullable
+    private final TaskMetricsRecorder metrics;
+
+    private final String executorName;
+
     Task(final CleverTapInstanceConfig config, Executor executor,
          final Executor defaultCallbackExecutor, final String taskName) {
+        this(config, executor, defaultCallbackExecutor, taskName, null, taskName);
+    }
+
+    Task(final CleverTapInstanceConfig config, Executor executor,
+         final Executor defaultCallbackExecutor, final String taskName,
+         @Nullable final TaskMetricsRecorder metrics, final String executorName) {
         this.executor = executor;
         this.defaultCallbackExecutor = defaultCallbackExecutor;
         this.config = config;
         this.taskName = taskName;
+        this.metrics = metrics;
+        this.executorName = executorName;
     }
 
     /**
@@ -107,7 +122,13 @@ public class Task<TResult> {
      * @param callable - piece of code to run
      */
     public void execute(final String logTag, final Callable<TResult> callable) {
-        executor.execute(newRunnableForTask(logTag, callable));
+        final long enqueuedAt = onEnqueued();
+        try {
+            executor.execute(newRunnableForTask(logTag, callable, enqueuedAt));
+        } catch (RejectedExecutionException e) {
+            onRejected(logTag, enqueuedAt);
+            throw e;
+        }
     }
 
     /**
@@ -166,7 +187,13 @@ public class Task<TResult> {
             throw new UnsupportedOperationException(
                     "Can't use this method without ExecutorService, Use Execute alternatively ");
         }
-        return ((ExecutorService) executor).submit(newRunnableForTask(logTag, callable));
+        final long enqueuedAt = onEnqueued();
+        try {
+            return ((ExecutorService) executor).submit(newRunnableForTask(logTag, callable, enqueuedAt));
+        } catch (RejectedExecutionException e) {
+            onRejected(logTag, enqueuedAt);
+            throw e;
+        }
     }
 
     /**
@@ -188,12 +215,12 @@ public class Task<TResult> {
             tResultFuture = ((ExecutorService) executor).submit(callable);
             return tResultFuture.get(timeoutMillis, TimeUnit.MILLISECONDS);
         } catch (TimeoutException e) {
-            logProperly("submitAndGetResult :: " + logTag + " task timed out", e);
+            logProperly(() -> "submitAndGetResult :: " + logTag + " task timed out", e);
             if (tResultFuture != null && !tResultFuture.isCancelled()) {
                 tResultFuture.cancel(true);
             }
         } catch (Exception e) {
-            logProperly("submitAndGetResult :: " + logTag + " task failed", e);
+            logProperly(() -> "submitAndGetResult :: " + logTag + " task failed", e);
             if (tResultFuture != null && !tResultFuture.isCancelled()) {
                 tResultFuture.cancel(true);
             }
@@ -230,27 +257,47 @@ public class Task<TResult> {
      *
      * @param logTag   - tag with which this task can be identified in the logs.
      * @param callable - piece of code to run.
+     * @param enqueuedAt - time the task was enqueued at, see {@link TaskMetricsRecorder#onEnqueued(String)}
      * @return Runnable
      */
-    private Runnable newRunnableForTask(final String logTag, final Callable<TResult> callable) {
+    private Runnable newRunnableForTask(final String logTag, final Callable<TResult> callable,
+            final long enqueuedAt) {
         return new Runnable() {
             @Override
             public void run() {
+                final long startedAt = metrics != null ? metrics.onStarted(executorName, enqueuedAt)
+                        : TaskMetricsRecorder.NOT_RECORDED;
+                boolean failed = false;
                 try {
                     setState(STATE.RUNNING);
-                    logProperly(taskName + " Task: " + logTag + " starting on..." + Thread.currentThread().getName(), null);
+                    logProperly(() -> taskName + " Task: " + logTag + " starting on..." + Thread.currentThread().getName(), null);
                     TResult result = callable.call();
-                    logProperly(taskName + " Task: " + logTag + " executed successfully on..." + Thread.currentThread().getName(), null);
+                    logProperly(() -> taskName + " Task: " + logTag + " executed successfully on..." + Thread.currentThread().getName(), null);
                     onSuccess(result);
                 } catch (Exception e) {
+                    failed = true;
                     onFailure(e);
-                    logProperly(taskName + " Task: " + logTag + " failed to execute on..." + Thread.currentThread().getName(), e);
+                    logProperly(() -> taskName + " Task: " + logTag + " failed to execute on..." + Thread.currentThread().getName(), e);
+                } finally {
+                    if (metrics != null) {
+                        metrics.onFinished(executorName, logTag, enqueuedAt, startedAt, failed);
+                    }
                 }
             }
         };
     }
 
-    private void logProperly(String log, Exception e) {
+    private long onEnqueued() {
+        return metrics != null ? metrics.onEnqueued(executorName) : TaskMetricsRecorder.NOT_RECORDED;
+    }
+
+    private void onRejected(final String logTag, final long enqueuedAt) {
+        if (metrics != null) {
+            metrics.onRejected(executorName, logTag, enqueuedAt);
+        }
+    }
+
+    private void logProperly(MessageSupplier log, Exception e) {
         if (config != null) {
             config.getLogger().verbose(log, e);
         } else {
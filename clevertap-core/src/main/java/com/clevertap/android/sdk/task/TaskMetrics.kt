@@ -0,0 +1,65 @@
+package com.clevertap.android.sdk.task
+
+/**
+ * Timings of a task run by one of the SDK executors.
+ *
+ * @property executorName The executor that ran the task, e.g. "PostAsyncSafely", "IO" or "LocalDataStore".
+ * @property taskName The name the task was submitted with, e.g. "queueEvent".
+ * @property waitTimeMs The time the task waited in the queue of the executor.
+ * @property executionTimeMs The time the task ran for.
+ * @property queueDepth The number of tasks still waiting on the executor when this task started.
+ * @property failed True when the task threw.
+ */
+data class TaskMetrics(
+    val executorName: String,
+    val taskName: String,
+    val waitTimeMs: Long,
+    val executionTimeMs: Long,
+    val queueDepth: Int,
+    val failed: Boolean
+)
+
+/**
+ * Latency histogram of the tasks with the same name on an executor. The counts of each bucket are
+ * at the index of its upper bound in [bucketUpperBoundsMs], the last count is for the tasks above the
+ * last bound.
+ */
+data class TaskLatencyHistogram(
+    val executorName: String,
+    val taskName: String,
+    val count: Long,
+    val bucketUpperBoundsMs: List<Long>,
+    val waitTimeCounts: List<Long>,
+    val executionTimeCounts: List<Long>,
+    val maxWaitTimeMs: Long,
+    val maxExecutionTimeMs: Long
+)
+
+/**
+ * Load of an executor since metrics were enabled.
+ *
+ * @property queueDepth The number of tasks waiting on the executor.
+ * @property busyTimeMs The total time tasks ran on the executor, summed over its threads.
+ * @property windowMs The time since metrics were enabled.
+ * @property rejectedTasks The number of tasks the executor refused to run.
+ * @property longRunningTasks The number of tasks that ran longer than the long running threshold.
+ */
+data class ExecutorUtilization(
+    val executorName: String,
+    val queueDepth: Int,
+    val busyTimeMs: Long,
+    val windowMs: Long,
+    val rejectedTasks: Long,
+    val longRunningTasks: Long
+) {
+    /**
+     * The average number of busy threads of the executor, at most 1 for single thread executors.
+     */
+    val utilization: Double
+        get() = if (windowMs > 0) busyTimeMs.toDouble() / windowMs else 0.0
+}
+
+data class TaskMetricsSnapshot(
+    val executors: List<ExecutorUtilization>,
+    val histograms: List<TaskLatencyHistogram>
+)
@@ -0,0 +1,220 @@
+package com.clevertap.android.sdk.task
+
+import com.clevertap.android.sdk.Logger
+import com.clevertap.android.sdk.interfaces.TaskMetricsListener
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Records the timings of the tasks run on the executors of an account.
+ *
+ * Recording is opt-in: nothing is measured until a [listener] is set, so the executors only pay for
+ * a volatile read per task otherwise. Executors call [onEnqueued] before handing a task over, then
+ * [onStarted] and [onFinished] around its run, or [onRejected] when the task was refused.
+ */
+class TaskMetricsRecorder @JvmOverloads constructor(
+    private val nanoTime: () -> Long = System::nanoTime
+) {
+
+    companion object {
+
+        /**
+         * Returned by [onEnqueued] when metrics are disabled, the task is then not recorded.
+         */
+        const val NOT_RECORDED = 0L
+
+        const val DEFAULT_LONG_RUNNING_THRESHOLD_MS = 1000L
+
+        @JvmField
+        val BUCKET_UPPER_BOUNDS_MS = listOf(1L, 5L, 10L, 50L, 100L, 500L, 1000L, 5000L)
+    }
+
+    @Volatile
+    private var enabledAtNanos = NOT_RECORDED
+
+    private val executorStats = ConcurrentHashMap<String, ExecutorStats>()
+
+    private val histograms = ConcurrentHashMap<String, Histogram>()
+
+    /**
+     * The listener notified of every recorded task, setting it enables recording.
+     * Setting null disables recording and keeps the collected stats until it is enabled again.
+     * Exceptions thrown by the listener are logged, they do not reach the executors.
+     */
+    @Volatile
+    var listener: TaskMetricsListener? = null
+        set(value) {
+            synchronized(this) {
+                if (value != null && field == null) {
+                    // the queue depth is kept, recorded tasks may still be queued
+                    executorStats.values.forEach { it.resetTotals() }
+                    histograms.clear()
+                    enabledAtNanos = nanoTime().coerceAtLeast(1)
+                }
+                field = value
+            }
+        }
+
+    /**
+     * Tasks running longer than this are reported to [TaskMetricsListener.onLongRunningTask].
+     */
+    @Volatile
+    var longRunningThresholdMs = DEFAULT_LONG_RUNNING_THRESHOLD_MS
+
+    val isEnabled: Boolean
+        get() = listener != null
+
+    /**
+     * @return the time the task was enqueued at, or [NOT_RECORDED] when metrics are disabled
+     */
+    fun onEnqueued(executorName: String): Long {
+        if (listener == null) {
+            return NOT_RECORDED
+        }
+        stats(executorName).queueDepth.incrementAndGet()
+        return nanoTime().coerceAtLeast(1)
+    }
+
+    /**
+     * @return the time the task started at, or [NOT_RECORDED] when it is not recorded
+     */
+    fun onStarted(executorName: String, enqueuedAtNanos: Long): Long {
+        if (enqueuedAtNanos == NOT_RECORDED) {
+            return NOT_RECORDED
+        }
+        stats(executorName).queueDepth.decrementAndGet()
+        return nanoTime().coerceAtLeast(1)
+    }
+
+    fun onFinished(
+        executorName: String,
+        taskName: String,
+        enqueuedAtNanos: Long,
+        startedAtNanos: Long,
+        failed: Boolean
+    ) {
+        if (startedAtNanos == NOT_RECORDED) {
+            return
+        }
+        val executionNanos = nanoTime() - startedAtNanos
+        val waitMs = TimeUnit.NANOSECONDS.toMillis(startedAtNanos - enqueuedAtNanos)
+        val executionMs = TimeUnit.NANOSECONDS.toMillis(executionNanos)
+
+        val stats = stats(executorName)
+        stats.busyNanos.addAndGet(executionNanos)
+        histograms.getOrPut("$executorName/$taskName") { Histogram(executorName, taskName) }
+            .record(waitMs, executionMs)
+
+        val listener = listener ?: return
+        val metrics = TaskMetrics(
+            executorName = executorName,
+            taskName = taskName,
+            waitTimeMs = waitMs,
+            executionTimeMs = executionMs,
+            queueDepth = stats.queueDepth.get(),
+            failed = failed
+        )
+        notifyListener("onTaskCompleted") { listener.onTaskCompleted(metrics) }
+        if (executionMs >= longRunningThresholdMs) {
+            stats.longRunningTasks.incrementAndGet()
+            notifyListener("onLongRunningTask") { listener.onLongRunningTask(metrics) }
+        }
+    }
+
+    fun onRejected(executorName: String, taskName: String, enqueuedAtNanos: Long) {
+        if (enqueuedAtNanos == NOT_RECORDED) {
+            return
+        }
+        val stats = stats(executorName)
+        stats.queueDepth.decrementAndGet()
+        stats.rejectedTasks.incrementAndGet()
+        val listener = listener ?: return
+        notifyListener("onTaskRejected") { listener.onTaskRejected(executorName, taskName) }
+    }
+
+    /**
+     * @return the load of the executors and the latency histograms of their tasks since metrics were
+     * enabled
+     */
+    fun snapshot(): TaskMetricsSnapshot {
+        val enabledAt = enabledAtNanos
+        val windowMs = if (enabledAt == NOT_RECORDED) {
+            0L
+        } else {
+            TimeUnit.NANOSECONDS.toMillis(nanoTime() - enabledAt)
+        }
+        val executors = executorStats.map { (name, stats) ->
+            ExecutorUtilization(
+                executorName = name,
+                queueDepth = stats.queueDepth.get(),
+                busyTimeMs = TimeUnit.NANOSECONDS.toMillis(stats.busyNanos.get()),
+                windowMs = windowMs,
+                rejectedTasks = stats.rejectedTasks.get(),
+                longRunningTasks = stats.longRunningTasks.get()
+            )
+        }.sortedBy { it.executorName }
+        val latencies = histograms.values.map { it.toHistogram() }
+            .sortedWith(compareBy({ it.executorName }, { it.taskName }))
+        return TaskMetricsSnapshot(executors, latencies)
+    }
+
+    private inline fun notifyListener(callback: String, block: () -> Unit) {
+        try {
+            block()
+        } catch (t: Throwable) {
+            Logger.v("TaskMetricsListener.$callback threw an exception", t)
+        }
+    }
+
+    private fun stats(executorName: String): ExecutorStats =
+        executorStats.getOrPut(executorName) { ExecutorStats() }
+
+    private class ExecutorStats {
+        val queueDepth = AtomicInteger()
+        val busyNanos = AtomicLong()
+        val rejectedTasks = AtomicLong()
+        val longRunningTasks = AtomicLong()
+
+        fun resetTotals() {
+            busyNanos.set(0)
+            rejectedTasks.set(0)
+            longRunningTasks.set(0)
+        }
+    }
+
+    private class Histogram(val executorName: String, val taskName: String) {
+        private var count = 0L
+        private val waitCounts = LongArray(BUCKET_UPPER_BOUNDS_MS.size + 1)
+        private val executionCounts = LongArray(BUCKET_UPPER_BOUNDS_MS.size + 1)
+        private var maxWaitMs = 0L
+        private var maxExecutionMs = 0L
+
+        @Synchronized
+        fun record(waitMs: Long, executionMs: Long) {
+            count++
+            waitCounts[bucket(waitMs)]++
+            executionCounts[bucket(executionMs)]++
+            maxWaitMs = maxOf(maxWaitMs, waitMs)
+            maxExecutionMs = maxOf(maxExecutionMs, executionMs)
+        }
+
+        @Synchronized
+        fun toHistogram() = TaskLatencyHistogram(
+            executorName = executorName,
+            taskName = taskName,
+            count = count,
+            bucketUpperBoundsMs = BUCKET_UPPER_BOUNDS_MS,
+            waitTimeCounts = waitCounts.toList(),
+            executionTimeCounts = executionCounts.toList(),
+            maxWaitTimeMs = maxWaitMs,
+            maxExecutionTimeMs = maxExecutionMs
+        )
+
+        private fun bucket(valueMs: Long): Int {
+            val index = BUCKET_UPPER_BOUNDS_MS.indexOfFirst { valueMs <= it }
+            return if (index == -1) BUCKET_UPPER_BOUNDS_MS.size else index
+        }
+    }
+}
@@ -18,6 +18,10 @@ interface UserEventLogDAO {
         setOfActualAndNormalizedEventNamePair: Set<Pair<String, String>>
     ): Boolean
 
+    // Add the counts of logs to the stored ones in one transaction, inserting logs that don't exist
+    @WorkerThread
+    fun upsertEventLogs(logs: Collection<UserEventLog>): Boolean
+
     // Read an event by deviceID
     @WorkerThread
     fun readEventByDeviceIdAndNormalizedEventName(deviceID: String, normalizedEventName: String): UserEventLog?
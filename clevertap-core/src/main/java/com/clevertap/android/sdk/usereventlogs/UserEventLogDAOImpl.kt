@@ -112,6 +112,64 @@ internal class UserEventLogDAOImpl(
         }
     }
 
+    @WorkerThread
+    override fun upsertEventLogs(logs: Collection<UserEventLog>): Boolean {
+        if (logs.isEmpty()) {
+            return true
+        }
+        if (!db.belowMemThreshold()) {
+            logger.verbose(NOT_ENOUGH_SPACE_LOG)
+            return false
+        }
+        val tableName = table.tableName
+        logger.verbose("UserEventLog: upsert ${logs.size} EventLogs")
+        val database = db.writableDatabase
+        return try {
+            database.beginTransaction()
+            val update = database.compileStatement(
+                """
+                UPDATE $tableName
+                SET
+                    ${Column.COUNT} = ${Column.COUNT} + ?,
+                    ${Column.LAST_TS} = MAX(${Column.LAST_TS}, ?)
+                WHERE ${Column.DEVICE_ID} = ?
+                AND ${Column.NORMALIZED_EVENT_NAME} = ?;
+                """.trimIndent()
+            )
+            update.use {
+                logs.forEach { log ->
+                    update.clearBindings()
+                    update.bindLong(1, log.countOfEvents.toLong())
+                    update.bindLong(2, log.lastTs)
+                    update.bindString(3, log.deviceID)
+                    update.bindString(4, log.normalizedEventName)
+                    if (update.executeUpdateDelete() == 0) {
+                        val values = ContentValues().apply {
+                            put(Column.EVENT_NAME, log.eventName)
+                            put(Column.NORMALIZED_EVENT_NAME, log.normalizedEventName)
+                            put(Column.FIRST_TS, log.firstTs)
+                            put(Column.LAST_TS, log.lastTs)
+                            put(Column.COUNT, log.countOfEvents)
+                            put(Column.DEVICE_ID, log.deviceID)
+                        }
+                        database.insertWithOnConflict(tableName, null, values, SQLiteDatabase.CONFLICT_REPLACE)
+                    }
+                }
+            }
+            database.setTransactionSuccessful()
+            true
+        } catch (e: Exception) {
+            logger.verbose("Failed to upsert EventLogs in table $tableName", e)
+            false
+        } finally {
+            try {
+                database.endTransaction()
+            } catch (e: Exception) {
+                logger.verbose("Failed to end transaction on table $tableName", e)
+            }
+        }
+    }
+
     @WorkerThread
     override fun readEventByDeviceIdAndNormalizedEventName(deviceID: String, normalizedEventName: String): UserEventLog? {
         val tName = table.tableName
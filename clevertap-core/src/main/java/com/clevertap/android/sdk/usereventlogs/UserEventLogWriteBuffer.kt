@@ -0,0 +1,161 @@
+package com.clevertap.android.sdk.usereventlogs
+
+import com.clevertap.android.sdk.utils.Clock
+
+/**
+ * Write-behind cache for the user event log table.
+ *
+ * Raised events are counted in memory per device ID and normalized event name instead of costing an
+ * existence query and an UPDATE or INSERT each. A burst of the same event becomes a single pending
+ * [UserEventLog] whose [UserEventLog.countOfEvents] is the number of occurrences to add, written by
+ * [UserEventLogDAO.upsertEventLogs] in one transaction once [maxPendingEvents] are waiting or the
+ * oldest pending event is older than [maxPendingAgeMs].
+ *
+ * [read] serves logs from memory, a log read from the database is kept with the pending
+ * occurrences applied so trigger evaluation doesn't query the table for every event. At most
+ * [maxCachedLogs] are kept, the least recently used are dropped first.
+ */
+internal class UserEventLogWriteBuffer @JvmOverloads constructor(
+    private val maxPendingEvents: Int = DEFAULT_MAX_PENDING_EVENTS,
+    private val maxPendingAgeMs: Long = DEFAULT_MAX_PENDING_AGE_MS,
+    private val clock: Clock = Clock.SYSTEM,
+    private val maxCachedLogs: Int = DEFAULT_MAX_CACHED_LOGS,
+    private val maxRestagedLogs: Int = DEFAULT_MAX_RESTAGED_LOGS
+) {
+
+    companion object {
+        const val DEFAULT_MAX_PENDING_EVENTS = 50
+        const val DEFAULT_MAX_PENDING_AGE_MS = 2_000L
+
+        // the event logs kept per user in the table
+        const val DEFAULT_MAX_CACHED_LOGS = 2_048
+
+        const val DEFAULT_MAX_RESTAGED_LOGS = 2_048
+    }
+
+    private data class Key(val deviceID: String, val normalizedEventName: String)
+
+    private val pending = LinkedHashMap<Key, UserEventLog>()
+    private val logs = object : LinkedHashMap<Key, UserEventLog>(16, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<Key, UserEventLog>?): Boolean =
+            size > maxCachedLogs
+    }
+    private var pendingEvents = 0
+    private var oldestPendingTs = 0L
+
+    @get:Synchronized
+    val isEmpty: Boolean
+        get() = pending.isEmpty()
+
+    /**
+     * Records one occurrence of an event.
+     *
+     * @return true if the buffer has reached its size or age threshold and should be drained
+     */
+    @Synchronized
+    fun record(deviceID: String, eventName: String, normalizedEventName: String): Boolean {
+        val now = clock.currentTimeMillis()
+        val key = Key(deviceID, normalizedEventName)
+
+        pending[key] = pending[key]?.let { it.copy(lastTs = now, countOfEvents = it.countOfEvents + 1) }
+            ?: UserEventLog(eventName, normalizedEventName, now, now, 1, deviceID)
+        logs[key]?.let { logs[key] = it.copy(lastTs = now, countOfEvents = it.countOfEvents + 1) }
+
+        if (pendingEvents == 0) {
+            oldestPendingTs = now
+        }
+        pendingEvents++
+        return pendingEvents >= maxPendingEvents || now - oldestPendingTs >= maxPendingAgeMs
+    }
+
+    /**
+     * @param loadPersisted reads the log from the database, only called when it is not in memory
+     * @return the log including pending occurrences, null if the event never occurred
+     */
+    @Synchronized
+    fun read(
+        deviceID: String,
+        normalizedEventName: String,
+        loadPersisted: () -> UserEventLog?
+    ): UserEventLog? {
+        val key = Key(deviceID, normalizedEventName)
+        logs[key]?.let { return it }
+
+        val persisted = loadPersisted()
+        val pendingLog = pending[key]
+        val log = when {
+            persisted == null -> pendingLog
+            pendingLog == null -> persisted
+            else -> persisted.copy(
+                lastTs = pendingLog.lastTs,
+                countOfEvents = persisted.countOfEvents + pendingLog.countOfEvents
+            )
+        }
+        if (log != null) {
+            logs[key] = log
+        }
+        return log
+    }
+
+    /**
+     * Removes and returns the pending logs, each holding the occurrences to add to the stored log.
+     */
+    @Synchronized
+    fun drain(): List<UserEventLog> {
+        if (pending.isEmpty()) {
+            return emptyList()
+        }
+        val drained = ArrayList(pending.values)
+        pending.clear()
+        pendingEvents = 0
+        return drained
+    }
+
+    /**
+     * Puts back logs returned by [drain] which could not be written, merging them with the
+     * occurrences recorded since so they are written by the next drain. The age threshold restarts
+     * so a failing write is retried after [maxPendingAgeMs] rather than on every event, and logs
+     * beyond [maxRestagedLogs] pending ones are dropped, the least recently raised first.
+     *
+     * @return the number of logs dropped
+     */
+    @Synchronized
+    fun restage(drained: Collection<UserEventLog>): Int {
+        if (drained.isEmpty()) {
+            return 0
+        }
+        if (pendingEvents == 0) {
+            oldestPendingTs = clock.currentTimeMillis()
+        }
+        val added = drained.filter { Key(it.deviceID, it.normalizedEventName) !in pending }
+        val dropped = added
+            .sortedBy { it.lastTs }
+            .take((added.size - (maxRestagedLogs - pending.size)).coerceAtLeast(0))
+            .toSet()
+        drained.forEach { log ->
+            val key = Key(log.deviceID, log.normalizedEventName)
+            if (log in dropped) {
+                // the cached log counts occurrences which are now lost
+                logs.remove(key)
+                return@forEach
+            }
+            pending[key] = pending[key]?.let {
+                it.copy(
+                    firstTs = minOf(it.firstTs, log.firstTs),
+                    lastTs = maxOf(it.lastTs, log.lastTs),
+                    countOfEvents = it.countOfEvents + log.countOfEvents
+                )
+            } ?: log
+            pendingEvents += log.countOfEvents
+        }
+        return dropped.size
+    }
+
+    /**
+     * Drops the logs kept for reads, e.g. after the table was changed without this buffer.
+     */
+    @Synchronized
+    fun invalidate() {
+        logs.clear()
+    }
+}
@@ -95,7 +95,8 @@ class InMemoryLruCache<T : Any>(
 /**
  * Extension function to calculate the size of an object in kilobytes.
  *
- * Supports [Bitmap] and [ByteArray] types. For other types, returns a default size of 1 kilobyte.
+ * Supports [Bitmap] and [ByteArray] types, a [Pair] is sized by its first value as the caches pair
+ * the data with its [java.io.File]. For other types, returns a default size of 1 kilobyte.
  *
  * @return The size of the object in kilobytes.
  */
@@ -106,6 +107,9 @@ fun Any?.sizeInKb() : Int = when (this) {
     is ByteArray -> {
         size / 1024
     }
+    is Pair<*, *> -> {
+        first.sizeInKb()
+    }
     else -> {
         1
     }
@@ -4,27 +4,32 @@ import com.clevertap.android.sdk.ILogger
 import com.clevertap.android.sdk.inapp.images.repo.TAG_FILE_DOWNLOAD
 import java.io.File
 import java.io.FileOutputStream
+import java.io.IOException
+import java.io.InputStream
+import java.io.OutputStream
 import kotlin.Exception
 /**
  * A simple disk-based storage utility for managing persistent key-value pairs, where the value is a [ByteArray].
  * This class provides methods for adding, retrieving, removing, and clearing stored files on disk.
  * It also enforces a maximum file size limit to manage storage usage.
+ * Files are written to a temporary file first and renamed, so a crash never leaves a truncated file behind.
  *
  * @param directory The directory on the device's storage where files will be stored.
  * @param maxFileSizeKb The maximum allowed file size in kilobytes for cached files.
  * @param logger An optional [ILogger] instance for debugging or tracking purposes.
  * @param hashFunction A function to generate a unique hash from the provided key. By default, it uses a [UrlHashGenerator].
  */
-class DiskMemory(
-    private val directory: File,
+open class DiskMemory(
+    protected val directory: File,
     private val maxFileSizeKb: Int,
-    private val logger: ILogger? = null,
+    protected val logger: ILogger? = null,
     internal val hashFunction: (key: String) -> String = UrlHashGenerator.hash()
 ) {
 
     companion object {
         //private const val DIGEST_ALGO = "SHA256"
-        private const val FILE_PREFIX = "CT_FILE"
+        internal const val FILE_PREFIX = "CT_FILE"
+        internal const val TEMP_FILE_SUFFIX = ".tmp"
     }
     /**
      * Adds a file to the disk storage with the given key and value [ByteArray].
@@ -33,7 +38,7 @@ class DiskMemory(
      * @param value The [ByteArray] representing the file content.
      * @return `true` if the file was successfully stored, `false` otherwise.
      */
-    fun add(key: String, value: ByteArray) : Boolean {
+    open fun add(key: String, value: ByteArray) : Boolean {
         return try {
             addAndReturnFileInstance(key, value)
             true
@@ -50,31 +55,82 @@ class DiskMemory(
      * @return The [File] instance of the stored file.
      * @throws [IllegalArgumentException] if the file size exceeds the maximum limit.
      */
-    fun addAndReturnFileInstance(key: String, value: ByteArray) : File {
+    open fun addAndReturnFileInstance(key: String, value: ByteArray) : File {
         if (value.sizeInKb() > maxFileSizeKb) {
             remove(key = key)
             throw IllegalArgumentException("File size exceeds the maximum limit of $maxFileSizeKb")
         }
-        val file = fetchFile(key)
-
-        if (file.exists()) {
-            file.delete()
-        }
         val newFile = fetchFile(key)
         logger?.verbose(TAG_FILE_DOWNLOAD,"mapped file path - ${newFile.absoluteFile} to key - $key")
-        val os = FileOutputStream(newFile)
-        os.write(value)
-        os.close()
+        writeAtomically(newFile) { it.write(value) }
         return newFile
 
     }
+    /**
+     * Copies [source] to the disk storage without holding the whole content in memory and returns the
+     * [File] instance of the newly stored file.
+     *
+     * @param key The unique key associated with the file.
+     * @param source The stream of the file content, it is not closed by this method.
+     * @param expectedLength The number of bytes [source] should provide, -1 if unknown.
+     * @return The [File] instance of the stored file.
+     * @throws [IllegalArgumentException] if the file size exceeds the maximum limit.
+     * @throws [IOException] if [source] fails or ends before [expectedLength] bytes were read.
+     */
+    open fun addStreamAndReturnFileInstance(key: String, source: InputStream, expectedLength: Long = -1) : File {
+        val maxBytes = maxFileSizeKb * 1024L
+        if (expectedLength > maxBytes) {
+            remove(key = key)
+            throw IllegalArgumentException("File size exceeds the maximum limit of $maxFileSizeKb")
+        }
+        val newFile = fetchFile(key)
+        logger?.verbose(TAG_FILE_DOWNLOAD,"streaming file path - ${newFile.absoluteFile} to key - $key")
+        writeAtomically(newFile) { os ->
+            val buffer = ByteArray(16384)
+            var total = 0L
+            var read: Int
+            while (source.read(buffer).also { read = it } != -1) {
+                total += read
+                if (total > maxBytes) {
+                    throw IllegalArgumentException("File size exceeds the maximum limit of $maxFileSizeKb")
+                }
+                os.write(buffer, 0, read)
+            }
+            if (expectedLength != -1L && total != expectedLength) {
+                throw IOException("Incomplete Download, read $total of $expectedLength bytes")
+            }
+        }
+        return newFile
+    }
+    /**
+     * Writes a temporary file next to [file] with [write] and renames it to [file].
+     *
+     * @throws [IOException] if the file could not be written or renamed.
+     */
+    protected fun writeAtomically(file: File, write: (OutputStream) -> Unit) {
+        val tempFile = File.createTempFile(file.name, TEMP_FILE_SUFFIX, file.parentFile)
+        try {
+            FileOutputStream(tempFile).use { write(it) }
+            if (!tempFile.renameTo(file)) {
+                // some file systems don't replace an existing file on rename
+                file.delete()
+                if (!tempFile.renameTo(file)) {
+                    throw IOException("Could not rename ${tempFile.name} to ${file.name}")
+                }
+            }
+        } finally {
+            if (tempFile.exists()) {
+                tempFile.delete()
+            }
+        }
+    }
     /**
      * Retrieves the stored file associated with the given key.
      *
      * @param key The unique key associated with the file.
      * @return The [File] instance of the stored file if found, `null` otherwise.
      */
-    fun get(key: String): File? {
+    open fun get(key: String): File? {
         val file = fetchFile(key)
 
         return if (file.exists()) {
@@ -89,7 +145,7 @@ class DiskMemory(
      * @param key The unique key associated with the file.
      * @return `true` if the file exists, `false` if it didn't exist.
      */
-    fun remove(key: String): Boolean {
+    open fun remove(key: String): Boolean {
         val file = fetchFile(key)
         return if (file.exists()) {
             file.delete()
@@ -103,7 +159,7 @@ class DiskMemory(
      *
      * @return `true` if the directory was successfully deleted, `false` otherwise.
      */
-    fun empty() : Boolean {
+    open fun empty() : Boolean {
         return directory.deleteRecursively()
     }
     /**
@@ -112,7 +168,7 @@ class DiskMemory(
      * @param key The unique key associated with the file.
      * @return The [File] instance representing the stored file path.
      */
-    private fun fetchFile(key: String) : File {
+    protected fun fetchFile(key: String) : File {
         val filePath = "${directory}/${FILE_PREFIX}_${hashFunction(key)}"
         return File(filePath)
     }
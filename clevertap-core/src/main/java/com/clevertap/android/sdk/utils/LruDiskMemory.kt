@@ -0,0 +1,252 @@
+package com.clevertap.android.sdk.utils
+
+import com.clevertap.android.sdk.ILogger
+import com.clevertap.android.sdk.inapp.images.repo.TAG_FILE_DOWNLOAD
+import java.io.BufferedWriter
+import java.io.File
+import java.io.FileWriter
+import java.io.IOException
+import java.io.InputStream
+
+/**
+ * A [DiskMemory] bounded by the total size of its files, evicting the least recently used files once
+ * [maxTotalSizeKb] is exceeded.
+ *
+ * An index of the cached files and their sizes is built once from the journal and the directory
+ * listing, so [get] answers from memory instead of checking the file system for every lookup.
+ * The journal is an append-only log of writes, reads and removals that keeps the access order across
+ * app sessions, it is compacted when it holds too many redundant lines.
+ *
+ * Files added without going through this class (e.g. by an older SDK version) are indexed as the
+ * least recently used ones, leftover temporary files of interrupted writes are deleted.
+ *
+ * @param directory The directory on the device's storage where files will be stored.
+ * @param maxFileSizeKb The maximum allowed file size in kilobytes for cached files.
+ * @param maxTotalSizeKb The maximum total size in kilobytes of all cached files.
+ * @param logger An optional [ILogger] instance for debugging or tracking purposes.
+ * @param hashFunction A function to generate a unique hash from the provided key.
+ */
+class LruDiskMemory(
+    directory: File,
+    maxFileSizeKb: Int,
+    private val maxTotalSizeKb: Long,
+    logger: ILogger? = null,
+    hashFunction: (key: String) -> String = UrlHashGenerator.hash()
+) : DiskMemory(directory, maxFileSizeKb, logger, hashFunction) {
+
+    companion object {
+        internal const val JOURNAL_FILE = "ct_disk_journal"
+        private const val PUT = "PUT"
+        private const val READ = "READ"
+        private const val DEL = "DEL"
+        private const val MIN_REDUNDANT_LINES_TO_COMPACT = 500
+    }
+
+    // file name to file size in bytes, in access order
+    private val index = LinkedHashMap<String, Long>(16, 0.75f, true)
+    private var totalSizeBytes = 0L
+    private var journalWriter: BufferedWriter? = null
+    private var redundantLines = 0
+    private var initialized = false
+
+    private val journalFile: File
+        get() = File(directory, JOURNAL_FILE)
+
+    /**
+     * Total size in bytes of the cached files.
+     */
+    val size: Long
+        @Synchronized get() {
+            ensureIndex()
+            return totalSizeBytes
+        }
+
+    override fun addAndReturnFileInstance(key: String, value: ByteArray): File {
+        if (value.sizeInKb() > maxTotalSizeKb) {
+            remove(key = key)
+            throw IllegalArgumentException("File size exceeds the total cache size of $maxTotalSizeKb")
+        }
+        synchronized(this) {
+            // recreates the directory after empty()
+            ensureIndex()
+        }
+        return onFileAdded(super.addAndReturnFileInstance(key, value))
+    }
+
+    override fun addStreamAndReturnFileInstance(key: String, source: InputStream, expectedLength: Long): File {
+        if (expectedLength > maxTotalSizeKb * 1024) {
+            remove(key = key)
+            throw IllegalArgumentException("File size exceeds the total cache size of $maxTotalSizeKb")
+        }
+        synchronized(this) {
+            ensureIndex()
+        }
+        return onFileAdded(super.addStreamAndReturnFileInstance(key, source, expectedLength))
+    }
+
+    @Synchronized
+    private fun onFileAdded(file: File): File {
+        val size = file.length()
+        index.put(file.name, size)?.let { totalSizeBytes -= it }
+        totalSizeBytes += size
+        journal(PUT, file.name, size, flush = true)
+        trimToSize(keep = file.name)
+        return file
+    }
+
+    @Synchronized
+    override fun get(key: String): File? {
+        ensureIndex()
+        val file = fetchFile(key)
+        if (index[file.name] == null) {
+            return null
+        }
+        journal(READ, file.name)
+        return file
+    }
+
+    @Synchronized
+    override fun remove(key: String): Boolean {
+        ensureIndex()
+        val file = fetchFile(key)
+        val size = index.remove(file.name)
+        if (size == null) {
+            return false
+        }
+        totalSizeBytes -= size
+        file.delete()
+        journal(DEL, file.name, flush = true)
+        return true
+    }
+
+    @Synchronized
+    override fun empty(): Boolean {
+        closeJournal()
+        index.clear()
+        totalSizeBytes = 0
+        redundantLines = 0
+        initialized = false
+        return super.empty()
+    }
+
+    private fun trimToSize(keep: String) {
+        val maxBytes = maxTotalSizeKb * 1024
+        val iterator = index.entries.iterator()
+        while (totalSizeBytes > maxBytes && iterator.hasNext()) {
+            val (name, size) = iterator.next()
+            if (name == keep) {
+                continue
+            }
+            iterator.remove()
+            totalSizeBytes -= size
+            File(directory, name).delete()
+            journal(DEL, name)
+            logger?.verbose(TAG_FILE_DOWNLOAD, "evicted $name of $size bytes from disk cache")
+        }
+        journalWriter?.flush()
+    }
+
+    private fun ensureIndex() {
+        if (initialized) {
+            return
+        }
+        initialized = true
+        if (!directory.exists()) {
+            directory.mkdirs()
+        }
+
+        val files = HashMap<String, Long>()
+        directory.listFiles()?.forEach { file ->
+            when {
+                file.name.endsWith(TEMP_FILE_SUFFIX) -> file.delete()
+                file.name.startsWith(FILE_PREFIX) -> files[file.name] = file.length()
+            }
+        }
+
+        // Files the journal doesn't know about are the least recently used ones
+        val journalOrder = readJournal()
+        files.keys
+            .filterNot { journalOrder.contains(it) }
+            .sortedBy { File(directory, it).lastModified() }
+            .forEach { index[it] = files.getValue(it) }
+        journalOrder.filter { files.containsKey(it) }.forEach { index[it] = files.getValue(it) }
+        totalSizeBytes = index.values.sum()
+
+        rewriteJournal()
+        trimToSize(keep = "")
+    }
+
+    /**
+     * @return the names of the files in the journal, least recently used first
+     */
+    private fun readJournal(): LinkedHashSet<String> {
+        val order = LinkedHashSet<String>()
+        if (!journalFile.exists()) {
+            return order
+        }
+        try {
+            journalFile.forEachLine { line ->
+                val parts = line.split(' ')
+                if (parts.size < 2) {
+                    return@forEachLine
+                }
+                when (parts[0]) {
+                    PUT, READ -> {
+                        order.remove(parts[1])
+                        order.add(parts[1])
+                    }
+                    DEL -> order.remove(parts[1])
+                }
+            }
+        } catch (e: IOException) {
+            logger?.verbose(TAG_FILE_DOWNLOAD, "Could not read disk cache journal, rebuilding it", e)
+        }
+        return order
+    }
+
+    private fun rewriteJournal() {
+        closeJournal()
+        try {
+            val tempJournal = File(directory, JOURNAL_FILE + TEMP_FILE_SUFFIX)
+            BufferedWriter(FileWriter(tempJournal)).use { writer ->
+                index.forEach { (name, size) ->
+                    writer.write("$PUT $name $size\n")
+                }
+            }
+            if (!tempJournal.renameTo(journalFile)) {
+                journalFile.delete()
+                tempJournal.renameTo(journalFile)
+            }
+            redundantLines = 0
+            journalWriter = BufferedWriter(FileWriter(journalFile, true))
+        } catch (e: IOException) {
+            logger?.verbose(TAG_FILE_DOWNLOAD, "Could not write disk cache journal", e)
+        }
+    }
+
+    private fun journal(op: String, name: String, size: Long? = null, flush: Boolean = false) {
+        try {
+            journalWriter?.run {
+                write(if (size != null) "$op $name $size\n" else "$op $name\n")
+                if (flush) {
+                    flush()
+                }
+            }
+        } catch (e: IOException) {
+            logger?.verbose(TAG_FILE_DOWNLOAD, "Could not append to disk cache journal", e)
+        }
+        redundantLines++
+        if (redundantLines >= MIN_REDUNDANT_LINES_TO_COMPACT && redundantLines >= index.size) {
+            rewriteJournal()
+        }
+    }
+
+    private fun closeJournal() {
+        try {
+            journalWriter?.close()
+        } catch (e: IOException) {
+            // no-op
+        }
+        journalWriter = null
+    }
+}
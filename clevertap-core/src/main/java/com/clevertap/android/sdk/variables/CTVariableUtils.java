@@ -10,8 +10,12 @@ import org.json.JSONObject;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @RestrictTo(RestrictTo.Scope.LIBRARY)
 public final class CTVariableUtils {
@@ -326,4 +330,63 @@ public final class CTVariableUtils {
 
         return copiedMap;
     }
+
+    /**
+     * Copies the nested maps of a merged value into unmodifiable maps, so it can be shared with
+     * readers without locking.
+     */
+    public static Object immutableCopy(Object value) {
+        if (!(value instanceof Map)) {
+            return value;
+        }
+        Map<?, ?> map = (Map<?, ?>) value;
+        Map<Object, Object> copy = new HashMap<>();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            copy.put(entry.getKey(), immutableCopy(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Compares two merged values and collects the dot separated name of every path whose value
+     * changed, i.e. calling it with old=[a:[b:1, c:2]] and new=[a:[b:1, c:3]] collects "a" and
+     * "a.c". The name of a variable is collected if and only if the value resolved for it by
+     * {@link #traverse(Object, Object, boolean)} changed.
+     *
+     * @param oldValue     - Previous merged value.
+     * @param newValue     - New merged value.
+     * @param path         - Name of the compared values, empty for the root.
+     * @param changedPaths - Collects the names of the changed paths, the root is never collected.
+     * @return true if the value changed
+     */
+    public static boolean collectChangedPaths(
+            Object oldValue,
+            Object newValue,
+            String path,
+            Set<String> changedPaths
+    ) {
+        boolean changed;
+        if (oldValue instanceof Map || newValue instanceof Map) {
+            Map<?, ?> oldMap = oldValue instanceof Map ? (Map<?, ?>) oldValue : Collections.emptyMap();
+            Map<?, ?> newMap = newValue instanceof Map ? (Map<?, ?>) newValue : Collections.emptyMap();
+            // a map replacing a value or the other way around changes the value of the path itself
+            changed = !(oldValue instanceof Map && newValue instanceof Map);
+
+            Set<Object> keys = new HashSet<>(oldMap.keySet());
+            keys.addAll(newMap.keySet());
+            for (Object key : keys) {
+                String childPath = path.isEmpty() ? String.valueOf(key) : path + "." + key;
+                if (collectChangedPaths(oldMap.get(key), newMap.get(key), childPath, changedPaths)) {
+                    changed = true;
+                }
+            }
+        } else {
+            changed = !Objects.equals(oldValue, newValue);
+        }
+
+        if (changed && !path.isEmpty()) {
+            changedPaths.add(path);
+        }
+        return changed;
+    }
 }
@@ -301,6 +301,10 @@ public class Var<T> {
         hadStarted = false;
     }
 
+    boolean hadStarted() {
+        return hadStarted;
+    }
+
     public void addFileReadyHandler(@NonNull VariableCallback<T> handler) {
         synchronized (fileReadyHandlers) {
             fileReadyHandlers.add(handler);
@@ -16,10 +16,13 @@ import com.clevertap.android.sdk.task.Task;
 import com.clevertap.android.sdk.variables.repo.VariablesRepo;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.json.JSONArray;
@@ -44,6 +47,10 @@ public class VarCache {
     public Object merged = null;
     private Runnable globalCallbacksRunnable = null;
 
+    // Immutable copy of `merged`, or of the client values before any diffs are applied, for
+    // lock-free reads. Subtrees which did not change are shared between the published copies.
+    private volatile Map<String, Object> mergedSnapshot = Collections.emptyMap();
+
     // README: Do not forget reset the value of new fields in the reset() method.
     private Map<String, Object> diffs = new HashMap<>();
 
@@ -101,6 +108,7 @@ public class VarCache {
             Object newValue = CTVariableUtils.mergeHelper(defaultValue, mergedValue);
 
             mergedMap.put(firstComponent, newValue);
+            publishMergedSnapshot(Collections.singleton(firstComponent));
 
             StringBuilder name = new StringBuilder(firstComponent);
             for (int i = 1; i < var.nameComponents().length; i++) {
@@ -130,32 +138,34 @@ public class VarCache {
                 defaultKinds
         );
 
+        // the client values may be shared with the merged values, so both can change here
+        publishMergedSnapshot(Collections.singleton(var.nameComponents()[0]));
         mergeVariable(var);
     }
 
-    public synchronized Object getMergedValue(String variableName) {
+    /**
+     * Reads the merged value of a variable without locking. Groups are returned as unmodifiable
+     * maps.
+     */
+    public Object getMergedValue(String variableName) {
         Var<?> var = vars.get(variableName);
         if (var != null && CTVariableUtils.FILE.equals(var.kind())) {
             return filePathFromDisk(var.stringValue);
         }
 
         String[] components = CTVariableUtils.getNameComponents(variableName);
-        Object mergedValue = getMergedValueFromComponentArray(components);
-        if (mergedValue instanceof Map) {
-            return CTVariableUtils.deepCopyMap(JsonUtil.uncheckedCast(mergedValue));
-        } else {
-            return mergedValue;
-        }
+        return getMergedValueFromComponentArray(components);
     }
 
-    public synchronized <T> T getMergedValueFromComponentArray(Object[] components) {
-        return getMergedValueFromComponentArray(
-                components,
-                merged != null ? merged : valuesFromClient
-        );
+    /**
+     * Reads a merged value from the last published immutable copy, without locking. Groups are
+     * returned as unmodifiable maps.
+     */
+    public <T> T getMergedValueFromComponentArray(Object[] components) {
+        return getMergedValueFromComponentArray(components, mergedSnapshot);
     }
 
-    public synchronized <T> T getMergedValueFromComponentArray(Object[] components, Object values) {
+    public <T> T getMergedValueFromComponentArray(Object[] components, Object values) {
         Object mergedPtr = values;
         for (Object component : components) {
             mergedPtr = CTVariableUtils.traverse(mergedPtr, component, false);
@@ -263,16 +273,54 @@ public class VarCache {
             merged = CTVariableUtils.mergeHelper(valuesFromClient, this.diffs);
             log("applyVariableDiffs: updated value of merged=[" + merged + "]");
 
+            // the snapshot still holds the previous merged values
+            Map<?, ?> previousMap = mergedSnapshot;
+            Map<?, ?> mergedMap = merged instanceof Map ? (Map<?, ?>) merged : Collections.emptyMap();
+            Set<Object> changedComponents = new HashSet<>();
+            Set<String> changedPaths = new HashSet<>();
+            Set<Object> firstComponents = new HashSet<>(previousMap.keySet());
+            firstComponents.addAll(mergedMap.keySet());
+            for (Object component : firstComponents) {
+                if (CTVariableUtils.collectChangedPaths(previousMap.get(component), mergedMap.get(component),
+                        String.valueOf(component), changedPaths)) {
+                    changedComponents.add(component);
+                }
+            }
+            publishMergedSnapshot(changedComponents);
+            log("applyVariableDiffs: changed paths=" + changedPaths);
+
             for (Map.Entry<String, Var<?>> entry : clientRegisteredVars.entrySet()) {
                 String name = entry.getKey();
                 Var<?> var = vars.get(name);
-                if (var != null) {
+                // vars which did not start yet are updated to invoke their callbacks
+                if (var != null && (changedPaths.contains(name) || !var.hadStarted())) {
                     var.update();
                 }
             }
         }
     }
 
+    /**
+     * Publishes a new immutable copy of the merged values, copying only the given first name
+     * components and sharing the others with the previous copy.
+     */
+    private void publishMergedSnapshot(Set<?> changedComponents) {
+        if (changedComponents.isEmpty()) {
+            return;
+        }
+        Map<?, ?> source = JsonUtil.uncheckedCast(merged instanceof Map ? merged : valuesFromClient);
+        Map<String, Object> snapshot = new HashMap<>(mergedSnapshot);
+        for (Object component : changedComponents) {
+            Object value = source.get(component);
+            if (value == null) {
+                snapshot.remove(component);
+            } else {
+                snapshot.put(String.valueOf(component), CTVariableUtils.immutableCopy(value));
+            }
+        }
+        mergedSnapshot = Collections.unmodifiableMap(snapshot);
+    }
+
     private void startFilesDownload(
             HashMap<String, Var<?>> clientRegisteredVars,
             Function0<Unit> func
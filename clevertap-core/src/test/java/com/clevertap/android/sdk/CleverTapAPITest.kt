@@ -3,15 +3,21 @@ package com.clevertap.android.sdk
 import android.location.Location
 import android.os.Bundle
 import com.clevertap.android.sdk.inapp.callbacks.FetchInAppsCallback
+import com.clevertap.android.sdk.db.DBAdapter
 import com.clevertap.android.sdk.inbox.CTInboxController
+import com.clevertap.android.sdk.inbox.CTInboxMessage
+import com.clevertap.android.sdk.inbox.CTMessageDAO
 import com.clevertap.android.sdk.network.fetch.FetchTrigger
 import com.clevertap.android.sdk.pushnotification.CoreNotificationRenderer
+import com.clevertap.android.sdk.task.CTExecutorFactory
+import com.clevertap.android.sdk.task.MockCTExecutors
 import com.clevertap.android.sdk.usereventlogs.UserEventLogTestData
 import com.clevertap.android.shared.test.BaseTestCase
 import com.clevertap.android.shared.test.Constant
 import io.mockk.confirmVerified
 import io.mockk.every
 import io.mockk.mockk
+import io.mockk.mockkStatic
 import io.mockk.slot
 import io.mockk.verify
 import io.mockk.verifyOrder
@@ -405,6 +411,49 @@ class CleverTapAPITest : BaseTestCase() {
         confirmVerified(coreState.controllerManager)
     }
 
+    @Test
+    fun `messageDidShow sends the viewed event and marks the message read after the inbox UI marked it read`() {
+        // Arrange
+        val userId = "user1"
+        val dbAdapter = mockk<DBAdapter>(relaxed = true)
+        every { dbAdapter.getMessages(userId) } returns arrayListOf(CTMessageDAO().also {
+            it.id = "msg_1"
+            it.userId = userId
+            it.jsonData = JSONObject()
+            it.wzrkParams = JSONObject()
+            it.date = System.currentTimeMillis() / 1000
+            it.expires = System.currentTimeMillis()
+        })
+
+        mockkStatic(CTExecutorFactory::class) {
+            every { CTExecutorFactory.executors(any()) } returns MockCTExecutors(cleverTapInstanceConfig)
+            val inboxController = CTInboxController(
+                cleverTapInstanceConfig, userId, dbAdapter, CTLockManager(), mockk(relaxed = true), true,
+                mockk(relaxed = true)
+            )
+            every { coreState.controllerManager.ctInboxController } returns inboxController
+            initializeCleverTapAPI()
+
+            // the view holder marks the message it shows read before messageDidShow runs
+            val shownMessage = cleverTapAPI.getInboxMessageForId("msg_1")
+            CTInboxMessage::class.java.getDeclaredMethod("setRead", Boolean::class.javaPrimitiveType).apply {
+                isAccessible = true
+            }.invoke(shownMessage, true)
+
+            // Act
+            cleverTapAPI.messageDidShow(mockk(relaxed = true), shownMessage, null)
+
+            // Assert
+            verify(exactly = 1) {
+                coreState.analyticsManager.pushInboxMessageStateEvent(
+                    false, match { it.messageId == "msg_1" && !it.isRead }, null
+                )
+            }
+            verify(exactly = 1) { dbAdapter.markReadMessageForId("msg_1", userId) }
+            assertTrue(cleverTapAPI.getInboxMessageForId("msg_1").isRead)
+        }
+    }
+
     @Test
     fun markReadInboxMessagesForIDs_inboxControllerNotNull_marksRead() {
         // Arrange
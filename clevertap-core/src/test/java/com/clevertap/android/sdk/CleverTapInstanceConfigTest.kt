@@ -132,6 +132,49 @@ class CleverTapInstanceConfigTest {
         assertTrue(config.isEncryptionInTransitEnabled)
     }
 
+    private class OptInFlag(
+        val name: String,
+        val isEnabled: (CleverTapInstanceConfig) -> Boolean,
+        val enable: (CleverTapInstanceConfig) -> Unit
+    )
+
+    private val optInFlags = listOf(
+        OptInFlag("event group commit", { it.isEventGroupCommitEnabled }, { it.setEventGroupCommitEnabled(true) }),
+        OptInFlag("gzip requests", { it.isGzipRequestsEnabled }, { it.setGzipRequestsEnabled(true) }),
+        OptInFlag("pipelined flush", { it.isPipelinedFlushEnabled }, { it.setPipelinedFlushEnabled(true) }),
+        OptInFlag("adaptive batch size", { it.isAdaptiveBatchSizeEnabled }, { it.setAdaptiveBatchSizeEnabled(true) }),
+        OptInFlag(
+            "user event log write behind",
+            { it.isUserEventLogWriteBehindEnabled },
+            { it.setUserEventLogWriteBehindEnabled(true) }
+        ),
+        OptInFlag("network lane", { it.isNetworkLaneEnabled }, { it.setNetworkLaneEnabled(true) })
+    )
+
+    @Test
+    fun `test opt-in flags are disabled by default and preserved after json serialization and copy`() {
+        for (flag in optInFlags) {
+            val config = CleverTapInstanceConfig.createInstanceWithManifest(
+                manifestInfo,
+                ACCOUNT_ID,
+                ACCOUNT_TOKEN,
+                ACCOUNT_REGION,
+                false
+            )
+            assertFalse(flag.isEnabled(config), "${flag.name} should be disabled by default")
+
+            flag.enable(config)
+            val configFromJson = CleverTapInstanceConfig.createInstance(config.toJSONString())!!
+            val copiedConfig = CleverTapInstanceConfig(config)
+
+            for (other in optInFlags) {
+                val expected = other === flag
+                assertEquals(expected, other.isEnabled(configFromJson), "${other.name} after enabling ${flag.name}, from json")
+                assertEquals(expected, other.isEnabled(copiedConfig), "${other.name} after enabling ${flag.name}, copied")
+            }
+        }
+    }
+
     @Test
     fun `test clevertap instance config data is preserved after json serialization and deserialization`() {
         val originalConfig = CleverTapInstanceConfig.createInstanceWithManifest(
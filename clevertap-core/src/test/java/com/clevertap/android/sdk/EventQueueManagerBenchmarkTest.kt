@@ -0,0 +1,68 @@
+package com.clevertap.android.sdk
+
+import com.clevertap.android.sdk.benchmark.MicroBenchmark
+import com.clevertap.android.sdk.events.EventQueueManager
+import com.clevertap.android.sdk.events.FlattenedEventData
+import com.clevertap.android.shared.test.BaseTestCase
+import io.mockk.every
+import io.mockk.mockk
+import org.json.JSONObject
+import org.junit.Test
+
+/**
+ * Benchmark of [EventQueueManager.processEvent], which completes a raised event with the session
+ * and device state before it is queued to the database and evaluated for in-apps.
+ *
+ * The database, in-app controller and main looper are relaxed mocks, so the result tracks the work
+ * done by the queue manager itself plus a constant mocking overhead.
+ *
+ * See [MicroBenchmark] for running with baselines.
+ */
+class EventQueueManagerBenchmarkTest : BaseTestCase() {
+
+    companion object {
+        private const val EVENTS_PER_RUN = 500
+    }
+
+    @Test
+    fun benchmark_processEvent() {
+        val coreState = MockCoreStateKotlin(cleverTapInstanceConfig)
+        every { coreState.eventMediator.getEventName(any()) } returns "Product Viewed"
+        val eventQueueManager = EventQueueManager(
+            coreState.databaseManager,
+            application,
+            cleverTapInstanceConfig,
+            coreState.eventMediator,
+            coreState.sessionManager,
+            coreState.callbackManager,
+            coreState.mainLooperHandler,
+            coreState.deviceInfo,
+            coreState.validationResultStack,
+            coreState.networkManager,
+            coreState.coreMetaData,
+            coreState.cTLockManager,
+            coreState.localDataStore,
+            coreState.controllerManager,
+            mockk(relaxed = true),
+            coreState.networkMonitor
+        )
+        val properties = mapOf<String, Any>("category" to "shoes", "price" to 49.99, "size" to 42)
+        val flattenedEventData = FlattenedEventData.EventProperties(properties)
+
+        MicroBenchmark.measure(
+            "eventQueueManager.processEvent",
+            EVENTS_PER_RUN,
+            setup = {
+                List(EVENTS_PER_RUN) {
+                    JSONObject()
+                        .put("evtName", "Product Viewed")
+                        .put("evtData", JSONObject(properties))
+                }
+            }
+        ) { events ->
+            events.forEach {
+                eventQueueManager.processEvent(application, it, Constants.RAISED_EVENT, flattenedEventData)
+            }
+        }
+    }
+}
@@ -49,6 +49,8 @@ class EventQueueManagerTest : BaseTestCase() {
     override fun setUp() {
         super.setUp()
         corestate = MockCoreStateKotlin(cleverTapInstanceConfig)
+        every { corestate.networkManager.withFlushLock<Any?>(any()) } answers { firstArg<() -> Any?>().invoke() }
+        every { corestate.networkManager.runOnNetworkLane<Any?>(any()) } answers { firstArg<() -> Any?>().invoke() }
         loginInfoProvider = mockk(relaxed = true)
         eventQueueManager = spyk(
             EventQueueManager(
@@ -436,6 +438,38 @@ class EventQueueManagerTest : BaseTestCase() {
         }
     }
 
+    @Test
+    fun test_flushQueueAsync_when_networkLaneEnabled_should_flushOnNetworkLane() {
+        cleverTapInstanceConfig.setNetworkLaneEnabled(true)
+        val executors = spyk(MockCTExecutors(cleverTapInstanceConfig))
+        mockkStatic(CTExecutorFactory::class) {
+            every { CTExecutorFactory.executors(cleverTapInstanceConfig) } returns executors
+            every { eventQueueManager.flushQueueSync(application, REGULAR) } just runs
+
+            eventQueueManager.flushQueueAsync(application, REGULAR)
+
+            verify { executors.networkTask<Void?>() }
+            verify(exactly = 0) { executors.postAsyncSafelyTask<Void?>() }
+            verify { corestate.networkManager.runOnNetworkLane<Any?>(any()) }
+            verify { eventQueueManager.flushQueueSync(application, REGULAR) }
+        }
+    }
+
+    @Test
+    fun test_flushQueueAsync_when_networkLaneDisabled_should_flushOnPostAsyncSafely() {
+        val executors = spyk(MockCTExecutors(cleverTapInstanceConfig))
+        mockkStatic(CTExecutorFactory::class) {
+            every { CTExecutorFactory.executors(cleverTapInstanceConfig) } returns executors
+            every { eventQueueManager.flushQueueSync(application, REGULAR) } just runs
+
+            eventQueueManager.flushQueueAsync(application, REGULAR)
+
+            verify { executors.postAsyncSafelyTask<Void?>() }
+            verify(exactly = 0) { executors.networkTask<Void?>() }
+            verify(exactly = 0) { corestate.networkManager.runOnNetworkLane<Any?>(any()) }
+        }
+    }
+
     @Test
     fun test_flushQueueSync_when_net_is_offline() {
         withMockExecutors {
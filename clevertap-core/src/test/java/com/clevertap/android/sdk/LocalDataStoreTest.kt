@@ -4,11 +4,14 @@ import android.content.Context
 import com.clevertap.android.sdk.cryption.CryptFactory
 import com.clevertap.android.sdk.cryption.CryptHandler
 import com.clevertap.android.sdk.cryption.CryptRepository
+import com.clevertap.android.sdk.cryption.EncryptionLevel
+import com.clevertap.android.sdk.cryption.ICryptHandler
 import com.clevertap.android.sdk.db.BaseDatabaseManager
 import com.clevertap.android.sdk.db.DBAdapter
 import com.clevertap.android.sdk.db.DBManager
 import com.clevertap.android.sdk.events.EventDetail
 import com.clevertap.android.sdk.profile.ProfileStateTraverser
+import com.clevertap.android.sdk.profile.traversal.ProfileOperation
 import com.clevertap.android.sdk.usereventlogs.UserEventLogDAO
 import com.clevertap.android.sdk.usereventlogs.UserEventLogDAOImpl
 import com.clevertap.android.sdk.usereventlogs.UserEventLogTestData
@@ -18,6 +21,8 @@ import io.mockk.every
 import io.mockk.mockk
 import io.mockk.spyk
 import io.mockk.verify
+import io.mockk.verifyOrder
+import org.json.JSONArray
 import org.json.JSONObject
 import org.junit.Test
 import kotlin.test.assertEquals
@@ -336,6 +341,90 @@ class LocalDataStoreTest : BaseTestCase() {
         assertFalse(result)
     }
 
+    private fun provideWriteBehindLocalDataStore(): LocalDataStore {
+        val writeBehindConfig = CleverTapInstanceConfig.createInstance(appCtx, "id", "token", "region")
+        writeBehindConfig.setUserEventLogWriteBehindEnabled(true)
+        return LocalDataStore(
+            appCtx,
+            writeBehindConfig,
+            cryptHandler,
+            deviceInfo,
+            baseDatabaseManager,
+            profileStateTraverserMock,
+            nestedJsonBuilderMock
+        )
+    }
+
+    @Test
+    fun `test persistUserEventLog with write behind counts in memory until flushed`() {
+        // Given
+        val localDataStore = provideWriteBehindLocalDataStore()
+        every { userEventLogDaoMock.readEventByDeviceIdAndNormalizedEventName(any(), any()) } returns null
+        every { userEventLogDaoMock.upsertEventLogs(any()) } returns true
+
+        // When
+        assertTrue(localDataStore.persistUserEventLog(eventName))
+        assertTrue(localDataStore.persistUserEventLog(eventName))
+
+        // Then
+        verify(exactly = 0) { userEventLogDaoMock.eventExistsByDeviceIdAndNormalizedEventName(any(), any()) }
+        verify(exactly = 0) { userEventLogDaoMock.upsertEventLogs(any()) }
+        assertEquals(2, localDataStore.readUserEventLogCount(eventName))
+        assertFalse(localDataStore.isUserEventLogFirstTime(eventName))
+
+        // When
+        assertTrue(localDataStore.flushUserEventLogs())
+
+        // Then
+        verify(exactly = 1) {
+            userEventLogDaoMock.upsertEventLogs(match { logs ->
+                logs.single().let { it.normalizedEventName == normalizedEventName && it.countOfEvents == 2 }
+            })
+        }
+    }
+
+    @Test
+    fun `test flushUserEventLogs with write behind keeps the counts when the upsert fails`() {
+        // Given
+        val localDataStore = provideWriteBehindLocalDataStore()
+        every { userEventLogDaoMock.readEventByDeviceIdAndNormalizedEventName(any(), any()) } returns null
+        localDataStore.persistUserEventLog(eventName)
+        localDataStore.persistUserEventLog(eventName)
+        every { userEventLogDaoMock.upsertEventLogs(any()) } returns false
+
+        // When
+        assertFalse(localDataStore.flushUserEventLogs())
+        every { userEventLogDaoMock.upsertEventLogs(any()) } throws RuntimeException("disk I/O error")
+        localDataStore.persistUserEventLog(eventName)
+        assertFalse(localDataStore.flushUserEventLogs())
+        every { userEventLogDaoMock.upsertEventLogs(any()) } returns true
+
+        // Then
+        assertTrue(localDataStore.flushUserEventLogs())
+        verify(exactly = 1) {
+            userEventLogDaoMock.upsertEventLogs(match { logs ->
+                logs.single().let { it.normalizedEventName == normalizedEventName && it.countOfEvents == 3 }
+            })
+        }
+    }
+
+    @Test
+    fun `test readUserEventLogs with write behind flushes pending logs first`() {
+        // Given
+        val localDataStore = provideWriteBehindLocalDataStore()
+        every { userEventLogDaoMock.upsertEventLogs(any()) } returns true
+        localDataStore.persistUserEventLog(eventName)
+
+        // When
+        localDataStore.readUserEventLogs()
+
+        // Then
+        verifyOrder {
+            userEventLogDaoMock.upsertEventLogs(any())
+            userEventLogDaoMock.allEventsByDeviceID(deviceInfo.deviceID)
+        }
+    }
+
     @Test
     fun `test persistUserEventLog when event does not exist inserts successfully`() {
         // Given
@@ -585,4 +674,79 @@ class LocalDataStoreTest : BaseTestCase() {
         assertEquals(expectedLogs, result)
         verify { userEventLogDaoMock.allEvents() }
     }
+
+    private fun provideProfileLocalDataStore(crypt: ICryptHandler = cryptHandler): LocalDataStore {
+        val profileConfig = CleverTapInstanceConfig.createInstance(appCtx, "id", "token", "region")
+        profileConfig.setEncryptionLevel(EncryptionLevel.MEDIUM)
+        return LocalDataStore(
+            appCtx,
+            profileConfig,
+            crypt,
+            deviceInfo,
+            baseDatabaseManager,
+            ProfileStateTraverser(TestLogger()),
+            NestedJsonBuilder()
+        )
+    }
+
+    @Test
+    fun `test processProfileTree skips the profile write when nothing changed`() {
+        // Given
+        val localDataStore = provideProfileLocalDataStore()
+        localDataStore.processProfileTree(JSONObject().put("plan", "gold"), ProfileOperation.UPDATE)
+        verify(timeout = 2000, exactly = 1) { dbAdapter.storeUserProfile(any(), any(), any()) }
+
+        // When
+        localDataStore.processProfileTree(JSONObject().put("plan", "gold"), ProfileOperation.UPDATE)
+        localDataStore.processProfileTree(JSONObject().put("city", "Pune"), ProfileOperation.UPDATE)
+
+        // Then
+        verify(timeout = 2000) { dbAdapter.storeUserProfile(any(), any(), match { it.has("city") }) }
+        verify(exactly = 2) { dbAdapter.storeUserProfile(any(), any(), any()) }
+    }
+
+    @Test
+    fun `test processProfileTree only encrypts pii values that changed`() {
+        // Given
+        val crypt = mockk<ICryptHandler>(relaxed = true)
+        every { crypt.encryptSafe(any()) } answers { "enc-" + firstArg<String>() }
+        val localDataStore = provideProfileLocalDataStore(crypt)
+
+        // When
+        localDataStore.processProfileTree(JSONObject().put("Name", "Jack"), ProfileOperation.UPDATE)
+        verify(timeout = 2000) { dbAdapter.storeUserProfile(any(), any(), match { it.optString("Name") == "enc-Jack" }) }
+        localDataStore.processProfileTree(JSONObject().put("plan", "gold"), ProfileOperation.UPDATE)
+        verify(timeout = 2000) { dbAdapter.storeUserProfile(any(), any(), match { it.has("plan") }) }
+        localDataStore.processProfileTree(JSONObject().put("Name", "Jill"), ProfileOperation.UPDATE)
+
+        // Then
+        verify(timeout = 2000) {
+            dbAdapter.storeUserProfile(any(), any(), match {
+                it.optString("Name") == "enc-Jill" && it.optString("plan") == "gold"
+            })
+        }
+        verify(exactly = 1) { crypt.encryptSafe("Jack") }
+        verify(exactly = 1) { crypt.encryptSafe("Jill") }
+    }
+
+    @Test
+    fun `test getProfileProperty reads the profile published after processProfileTree`() {
+        // Given
+        val localDataStore = provideProfileLocalDataStore()
+        assertNull(localDataStore.getProfileProperty("address.city"))
+
+        // When
+        localDataStore.processProfileTree(
+            JSONObject().put("address", JSONObject().put("city", "Pune")).put("tags", JSONArray().put("a")),
+            ProfileOperation.UPDATE
+        )
+
+        // Then
+        assertEquals("Pune", localDataStore.getProfileProperty("address.city"))
+        assertEquals("a", localDataStore.getProfileProperty("tags[0]"))
+        assertEquals("Pune", localDataStore.profile.getJSONObject("address").getString("city"))
+
+        localDataStore.processProfileTree("address.city", Constants.DELETE_MARKER, ProfileOperation.DELETE)
+        assertNull(localDataStore.getProfileProperty("address.city"))
+    }
 }
@@ -0,0 +1,60 @@
+package com.clevertap.android.sdk
+
+import org.junit.After
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+@RunWith(RobolectricTestRunner::class)
+class LoggerTest {
+
+    private val logger = Logger(CleverTapAPI.LogLevel.INFO.intValue())
+    private var builtMessages = 0
+
+    private fun message(): String {
+        builtMessages++
+        return "message"
+    }
+
+    @After
+    fun tearDown() {
+        CleverTapAPI.setDebugLevel(CleverTapAPI.LogLevel.INFO)
+    }
+
+    @Test
+    fun `lazy messages are not built when their level is off`() {
+        CleverTapAPI.setDebugLevel(CleverTapAPI.LogLevel.INFO)
+
+        logger.debug("suffix") { message() }
+        logger.verbose("suffix") { message() }
+        logger.verbose { message() }
+        Logger.v("suffix") { message() }
+
+        assertFalse(logger.isDebugEnabled)
+        assertFalse(logger.isVerboseEnabled)
+        assertEquals(0, builtMessages)
+    }
+
+    @Test
+    fun `lazy messages are built when their level is on`() {
+        CleverTapAPI.setDebugLevel(CleverTapAPI.LogLevel.DEBUG)
+
+        logger.debug("suffix") { message() }
+        logger.verbose("suffix") { message() }
+
+        assertTrue(logger.isDebugEnabled)
+        assertFalse(logger.isVerboseEnabled)
+        assertEquals(1, builtMessages)
+
+        CleverTapAPI.setDebugLevel(CleverTapAPI.LogLevel.VERBOSE)
+
+        logger.verbose("suffix") { message() }
+        Logger.v("suffix") { message() }
+
+        assertTrue(logger.isVerboseEnabled)
+        assertEquals(3, builtMessages)
+    }
+}
@@ -0,0 +1,107 @@
+package com.clevertap.android.sdk
+
+import com.clevertap.android.sdk.cryption.EncryptionLevel
+import com.clevertap.android.sdk.cryption.ICryptHandler
+import com.clevertap.android.sdk.db.DBAdapter
+import com.clevertap.android.sdk.db.DBManager
+import com.clevertap.android.sdk.profile.ProfileStateTraverser
+import com.clevertap.android.sdk.profile.traversal.ProfileOperation
+import com.clevertap.android.sdk.utils.NestedJsonBuilder
+import com.clevertap.android.shared.test.BaseTestCase
+import io.mockk.every
+import io.mockk.mockk
+import org.json.JSONObject
+import org.junit.Test
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicReference
+import kotlin.test.assertTrue
+
+/**
+ * Measures how much profile data [LocalDataStore] writes per profile update for a profile with many
+ * custom properties, where a part of the updates set values the profile already has.
+ *
+ * To enable assertions, set system property:
+ * -Dclevertap.benchmark.assertions.enabled=true
+ */
+class ProfilePersistenceBenchmarkTest : BaseTestCase() {
+
+    companion object {
+        private const val PROFILE_PROPERTIES = 300
+        private const val UPDATES = 200
+        private val ENABLE_ASSERTIONS =
+            System.getProperty("clevertap.benchmark.assertions.enabled", "false").toBoolean()
+    }
+
+    @Test
+    fun benchmark_bytesWrittenPerProfileUpdate() {
+        val writes = AtomicInteger()
+        val bytesWritten = AtomicLong()
+        val encryptions = AtomicInteger()
+        val lastWrite = AtomicReference<JSONObject>()
+
+        val dbAdapter = mockk<DBAdapter>(relaxed = true)
+        every { dbAdapter.storeUserProfile(any(), any(), any()) } answers {
+            val profile = thirdArg<JSONObject>()
+            writes.incrementAndGet()
+            bytesWritten.addAndGet(profile.toString().length.toLong())
+            lastWrite.set(profile)
+            1L
+        }
+        val databaseManager = mockk<DBManager>(relaxed = true)
+        every { databaseManager.loadDBAdapter(any()) } returns dbAdapter
+        val cryptHandler = mockk<ICryptHandler>(relaxed = true)
+        every { cryptHandler.encryptSafe(any()) } answers {
+            encryptions.incrementAndGet()
+            "enc-" + firstArg<String>()
+        }
+
+        val config = CleverTapInstanceConfig.createInstance(appCtx, "id", "token", "region")
+        config.setEncryptionLevel(EncryptionLevel.MEDIUM)
+        val localDataStore = LocalDataStore(
+            appCtx,
+            config,
+            cryptHandler,
+            MockDeviceInfo(appCtx, config, "id", CoreMetaData()),
+            databaseManager,
+            ProfileStateTraverser(TestLogger()),
+            NestedJsonBuilder()
+        )
+
+        val profile = JSONObject().put("Name", "Jack").put("Email", "jack@example.com").put("Identity", "jack-1")
+        repeat(PROFILE_PROPERTIES) { profile.put("property_$it", "value_$it") }
+        localDataStore.processProfileTree(profile, ProfileOperation.UPDATE)
+        awaitWrite(lastWrite) { it.has("property_${PROFILE_PROPERTIES - 1}") }
+        writes.set(0)
+        bytesWritten.set(0)
+        encryptions.set(0)
+
+        repeat(UPDATES) {
+            // every other update sets a value the profile already has
+            val value = if (it % 2 == 0) "value_${it % PROFILE_PROPERTIES}" else "changed_$it"
+            localDataStore.processProfileTree(
+                JSONObject().put("property_${it % PROFILE_PROPERTIES}", value),
+                ProfileOperation.UPDATE
+            )
+        }
+        awaitWrite(lastWrite) { it.optString("property_${UPDATES - 1}") == "changed_${UPDATES - 1}" }
+
+        println("=== Profile Persistence Benchmark ===")
+        println("Profile of $PROFILE_PROPERTIES properties, $UPDATES updates")
+        println("  profile writes    : ${writes.get()}")
+        println("  pii encryptions   : ${encryptions.get()}")
+        println("  bytes per update  : ${bytesWritten.get() / UPDATES}")
+
+        if (ENABLE_ASSERTIONS) {
+            assertTrue(writes.get() <= UPDATES / 2, "Unchanged updates should not be written")
+            assertTrue(encryptions.get() == 0, "Unchanged pii values should not be encrypted again")
+        }
+    }
+
+    private fun awaitWrite(lastWrite: AtomicReference<JSONObject>, predicate: (JSONObject) -> Boolean) {
+        val deadline = System.currentTimeMillis() + 5_000
+        while (lastWrite.get()?.let(predicate) != true && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5)
+        }
+    }
+}
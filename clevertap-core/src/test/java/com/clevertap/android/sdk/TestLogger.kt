@@ -1,6 +1,10 @@
 package com.clevertap.android.sdk
 
 class TestLogger : ILogger {
+    override fun isDebugEnabled(): Boolean = true
+
+    override fun isVerboseEnabled(): Boolean = true
+
     override fun debug(message: String?) {
         println("$message")
     }
@@ -0,0 +1,38 @@
+package com.clevertap.android.sdk.benchmark
+
+import java.io.File
+
+/**
+ * Receives the result of each benchmark run by [MicroBenchmark].
+ */
+fun interface BenchmarkReporter {
+
+    /**
+     * @param baseline the checked-in baseline of the benchmark in ns/op, null when none is recorded
+     */
+    fun report(result: BenchmarkResult, baseline: Double?)
+}
+
+/**
+ * Writes one line per result to [file], the file is emptied when the reporter is created so it
+ * only holds the results of the current test run.
+ */
+class FileBenchmarkReporter(private val file: File) : BenchmarkReporter {
+
+    init {
+        file.parentFile?.mkdirs()
+        file.writeText("")
+    }
+
+    @Synchronized
+    override fun report(result: BenchmarkResult, baseline: Double?) {
+        val comparison = if (baseline != null) {
+            " | baseline ${"%.1f".format(baseline)} ns/op (${"%.2f".format(result.nsPerOp / baseline)}x)"
+        } else {
+            " | WARNING: no baseline recorded"
+        }
+        file.appendText(
+            "${result.id}: ${"%.1f".format(result.nsPerOp)} ns/op, min ${"%.1f".format(result.minNsPerOp)}$comparison\n"
+        )
+    }
+}
@@ -0,0 +1,147 @@
+package com.clevertap.android.sdk.benchmark
+
+import org.json.JSONObject
+import java.io.File
+import java.util.concurrent.ConcurrentHashMap
+import kotlin.system.measureNanoTime
+import kotlin.test.assertNotNull
+import kotlin.test.assertTrue
+
+/**
+ * Microbenchmark harness for the hot paths of the SDK, run with the unit tests.
+ *
+ * Each benchmark warms up, then times [MEASURED_RUNS] runs of a block and reports the median time
+ * per operation. Results are compared to the baselines checked in at
+ * `src/test/resources/benchmark/baselines.json`, a result slower than its baseline by more than the
+ * tolerance fails the benchmark when assertions are enabled:
+ *
+ * ./gradlew :clevertap-core:testDebugUnitTest -Pbenchmark -Dclevertap.benchmark.assertions.enabled=true
+ *
+ * The *BenchmarkTest classes only run with -Pbenchmark, which runs nothing else, they are left out
+ * of the default unit test run. Results are written to `build/benchmark/results.txt`.
+ *
+ * With assertions enabled, a benchmark without a recorded baseline fails too, so a regression can't
+ * pass unnoticed because its baseline was never recorded. Without assertions it is reported with a
+ * warning.
+ *
+ * Options:
+ * - clevertap.benchmark.tolerance: allowed slowdown over a baseline, defaults to 1.3
+ * - clevertap.benchmark.record: writes the measured results to `build/benchmark/baselines.json`.
+ *   Baselines are recorded on the CI machine, copy that file over the checked-in one when a change is
+ *   expected to move them.
+ */
+object MicroBenchmark {
+
+    @JvmField
+    val ASSERTIONS_ENABLED =
+        System.getProperty("clevertap.benchmark.assertions.enabled", "false").toBoolean()
+
+    private val RECORD = System.getProperty("clevertap.benchmark.record", "false").toBoolean()
+
+    private val TOLERANCE = System.getProperty("clevertap.benchmark.tolerance", "1.3").toDouble()
+
+    private const val WARMUP_RUNS = 5
+
+    private const val MEASURED_RUNS = 15
+
+    private const val BASELINES_RESOURCE = "benchmark/baselines.json"
+
+    private const val RECORDED_BASELINES_FILE = "build/benchmark/baselines.json"
+
+    private const val RESULTS_FILE = "build/benchmark/results.txt"
+
+    /**
+     * Keeps the results of the benchmarked blocks reachable so the JIT can't drop them.
+     */
+    @Volatile
+    var sink: Any? = null
+
+    private val baselines: Map<String, Double?> by lazy { loadBaselines() }
+
+    private val recorded = ConcurrentHashMap<String, Double>()
+
+    private val fileReporter by lazy { FileBenchmarkReporter(File(RESULTS_FILE)) }
+
+    /**
+     * Receives every result instead of the file reporter writing them to `build/benchmark/results.txt`
+     */
+    @Volatile
+    var reporter: BenchmarkReporter? = null
+
+    /**
+     * Benchmarks [block], which runs [opsPerRun] operations.
+     */
+    fun measure(id: String, opsPerRun: Int, block: () -> Any?): BenchmarkResult =
+        measure(id, opsPerRun, setup = {}, block = { block() })
+
+    /**
+     * Benchmarks [block], which runs [opsPerRun] operations on the state built by [setup]. Only
+     * [block] is timed.
+     */
+    fun <T> measure(id: String, opsPerRun: Int, setup: () -> T, block: (T) -> Any?): BenchmarkResult {
+        repeat(WARMUP_RUNS) {
+            sink = block(setup())
+        }
+        val samples = LongArray(MEASURED_RUNS) {
+            val state = setup()
+            measureNanoTime { sink = block(state) }
+        }
+        samples.sort()
+        val result = BenchmarkResult(
+            id = id,
+            nsPerOp = samples[MEASURED_RUNS / 2].toDouble() / opsPerRun,
+            minNsPerOp = samples[0].toDouble() / opsPerRun
+        )
+        report(result)
+        return result
+    }
+
+    private fun report(result: BenchmarkResult) {
+        val baseline = baselines[result.id]
+        (reporter ?: fileReporter).report(result, baseline)
+
+        if (RECORD) {
+            recorded[result.id] = result.nsPerOp
+            writeRecordedBaselines()
+        }
+        if (ASSERTIONS_ENABLED && !RECORD) {
+            assertNotNull(
+                baseline,
+                "${result.id} has no baseline in $BASELINES_RESOURCE, record it with -Dclevertap.benchmark.record=true"
+            )
+            assertTrue(
+                result.nsPerOp <= baseline * TOLERANCE,
+                "${result.id} regressed: ${result.nsPerOp} ns/op, baseline $baseline ns/op"
+            )
+        }
+    }
+
+    private fun loadBaselines(): Map<String, Double?> {
+        val stream = javaClass.classLoader?.getResourceAsStream(BASELINES_RESOURCE)
+        if (stream == null) {
+            check(!ASSERTIONS_ENABLED || RECORD) { "$BASELINES_RESOURCE is missing from the test resources" }
+            return emptyMap()
+        }
+        val benchmarks = JSONObject(stream.bufferedReader().use { it.readText() }).getJSONObject("benchmarks")
+        return benchmarks.keys().asSequence().associateWith { id ->
+            if (benchmarks.isNull(id)) null else benchmarks.getDouble(id)
+        }
+    }
+
+    @Synchronized
+    private fun writeRecordedBaselines() {
+        val benchmarks = JSONObject()
+        (baselines.keys + recorded.keys).sorted().forEach { id ->
+            benchmarks.put(id, recorded[id] ?: baselines[id] ?: JSONObject.NULL)
+        }
+        val file = File(RECORDED_BASELINES_FILE)
+        file.parentFile?.mkdirs()
+        file.writeText(JSONObject().put("unit", "ns/op").put("benchmarks", benchmarks).toString(2) + "\n")
+    }
+}
+
+data class BenchmarkResult(
+    val id: String,
+    val nsPerOp: Double,
+    val minNsPerOp: Double
+)
@@ -0,0 +1,35 @@
+package com.clevertap.android.sdk.cryption
+
+import com.clevertap.android.sdk.benchmark.MicroBenchmark
+import com.clevertap.android.shared.test.BaseTestCase
+import io.mockk.mockk
+import org.junit.Test
+import javax.crypto.KeyGenerator
+import kotlin.test.assertEquals
+
+/**
+ * Benchmark of encrypting and decrypting a PII value with [AESGCMCrypt], with the key already
+ * loaded.
+ *
+ * See [MicroBenchmark] for running with baselines.
+ */
+class AESGCMCryptBenchmarkTest : BaseTestCase() {
+
+    companion object {
+        private const val ROUND_TRIPS_PER_RUN = 500
+        private const val PLAIN_TEXT = "jane.doe@example.com"
+    }
+
+    @Test
+    fun benchmark_roundTrip() {
+        val secretKey = KeyGenerator.getInstance("AES").apply { init(256) }.generateKey()
+        val crypt = AESGCMCrypt(CTKeyGenerator(mockk(relaxed = true)) { secretKey })
+
+        MicroBenchmark.measure("aesGcmCrypt.roundTrip", ROUND_TRIPS_PER_RUN) {
+            repeat(ROUND_TRIPS_PER_RUN) {
+                val cipherText = crypt.encryptInternal(PLAIN_TEXT)!!
+                assertEquals(PLAIN_TEXT, crypt.decryptInternal(cipherText))
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.clevertap.android.sdk.cryption
+
+import com.clevertap.android.shared.test.BaseTestCase
+import io.mockk.mockk
+import org.junit.Test
+import javax.crypto.KeyGenerator
+import javax.crypto.SecretKey
+import kotlin.test.assertEquals
+import kotlin.test.assertNotEquals
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class AESGCMCryptTest : BaseTestCase() {
+
+    private val secretKey: SecretKey = KeyGenerator.getInstance("AES").apply { init(256) }.generateKey()
+
+    private var keyLoads = 0
+
+    private val crypt = AESGCMCrypt(CTKeyGenerator(mockk(relaxed = true)) { keyLoads++; secretKey })
+
+    @Test
+    fun `encryptInternal and decryptInternal - round trip with a reused cipher`() {
+        val first = crypt.encryptInternal("first")!!
+        val second = crypt.encryptInternal("first")!!
+
+        assertTrue(CryptHandler.isTextAESGCMEncrypted(first))
+        // every encryption uses a fresh iv
+        assertNotEquals(first, second)
+        assertEquals("first", crypt.decryptInternal(first))
+        assertEquals("first", crypt.decryptInternal(second))
+        assertEquals(1, keyLoads)
+    }
+
+    @Test
+    fun `encryptAllInternal and decryptAllInternal - round trip keeps order`() {
+        val texts = listOf("one", "two", "three")
+
+        val encrypted = crypt.encryptAllInternal(texts)
+        val decrypted = crypt.decryptAllInternal(encrypted.map { it!! })
+
+        assertEquals(texts, decrypted)
+        assertEquals(1, keyLoads)
+    }
+
+    @Test
+    fun `decryptAllInternal - invalid entries return null without failing the batch`() {
+        val valid = crypt.encryptInternal("valid")!!
+
+        val decrypted = crypt.decryptAllInternal(listOf("not-encrypted", valid))
+
+        assertNull(decrypted[0])
+        assertEquals("valid", decrypted[1])
+    }
+}
@@ -0,0 +1,46 @@
+package com.clevertap.android.sdk.cryption
+
+import io.mockk.mockk
+import org.junit.Test
+import javax.crypto.KeyGenerator
+import javax.crypto.SecretKey
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+import kotlin.test.assertSame
+
+class CTKeyGeneratorTest {
+
+    private val secretKey: SecretKey = KeyGenerator.getInstance("AES").apply { init(256) }.generateKey()
+
+    @Test
+    fun `generateOrGetKey - loads the key once and returns the cached handle`() {
+        var loads = 0
+        val keyGenerator = CTKeyGenerator(mockk(relaxed = true)) { loads++; secretKey }
+
+        assertSame(secretKey, keyGenerator.generateOrGetKey())
+        assertSame(secretKey, keyGenerator.generateOrGetKey())
+        assertEquals(1, loads)
+    }
+
+    @Test
+    fun `generateOrGetKey - failed load is not cached`() {
+        var loads = 0
+        val keyGenerator = CTKeyGenerator(mockk(relaxed = true)) { loads++; if (loads == 1) null else secretKey }
+
+        assertNull(keyGenerator.generateOrGetKey())
+        assertSame(secretKey, keyGenerator.generateOrGetKey())
+        assertEquals(2, loads)
+    }
+
+    @Test
+    fun `invalidateKey - next generateOrGetKey loads the key again`() {
+        var loads = 0
+        val keyGenerator = CTKeyGenerator(mockk(relaxed = true)) { loads++; secretKey }
+        keyGenerator.generateOrGetKey()
+
+        keyGenerator.invalidateKey()
+        keyGenerator.generateOrGetKey()
+
+        assertEquals(2, loads)
+    }
+}
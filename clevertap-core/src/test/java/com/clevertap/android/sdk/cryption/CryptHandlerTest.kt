@@ -268,5 +268,41 @@ class CryptHandlerTest {
         unmockkObject(CryptHandler.Companion)
     }
 
-}
+    @Test
+    fun `encryptAll - mixed texts - encrypts only plain texts in one call and keeps order`() {
+        val encryptedText = "${Constants.AES_GCM_PREFIX}alreadyEncrypted${Constants.AES_GCM_SUFFIX}"
+        val newlyEncrypted = listOf(
+            "${Constants.AES_GCM_PREFIX}one${Constants.AES_GCM_SUFFIX}",
+            null
+        )
+        every { crypt.encryptAllInternal(listOf("one", "two")) } returns newlyEncrypted
+
+        val result = cryptHandler.encryptAll(listOf("one", encryptedText, "two"))
+
+        assertEquals(listOf(newlyEncrypted[0], encryptedText, null), result)
+        verify(exactly = 1) { cryptFactory.getCryptInstance(CryptHandler.EncryptionAlgorithm.AES_GCM) }
+        verify(exactly = 1) { crypt.encryptAllInternal(listOf("one", "two")) }
+    }
+
+    @Test
+    fun `decryptAll - mixed texts - decrypts only AES_GCM texts in one call and keeps order`() {
+        val first = "${Constants.AES_GCM_PREFIX}first${Constants.AES_GCM_SUFFIX}"
+        val second = "${Constants.AES_GCM_PREFIX}second${Constants.AES_GCM_SUFFIX}"
+        every { crypt.decryptAllInternal(listOf(first, second)) } returns listOf("one", "two")
 
+        val result = cryptHandler.decryptAll(listOf(first, "plain", second))
+
+        assertEquals(listOf("one", "plain", "two"), result)
+        verify(exactly = 1) { cryptFactory.getCryptInstance(CryptHandler.EncryptionAlgorithm.AES_GCM) }
+        verify(exactly = 1) { crypt.decryptAllInternal(listOf(first, second)) }
+    }
+
+    @Test
+    fun `decryptAll - only plain texts - returns texts without crypt call`() {
+        val texts = listOf("one", "two")
+
+        val result = cryptHandler.decryptAll(texts)
+
+        assertEquals(texts, result)
+    }
+}
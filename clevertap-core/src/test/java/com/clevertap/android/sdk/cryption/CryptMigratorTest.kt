@@ -746,7 +746,7 @@ class CryptMigratorTest {
         every { dataMigrationRepository.cachedGuidString() } returns null
         every { dataMigrationRepository.inAppDataFiles(any(), any()) } returns Unit
         every { dbAdapter.getMessages(any()) } returns arrayListOf()
-        every { dbAdapter.upsertMessages(any()) } returns Unit
+        every { dbAdapter.upsertMessages(any()) } returns emptyList()
 
         cryptMigratorFullData.migrateEncryption()
 
@@ -766,7 +766,7 @@ class CryptMigratorTest {
         every { dataMigrationRepository.cachedGuidString() } returns null
         every { dataMigrationRepository.inAppDataFiles(any(), any()) } returns Unit
         every { dbAdapter.getMessages(any()) } returns arrayListOf()
-        every { dbAdapter.upsertMessages(any()) } returns Unit
+        every { dbAdapter.upsertMessages(any()) } returns emptyList()
 
         cryptMigratorMedium.migrateEncryption()
 
@@ -787,7 +787,7 @@ class CryptMigratorTest {
         every { dataMigrationRepository.cachedGuidString() } returns null
         every { dataMigrationRepository.inAppDataFiles(any(), any()) } returns Unit
         every { dbAdapter.getMessages(any()) } returns arrayListOf()
-        every { dbAdapter.upsertMessages(any()) } returns Unit
+        every { dbAdapter.upsertMessages(any()) } returns emptyList()
 
         cryptMigratorFullData.migrateEncryption()
 
@@ -806,7 +806,7 @@ class CryptMigratorTest {
         every { dataMigrationRepository.cachedGuidString() } returns null
         every { dataMigrationRepository.inAppDataFiles(any(), any()) } returns Unit
         every { dbAdapter.getMessages(any()) } returns arrayListOf()
-        every { dbAdapter.upsertMessages(any()) } returns Unit
+        every { dbAdapter.upsertMessages(any()) } returns emptyList()
 
         cryptMigratorFullData.migrateEncryption()
 
@@ -846,7 +846,7 @@ class CryptMigratorTest {
         every { dataMigrationRepository.saveUserProfile(any(), any()) } returns 1
         every { dbAdapter.getMessages("device1") } returns arrayListOf()
         every { dbAdapter.getMessages("device2") } returns arrayListOf()
-        every { dbAdapter.upsertMessages(any()) } returns Unit
+        every { dbAdapter.upsertMessages(any()) } returns emptyList()
 
         cryptMigratorFullData.migrateEncryption()
 
@@ -868,7 +868,7 @@ class CryptMigratorTest {
         every { dataMigrationRepository.inAppDataFiles(any(), any()) } returns Unit
         every { dataMigrationRepository.saveUserProfile(any(), any()) } returns 1
         every { dbAdapter.getMessages("device1") } returns arrayListOf()
-        every { dbAdapter.upsertMessages(any()) } returns Unit
+        every { dbAdapter.upsertMessages(any()) } returns emptyList()
 
         cryptMigratorMedium.migrateEncryption()
 
@@ -894,7 +894,7 @@ class CryptMigratorTest {
         every { dataMigrationRepository.inAppDataFiles(any(), any()) } returns Unit
         every { dataMigrationRepository.saveUserProfile(any(), any()) } returns 1
         every { dbAdapter.getMessages(any()) } returns arrayListOf()
-        every { dbAdapter.upsertMessages(any()) } returns Unit
+        every { dbAdapter.upsertMessages(any()) } returns emptyList()
 
         cryptMigratorFullData.migrateEncryption()
 
@@ -965,7 +965,7 @@ class CryptMigratorTest {
         every { dataMigrationRepository.inAppDataFiles(any(), any()) } returns Unit
         every { dataMigrationRepository.saveUserProfile(any(), any()) } returns 1
         every { dbAdapter.getMessages(any()) } returns arrayListOf()
-        every { dbAdapter.upsertMessages(any()) } returns Unit
+        every { dbAdapter.upsertMessages(any()) } returns emptyList()
 
         every { cryptHandler.decrypt(encryptedEmail) } returns decryptedEmail
 
@@ -1006,7 +1006,7 @@ class CryptMigratorTest {
         every { dataMigrationRepository.inAppDataFiles(any(), any()) } returns Unit
         every { dataMigrationRepository.saveUserProfile(any(), any()) } returns 1
         every { dbAdapter.getMessages(any()) } returns arrayListOf()
-        every { dbAdapter.upsertMessages(any()) } returns Unit
+        every { dbAdapter.upsertMessages(any()) } returns emptyList()
 
         every { cryptHandler.decrypt(encryptedEmail) } returns decryptedEmail
 
@@ -1046,7 +1046,7 @@ class CryptMigratorTest {
         every { dataMigrationRepository.inAppDataFiles(any(), any()) } returns Unit
         every { dataMigrationRepository.saveUserProfile(any(), any()) } returns 1
         every { dbAdapter.getMessages(any()) } returns arrayListOf()
-        every { dbAdapter.upsertMessages(any()) } returns Unit
+        every { dbAdapter.upsertMessages(any()) } returns emptyList()
 
         every { cryptHandler.encrypt(plainEmail) } returns encryptedEmail
 
@@ -1076,7 +1076,7 @@ class CryptMigratorTest {
         every { dataMigrationRepository.inAppDataFiles(any(), any()) } returns Unit
         every { dataMigrationRepository.saveUserProfile(any(), any()) } returns 1
         every { dbAdapter.getMessages(any()) } returns arrayListOf()
-        every { dbAdapter.upsertMessages(any()) } returns Unit
+        every { dbAdapter.upsertMessages(any()) } returns emptyList()
 
         cryptMigratorNone.migrateEncryption()
 
@@ -1122,7 +1122,7 @@ class CryptMigratorTest {
         every { dataMigrationRepository.inAppDataFiles(any(), any()) } returns Unit
         every { dataMigrationRepository.saveUserProfile(any(), any()) } returns 1
         every { dbAdapter.getMessages(any()) } returns arrayListOf()
-        every { dbAdapter.upsertMessages(any()) } returns Unit
+        every { dbAdapter.upsertMessages(any()) } returns emptyList()
 
         every { cryptHandler.decrypt(encryptedEmail) } returns decryptedEmail
         every { cryptHandler.decrypt(encryptedPhone) } returns decryptedPhone
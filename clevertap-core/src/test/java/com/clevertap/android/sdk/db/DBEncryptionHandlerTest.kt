@@ -121,4 +121,40 @@ internal class DBEncryptionHandlerTest {
         assertFalse(dbEncryptionHandler.isInCorrectEncryptionFormat(plainText))
         assertTrue(dbEncryptionHandler.isInCorrectEncryptionFormat(encryptedText))
     }
-}
\ No newline at end of file
+
+    @Test
+    fun `unwrapDbDataAll - decrypts all rows with one decryptAll call`() {
+        val rows = listOf("row1", "row2")
+        every { cryptHandler.decryptAll(rows) } returns listOf("plain1", null)
+
+        initHandler(EncryptionLevel.FULL_DATA)
+        val op = dbEncryptionHandler.unwrapDbDataAll(rows)
+
+        assertEquals(listOf("plain1", null), op)
+        verify(exactly = 1) { cryptHandler.decryptAll(rows) }
+    }
+
+    @Test
+    fun `unwrapDbDataAll - empty rows does not call decryptAll`() {
+        initHandler(EncryptionLevel.FULL_DATA)
+
+        assertEquals(emptyList(), dbEncryptionHandler.unwrapDbDataAll(emptyList()))
+        verify(exactly = 0) { cryptHandler.decryptAll(any()) }
+    }
+
+    @Test
+    fun `wrapDbDataAll - wraps rows with encryption only for encryptionLevel = FULL_DATA`() {
+        val rows = listOf("row1", "row2")
+        val encryptedText = "${Constants.AES_GCM_PREFIX}some-encrypted-text${Constants.AES_GCM_SUFFIX}"
+        every { cryptHandler.encryptAll(rows) } returns listOf(encryptedText, null)
+
+        initHandler(EncryptionLevel.MEDIUM)
+        assertEquals(rows, dbEncryptionHandler.wrapDbDataAll(rows))
+        verify(exactly = 0) { cryptHandler.encryptAll(any()) }
+
+        // Rows that fail to encrypt are kept as they are
+        initHandler(EncryptionLevel.FULL_DATA)
+        assertEquals(listOf(encryptedText, "row2"), dbEncryptionHandler.wrapDbDataAll(rows))
+        verify(exactly = 1) { cryptHandler.encryptAll(rows) }
+    }
+}
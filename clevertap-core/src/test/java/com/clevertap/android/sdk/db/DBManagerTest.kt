@@ -117,6 +117,24 @@ class DBManagerTest : BaseTestCase() {
         }
     }
 
+    @Test
+    fun test_clearQueues_when_called_should_ClearThePiiCipherCache() {
+        var cleared = 0
+        val clearingDbManager = DBManager(
+            accountId = instanceConfig.accountId,
+            logger = instanceConfig.logger,
+            databaseName = DBAdapter.getDatabaseName(instanceConfig),
+            ctLockManager = lockManager,
+            ijRepo = IJRepo(config = instanceConfig),
+            dbEncryptionHandler = dbEncryptionHandler,
+            clearPiiCipherCache = { cleared++ }
+        )
+
+        clearingDbManager.clearQueues(appCtx)
+
+        assertEquals(1, cleared)
+    }
+
     @Test
     fun test_queueEventToDB_when_called_should_storeDataInEventOrProfileEventTable() {
         val json = JSONObject().also { it.put("name", "a1") }
@@ -146,6 +164,86 @@ class DBManagerTest : BaseTestCase() {
         }
     }
 
+    @Test
+    fun test_queueEventToDB_when_groupCommitEnabled_should_stageEventsUntilCommitted() {
+        val groupCommitDbManager = DBManager(
+            accountId = instanceConfig.accountId,
+            logger = instanceConfig.logger,
+            databaseName = DBAdapter.getDatabaseName(instanceConfig),
+            ctLockManager = lockManager,
+            ijRepo = IJRepo(config = instanceConfig),
+            dbEncryptionHandler = dbEncryptionHandler,
+            eventGroupCommitEnabled = true
+        )
+
+        groupCommitDbManager.queueEventToDB(appCtx, JSONObject().put("name", "e1"), Constants.RAISED_EVENT)
+        groupCommitDbManager.queueEventToDB(appCtx, JSONObject().put("name", "p1"), Constants.PROFILE_EVENT)
+
+        // staged events are not written yet
+        assertTrue(dbAdapter.fetchEvents(Table.EVENTS, 50).isEmpty)
+        assertTrue(dbAdapter.fetchEvents(Table.PROFILE_EVENTS, 50).isEmpty)
+
+        groupCommitDbManager.commitPendingEvents(appCtx)
+
+        assertEquals("e1", dbAdapter.fetchEvents(Table.EVENTS, 50).data.getJSONObject(0).getString("name"))
+        assertEquals("p1", dbAdapter.fetchEvents(Table.PROFILE_EVENTS, 50).data.getJSONObject(0).getString("name"))
+    }
+
+    @Test
+    fun test_queueEventToDB_when_groupCommitEnabled_should_scheduleCommitOfASingleStagedEvent() {
+        val scheduled = mutableListOf<Pair<Long, Runnable>>()
+        val groupCommitDbManager = DBManager(
+            accountId = instanceConfig.accountId,
+            logger = instanceConfig.logger,
+            databaseName = DBAdapter.getDatabaseName(instanceConfig),
+            ctLockManager = lockManager,
+            ijRepo = IJRepo(config = instanceConfig),
+            dbEncryptionHandler = dbEncryptionHandler,
+            eventGroupCommitEnabled = true,
+            scheduleCommit = { delayMs, commit -> scheduled.add(delayMs to commit) }
+        )
+
+        groupCommitDbManager.queueEventToDB(appCtx, JSONObject().put("name", "e1"), Constants.RAISED_EVENT)
+
+        // no other event follows, the scheduled commit writes it
+        assertEquals(1, scheduled.size)
+        assertEquals(EventWriteBuffer.DEFAULT_MAX_PENDING_AGE_MS, scheduled[0].first)
+        assertTrue(dbAdapter.fetchEvents(Table.EVENTS, 50).isEmpty)
+        scheduled[0].second.run()
+        assertEquals("e1", dbAdapter.fetchEvents(Table.EVENTS, 50).data.getJSONObject(0).getString("name"))
+
+        // events staged into a non-empty buffer do not schedule another commit
+        groupCommitDbManager.queueEventToDB(appCtx, JSONObject().put("name", "e2"), Constants.RAISED_EVENT)
+        groupCommitDbManager.queueEventToDB(appCtx, JSONObject().put("name", "e3"), Constants.RAISED_EVENT)
+        assertEquals(2, scheduled.size)
+    }
+
+    @Test
+    fun test_getQueuedEvents_when_groupCommitEnabled_should_includeStagedEvents() {
+        val groupCommitDbManager = DBManager(
+            accountId = instanceConfig.accountId,
+            logger = instanceConfig.logger,
+            databaseName = DBAdapter.getDatabaseName(instanceConfig),
+            ctLockManager = lockManager,
+            ijRepo = IJRepo(config = instanceConfig),
+            dbEncryptionHandler = dbEncryptionHandler,
+            eventGroupCommitEnabled = true
+        )
+
+        repeat(3) {
+            groupCommitDbManager.queueEventToDB(appCtx, JSONObject().put("name", "e$it"), Constants.RAISED_EVENT)
+        }
+        groupCommitDbManager.queuePushNotificationViewedEventToDB(appCtx, JSONObject().put("name", "n1"))
+
+        val queueData = groupCommitDbManager.getQueuedEvents(appCtx, 50, EventGroup.REGULAR)
+        assertEquals(3, queueData.data.length())
+        assertEquals("e0", queueData.data.getJSONObject(0).getString("name"))
+        assertEquals("e2", queueData.data.getJSONObject(2).getString("name"))
+
+        val nvQueueData = groupCommitDbManager.getQueuedEvents(appCtx, 50, EventGroup.PUSH_NOTIFICATION_VIEWED)
+        assertEquals(1, nvQueueData.data.length())
+    }
+
     @Test
     fun test_queuePushNotificationViewedEventToDB_when_Called_should_StoreDataInPushNotificationViewedTable() {
         val json = JSONObject().also { it.put("name", "a1") }
@@ -408,6 +506,52 @@ class DBManagerTest : BaseTestCase() {
         assertFalse(remainingProfileEvents.hasEvents, "All events should be removed")
     }
 
+    @Test
+    fun test_getQueuedEventsAfter_when_PreviousBatchNotCleanedUp_should_ReturnFollowingRows() {
+        // Setup: Add 40 events and 40 profile events
+        val events = (1..40).map { JSONObject().put("name", "event$it").put("type", "event") }
+        val profileEvents = (1..40).map { JSONObject().put("name", "profile$it").put("type", "profile") }
+
+        events.forEach { dbAdapter.storeObject(it, Table.EVENTS) }
+        profileEvents.forEach { dbAdapter.storeObject(it, Table.PROFILE_EVENTS) }
+
+        val firstBatch = dbManager.getQueuedEvents(appCtx, 50, EventGroup.REGULAR)
+
+        // Test - first batch is still in the database
+        val secondBatch = dbManager.getQueuedEventsAfter(appCtx, 50, EventGroup.REGULAR, firstBatch)
+
+        // Validate - 30 remaining events, none of them part of the first batch
+        assertEquals(30, secondBatch.data.length())
+        assertEquals(30, secondBatch.eventIds.size)
+        assertEquals(0, secondBatch.profileEventIds.size)
+        assertTrue(secondBatch.eventIds.none { it in firstBatch.eventIds })
+        assertEquals("event11", secondBatch.data.getJSONObject(0).getString("name"))
+        assertFalse(secondBatch.hasMore)
+
+        // Cleaning up the first batch doesn't affect the second one
+        dbManager.cleanupSentEvents(appCtx, firstBatch.eventIds, firstBatch.profileEventIds)
+        val remaining = dbManager.getQueuedEvents(appCtx, 50, EventGroup.REGULAR)
+        assertEquals(secondBatch.eventIds, remaining.eventIds)
+    }
+
+    @Test
+    fun test_getQueuedEventsAfter_for_PushNotificationViewed_should_ReturnFollowingRows() {
+        // Setup: Add 5 push notification viewed events
+        (1..5).map { JSONObject().put("name", "push$it") }
+            .forEach { dbAdapter.storeObject(it, Table.PUSH_NOTIFICATION_VIEWED) }
+
+        val firstBatch = dbManager.getQueuedEvents(appCtx, 2, EventGroup.PUSH_NOTIFICATION_VIEWED)
+
+        // Test
+        val secondBatch = dbManager.getQueuedEventsAfter(appCtx, 2, EventGroup.PUSH_NOTIFICATION_VIEWED, firstBatch)
+
+        // Validate
+        assertEquals(2, secondBatch.data.length())
+        assertEquals("push3", secondBatch.data.getJSONObject(0).getString("name"))
+        assertEquals("push4", secondBatch.data.getJSONObject(1).getString("name"))
+        assertTrue(secondBatch.hasMore)
+    }
+
     @Test
     fun test_getQueuedEvents_for_PushNotificationViewed_should_UseCorrectTable() {
         // Setup: Add events to push notification viewed table
@@ -108,6 +108,24 @@ class DatabaseHelperMigrationTest : BaseTestCase() {
         }
     }
 
+    @Test
+    fun `upgrade from v6 creates the inbox paging index`() {
+        seedV6Database().close()
+
+        val config = CleverTapInstanceConfig.createInstance(appCtx, "acc-1", "token")
+        dbHelper = DatabaseHelper(appCtx, config.accountId, dbName, config.logger)
+
+        dbHelper.readableDatabase.use { upgraded ->
+            val c = upgraded.rawQuery(
+                "SELECT name FROM sqlite_master WHERE type='index' AND name=?;",
+                arrayOf("inbox_user_created_idx")
+            )
+            c.use {
+                assertTrue(it.moveToFirst(), "Inbox paging index should exist after V8 migration")
+            }
+        }
+    }
+
     @Test
     fun `fresh install creates inboxMessages with source column already present`() {
         val config = CleverTapInstanceConfig.createInstance(appCtx, "acc-1", "token")
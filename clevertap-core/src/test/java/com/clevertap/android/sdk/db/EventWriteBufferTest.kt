@@ -0,0 +1,55 @@
+package com.clevertap.android.sdk.db
+
+import com.clevertap.android.sdk.TestClock
+import org.junit.*
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class EventWriteBufferTest {
+
+    private lateinit var clock: TestClock
+    private lateinit var buffer: EventWriteBuffer
+
+    @Before
+    fun setup() {
+        clock = TestClock(1_000L)
+        buffer = EventWriteBuffer(maxPendingEvents = 3, maxPendingAgeMs = 500L, clock = clock)
+    }
+
+    @Test
+    fun test_stage_when_belowThresholds_should_notRequestCommit() {
+        assertFalse(buffer.stage("{}", Table.EVENTS))
+        assertFalse(buffer.stage("{}", Table.PROFILE_EVENTS))
+        assertEquals(2, buffer.size)
+    }
+
+    @Test
+    fun test_stage_when_sizeThresholdReached_should_requestCommit() {
+        buffer.stage("{}", Table.EVENTS)
+        buffer.stage("{}", Table.EVENTS)
+        assertTrue(buffer.stage("{}", Table.EVENTS))
+    }
+
+    @Test
+    fun test_stage_when_oldestEventExpired_should_requestCommit() {
+        buffer.stage("{}", Table.EVENTS)
+        clock.advanceTime(500L)
+        assertTrue(buffer.stage("{}", Table.EVENTS))
+    }
+
+    @Test
+    fun test_drain_should_returnEventsInOrderAndEmptyBuffer() {
+        buffer.stage("a", Table.EVENTS)
+        clock.advanceTime(10L)
+        buffer.stage("b", Table.PUSH_NOTIFICATION_VIEWED)
+
+        val drained = buffer.drain()
+
+        assertEquals(listOf("a", "b"), drained.map { it.data })
+        assertEquals(listOf(Table.EVENTS, Table.PUSH_NOTIFICATION_VIEWED), drained.map { it.table })
+        assertEquals(listOf(1_000L, 1_010L), drained.map { it.createdAt })
+        assertTrue(buffer.isEmpty)
+        assertTrue(buffer.drain().isEmpty())
+    }
+}
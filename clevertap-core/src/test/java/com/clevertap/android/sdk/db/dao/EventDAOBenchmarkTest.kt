@@ -0,0 +1,85 @@
+package com.clevertap.android.sdk.db.dao
+
+import TestCryptHandler
+import com.clevertap.android.sdk.TestClock
+import com.clevertap.android.sdk.TestLogger
+import com.clevertap.android.sdk.benchmark.MicroBenchmark
+import com.clevertap.android.sdk.cryption.EncryptionLevel
+import com.clevertap.android.sdk.db.DBEncryptionHandler
+import com.clevertap.android.sdk.db.DatabaseHelper
+import com.clevertap.android.sdk.db.Table
+import com.clevertap.android.shared.test.BaseTestCase
+import org.json.JSONObject
+import org.junit.*
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import kotlin.test.assertEquals
+
+/**
+ * Benchmark of storing single events and fetching a send queue batch through [EventDAOImpl].
+ *
+ * See [MicroBenchmark] for running with baselines.
+ */
+@RunWith(RobolectricTestRunner::class)
+class EventDAOBenchmarkTest : BaseTestCase() {
+
+    private lateinit var dbHelper: DatabaseHelper
+    private lateinit var eventDAO: EventDAO
+
+    companion object {
+        private const val EVENTS_PER_RUN = 200
+        private const val BATCH_SIZE = 50
+    }
+
+    override fun setUp() {
+        super.setUp()
+        dbHelper = DatabaseHelper(
+            context = appCtx,
+            accountId = cleverTapInstanceConfig.accountId,
+            dbName = "benchmark_db",
+            logger = TestLogger()
+        )
+        eventDAO = EventDAOImpl(
+            dbHelper = dbHelper,
+            logger = TestLogger(),
+            clock = TestClock(),
+            dbEncryptionHandler = DBEncryptionHandler(TestCryptHandler(), TestLogger(), EncryptionLevel.NONE)
+        )
+    }
+
+    @After
+    fun cleanup() {
+        dbHelper.deleteDatabase()
+    }
+
+    @Test
+    fun benchmark_storeEvent() {
+        MicroBenchmark.measure(
+            "eventDao.storeEvent",
+            EVENTS_PER_RUN,
+            setup = { eventDAO.removeAllEvents(Table.EVENTS) }
+        ) {
+            repeat(EVENTS_PER_RUN) { index -> eventDAO.storeEvent(event(index), Table.EVENTS) }
+        }
+    }
+
+    @Test
+    fun benchmark_fetchEvents() {
+        repeat(EVENTS_PER_RUN) { index -> eventDAO.storeEvent(event(index), Table.EVENTS) }
+
+        MicroBenchmark.measure("eventDao.fetchEvents", EVENTS_PER_RUN / BATCH_SIZE) {
+            var lastId: String? = null
+            repeat(EVENTS_PER_RUN / BATCH_SIZE) {
+                val queue = eventDAO.fetchEvents(Table.EVENTS, BATCH_SIZE, afterId = lastId)
+                assertEquals(BATCH_SIZE, queue.data.length())
+                lastId = queue.eventIds.last()
+            }
+        }
+    }
+
+    private fun event(index: Int): JSONObject = JSONObject()
+        .put("evtName", "Product Viewed")
+        .put("evtData", JSONObject().put("index", index).put("category", "shoes").put("price", 49.99))
+        .put("type", "event")
+        .put("ep", 1_700_000_000 + index)
+}
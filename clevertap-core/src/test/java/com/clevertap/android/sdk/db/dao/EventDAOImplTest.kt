@@ -9,6 +9,7 @@ import com.clevertap.android.sdk.cryption.EncryptionLevel
 import com.clevertap.android.sdk.db.Column
 import com.clevertap.android.sdk.db.DBEncryptionHandler
 import com.clevertap.android.sdk.db.DatabaseHelper
+import com.clevertap.android.sdk.db.StagedEvent
 import com.clevertap.android.sdk.db.Table
 import com.clevertap.android.shared.test.BaseTestCase
 import io.mockk.spyk
@@ -82,6 +83,39 @@ class EventDAOImplTest : BaseTestCase() {
         }
     }
 
+    @Test
+    fun test_storeEvents_when_called_should_storeAllEventsInTheirTablesInOrder() {
+        val staged = listOf(
+            StagedEvent(Table.EVENTS, JSONObject().put("name", "e1").toString(), 1),
+            StagedEvent(Table.PROFILE_EVENTS, JSONObject().put("name", "p1").toString(), 2),
+            StagedEvent(Table.EVENTS, JSONObject().put("name", "e2").toString(), 3),
+            StagedEvent(Table.PUSH_NOTIFICATION_VIEWED, JSONObject().put("name", "n1").toString(), 4)
+        )
+
+        val result = eventDAO.storeEvents(staged)
+
+        assertEquals(4, result)
+        eventDAO.fetchEvents(Table.EVENTS, 50).let {
+            assertEquals(2, it.data.length())
+            assertEquals("e1", it.data.getJSONObject(0).getString("name"))
+            assertEquals("e2", it.data.getJSONObject(1).getString("name"))
+        }
+        eventDAO.fetchEvents(Table.PROFILE_EVENTS, 50).let {
+            assertEquals(1, it.data.length())
+            assertEquals("p1", it.data.getJSONObject(0).getString("name"))
+        }
+        eventDAO.fetchEvents(Table.PUSH_NOTIFICATION_VIEWED, 50).let {
+            assertEquals(1, it.data.length())
+            assertEquals("n1", it.data.getJSONObject(0).getString("name"))
+        }
+    }
+
+    @Test
+    fun test_storeEvents_when_emptyList_should_returnZero() {
+        assertEquals(0, eventDAO.storeEvents(emptyList()))
+        assertTrue(eventDAO.fetchEvents(Table.EVENTS, 50).isEmpty)
+    }
+
     @Test
     fun test_fetchEvents_when_Called_should_ReturnAListOfEntriesAsJsonObject() {
         val testTables = arrayOf(Table.EVENTS, Table.PROFILE_EVENTS, Table.PUSH_NOTIFICATION_VIEWED)
@@ -106,6 +140,157 @@ class EventDAOImplTest : BaseTestCase() {
         }
     }
 
+    @Test
+    fun test_fetchCombinedEvents_when_Called_should_ReturnStoredJsonOfEachEvent() {
+        eventDAO.storeEvent(JSONObject().put("name", "profile1").put("nested", JSONObject().put("a", 1)), Table.PROFILE_EVENTS)
+        eventDAO.storeEvent(JSONObject().put("name", "event1"), Table.EVENTS)
+
+        eventDAO.fetchCombinedEvents(50).let {
+            assertEquals(2, it.serializedData.size)
+            for (i in 0 until it.data.length()) {
+                assertEquals(it.data.getJSONObject(i).toString(), it.serializedData[i])
+            }
+        }
+    }
+
+    @Test
+    fun test_fetchEvents_when_CalledWithAfterId_should_ReturnOnlyFollowingEntries() {
+        val testTables = arrayOf(Table.EVENTS, Table.PROFILE_EVENTS, Table.PUSH_NOTIFICATION_VIEWED)
+
+        testTables.forEach { table ->
+            (1..4).forEach { i ->
+                eventDAO.storeEvent(JSONObject().also { it.put("name", "${table.tableName}$i") }, table)
+            }
+
+            val firstBatch = eventDAO.fetchEvents(table, 2)
+            val afterId = (firstBatch.eventIds + firstBatch.profileEventIds).last()
+
+            eventDAO.fetchEvents(table, 2, afterId).let {
+                assertEquals(2, it.data.length())
+                assertEquals("${table.tableName}3", (it.data[0] as JSONObject).getString("name"))
+                assertEquals("${table.tableName}4", (it.data[1] as JSONObject).getString("name"))
+                assertFalse(it.hasMore)
+            }
+        }
+    }
+
+    @Test
+    fun test_fetchEvents_when_CreatedAtIsOutOfOrder_should_PageByIdWithoutSkippingRows() {
+        // the clock going back, e.g. after a time change, stores later rows with older created_at
+        val createdAt = listOf(4_000L, 1_000L, 3_000L, 2_000L)
+        createdAt.forEachIndexed { i, ts ->
+            testClock.setCurrentTime(ts)
+            eventDAO.storeEvent(JSONObject().put("name", "e${i + 1}"), Table.EVENTS)
+        }
+
+        val firstBatch = eventDAO.fetchEvents(Table.EVENTS, 2)
+        val secondBatch = eventDAO.fetchEvents(Table.EVENTS, 2, firstBatch.eventIds.last())
+
+        val names = (0 until firstBatch.data.length()).map { firstBatch.data.getJSONObject(it).getString("name") } +
+                (0 until secondBatch.data.length()).map { secondBatch.data.getJSONObject(it).getString("name") }
+        assertEquals(listOf("e1", "e2", "e3", "e4"), names)
+        assertTrue(firstBatch.hasMore)
+        assertFalse(secondBatch.hasMore)
+    }
+
+    @Test
+    fun test_fetchEvents_when_Called_should_DecryptTheBatchInOneCall() {
+        (1..3).forEach { eventDAO.storeEvent(JSONObject().put("name", "event$it"), Table.EVENTS) }
+        val spyEncryptionHandler = spyk(dbEncryptionHandler)
+        val testEventDAO = EventDAOImpl(dbHelper, instanceConfig.logger, spyEncryptionHandler, testClock)
+
+        val queueData = testEventDAO.fetchEvents(Table.EVENTS, 2)
+
+        assertEquals(2, queueData.data.length())
+        assertTrue(queueData.hasMore)
+        verify(exactly = 1) { spyEncryptionHandler.unwrapDbDataAll(match { it.size == 2 }) }
+        verify(exactly = 0) { spyEncryptionHandler.unwrapDbData(any()) }
+    }
+
+    @Test
+    fun test_fetchEvents_when_CalledWithMaxBytes_should_StopBeforeExceedingIt() {
+        val events = (1..4).map { JSONObject().put("name", "event$it") }
+        events.forEach { eventDAO.storeEvent(it, Table.EVENTS) }
+        val storedLength = eventDAO.fetchEvents(Table.EVENTS, 1).byteSize
+
+        eventDAO.fetchEvents(Table.EVENTS, 50, maxBytes = storedLength * 2).let {
+            assertEquals(2, it.data.length())
+            assertEquals(storedLength * 2, it.byteSize)
+            assertTrue(it.hasMore)
+        }
+
+        // the first event is returned even if it alone exceeds the bound
+        eventDAO.fetchEvents(Table.EVENTS, 50, maxBytes = 1).let {
+            assertEquals(1, it.data.length())
+            assertTrue(it.hasMore)
+        }
+    }
+
+    @Test
+    fun test_fetchEvents_when_CalledWithMaxBytes_should_CountUtf8Bytes() {
+        // 2 bytes per char in UTF-8
+        val events = (1..4).map { JSONObject().put("name", "\u00e9".repeat(100)) }
+        events.forEach { eventDAO.storeEvent(it, Table.EVENTS) }
+        val stored = eventDAO.fetchEvents(Table.EVENTS, 1)
+        val storedChars = stored.serializedData[0].length
+        assertEquals(stored.serializedData[0].toByteArray(Charsets.UTF_8).size, stored.byteSize)
+
+        // fits two rows by chars, only one by bytes
+        eventDAO.fetchEvents(Table.EVENTS, 50, maxBytes = storedChars * 2).let {
+            assertEquals(1, it.data.length())
+            assertTrue(it.hasMore)
+        }
+    }
+
+    @Test
+    fun test_utf8Length_should_MatchTheEncodedSize() {
+        listOf("", "ascii", "\u00e9t\u00e9", "\u20ac10", "\ud83d\ude00 ok").forEach {
+            assertEquals(it.toByteArray(Charsets.UTF_8).size, EventDAOImpl.utf8Length(it), it)
+        }
+    }
+
+    @Test
+    fun test_fetchCombinedEvents_when_ProfileEventsUseMaxBytes_should_LeaveEventsForNextBatch() {
+        eventDAO.storeEvent(JSONObject().put("name", "profile1"), Table.PROFILE_EVENTS)
+        eventDAO.storeEvent(JSONObject().put("name", "event1"), Table.EVENTS)
+
+        eventDAO.fetchCombinedEvents(50, maxBytes = 1).let {
+            assertEquals(1, it.profileEventIds.size)
+            assertEquals(0, it.eventIds.size)
+            assertTrue(it.hasMore)
+        }
+    }
+
+    @Test
+    fun test_fetchCombinedEvents_when_ProfileEventsStopOnMaxBytes_should_NotAddEvents() {
+        eventDAO.storeEvent(JSONObject().put("name", "profile1"), Table.PROFILE_EVENTS)
+        eventDAO.storeEvent(JSONObject().put("name", "profile2".repeat(20)), Table.PROFILE_EVENTS)
+        eventDAO.storeEvent(JSONObject().put("name", "event1"), Table.EVENTS)
+        val profileLength = eventDAO.fetchEvents(Table.PROFILE_EVENTS, 1).byteSize
+        val eventLength = eventDAO.fetchEvents(Table.EVENTS, 1).byteSize
+
+        // the second profile event does not fit, the event would
+        eventDAO.fetchCombinedEvents(50, maxBytes = profileLength + eventLength).let {
+            assertEquals(1, it.profileEventIds.size)
+            assertEquals(0, it.eventIds.size)
+            assertEquals(profileLength, it.byteSize)
+            assertTrue(it.hasMore)
+        }
+    }
+
+    @Test
+    fun test_fetchCombinedEvents_when_NextEventExceedsMaxBytes_should_NotAddIt() {
+        eventDAO.storeEvent(JSONObject().put("name", "profile1"), Table.PROFILE_EVENTS)
+        eventDAO.storeEvent(JSONObject().put("name", "event1".repeat(20)), Table.EVENTS)
+        val profileLength = eventDAO.fetchEvents(Table.PROFILE_EVENTS, 1).byteSize
+
+        eventDAO.fetchCombinedEvents(50, maxBytes = profileLength + 1).let {
+            assertEquals(1, it.profileEventIds.size)
+            assertEquals(0, it.eventIds.size)
+            assertTrue(it.hasMore)
+        }
+    }
+
     @Test
     fun test_removeAllEvents_when_called_should_RemoveAllEntries() {
         val testTables = arrayOf(Table.EVENTS, Table.PROFILE_EVENTS, Table.PUSH_NOTIFICATION_VIEWED)
@@ -363,8 +548,9 @@ class EventDAOImplTest : BaseTestCase() {
         
         // Verify all 3 rows were updated
         assertEquals(3, updatedCount)
-        // Verify wrap was called 3 times (once per row)
-        verify(exactly = 3) { mockEncryptionHandler.wrapDbData(any()) }
+        // Verify wrap was called once for all 3 rows
+        verify(exactly = 1) { mockEncryptionHandler.wrapDbDataAll(match { it.size == 3 }) }
+        verify(exactly = 0) { mockEncryptionHandler.wrapDbData(any()) }
     }
 
     @Test
@@ -421,8 +607,9 @@ class EventDAOImplTest : BaseTestCase() {
         
         // Verify only 2 rows were updated (the plain text ones)
         assertEquals(2, updatedCount)
-        // Verify wrap was called 2 times (once per plain text row)
-        verify(exactly = 2) { mockEncryptionHandler.wrapDbData(any()) }
+        // Verify wrap was called once for the 2 plain text rows
+        verify(exactly = 1) { mockEncryptionHandler.wrapDbDataAll(match { it.size == 2 }) }
+        verify(exactly = 0) { mockEncryptionHandler.wrapDbData(any()) }
     }
 
     @Test
@@ -0,0 +1,109 @@
+package com.clevertap.android.sdk.db.dao
+
+import TestCryptHandler
+import com.clevertap.android.sdk.TestLogger
+import com.clevertap.android.sdk.cryption.EncryptionLevel
+import com.clevertap.android.sdk.db.DBEncryptionHandler
+import com.clevertap.android.sdk.db.DatabaseHelper
+import com.clevertap.android.sdk.db.StagedEvent
+import com.clevertap.android.sdk.db.Table
+import com.clevertap.android.shared.test.BaseTestCase
+import org.json.JSONObject
+import org.junit.*
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import kotlin.system.measureNanoTime
+import kotlin.test.*
+
+/**
+ * Benchmark comparing one insert per event ([EventDAO.storeEvent]) with a group commit of the same
+ * events in one transaction ([EventDAO.storeEvents]).
+ *
+ * Numbers from Robolectric are only useful as a relative comparison, on device each implicit
+ * transaction also pays a journal fsync, so the gap is larger there.
+ *
+ * To enable assertions, set system property:
+ * -Dclevertap.benchmark.assertions.enabled=true
+ */
+@RunWith(RobolectricTestRunner::class)
+class EventGroupCommitBenchmarkTest : BaseTestCase() {
+
+    private lateinit var dbHelper: DatabaseHelper
+    private lateinit var eventDAO: EventDAO
+
+    companion object {
+        private const val RUNS = 5
+        private val BURST_SIZES = intArrayOf(50, 200)
+        private val ENABLE_ASSERTIONS =
+            System.getProperty("clevertap.benchmark.assertions.enabled", "false").toBoolean()
+    }
+
+    override fun setUp() {
+        super.setUp()
+        dbHelper = DatabaseHelper(
+            context = appCtx,
+            accountId = "accountId",
+            dbName = "group_commit_benchmark.db",
+            logger = TestLogger()
+        )
+        eventDAO = EventDAOImpl(
+            dbHelper = dbHelper,
+            logger = TestLogger(),
+            dbEncryptionHandler = DBEncryptionHandler(TestCryptHandler(), TestLogger(), EncryptionLevel.NONE)
+        )
+        // warm up connection and statement caches
+        eventDAO.storeEvent(sampleEvent(0), Table.EVENTS)
+        eventDAO.removeAllEvents(Table.EVENTS)
+    }
+
+    @After
+    fun tearDown() {
+        dbHelper.deleteDatabase()
+    }
+
+    @Test
+    fun benchmark_singleInserts_vs_groupCommit() {
+        println("=== Event Insert Benchmark ===")
+
+        BURST_SIZES.forEach { burstSize ->
+            val events = List(burstSize) { sampleEvent(it) }
+            val singleTimes = mutableListOf<Long>()
+            val groupTimes = mutableListOf<Long>()
+
+            repeat(RUNS) {
+                eventDAO.removeAllEvents(Table.EVENTS)
+                singleTimes += measureNanoTime {
+                    events.forEach { event -> eventDAO.storeEvent(event, Table.EVENTS) }
+                }
+
+                eventDAO.removeAllEvents(Table.EVENTS)
+                groupTimes += measureNanoTime {
+                    eventDAO.storeEvents(events.map { event ->
+                        StagedEvent(Table.EVENTS, event.toString(), System.currentTimeMillis())
+                    })
+                }
+                assertEquals(burstSize, eventDAO.fetchEvents(Table.EVENTS, Int.MAX_VALUE).data.length())
+            }
+
+            val singleRate = insertsPerSecond(burstSize, singleTimes.average())
+            val groupRate = insertsPerSecond(burstSize, groupTimes.average())
+            println("Burst of $burstSize events")
+            println("  single inserts : ${singleRate.toLong()} inserts/sec")
+            println("  group commit   : ${groupRate.toLong()} inserts/sec")
+
+            if (ENABLE_ASSERTIONS) {
+                assertTrue(groupRate >= singleRate, "Group commit should not be slower than single inserts")
+            }
+        }
+    }
+
+    private fun insertsPerSecond(count: Int, averageNanos: Double): Double =
+        if (averageNanos > 0) count / (averageNanos / 1_000_000_000.0) else 0.0
+
+    private fun sampleEvent(index: Int): JSONObject = JSONObject()
+        .put("evtName", "Product Viewed")
+        .put("type", "event")
+        .put("s", 1_700_000_000)
+        .put("ep", 1_700_000_000 + index)
+        .put("evtData", JSONObject().put("index", index).put("category", "shoes"))
+}
@@ -11,8 +11,12 @@ import com.clevertap.android.sdk.db.Table
 import com.clevertap.android.sdk.inbox.CTMessageDAO
 import com.clevertap.android.sdk.inbox.InboxIndexState
 import com.clevertap.android.sdk.inbox.InboxMessageSource
+import com.clevertap.android.sdk.inbox.InboxPageCursor
+import com.clevertap.android.sdk.inbox.InboxPageRequest
 import com.clevertap.android.shared.test.BaseTestCase
 import android.content.ContentValues
+import android.database.sqlite.SQLiteException
+import io.mockk.every
 import io.mockk.mockk
 import org.json.JSONObject
 import org.junit.*
@@ -208,6 +212,34 @@ class InboxMessageDAOImplTest : BaseTestCase() {
         assertEquals("cp4321", messages[0].campaignId)
     }
 
+    @Test
+    fun `upsertMessages returns the written messages`() {
+        val messages = listOf(getCtMsgDao("m1", "user_11"), getCtMsgDao("m2", "user_11"))
+
+        assertEquals(messages, inboxMessageDAO.upsertMessages(messages))
+    }
+
+    @Test
+    fun `upsertMessages writes nothing above the memory threshold`() {
+        val helper = mockk<DatabaseHelper>(relaxed = true)
+        every { helper.belowMemThreshold() } returns false
+        val dao = InboxMessageDAOImpl(helper, instanceConfig.logger, dbEncryptionHandler)
+
+        assertTrue(dao.upsertMessages(listOf(getCtMsgDao("m1", "user_11"))).isEmpty())
+    }
+
+    @Test
+    fun `upsertMessages skips the messages which fail to be written`() {
+        val helper = mockk<DatabaseHelper>(relaxed = true)
+        every { helper.belowMemThreshold() } returns true
+        every { helper.writableDatabase.execSQL(any(), match { it[0] == "m2" }) } throws SQLiteException()
+        val dao = InboxMessageDAOImpl(helper, instanceConfig.logger, dbEncryptionHandler)
+        val m1 = getCtMsgDao("m1", "user_11")
+        val m3 = getCtMsgDao("m3", "user_11")
+
+        assertEquals(listOf(m1, m3), dao.upsertMessages(listOf(m1, getCtMsgDao("m2", "user_11"), m3)))
+    }
+
     @Test
     fun `upsert and read preserves V2 source`() {
         val dao = getCtMsgDao("m1", "user_11", source = InboxMessageSource.V2)
@@ -491,4 +523,63 @@ class InboxMessageDAOImplTest : BaseTestCase() {
         val result = inboxMessageDAO.findSweepableV2Ids(userId, Long.MAX_VALUE)
         assertTrue(result.isEmpty())
     }
+
+    // ── getMessagesPage ──────────────────────────────────────────────────────
+
+    @Test
+    fun `getMessagesPage pages newest first and continues after the cursor`() {
+        val userId = "user_11"
+        inboxMessageDAO.upsertMessages(
+            listOf(
+                getCtMsgDao("a", userId, date = 100L),
+                getCtMsgDao("b", userId, date = 200L),
+                getCtMsgDao("c", userId, date = 200L),
+                getCtMsgDao("d", userId, date = 300L),
+                getCtMsgDao("other_user", "user_12", date = 250L)
+            )
+        )
+
+        val first = inboxMessageDAO.getMessagesPage(userId, InboxPageRequest(2), 0L, 2)
+        assertEquals(listOf("d", "c"), first.map { it.id })
+
+        val cursor = InboxPageCursor(first.last().date, first.last().id)
+        val second = inboxMessageDAO.getMessagesPage(userId, InboxPageRequest(2, cursor), 0L, 3)
+        assertEquals(listOf("b", "a"), second.map { it.id })
+    }
+
+    @Test
+    fun `getMessagesPage filters by tag ignoring case and by read state`() {
+        val userId = "user_11"
+        inboxMessageDAO.upsertMessages(
+            listOf(
+                getCtMsgDao("offer", userId, date = 100L, tags = listOf("Offers")),
+                getCtMsgDao("read_offer", userId, read = true, date = 200L, tags = listOf("news", "offers")),
+                getCtMsgDao("prefix", userId, date = 300L, tags = listOf("offers_old")),
+                getCtMsgDao("untagged", userId, date = 400L)
+            )
+        )
+
+        val tagged = inboxMessageDAO.getMessagesPage(userId, InboxPageRequest(10, tag = "OFFERS"), 0L, 10)
+        assertEquals(listOf("read_offer", "offer"), tagged.map { it.id })
+
+        val unread = inboxMessageDAO.getMessagesPage(
+            userId, InboxPageRequest(10, tag = "offers", unreadOnly = true), 0L, 10
+        )
+        assertEquals(listOf("offer"), unread.map { it.id })
+    }
+
+    @Test
+    fun `getMessagesPage skips expired rows`() {
+        val userId = "user_11"
+        inboxMessageDAO.upsertMessages(
+            listOf(
+                getCtMsgDao("expired", userId, date = 100L, expires = 500L),
+                getCtMsgDao("infinite", userId, date = 200L, expires = 0L),
+                getCtMsgDao("live", userId, date = 300L, expires = 2_000L)
+            )
+        )
+
+        val page = inboxMessageDAO.getMessagesPage(userId, InboxPageRequest(10), 1_000L, 10)
+        assertEquals(listOf("live", "infinite"), page.map { it.id })
+    }
 }
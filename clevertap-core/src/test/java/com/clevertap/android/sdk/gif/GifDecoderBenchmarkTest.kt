@@ -0,0 +1,112 @@
+package com.clevertap.android.sdk.gif
+
+import com.clevertap.android.sdk.benchmark.MicroBenchmark
+import com.clevertap.android.shared.test.BaseTestCase
+import org.junit.Test
+import java.io.ByteArrayOutputStream
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+
+/**
+ * Benchmark of decoding the frames of an animated GIF with [GifDecoder], as [GifImageView] does
+ * while it plays.
+ *
+ * See [MicroBenchmark] for running with baselines.
+ */
+class GifDecoderBenchmarkTest : BaseTestCase() {
+
+    companion object {
+        private const val WIDTH = 200
+        private const val HEIGHT = 200
+        private const val FRAME_COUNT = 10
+        private const val FRAMES_PER_RUN = 50
+
+        // 7 bit pixels use 8 bit LZW codes, which are written one per byte
+        private const val MIN_CODE_SIZE = 7
+        private const val CLEAR_CODE = 1 shl MIN_CODE_SIZE
+        private const val END_CODE = CLEAR_CODE + 1
+
+        // clearing before the code table fills keeps the codes at 8 bits
+        private const val PIXELS_PER_CLEAR = 100
+    }
+
+    @Test
+    fun benchmark_nextFrame() {
+        val decoder = GifDecoder()
+        assertEquals(GifDecoder.STATUS_OK, decoder.read(animatedGif()))
+        assertEquals(FRAME_COUNT, decoder.getFrameCount())
+
+        MicroBenchmark.measure("gifDecoder.nextFrame", FRAMES_PER_RUN) {
+            repeat(FRAMES_PER_RUN) {
+                decoder.advance()
+                assertNotNull(decoder.getNextFrame())
+            }
+        }
+    }
+
+    /**
+     * @return a looping GIF of [FRAME_COUNT] full size frames, encoded without LZW compression
+     */
+    private fun animatedGif(): ByteArray {
+        val out = ByteArrayOutputStream()
+        out.write("GIF89a".toByteArray())
+        out.writeShort(WIDTH)
+        out.writeShort(HEIGHT)
+        // global color table of 2^(6+1) colors
+        out.write(0xF6)
+        out.write(0)
+        out.write(0)
+        repeat(CLEAR_CODE) { color ->
+            out.write(color * 2)
+            out.write(255 - color * 2)
+            out.write(color)
+        }
+        // loop forever
+        out.write(byteArrayOf(0x21, 0xFF.toByte(), 0x0B))
+        out.write("NETSCAPE2.0".toByteArray())
+        out.write(byteArrayOf(0x03, 0x01, 0x00, 0x00, 0x00))
+
+        repeat(FRAME_COUNT) { frame ->
+            // graphic control extension, 100ms delay
+            out.write(byteArrayOf(0x21, 0xF9.toByte(), 0x04, 0x00))
+            out.writeShort(10)
+            out.write(byteArrayOf(0x00, 0x00))
+            // image descriptor
+            out.write(0x2C)
+            out.writeShort(0)
+            out.writeShort(0)
+            out.writeShort(WIDTH)
+            out.writeShort(HEIGHT)
+            out.write(0)
+            out.write(MIN_CODE_SIZE)
+            out.writeSubBlocks(frameCodes(frame))
+        }
+        out.write(0x3B)
+        return out.toByteArray()
+    }
+
+    private fun frameCodes(frame: Int): ByteArray {
+        val codes = ByteArrayOutputStream()
+        for (pixel in 0 until WIDTH * HEIGHT) {
+            if (pixel % PIXELS_PER_CLEAR == 0) {
+                codes.write(CLEAR_CODE)
+            }
+            codes.write((pixel / WIDTH + frame) % CLEAR_CODE)
+        }
+        codes.write(END_CODE)
+        return codes.toByteArray()
+    }
+
+    private fun ByteArrayOutputStream.writeShort(value: Int) {
+        write(value and 0xFF)
+        write(value shr 8 and 0xFF)
+    }
+
+    private fun ByteArrayOutputStream.writeSubBlocks(data: ByteArray) {
+        data.toList().chunked(255).forEach { block ->
+            write(block.size)
+            write(block.toByteArray())
+        }
+        write(0)
+    }
+}
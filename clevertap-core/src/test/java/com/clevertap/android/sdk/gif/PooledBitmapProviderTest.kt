@@ -0,0 +1,56 @@
+package com.clevertap.android.sdk.gif
+
+import android.graphics.Bitmap
+import com.clevertap.android.shared.test.BaseTestCase
+import org.junit.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNotSame
+import kotlin.test.assertSame
+
+class PooledBitmapProviderTest : BaseTestCase() {
+
+    @Test
+    fun obtain_reusesReleasedBuffersOfTheSameSize() {
+        val provider = PooledBitmapProvider(1024 * 1024)
+        val bitmap = provider.obtain(10, 10, Bitmap.Config.ARGB_8888)
+        val bytes = provider.obtainByteArray(100)
+        val ints = provider.obtainIntArray(100)
+
+        provider.release(bitmap)
+        provider.release(bytes)
+        provider.release(ints)
+
+        assertNotSame(bitmap, provider.obtain(10, 10, Bitmap.Config.RGB_565))
+        assertSame(bitmap, provider.obtain(10, 10, Bitmap.Config.ARGB_8888))
+        assertNotSame(bytes, provider.obtainByteArray(50))
+        assertSame(bytes, provider.obtainByteArray(100))
+        assertSame(ints, provider.obtainIntArray(100))
+        assertEquals(0, provider.getSizeBytes())
+    }
+
+    @Test
+    fun release_dropsTheOldestBuffersOverTheMaxSize() {
+        val provider = PooledBitmapProvider(1000)
+        val first = IntArray(100)
+        val second = IntArray(100)
+        val third = IntArray(100)
+
+        provider.release(first)
+        provider.release(second)
+        provider.release(third)
+
+        assertEquals(800, provider.getSizeBytes())
+        assertSame(third, provider.obtainIntArray(100))
+        assertSame(second, provider.obtainIntArray(100))
+        assertNotSame(first, provider.obtainIntArray(100))
+    }
+
+    @Test
+    fun release_ignoresBuffersLargerThanTheMaxSize() {
+        val provider = PooledBitmapProvider(100)
+
+        provider.release(ByteArray(101))
+
+        assertEquals(0, provider.getSizeBytes())
+    }
+}
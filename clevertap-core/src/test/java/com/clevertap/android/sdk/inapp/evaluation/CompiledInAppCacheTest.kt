@@ -0,0 +1,153 @@
+package com.clevertap.android.sdk.inapp.evaluation
+
+import com.clevertap.android.sdk.Constants
+import com.clevertap.android.sdk.inapp.store.preference.ImpressionRetention
+import com.clevertap.android.shared.test.BaseTestCase
+import org.json.JSONArray
+import org.json.JSONObject
+import org.junit.*
+import kotlin.test.assertEquals
+import kotlin.test.assertNotSame
+import kotlin.test.assertNull
+import kotlin.test.assertSame
+
+class CompiledInAppCacheTest : BaseTestCase() {
+
+    private fun inApp(id: String): JSONObject {
+        return JSONObject(
+            """
+            {
+              "ti": "$id",
+              "whenTriggers": [{"eventName": "Charged"}, {"eventName": "Added To Cart"}],
+              "frequencyLimits": [{"type": "ever", "limit": 2}],
+              "occurrenceLimits": [{"type": "session", "limit": 1}, {}]
+            }
+            """.trimIndent()
+        )
+    }
+
+    private fun limit(type: String, limit: Int, frequency: Int) = LimitAdapter(
+        JSONObject()
+            .put(Constants.KEY_TYPE, type)
+            .put(Constants.KEY_LIMIT, limit)
+            .put(Constants.KEY_FREQUENCY, frequency)
+    )
+
+    @Test
+    fun testCompileParsesTriggersAndLimits() {
+        // Arrange
+        val inApp = inApp("123")
+
+        // Act
+        val compiled = CompiledInApp.compile(inApp)
+
+        // Assert
+        assertSame(inApp, compiled.inApp)
+        assertEquals("123", compiled.campaignId)
+        assertNull(compiled.templateName)
+        assertEquals(listOf("Charged", "Added To Cart"), compiled.whenTriggers.map { it.eventName })
+        assertEquals(2, compiled.whenLimits.size)
+        assertEquals(LimitType.Ever, compiled.whenLimits[0].limitType)
+        assertEquals(LimitType.Session, compiled.whenLimits[1].limitType)
+    }
+
+    @Test
+    fun testCompileWithoutTriggersOrLimits() {
+        // Arrange
+        val inApp = JSONObject().put(Constants.INAPP_ID_IN_PAYLOAD, "1")
+
+        // Act
+        val compiled = CompiledInApp.compile(inApp)
+
+        // Assert
+        assertEquals(emptyList(), compiled.whenTriggers)
+        assertEquals(emptyList(), compiled.whenLimits)
+    }
+
+    @Test
+    fun testImpressionRetentionCoversLongestWindowAndHighestLimit() {
+        // Arrange
+        val limits = listOf(
+            limit("hours", limit = 2, frequency = 3),
+            limit("minutes", limit = 5, frequency = 10),
+            limit("session", limit = 50, frequency = 0),
+            limit("onEvery", limit = 100, frequency = 0)
+        )
+
+        // Act
+        val retention = CompiledInApp.impressionRetention(limits)
+
+        // Assert
+        assertEquals(ImpressionRetention(maxCount = 5, maxAgeSeconds = 3 * 3600L), retention)
+    }
+
+    @Test
+    fun testImpressionRetentionKeepsAllAgesForLifetimeLimits() {
+        // Act
+        val retention = CompiledInApp.impressionRetention(
+            listOf(limit("days", limit = 1, frequency = 1), limit("ever", limit = 3, frequency = 0))
+        )
+
+        // Assert
+        assertEquals(ImpressionRetention(maxCount = 3, maxAgeSeconds = null), retention)
+    }
+
+    @Test
+    fun testImpressionRetentionWithoutImpressionLimits() {
+        // Act
+        val retention = CompiledInApp.impressionRetention(listOf(limit("session", limit = 1, frequency = 0)))
+
+        // Assert
+        assertNull(retention)
+    }
+
+    @Test
+    fun testCacheReusesCompiledListForSameSource() {
+        // Arrange
+        val cache = CompiledInAppCache()
+        val source = listOf(inApp("1"), inApp("2"))
+
+        // Act
+        val first = cache.get(source)
+        val second = cache.get(source)
+
+        // Assert
+        assertEquals(2, first.inApps.size)
+        assertSame(first, second)
+    }
+
+    @Test
+    fun testCacheRecompilesWhenSourceChanges() {
+        // Arrange
+        val cache = CompiledInAppCache()
+        val first = cache.get(listOf(inApp("1")))
+
+        // Act
+        val second = cache.get(JSONArray().put(inApp("1")).put(inApp("2")).let { array ->
+            (0 until array.length()).map { array.getJSONObject(it) }
+        })
+
+        // Assert
+        assertNotSame(first, second)
+        assertEquals(listOf("1", "2"), second.inApps.map { it.campaignId })
+    }
+
+    @Test
+    fun testCacheKeepsSeveralSourcesAndEvictsLeastRecentlyUsed() {
+        // Arrange
+        val cache = CompiledInAppCache(maxEntries = 2)
+        val first = listOf(inApp("1"))
+        val second = listOf(inApp("2"))
+        val third = listOf(inApp("3"))
+        val compiledFirst = cache.get(first)
+        val compiledSecond = cache.get(second)
+
+        // Act
+        cache.get(first)
+        cache.get(third)
+
+        // Assert
+        assertSame(compiledFirst, cache.get(first))
+        assertNotSame(compiledSecond, cache.get(second))
+    }
+}
@@ -0,0 +1,114 @@
+package com.clevertap.android.sdk.inapp.evaluation
+
+import com.clevertap.android.sdk.Constants
+import com.clevertap.android.shared.test.BaseTestCase
+import org.json.JSONArray
+import org.json.JSONObject
+import org.junit.*
+import kotlin.test.assertEquals
+
+class InAppTriggerIndexTest : BaseTestCase() {
+
+    private fun inApp(id: String, vararg triggers: JSONObject): CompiledInApp {
+        val whenTriggers = JSONArray()
+        triggers.forEach { whenTriggers.put(it) }
+        return CompiledInApp.compile(
+            JSONObject()
+                .put(Constants.INAPP_ID_IN_PAYLOAD, id)
+                .put(Constants.INAPP_WHEN_TRIGGERS, whenTriggers)
+        )
+    }
+
+    private fun eventTrigger(eventName: String) = JSONObject().put("eventName", eventName)
+
+    private fun profileTrigger(attrName: String) = JSONObject().put("profileAttrName", attrName)
+
+    @Test
+    fun testCandidatesMatchNormalizedEventName() {
+        // Arrange
+        val index = InAppTriggerIndex(
+            listOf(
+                inApp("1", eventTrigger("Product Viewed")),
+                inApp("2", eventTrigger("Added To Cart")),
+                inApp("3", eventTrigger("productviewed"), eventTrigger("Product Viewed"))
+            )
+        )
+
+        // Act
+        val candidates = index.candidatesFor(EventAdapter("Product  Viewed", emptyMap()))
+
+        // Assert
+        assertEquals(listOf("1", "3"), candidates.map { it.campaignId })
+    }
+
+    @Test
+    fun testCandidatesForChargedEvent() {
+        // Arrange
+        val index = InAppTriggerIndex(
+            listOf(
+                inApp("1", eventTrigger("Product Viewed")),
+                inApp("2", eventTrigger(Constants.CHARGED_EVENT))
+            )
+        )
+
+        // Act
+        val candidates = index.candidatesFor(EventAdapter(Constants.CHARGED_EVENT, emptyMap()))
+
+        // Assert
+        assertEquals(listOf("2"), candidates.map { it.campaignId })
+    }
+
+    @Test
+    fun testCandidatesMatchProfileAttributeNameInListOrder() {
+        // Arrange
+        val index = InAppTriggerIndex(
+            listOf(
+                inApp("1", profileTrigger("City")),
+                inApp("2", eventTrigger("Product Viewed")),
+                inApp("3", profileTrigger("Age")),
+                inApp("4", eventTrigger(Constants.USER_ATTRIBUTE_CHANGE))
+            )
+        )
+        val event = EventAdapter(
+            Constants.USER_ATTRIBUTE_CHANGE,
+            emptyMap(),
+            profileAttrName = "city"
+        )
+
+        // Act
+        val candidates = index.candidatesFor(event)
+
+        // Assert
+        assertEquals(listOf("1", "4"), candidates.map { it.campaignId })
+    }
+
+    @Test
+    fun testInAppsWithoutTriggersAreAlwaysCandidates() {
+        // Arrange
+        val index = InAppTriggerIndex(
+            listOf(
+                inApp("1"),
+                inApp("2", eventTrigger("Added To Cart")),
+                inApp("3", eventTrigger("Product Viewed"))
+            )
+        )
+
+        // Act
+        val candidates = index.candidatesFor(EventAdapter("Product Viewed", emptyMap()))
+
+        // Assert
+        assertEquals(listOf("1", "3"), candidates.map { it.campaignId })
+    }
+
+    @Test
+    fun testNoCandidatesForUnknownEvent() {
+        // Arrange
+        val index = InAppTriggerIndex(listOf(inApp("1", eventTrigger("Added To Cart"))))
+
+        // Act
+        val candidates = index.candidatesFor(EventAdapter("App Launched", emptyMap()))
+
+        // Assert
+        assertEquals(emptyList(), candidates)
+    }
+}
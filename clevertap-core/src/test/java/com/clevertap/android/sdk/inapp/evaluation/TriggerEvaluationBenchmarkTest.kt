@@ -0,0 +1,110 @@
+package com.clevertap.android.sdk.inapp.evaluation
+
+import com.clevertap.android.sdk.Constants
+import com.clevertap.android.sdk.LocalDataStore
+import com.clevertap.android.shared.test.BaseTestCase
+import io.mockk.every
+import io.mockk.mockk
+import org.json.JSONArray
+import org.json.JSONObject
+import org.junit.*
+import kotlin.system.measureNanoTime
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+/**
+ * Benchmark of per-event trigger evaluation latency against the number of active campaigns.
+ *
+ * Compares a linear scan, parsing and matching the triggers of every campaign like evaluation did
+ * before in-apps were compiled, with [EvaluationManager.evaluate] which only matches the candidates
+ * returned by [InAppTriggerIndex].
+ *
+ * To enable assertions, set system property:
+ * -Dclevertap.benchmark.assertions.enabled=true
+ */
+class TriggerEvaluationBenchmarkTest : BaseTestCase() {
+
+    private lateinit var triggersMatcher: TriggersMatcher
+    private lateinit var evaluationManager: EvaluationManager
+
+    companion object {
+        private const val EVENTS_PER_RUN = 200
+        private const val DISTINCT_EVENT_NAMES = 50
+        private val CAMPAIGN_COUNTS = intArrayOf(10, 100, 300, 1000)
+        private val ENABLE_ASSERTIONS =
+            System.getProperty("clevertap.benchmark.assertions.enabled", "false").toBoolean()
+    }
+
+    override fun setUp() {
+        super.setUp()
+        triggersMatcher = TriggersMatcher(mockk<LocalDataStore>(relaxed = true))
+        evaluationManager = EvaluationManager(
+            triggersMatcher = triggersMatcher,
+            triggersManager = mockk(relaxed = true),
+            limitsMatcher = mockk(relaxed = true) {
+                every { matchWhenLimits(any(), any()) } returns true
+            },
+            storeRegistry = mockk(relaxed = true),
+            templatesManager = mockk(relaxed = true)
+        )
+    }
+
+    @Test
+    fun benchmark_linearScan_vs_indexedEvaluation() {
+        println("=== Trigger Evaluation Benchmark ===")
+
+        CAMPAIGN_COUNTS.forEach { campaignCount ->
+            val campaigns = List(campaignCount) { campaign(it) }
+            val events = List(EVENTS_PER_RUN) {
+                EventAdapter("Event ${it % DISTINCT_EVENT_NAMES}", mapOf("category" to "shoes"))
+            }
+
+            // warm up, this also compiles the campaign list once
+            events.forEach { evaluationManager.evaluate(it, campaigns) }
+
+            var linearMatches = 0
+            val linearNanos = measureNanoTime {
+                events.forEach { event ->
+                    linearMatches += campaigns.count { campaign ->
+                        triggersMatcher.matchEvent(CompiledInApp.parseWhenTriggers(campaign), event)
+                    }
+                }
+            }
+
+            var indexedMatches = 0
+            val indexedNanos = measureNanoTime {
+                events.forEach { event ->
+                    indexedMatches += evaluationManager.evaluate(event, campaigns).size
+                }
+            }
+
+            assertEquals(linearMatches, indexedMatches)
+
+            val linearMicros = linearNanos / 1_000.0 / EVENTS_PER_RUN
+            val indexedMicros = indexedNanos / 1_000.0 / EVENTS_PER_RUN
+            println("$campaignCount campaigns")
+            println("  linear scan : ${"%.1f".format(linearMicros)} us/event")
+            println("  indexed     : ${"%.1f".format(indexedMicros)} us/event")
+
+            if (ENABLE_ASSERTIONS && campaignCount >= 100) {
+                assertTrue(indexedMicros < linearMicros, "Indexed evaluation should be faster than a linear scan")
+            }
+        }
+    }
+
+    private fun campaign(index: Int): JSONObject {
+        val trigger = JSONObject()
+            .put("eventName", "Event ${index % DISTINCT_EVENT_NAMES}")
+            .put(
+                "eventProperties", JSONArray().put(
+                    JSONObject()
+                        .put("propertyName", "category")
+                        .put("operator", 1)
+                        .put("propertyValue", "shoes")
+                )
+            )
+        return JSONObject()
+            .put(Constants.INAPP_ID_IN_PAYLOAD, "$index")
+            .put(Constants.INAPP_WHEN_TRIGGERS, JSONArray().put(trigger))
+    }
+}
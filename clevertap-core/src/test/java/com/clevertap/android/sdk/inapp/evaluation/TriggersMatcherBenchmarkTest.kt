@@ -0,0 +1,65 @@
+package com.clevertap.android.sdk.inapp.evaluation
+
+import com.clevertap.android.sdk.Constants
+import com.clevertap.android.sdk.LocalDataStore
+import com.clevertap.android.sdk.benchmark.MicroBenchmark
+import com.clevertap.android.shared.test.BaseTestCase
+import io.mockk.mockk
+import org.json.JSONArray
+import org.json.JSONObject
+import org.junit.Test
+
+/**
+ * Benchmark of [TriggersMatcher.matchEvent] for an event matched against the triggers of every
+ * campaign, at growing campaign counts. Triggers are parsed once, as evaluation does for compiled
+ * in-apps.
+ *
+ * See [MicroBenchmark] for running with baselines.
+ */
+class TriggersMatcherBenchmarkTest : BaseTestCase() {
+
+    companion object {
+        private const val DISTINCT_EVENT_NAMES = 50
+        private val CAMPAIGN_COUNTS = intArrayOf(10, 100, 1000)
+    }
+
+    @Test
+    fun benchmark_matchEvent() {
+        val triggersMatcher = TriggersMatcher(mockk<LocalDataStore>(relaxed = true))
+        val event = EventAdapter(
+            "Event 7",
+            mapOf("category" to "shoes", "price" to 49.99, "tags" to listOf("sale", "new"))
+        )
+
+        CAMPAIGN_COUNTS.forEach { campaignCount ->
+            val triggers = List(campaignCount) { CompiledInApp.parseWhenTriggers(campaign(it)) }
+
+            MicroBenchmark.measure("triggersMatcher.matchEvent.${campaignCount}Campaigns", 1) {
+                triggers.count { triggersMatcher.matchEvent(it, event) }
+            }
+        }
+    }
+
+    private fun campaign(index: Int): JSONObject {
+        val trigger = JSONObject()
+            .put("eventName", "Event ${index % DISTINCT_EVENT_NAMES}")
+            .put(
+                "eventProperties", JSONArray()
+                    .put(
+                        JSONObject()
+                            .put("propertyName", "category")
+                            .put("operator", 1)
+                            .put("propertyValue", "shoes")
+                    )
+                    .put(
+                        JSONObject()
+                            .put("propertyName", "price")
+                            .put("operator", 0)
+                            .put("propertyValue", 10)
+                    )
+            )
+        return JSONObject()
+            .put(Constants.INAPP_ID_IN_PAYLOAD, "$index")
+            .put(Constants.INAPP_WHEN_TRIGGERS, JSONArray().put(trigger))
+    }
+}
@@ -12,15 +12,24 @@ import com.clevertap.android.sdk.inapp.images.memory.InAppImageMemoryAccessObjec
 import com.clevertap.android.sdk.inapp.images.memory.MemoryAccessObject
 import com.clevertap.android.sdk.inapp.images.memory.MemoryDataTransformationType
 import com.clevertap.android.sdk.network.DownloadedBitmap
+import com.clevertap.android.sdk.network.DownloadedBitmapFactory
 import io.mockk.every
 import io.mockk.mockk
+import io.mockk.mockkObject
+import io.mockk.unmockkObject
 import io.mockk.verify
 import org.junit.Assert.assertFalse
 import org.junit.Assert.assertTrue
 import org.junit.Before
 import org.junit.Test
+import java.io.ByteArrayInputStream
 import java.io.File
+import java.io.InputStream
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
 import kotlin.test.assertEquals
+import kotlin.test.assertNull
 
 class FileResourceProviderTest {
     private val mockLogger = TestLogger()
@@ -257,4 +266,181 @@ class FileResourceProviderTest {
         }
     }
 
-}
\ No newline at end of file
+
+    @Test
+    fun `fetchFile shares a single download between concurrent callers`() {
+        val url = "https://example.com/document.pdf"
+        val mockSavedFile = mockk<File>()
+        val bytes = byteArrayOf(4, 5, 6)
+        val downloadStarted = CountDownLatch(1)
+        val releaseDownload = CountDownLatch(1)
+        var cached: ByteArray? = null
+        mapOfMAO[FILES]!!.forEach {
+            every { it.fetchInMemoryAndTransform(url, MemoryDataTransformationType.ToByteArray) } answers { cached }
+            every { it.fetchDiskMemoryAndTransform(url, MemoryDataTransformationType.ToByteArray) } returns null
+        }
+        every { mockFileFetchApi.makeApiCallForFile(Pair(url, FILES)) } answers {
+            downloadStarted.countDown()
+            releaseDownload.await(5, TimeUnit.SECONDS)
+            DownloadedBitmapFactory.successBytes(0L, bytes)
+        }
+        every { mockFileMAO.saveDiskMemory(url, any()) } returns mockSavedFile
+        every { mockFileMAO.saveInMemory(url, any()) } answers { cached = bytes; true }
+
+        val executor = Executors.newFixedThreadPool(3)
+        try {
+            val first = executor.submit<ByteArray?> { fileResourceProvider.fetchFile(url) }
+            assertTrue(downloadStarted.await(5, TimeUnit.SECONDS))
+            val others = List(2) { executor.submit<ByteArray?> { fileResourceProvider.fetchFile(url) } }
+            // give the other callers time to join the in-flight download
+            Thread.sleep(100)
+            releaseDownload.countDown()
+
+            assertEquals(bytes, first.get(5, TimeUnit.SECONDS))
+            others.forEach { assertEquals(bytes, it.get(5, TimeUnit.SECONDS)) }
+        } finally {
+            executor.shutdownNow()
+        }
+        verify(exactly = 1) { mockFileFetchApi.makeApiCallForFile(any()) }
+        verify(exactly = 1) { mockFileMAO.saveDiskMemory(url, any()) }
+    }
+
+    @Test
+    fun `fetchFile streams the download to disk and reads it back when streaming is enabled`() {
+        val url = "https://example.com/document.pdf"
+        val bytes = byteArrayOf(4, 5, 6)
+        val savedFile = File.createTempFile("ct_test", ".pdf").apply { deleteOnExit() }
+        val streamingProvider = FileResourceProvider(
+            images = mockk(relaxed = true),
+            gifs = mockk(relaxed = true),
+            allFileTypesDir = mockk(relaxed = true),
+            logger = mockLogger,
+            inAppRemoteSource = mockFileFetchApi,
+            ctCaches = mockk(relaxed = true),
+            imageMAO = mockImageMAO,
+            gifMAO = mockGifMAO,
+            fileMAO = mockFileMAO,
+            streamToDisk = true
+        )
+        mapOfMAO[FILES]!!.forEach {
+            every { it.fetchInMemoryAndTransform(url, MemoryDataTransformationType.ToByteArray) } returns null
+            every { it.fetchDiskMemoryAndTransform(url, MemoryDataTransformationType.ToByteArray) } returns null
+        }
+        every { mockFileFetchApi.makeApiCallForFileToDisk(Pair(url, FILES), any()) } answers {
+            val sink = secondArg<(InputStream, Long) -> File>()
+            DownloadedBitmapFactory.successFile(0L, sink(ByteArrayInputStream(bytes), bytes.size.toLong()))
+        }
+        every { mockFileMAO.saveDiskMemory(url, any<InputStream>(), 3L) } answers {
+            savedFile.writeBytes(secondArg<InputStream>().readBytes())
+            savedFile
+        }
+        every { mockFileMAO.saveInMemory(url, any()) } returns true
+
+        val result = streamingProvider.fetchFile(url)
+
+        assertTrue(bytes.contentEquals(result))
+        verify(exactly = 0) { mockFileFetchApi.makeApiCallForFile(any()) }
+        verify { mockFileMAO.saveInMemory(url, match { it.first.contentEquals(bytes) && it.second == savedFile }) }
+    }
+
+    @Test
+    fun `fetchFile returns null when the streamed download fails`() {
+        val url = "https://example.com/document.pdf"
+        val streamingProvider = FileResourceProvider(
+            images = mockk(relaxed = true),
+            gifs = mockk(relaxed = true),
+            allFileTypesDir = mockk(relaxed = true),
+            logger = mockLogger,
+            inAppRemoteSource = mockFileFetchApi,
+            ctCaches = mockk(relaxed = true),
+            imageMAO = mockImageMAO,
+            gifMAO = mockGifMAO,
+            fileMAO = mockFileMAO,
+            streamToDisk = true
+        )
+        mapOfMAO[FILES]!!.forEach {
+            every { it.fetchInMemoryAndTransform(url, MemoryDataTransformationType.ToByteArray) } returns null
+            every { it.fetchDiskMemoryAndTransform(url, MemoryDataTransformationType.ToByteArray) } returns null
+        }
+        every { mockFileFetchApi.makeApiCallForFileToDisk(Pair(url, FILES), any()) } returns
+                DownloadedBitmapFactory.nullBitmapWithStatus(DownloadedBitmap.Status.DOWNLOAD_FAILED)
+
+        assertNull(streamingProvider.fetchFile(url))
+        verify(exactly = 0) { mockFileMAO.saveInMemory(any(), any()) }
+    }
+
+    @Test
+    fun `cachedInAppImageV1 with target size returns the in-memory bitmap of that size`() {
+        val url = "https://example.com/image.jpg"
+        val targetSize = ImageTargetSize(1080, 1920)
+        val mockBitmap = mockk<Bitmap>()
+        every { mockImageMAO.fetchInMemory(targetSize.cacheKey(url)) } returns Pair(mockBitmap, mockk())
+
+        assertEquals(mockBitmap, fileResourceProvider.cachedInAppImageV1(url, targetSize))
+        assertNull(fileResourceProvider.cachedInAppImageV1(url, ImageTargetSize(720, 1280)))
+    }
+
+    private fun cacheImageVariant(url: String, targetSize: ImageTargetSize) {
+        val file = mockk<File>()
+        every { mockImageMAO.fetchDiskMemory(url) } returns file
+        every { SampledBitmapDecoder.decodeFile(file, targetSize) } returns mockk()
+        fileResourceProvider.cachedInAppImageV1(url, targetSize)
+    }
+
+    private fun stubRemovals() {
+        mapOfMAO.values.flatten().forEach { mao ->
+            every { mao.removeInMemory(any()) } returns null
+            every { mao.removeDiskMemory(any()) } returns false
+        }
+    }
+
+    @Test
+    fun `deleteData removes the bitmaps decoded for target sizes`() {
+        mockkObject(SampledBitmapDecoder)
+        try {
+            val url = "https://example.com/image.jpg"
+            val targetSize = ImageTargetSize(1080, 1920)
+            every { mockImageMAO.saveInMemory(any(), any()) } returns true
+            cacheImageVariant(url, targetSize)
+            stubRemovals()
+
+            fileResourceProvider.deleteData(url)
+
+            verify { mockImageMAO.removeInMemory(targetSize.cacheKey(url)) }
+            verify { mockImageMAO.removeInMemory(url) }
+        } finally {
+            unmockkObject(SampledBitmapDecoder)
+        }
+    }
+
+    @Test
+    fun `bitmaps for target sizes are tracked only once they are cached`() {
+        val url = "https://example.com/image.jpg"
+        val targetSize = ImageTargetSize(1080, 1920)
+        assertNull(fileResourceProvider.cachedInAppImageV1(url, targetSize))
+        stubRemovals()
+
+        fileResourceProvider.deleteData(url)
+
+        verify(exactly = 0) { mockImageMAO.removeInMemory(targetSize.cacheKey(url)) }
+    }
+
+    @Test
+    fun `bitmaps of the least recently used url are dropped past the tracked url limit`() {
+        mockkObject(SampledBitmapDecoder)
+        try {
+            val targetSize = ImageTargetSize(1080, 1920)
+            every { mockImageMAO.saveInMemory(any(), any()) } returns true
+            stubRemovals()
+
+            repeat(FileResourceProvider.MAX_TRACKED_IMAGE_URLS + 1) {
+                cacheImageVariant("https://example.com/image$it.jpg", targetSize)
+            }
+
+            verify(exactly = 1) { mockImageMAO.removeInMemory(targetSize.cacheKey("https://example.com/image0.jpg")) }
+            verify(exactly = 0) { mockImageMAO.removeInMemory(targetSize.cacheKey("https://example.com/image1.jpg")) }
+        } finally {
+            unmockkObject(SampledBitmapDecoder)
+        }
+    }
+}
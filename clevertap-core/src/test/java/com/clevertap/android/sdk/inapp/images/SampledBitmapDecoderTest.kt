@@ -0,0 +1,39 @@
+package com.clevertap.android.sdk.inapp.images
+
+import org.junit.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNotEquals
+
+class SampledBitmapDecoderTest {
+
+    @Test
+    fun `calculateInSampleSize keeps images not larger than the target at full size`() {
+        assertEquals(1, SampledBitmapDecoder.calculateInSampleSize(800, 600, 1080, 1920))
+        assertEquals(1, SampledBitmapDecoder.calculateInSampleSize(1080, 1920, 1080, 1920))
+    }
+
+    @Test
+    fun `calculateInSampleSize picks the largest power of two covering both dimensions`() {
+        assertEquals(2, SampledBitmapDecoder.calculateInSampleSize(2160, 3840, 1080, 1920))
+        assertEquals(2, SampledBitmapDecoder.calculateInSampleSize(3000, 4000, 1080, 1920))
+        assertEquals(4, SampledBitmapDecoder.calculateInSampleSize(4320, 7680, 1080, 1920))
+        assertEquals(1, SampledBitmapDecoder.calculateInSampleSize(4000, 1000, 1080, 1920))
+    }
+
+    @Test
+    fun `calculateInSampleSize ignores invalid targets`() {
+        assertEquals(1, SampledBitmapDecoder.calculateInSampleSize(4000, 4000, 0, 1920))
+        assertEquals(1, SampledBitmapDecoder.calculateInSampleSize(4000, 4000, 1080, -1))
+    }
+
+    @Test
+    fun `cacheKey is unique per url size and config`() {
+        val url = "https://example.com/image.jpg"
+        val size = ImageTargetSize(1080, 1920)
+
+        assertEquals(size.cacheKey(url), ImageTargetSize(1080, 1920).cacheKey(url))
+        assertNotEquals(size.cacheKey(url), url)
+        assertNotEquals(size.cacheKey(url), ImageTargetSize(1920, 1080).cacheKey(url))
+        assertNotEquals(size.cacheKey(url), ImageTargetSize(1080, 1920, allowRgb565 = true).cacheKey(url))
+    }
+}
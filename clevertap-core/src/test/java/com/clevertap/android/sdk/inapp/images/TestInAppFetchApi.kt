@@ -3,6 +3,9 @@ package com.clevertap.android.sdk.inapp.images
 import android.graphics.Bitmap
 import com.clevertap.android.sdk.inapp.data.CtCacheType
 import com.clevertap.android.sdk.network.DownloadedBitmap
+import com.clevertap.android.sdk.network.DownloadedBitmapFactory
+import java.io.File
+import java.io.InputStream
 
 class TestInAppFetchApi(
     private val bitmap: Bitmap?,
@@ -27,4 +30,16 @@ class TestInAppFetchApi(
             bytes = bytes,
         )
     }
+
+    override fun makeApiCallForFileToDisk(
+        urlMeta: Pair<String, CtCacheType>,
+        sink: (source: InputStream, expectedLength: Long) -> File
+    ): DownloadedBitmap {
+        val downloaded = makeApiCallForFile(urlMeta)
+        val bytes = downloaded.bytes
+        if (status != DownloadedBitmap.Status.SUCCESS || bytes == null) {
+            return downloaded
+        }
+        return DownloadedBitmapFactory.successFile(downloadTime, sink(bytes.inputStream(), bytes.size.toLong()))
+    }
 }
\ No newline at end of file
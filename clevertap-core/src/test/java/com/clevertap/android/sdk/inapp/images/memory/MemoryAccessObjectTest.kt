@@ -0,0 +1,52 @@
+package com.clevertap.android.sdk.inapp.images.memory
+
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+import java.io.IOException
+import kotlin.test.assertContentEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertFalse
+
+class MemoryAccessObjectTest {
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private val key = "test_key"
+
+    /**
+     * Only implements the byte array save, the stream save under test is the interface default.
+     */
+    private inner class DiskOnlyMemoryAccessObject : MemoryAccessObject<ByteArray> {
+        override fun fetchInMemory(key: String): Pair<ByteArray, File>? = null
+        override fun <A> fetchInMemoryAndTransform(key: String, transformTo: MemoryDataTransformationType<A>): A? = null
+        override fun <A> fetchDiskMemoryAndTransform(key: String, transformTo: MemoryDataTransformationType<A>): A? = null
+        override fun fetchDiskMemory(key: String): File? = File(folder.root, key).takeIf { it.exists() }
+        override fun saveInMemory(key: String, data: Pair<ByteArray, File>): Boolean = false
+        override fun saveDiskMemory(key: String, data: ByteArray): File =
+            File(folder.root, key).apply { writeBytes(data) }
+        override fun removeDiskMemory(key: String): Boolean = File(folder.root, key).delete()
+        override fun removeInMemory(key: String): Pair<ByteArray, File>? = null
+    }
+
+    @Test
+    fun `default stream save copies the source into the saved file`() {
+        val bytes = ByteArray(64 * 1024) { it.toByte() }
+
+        val file = DiskOnlyMemoryAccessObject().saveDiskMemory(key, bytes.inputStream(), bytes.size.toLong())
+
+        assertContentEquals(bytes, file.readBytes())
+    }
+
+    @Test
+    fun `default stream save removes the file when the source is shorter than expected`() {
+        val memoryAccessObject = DiskOnlyMemoryAccessObject()
+
+        assertFailsWith<IOException> {
+            memoryAccessObject.saveDiskMemory(key, byteArrayOf(1, 2, 3).inputStream(), 10L)
+        }
+        assertFalse(File(folder.root, key).exists())
+    }
+}
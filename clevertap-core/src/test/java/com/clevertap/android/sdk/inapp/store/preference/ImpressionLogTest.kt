@@ -0,0 +1,120 @@
+package com.clevertap.android.sdk.inapp.store.preference
+
+import org.junit.*
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertTrue
+
+class ImpressionLogTest {
+
+    private fun logOf(vararg timestamps: Long, initialCapacity: Int = 2): ImpressionLog {
+        val log = ImpressionLog(initialCapacity)
+        timestamps.forEach { log.add(it) }
+        return log
+    }
+
+    @Test
+    fun `add grows past initial capacity and keeps order`() {
+        // Act
+        val log = logOf(1, 2, 3, 4, 5)
+
+        // Assert
+        assertEquals(listOf(1L, 2L, 3L, 4L, 5L), log.snapshot())
+    }
+
+    @Test
+    fun `add keeps log sorted for out of order timestamps`() {
+        // Act
+        val log = logOf(1, 5, 3, 7)
+
+        // Assert
+        assertEquals(listOf(1L, 3L, 5L, 7L), log.snapshot())
+    }
+
+    @Test
+    fun `countSince counts timestamps at or after start`() {
+        // Arrange
+        val log = logOf(1, 1, 3, 5, 7, 9)
+
+        // Assert
+        assertEquals(6, log.countSince(0))
+        assertEquals(6, log.countSince(1))
+        assertEquals(4, log.countSince(2))
+        assertEquals(1, log.countSince(9))
+        assertEquals(0, log.countSince(10))
+    }
+
+    @Test
+    fun `trim keeps latest maxCount timestamps`() {
+        // Arrange
+        val log = logOf(1, 2, 3, 4, 5)
+
+        // Act
+        val trimmed = log.trim(ImpressionRetention(maxCount = 2), now = 5)
+
+        // Assert
+        assertTrue(trimmed)
+        assertEquals(listOf(4L, 5L), log.snapshot())
+    }
+
+    @Test
+    fun `trim drops timestamps older than maxAgeSeconds`() {
+        // Arrange
+        val log = logOf(10, 20, 30, 40)
+
+        // Act
+        val trimmed = log.trim(ImpressionRetention(maxCount = 10, maxAgeSeconds = 15), now = 45)
+
+        // Assert
+        assertTrue(trimmed)
+        assertEquals(listOf(30L, 40L), log.snapshot())
+    }
+
+    @Test
+    fun `trim keeps all timestamps within retention`() {
+        // Arrange
+        val log = logOf(10, 20)
+
+        // Act
+        val trimmed = log.trim(ImpressionRetention(maxCount = 2, maxAgeSeconds = 100), now = 20)
+
+        // Assert
+        assertFalse(trimmed)
+        assertEquals(listOf(10L, 20L), log.snapshot())
+    }
+
+    @Test
+    fun `add after trim wraps around the buffer`() {
+        // Arrange
+        val log = logOf(1, 2, 3, 4)
+        log.trim(ImpressionRetention(maxCount = 1), now = 4)
+
+        // Act
+        listOf(5L, 6L, 7L, 8L, 9L).forEach { log.add(it) }
+
+        // Assert
+        assertEquals(listOf(4L, 5L, 6L, 7L, 8L, 9L), log.snapshot())
+        assertEquals(3, log.countSince(7))
+    }
+
+    @Test
+    fun `serialize and fromSerialized round trip`() {
+        // Arrange
+        val log = logOf(123, 456, 789)
+
+        // Act
+        val restored = ImpressionLog.fromSerialized(log.serialize())
+
+        // Assert
+        assertEquals("123,456,789", log.serialize())
+        assertEquals(listOf(123L, 456L, 789L), restored.snapshot())
+    }
+
+    @Test
+    fun `fromSerialized skips invalid values`() {
+        // Assert
+        assertEquals(listOf(), ImpressionLog.fromSerialized("").snapshot())
+        assertEquals(listOf(), ImpressionLog.fromSerialized(null).snapshot())
+        assertEquals(listOf(1L, 3L), ImpressionLog.fromSerialized("1,x,3").snapshot())
+    }
+}
@@ -33,7 +33,7 @@ class ImpressionStoreTest {
     @Test
     fun `read returns list of impressions`() {
         // Arrange
-        every { ctPreference.readString(any(), any()) } returns "123,456,789"
+        every { ctPreference.readString("__impressions_campaign456", any()) } returns "123,456,789"
 
         // Act
         val result = impressionStore.read("campaign456")
@@ -55,16 +55,20 @@ class ImpressionStoreTest {
     }
 
     @Test
-    fun `write adds timestamp to the list of impressions`() {
+    fun `write appends timestamp to the pending impressions`() {
         // Arrange
-        every { ctPreference.readString(any(), any()) } returns "123,456"
+        every { ctPreference.readString("__impressions_campaign789", any()) } returns "123,456"
         every { ctPreference.writeString(any(), any()) } just Runs
 
         // Act
         impressionStore.write("campaign789", 987L)
+        impressionStore.write("campaign789", 988L)
 
         // Assert
-        verify { ctPreference.writeString("__impressions_campaign789", "123,456,987") }
+        verify { ctPreference.writeString("__pending_impressions_campaign789", "987") }
+        verify { ctPreference.writeString("__pending_impressions_campaign789", "987,988") }
+        verify(exactly = 0) { ctPreference.writeString("__impressions_campaign789", any()) }
+        assertEquals(listOf(123L, 456L, 987L, 988L), impressionStore.read("campaign789"))
     }
 
     @Test
@@ -77,7 +81,83 @@ class ImpressionStoreTest {
         impressionStore.write("campaign789", 987L)
 
         // Assert
-        verify { ctPreference.writeString("__impressions_campaign789", "987") }
+        verify { ctPreference.writeString("__pending_impressions_campaign789", "987") }
+        assertEquals(listOf(987L), impressionStore.read("campaign789"))
+    }
+
+    @Test
+    fun `pending impressions are merged with stored impressions on load`() {
+        // Arrange
+        every { ctPreference.readString("__impressions_campaign789", any()) } returns "100,200"
+        every { ctPreference.readString("__pending_impressions_campaign789", any()) } returns "300,400"
+
+        // Act
+        impressionStore.write("campaign789", 500L)
+
+        // Assert
+        verify { ctPreference.writeString("__pending_impressions_campaign789", "300,400,500") }
+        assertEquals(listOf(100L, 200L, 300L, 400L, 500L), impressionStore.read("campaign789"))
+    }
+
+    @Test
+    fun `write compacts impressions after the compaction threshold`() {
+        // Arrange
+        every { ctPreference.readString(any(), any()) } returns ""
+        val timestamps = (1..ImpressionStore.COMPACTION_THRESHOLD).map { it.toLong() }
+
+        // Act
+        timestamps.forEach { impressionStore.write("campaign789", it) }
+        impressionStore.write("campaign789", 100L)
+
+        // Assert
+        verify(exactly = 1) { ctPreference.writeString("__impressions_campaign789", timestamps.joinToString(",")) }
+        verify(exactly = 1) { ctPreference.remove("__pending_impressions_campaign789") }
+        verify { ctPreference.writeString("__pending_impressions_campaign789", "100") }
+    }
+
+    @Test
+    fun `compaction writes impressions trimmed to the retention`() {
+        // Arrange
+        every { ctPreference.readString("__impressions_campaign789", any()) } returns "100,200,300"
+        every { ctPreference.readString("__pending_impressions_campaign789", any()) } returns
+                (1 until ImpressionStore.COMPACTION_THRESHOLD).joinToString(",") { "300" }
+        impressionStore.setRetention("campaign789", ImpressionRetention(maxCount = 3, maxAgeSeconds = 250))
+
+        // Act
+        impressionStore.write("campaign789", 400L)
+
+        // Assert
+        verify { ctPreference.writeString("__impressions_campaign789", "300,300,400") }
+        verify { ctPreference.remove("__pending_impressions_campaign789") }
+        assertEquals(listOf(300L, 300L, 400L), impressionStore.read("campaign789"))
+    }
+
+    @Test
+    fun `write trims impressions outside of retention`() {
+        // Arrange
+        every { ctPreference.readString("__impressions_campaign789", any()) } returns "100,200,300"
+        impressionStore.setRetention("campaign789", ImpressionRetention(maxCount = 3, maxAgeSeconds = 250))
+
+        // Act
+        impressionStore.write("campaign789", 400L)
+
+        // Assert
+        assertEquals(listOf(200L, 300L, 400L), impressionStore.read("campaign789"))
+    }
+
+    @Test
+    fun `impressions are read from preferences once`() {
+        // Arrange
+        every { ctPreference.readString("__impressions_campaign123", any()) } returns "123,456"
+
+        // Act
+        impressionStore.read("campaign123")
+        impressionStore.write("campaign123", 789L)
+        val count = impressionStore.countSince("campaign123", 400L)
+
+        // Assert
+        assertEquals(2, count)
+        verify(exactly = 1) { ctPreference.readString("__impressions_campaign123", any()) }
     }
 
     @Test
@@ -90,6 +170,7 @@ class ImpressionStoreTest {
 
         // Assert
         verify { ctPreference.remove("__impressions_campaign123") }
+        verify { ctPreference.remove("__pending_impressions_campaign123") }
     }
 
     @Test
@@ -386,6 +386,23 @@ class InAppStoreTest {
         verify { ctPreference.changePreferenceName(newPrefName) }
     }
 
+    @Test
+    fun `onChangeUser drops cached in-apps of the previous user`() {
+        // Arrange
+        val previousUserInApps = JSONArray("[{\"id\":1}]").toList<JSONObject>()
+        val newUserInApps = JSONArray("[{\"id\":2}]").toList<JSONObject>()
+        every { cryptHandler.encrypt(any()) } returns "encryptedString"
+        inAppStore.storeClientSideInApps(previousUserInApps)
+        every { ctPreference.readString(Constants.PREFS_INAPP_KEY_CS, any()) } returns "newUserEncrypted"
+        every { cryptHandler.decrypt("newUserEncrypted") } returns newUserInApps.toString()
+
+        // Act
+        inAppStore.onChangeUser("deviceId123", "accountId456")
+
+        // Assert
+        assertEquals(newUserInApps.toString(), inAppStore.readClientSideInApps().toString())
+    }
+
     @Test
     fun `readEvaluatedServerSideInAppIds returns data correctly from current format`() {
         // Arrange
@@ -20,6 +20,8 @@ import org.junit.Before
 import org.junit.Test
 import kotlin.test.assertEquals
 import kotlin.test.assertFalse
+import kotlin.test.assertNotSame
+import kotlin.test.assertSame
 import kotlin.test.assertTrue
 
 
@@ -42,6 +44,7 @@ class CTInboxControllerTest : BaseTestCase() {
         ctLockManager = mockk(relaxed = true)
         callbackManager = mockk(relaxed = true)
         inboxDeleteCoordinator = mockk(relaxed = true)
+        every { dbAdapter.upsertMessages(any()) } answers { firstArg() }
 
         val messageDAOList =
             arrayListOf(getCtMsgDao("msg_1", userId, false), getCtMsgDao("msg_2", userId, false))
@@ -327,6 +330,38 @@ class CTInboxControllerTest : BaseTestCase() {
         assertTrue(updated)
     }
 
+    @Test
+    fun `processV2Response keeps only the messages the DB wrote in memory`() {
+        every { dbAdapter.getMessages(userId) } returns arrayListOf()
+        every { dbAdapter.upsertMessages(any()) } answers { firstArg<List<CTMessageDAO>>().filter { it.id == "m1" } }
+        controller = CTInboxController(
+            cleverTapInstanceConfig, userId, dbAdapter, ctLockManager, callbackManager, videoSupported,
+            inboxDeleteCoordinator
+        )
+
+        val updated = controller.processV2Response(
+            listOf(getCtMsgDao("m1", userId), getCtMsgDao("m2", userId)), InboxV2DeliverySource.A1
+        )
+
+        assertTrue(updated)
+        assertEquals(listOf("m1"), controller.messages.map { it.id })
+    }
+
+    @Test
+    fun `processV2Response returns false when the DB wrote nothing`() {
+        every { dbAdapter.getMessages(userId) } returns arrayListOf()
+        every { dbAdapter.upsertMessages(any()) } returns emptyList()
+        controller = CTInboxController(
+            cleverTapInstanceConfig, userId, dbAdapter, ctLockManager, callbackManager, videoSupported,
+            inboxDeleteCoordinator
+        )
+
+        val updated = controller.processV2Response(listOf(getCtMsgDao("m1", userId)), InboxV2DeliverySource.A1)
+
+        assertFalse(updated)
+        assertTrue(controller.messages.isEmpty())
+    }
+
     @Test
     fun `processV2Response does not notify callback manager itself`() {
         every { dbAdapter.getMessages(userId) } returns arrayListOf()
@@ -937,6 +972,216 @@ class CTInboxControllerTest : BaseTestCase() {
         assertFalse(controller.isV2Message(null))
     }
 
+    @Test
+    fun `getInboxMessages returns copies of messages built once until they change`() {
+        controller = CTInboxController(
+            cleverTapInstanceConfig, userId, dbAdapter, ctLockManager, callbackManager, videoSupported,
+            inboxDeleteCoordinator
+        )
+
+        mockkStatic(CTExecutorFactory::class) {
+            every { CTExecutorFactory.executors(any()) } returns MockCTExecutors(cleverTapInstanceConfig)
+
+            val first = controller.inboxMessages
+            val second = controller.inboxMessages
+            assertEquals(listOf("msg_1", "msg_2"), first.map { it.messageId })
+            assertNotSame(first[0], second[0])
+            assertSame(first[0].data, second[0].data)
+            assertSame(first[1].data, controller.getInboxMessageForId("msg_2").data)
+
+            // the inbox UI marks its own copy read before the controller does
+            first[0].setRead(true)
+            assertFalse(controller.getInboxMessageForId("msg_1").isRead)
+
+            controller._markReadForMessageWithId("msg_1")
+
+            val afterRead = controller.inboxMessages
+            assertNotSame(first[0].data, afterRead[0].data)
+            assertTrue(afterRead[0].isRead)
+            assertSame(first[1].data, afterRead[1].data)
+        }
+    }
+
+    @Test
+    fun `unreadCount and tagCount follow reads and deletes`() {
+        every { dbAdapter.getMessages(userId) } returns arrayListOf(
+            getCtMsgDao("m1", userId, tags = listOf("Offers")),
+            getCtMsgDao("m2", userId, tags = listOf("offers", "news")),
+            getCtMsgDao("m3", userId, read = true)
+        )
+        controller = CTInboxController(
+            cleverTapInstanceConfig, userId, dbAdapter, ctLockManager, callbackManager, videoSupported,
+            inboxDeleteCoordinator
+        )
+
+        mockkStatic(CTExecutorFactory::class) {
+            every { CTExecutorFactory.executors(any()) } returns MockCTExecutors(cleverTapInstanceConfig)
+
+            assertEquals(3, controller.count())
+            assertEquals(2, controller.unreadCount())
+            assertEquals(2, controller.tagCount("OFFERS"))
+            assertEquals(1, controller.tagCount("news"))
+            assertEquals(listOf("m1", "m2"), controller.unreadInboxMessages.map { it.messageId })
+
+            controller._markReadForMessagesWithIds(arrayListOf("m1", "m1", "unknown"))
+            assertEquals(1, controller.unreadCount())
+
+            controller._deleteMessageWithId("m2")
+            assertEquals(2, controller.count())
+            assertEquals(0, controller.unreadCount())
+            assertEquals(1, controller.tagCount("offers"))
+            assertEquals(0, controller.tagCount("news"))
+            assertFalse(controller.isV2Message("m2"))
+        }
+    }
+
+    @Test
+    fun `merging a V2 response keeps the built messages of unchanged rows`() {
+        controller = CTInboxController(
+            cleverTapInstanceConfig, userId, dbAdapter, ctLockManager, callbackManager, videoSupported,
+            inboxDeleteCoordinator
+        )
+        val before = controller.inboxMessages
+        val unchanged = getCtMsgDao("msg_1", userId, false).also {
+            it.date = controller.messages[0].date
+            it.expires = controller.messages[0].expires
+        }
+        val changed = getCtMsgDao("msg_2", userId, read = true).also {
+            it.date = controller.messages[1].date
+            it.expires = controller.messages[1].expires
+        }
+
+        controller.processV2Response(listOf(unchanged, changed), InboxV2DeliverySource.A1)
+
+        val after = controller.inboxMessages
+        assertSame(before[0].data, after[0].data)
+        assertNotSame(before[1].data, after[1].data)
+        assertEquals(1, controller.unreadCount())
+    }
+
+    @Test
+    fun `processV2Response merges the response into memory without re-reading the inbox`() {
+        val kept = getCtMsgDao("m1", userId, date = 100L, source = InboxMessageSource.V2)
+        val swept = getCtMsgDao("m2", userId, date = 200L, source = InboxMessageSource.V2)
+        val untouched = getCtMsgDao("m3", userId, date = 50L)
+        every { dbAdapter.getMessages(userId) } returns arrayListOf(swept, kept, untouched)
+        every { dbAdapter.findSweepableV2Ids(userId, any()) } returns mutableSetOf("m1", "m2")
+        controller = CTInboxController(
+            cleverTapInstanceConfig, userId, dbAdapter, ctLockManager, callbackManager, videoSupported,
+            inboxDeleteCoordinator
+        )
+
+        val updatedKept = getCtMsgDao("m1", userId, read = true, date = 100L, source = InboxMessageSource.V2)
+        val inserted = getCtMsgDao("m4", userId, date = 300L, source = InboxMessageSource.V2)
+        val updated = controller.processV2Response(listOf(updatedKept, inserted), InboxV2DeliverySource.FETCH)
+
+        assertTrue(updated)
+        verify(exactly = 1) { dbAdapter.getMessages(userId) }
+        assertEquals(listOf("m4", "m1", "m3"), controller.messages.map { it.id })
+        assertSame(updatedKept, controller.getMessageForId("m1"))
+        assertEquals(InboxIndexState.INDEXED, controller.getMessageForId("m1").indexState)
+        assertEquals(InboxIndexState.INDEXED, controller.getMessageForId("m4").indexState)
+        assertSame(untouched, controller.getMessageForId("m3"))
+        assertEquals(2, controller.unreadCount())
+    }
+
+    @Test
+    fun `processV2Response(A1) keeps the index state of existing rows`() {
+        val existing = getCtMsgDao("m1", userId, source = InboxMessageSource.V2).also {
+            it.indexState = InboxIndexState.INDEXED
+        }
+        every { dbAdapter.getMessages(userId) } returns arrayListOf(existing)
+        controller = CTInboxController(
+            cleverTapInstanceConfig, userId, dbAdapter, ctLockManager, callbackManager, videoSupported,
+            inboxDeleteCoordinator
+        )
+
+        controller.processV2Response(
+            listOf(getCtMsgDao("m1", userId, source = InboxMessageSource.V2)),
+            InboxV2DeliverySource.A1
+        )
+
+        assertEquals(InboxIndexState.INDEXED, controller.getMessageForId("m1").indexState)
+    }
+
+    @Test
+    fun `getInboxMessagesPage returns the rows of the page with the in-memory state`() {
+        controller = CTInboxController(
+            cleverTapInstanceConfig, userId, dbAdapter, ctLockManager, callbackManager, videoSupported,
+            inboxDeleteCoordinator
+        )
+        val request = InboxPageRequest(pageSize = 2, unreadOnly = true)
+        val rows = arrayListOf(
+            getCtMsgDao("msg_1", userId, date = 300L),
+            getCtMsgDao("msg_2", userId, date = 200L),
+            getCtMsgDao("msg_3", userId, date = 100L)
+        )
+        every { dbAdapter.getMessagesPage(userId, request, any(), 3) } returns rows
+
+        mockkStatic(CTExecutorFactory::class) {
+            every { CTExecutorFactory.executors(any()) } returns MockCTExecutors(cleverTapInstanceConfig)
+            val built = controller.getInboxMessageForId("msg_1")
+
+            val page = controller.getInboxMessagesPage(request)
+
+            assertEquals(listOf("msg_1", "msg_2"), page.messages.map { it.messageId })
+            assertSame(built.data, page.messages[0].data)
+            assertEquals(InboxPageCursor(200L, "msg_2"), page.nextCursor)
+            assertEquals(InboxPageRequest(2, InboxPageCursor(200L, "msg_2"), null, true), request.next(page))
+        }
+    }
+
+    @Test
+    fun `getInboxMessagesPage fills the page with the following rows when rows are left out`() {
+        val msg1 = getCtMsgDao("msg_1", userId, date = 400L)
+        val deleted = getCtMsgDao("deleted", userId, date = 300L)
+        val read = getCtMsgDao("read", userId, date = 200L)
+        val msg2 = getCtMsgDao("msg_2", userId, date = 100L)
+        every { dbAdapter.getMessages(userId) } returns arrayListOf(msg1, read, msg2)
+        controller = CTInboxController(
+            cleverTapInstanceConfig, userId, dbAdapter, ctLockManager, callbackManager, videoSupported,
+            inboxDeleteCoordinator
+        )
+        val request = InboxPageRequest(pageSize = 2, unreadOnly = true)
+        every { dbAdapter.getMessagesPage(userId, request, any(), 3) } returns arrayListOf(msg1, deleted, read)
+        every {
+            dbAdapter.getMessagesPage(userId, request.copy(cursor = InboxPageCursor(300L, "deleted")), any(), 2)
+        } returns arrayListOf(read, msg2)
+        every {
+            dbAdapter.getMessagesPage(userId, request.copy(cursor = InboxPageCursor(200L, "read")), any(), 2)
+        } returns arrayListOf(msg2)
+
+        mockkStatic(CTExecutorFactory::class) {
+            every { CTExecutorFactory.executors(any()) } returns MockCTExecutors(cleverTapInstanceConfig)
+            // read locally, the database row is still unread
+            controller._markReadForMessageWithId("read")
+
+            val page = controller.getInboxMessagesPage(request)
+
+            assertEquals(listOf("msg_1", "msg_2"), page.messages.map { it.messageId })
+            // no rows are left after msg_2
+            assertEquals(null, page.nextCursor)
+        }
+    }
+
+    @Test
+    fun `getInboxMessagesPage returns an empty last page when all remaining rows are left out`() {
+        controller = CTInboxController(
+            cleverTapInstanceConfig, userId, dbAdapter, ctLockManager, callbackManager, videoSupported,
+            inboxDeleteCoordinator
+        )
+        val request = InboxPageRequest(pageSize = 2)
+        every { dbAdapter.getMessagesPage(userId, request, any(), 3) } returns arrayListOf(
+            getCtMsgDao("deleted_1", userId, date = 200L),
+            getCtMsgDao("deleted_2", userId, date = 100L)
+        )
+
+        val page = controller.getInboxMessagesPage(request)
+
+        assertTrue(page.messages.isEmpty())
+        assertEquals(null, page.nextCursor)
+    }
+
     private fun getCtMsgDao(
         id: String = "1",
         userId: String = "1",
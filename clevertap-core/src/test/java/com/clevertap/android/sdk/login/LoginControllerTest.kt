@@ -33,6 +33,7 @@ import io.mockk.verifyOrder
 import org.junit.Ignore
 import org.junit.Test
 import java.util.concurrent.CountDownLatch
+import kotlin.test.assertEquals
 import kotlin.test.assertTrue
 
 class LoginControllerTest : BaseTestCase() {
@@ -78,6 +79,7 @@ class LoginControllerTest : BaseTestCase() {
         inboxV2Bridge = mockk(relaxed = true)
 
         every { controllerManager.pushProviders } returns pushProviders
+        every { baseEventQueueManager.withFlushLock(any()) } answers { firstArg<Runnable>().run() }
 
         loginInfoProvider = LoginInfoProvider(
             context, config
@@ -210,6 +212,33 @@ class LoginControllerTest : BaseTestCase() {
         verify(exactly = 0) { analyticsManager.pushProfile(any()) }
     }
 
+    @Test
+    fun `asyncProfileSwitchUser clears the queues and changes the device id under the flush lock`() {
+        var holdsFlushLock = false
+        every { baseEventQueueManager.withFlushLock(any()) } answers {
+            holdsFlushLock = true
+            try {
+                firstArg<Runnable>().run()
+            } finally {
+                holdsFlushLock = false
+            }
+        }
+        val underLock = mutableListOf<String>()
+        every { baseEventQueueManager.flushQueueSync(context, EventGroup.REGULAR, null, true) } answers {
+            if (holdsFlushLock) underLock.add("flush")
+        }
+        every { dbManager.clearQueues(context) } answers { if (holdsFlushLock) underLock.add("clearQueues") }
+        every { deviceInfo.forceUpdateDeviceId("12345") } answers { if (holdsFlushLock) underLock.add("deviceId") }
+
+        mockkStatic(CTExecutorFactory::class) {
+            every { CTExecutorFactory.executors(any()) } returns MockCTExecutors(cleverTapInstanceConfig)
+
+            loginController.asyncProfileSwitchUser(null, "12345", "54321")
+        }
+
+        assertEquals(listOf("flush", "clearQueues", "deviceId"), underLock)
+    }
+
     @Test
     fun `asyncProfileSwitchUser triggers bridge submit exactly once with respectThrottle=false`() {
         val profile = mapOf("Name" to "John Doe")
@@ -28,6 +28,7 @@ import com.clevertap.android.shared.test.BaseTestCase
 import io.mockk.every
 import io.mockk.mockk
 import io.mockk.verify
+import io.mockk.verifyOrder
 import org.json.JSONArray
 import org.json.JSONObject
 import org.junit.After
@@ -35,8 +36,14 @@ import org.junit.Before
 import org.junit.Test
 import org.junit.runner.RunWith
 import org.robolectric.RobolectricTestRunner
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
 import kotlin.test.assertEquals
 import kotlin.test.assertFalse
+import kotlin.test.assertNotEquals
+import kotlin.test.assertNotNull
 import kotlin.test.assertTrue
 
 @RunWith(RobolectricTestRunner::class)
@@ -712,6 +719,159 @@ class NetworkManagerTest : BaseTestCase() {
         verify(exactly = 0) { controllerManager.invokeCallbacksForNetworkError() }
     }
 
+    @Test
+    fun test_flushDBQueue_pipelined_shouldPrefetchNextBatchAndCleanupInOrder() {
+        // Given
+        networkManager = provideNetworkManager(pipelinedFlush = true)
+        val batch1 = createQueueData(eventCount = 50, hasMore = true)
+        val batch2 = createQueueData(eventCount = 25, hasMore = false)
+
+        every { dbManager.getQueuedEvents(any(), any(), any()) } returns batch1
+        every { dbManager.getQueuedEventsAfter(any(), any(), any(), batch1) } returns batch2
+
+        mockHttpClient.responseCode = 200
+        mockHttpClient.responseBody = JSONObject().toString()
+
+        // When
+        networkManager.flushDBQueue(appCtx, REGULAR, "test_caller", false)
+
+        // Then
+        verify(exactly = 1) { dbManager.getQueuedEvents(appCtx, 50, REGULAR) }
+        verify(exactly = 1) { dbManager.getQueuedEventsAfter(appCtx, 50, REGULAR, batch1) }
+        verifyOrder {
+            dbManager.cleanupSentEvents(appCtx, batch1.eventIds, batch1.profileEventIds)
+            dbManager.cleanupSentEvents(appCtx, batch2.eventIds, batch2.profileEventIds)
+        }
+        verify { controllerManager.invokeBatchListener(batch1.data, true) }
+        verify { controllerManager.invokeBatchListener(batch2.data, true) }
+    }
+
+    @Test
+    fun test_flushDBQueue_pipelined_networkFailure_shouldNotCleanupAnyBatch() {
+        // Given
+        networkManager = provideNetworkManager(pipelinedFlush = true)
+        val batch1 = createQueueData(eventCount = 50, hasMore = true)
+
+        every { dbManager.getQueuedEvents(any(), any(), any()) } returns batch1
+        every { dbManager.getQueuedEventsAfter(any(), any(), any(), any()) } returns createQueueData(eventCount = 10)
+
+        mockHttpClient.alwaysThrowOnExecute = true
+
+        // When
+        networkManager.flushDBQueue(appCtx, REGULAR, "test_caller", false)
+
+        // Then
+        verify(exactly = 0) { dbManager.cleanupSentEvents(any(), any(), any()) }
+        verify(exactly = 1) { controllerManager.invokeBatchListener(batch1.data, false) }
+        verify(exactly = 1) { controllerManager.invokeBatchListener(any(), any()) }
+    }
+    @Test
+    fun test_flushDBQueue_adaptiveBatchSize_shouldShrinkAfterServerError() {
+        // Given
+        networkManager = provideNetworkManager(batchSizer = QueueBatchSizer(adaptive = true) { true })
+        every { dbManager.getQueuedEvents(any(), any(), any(), any()) } returns createQueueData(eventCount = 50, hasMore = true)
+
+        mockHttpClient.responseCode = 500
+        mockHttpClient.responseBody = JSONObject().toString()
+
+        // When
+        networkManager.flushDBQueue(appCtx, REGULAR, "test_caller", false)
+        networkManager.flushDBQueue(appCtx, REGULAR, "test_caller", false)
+
+        // Then
+        verifyOrder {
+            dbManager.getQueuedEvents(appCtx, 50, REGULAR, QueueBatchSizer.DEFAULT_MAX_BYTES)
+            dbManager.getQueuedEvents(appCtx, 25, REGULAR, QueueBatchSizer.DEFAULT_MAX_BYTES / 2)
+        }
+    }
+
+    @Test
+    fun test_flushDBQueue_withResponseExecutor_shouldProcessResponseOnItBeforeCleanup() {
+        // Given
+        val responseThread = Executors.newSingleThreadExecutor()
+        networkManager = provideNetworkManager(responseExecutor = responseThread)
+        val batch = createQueueData(eventCount = 2)
+        every { dbManager.getQueuedEvents(any(), any(), any()) } returns batch
+        mockHttpClient.responseCode = 200
+        mockHttpClient.responseBody = JSONObject().toString()
+        var handledOn: Thread? = null
+        every { clevertapResponseHandler.handleResponse(any(), any(), any(), any()) } answers {
+            handledOn = Thread.currentThread()
+        }
+
+        // When
+        networkManager.runOnNetworkLane { networkManager.flushDBQueue(appCtx, REGULAR, "test_caller", false) }
+        responseThread.shutdown()
+
+        // Then
+        assertNotNull(handledOn)
+        assertNotEquals(Thread.currentThread(), handledOn)
+        verifyOrder {
+            clevertapResponseHandler.handleResponse(any(), any(), any(), any())
+            dbManager.cleanupSentEvents(appCtx, batch.eventIds, batch.profileEventIds)
+        }
+    }
+
+    @Test
+    fun test_flushDBQueue_whileAnotherFlushWaitsForItsResponse_shouldProcessTheResponseWhileWaiting() {
+        // Given the response thread is busy with the flush below, which would never run the posted response
+        networkManager = provideNetworkManager(responseExecutor = Executor { })
+        val firstBatchRead = CountDownLatch(1)
+        every { dbManager.getQueuedEvents(any(), any(), any()) } answers {
+            if (firstBatchRead.count > 0) {
+                firstBatchRead.countDown()
+                createQueueData(eventCount = 2)
+            } else {
+                QueueData()
+            }
+        }
+        mockHttpClient.responseCode = 200
+        mockHttpClient.responseBody = JSONObject().toString()
+        var handledOn: Thread? = null
+        every { clevertapResponseHandler.handleResponse(any(), any(), any(), any()) } answers {
+            handledOn = Thread.currentThread()
+        }
+        val networkLane = Thread {
+            networkManager.runOnNetworkLane { networkManager.flushDBQueue(appCtx, REGULAR, null, false) }
+        }
+
+        // When
+        networkLane.start()
+        assertTrue(firstBatchRead.await(5, TimeUnit.SECONDS))
+        networkManager.flushDBQueue(appCtx, REGULAR, null, false)
+        networkLane.join(5_000)
+
+        // Then
+        assertFalse(networkLane.isAlive)
+        assertEquals(Thread.currentThread(), handledOn)
+        verify(exactly = 1) { dbManager.cleanupSentEvents(any(), any(), any()) }
+    }
+
+    @Test
+    fun test_flushDBQueue_onNetworkLane_whileUserSwitchHoldsFlushLock_shouldWaitForIt() {
+        // Given
+        networkManager = provideNetworkManager(responseExecutor = Executor { it.run() })
+        every { dbManager.getQueuedEvents(any(), any(), any()) } returns QueueData()
+        val laneStarted = CountDownLatch(1)
+        val networkLane = Thread {
+            laneStarted.countDown()
+            networkManager.runOnNetworkLane { networkManager.flushDBQueue(appCtx, REGULAR, null, false) }
+        }
+
+        // When the queue is cleared and the device id changed under the lock
+        networkManager.withFlushLock {
+            networkLane.start()
+            assertTrue(laneStarted.await(5, TimeUnit.SECONDS))
+            networkLane.join(200)
+
+            // Then the lane only reads the queue once the switch is done
+            assertTrue(networkLane.isAlive)
+            verify(exactly = 0) { dbManager.getQueuedEvents(any(), any(), any()) }
+        }
+        networkLane.join(5_000)
+        assertFalse(networkLane.isAlive)
+        verify(exactly = 1) { dbManager.getQueuedEvents(any(), any(), any()) }
+    }
 
     private fun createQueueData(
         eventCount: Int,
@@ -747,7 +907,11 @@ class NetworkManagerTest : BaseTestCase() {
     }
 
 
-    private fun provideNetworkManager(): NetworkManager {
+    private fun provideNetworkManager(
+        pipelinedFlush: Boolean = false,
+        batchSizer: QueueBatchSizer = QueueBatchSizer(adaptive = false) { false },
+        responseExecutor: Executor? = null
+    ): NetworkManager {
         val metaData = CoreMetaData()
         val deviceInfo = MockDeviceInfo(application, cleverTapInstanceConfig, "clevertapId", metaData)
         val callbackManager = CallbackManager(cleverTapInstanceConfig, deviceInfo)
@@ -771,7 +935,11 @@ class NetworkManagerTest : BaseTestCase() {
             networkRepo = networkRepo,
             queueHeaderBuilder = queueHeaderBuilder,
             cleverTapResponseHandler = clevertapResponseHandler,
-            logger = TestLogger()
+            logger = TestLogger(),
+            pipelinedFlush = pipelinedFlush,
+            batchSizer = batchSizer,
+            prefetchExecutor = Executor { it.run() },
+            responseExecutor = responseExecutor
         )
     }
 
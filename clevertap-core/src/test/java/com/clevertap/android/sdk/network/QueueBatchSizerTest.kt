@@ -0,0 +1,84 @@
+package com.clevertap.android.sdk.network
+
+import com.clevertap.android.sdk.db.QueueData
+import com.clevertap.android.sdk.network.QueueBatchSizer.Companion.DEFAULT_BATCH_SIZE
+import com.clevertap.android.sdk.network.QueueBatchSizer.Companion.DEFAULT_MAX_BYTES
+import com.clevertap.android.sdk.network.QueueBatchSizer.Companion.MAX_BATCH_SIZE
+import com.clevertap.android.sdk.network.QueueBatchSizer.Companion.MAX_MAX_BYTES
+import com.clevertap.android.sdk.network.QueueBatchSizer.Companion.MIN_BATCH_SIZE
+import com.clevertap.android.sdk.network.QueueBatchSizer.Companion.MIN_MAX_BYTES
+import org.junit.Test
+import kotlin.test.assertEquals
+
+class QueueBatchSizerTest {
+
+    private var unmetered = true
+
+    private fun backlogBatch() = QueueData().apply { hasMore = true }
+
+    @Test
+    fun `fixed policy never changes the batch size`() {
+        val sizer = QueueBatchSizer(adaptive = false) { unmetered }
+
+        sizer.onBatchSent(backlogBatch())
+        sizer.onResponseCode(500)
+        sizer.onTimeout()
+
+        assertEquals(DEFAULT_BATCH_SIZE, sizer.batchSize)
+        assertEquals(Int.MAX_VALUE, sizer.maxBytes)
+    }
+
+    @Test
+    fun `adaptive policy grows on unmetered connection while backlog remains`() {
+        val sizer = QueueBatchSizer(adaptive = true) { unmetered }
+
+        sizer.onBatchSent(backlogBatch())
+
+        assertEquals(DEFAULT_BATCH_SIZE * 2, sizer.batchSize)
+        assertEquals(DEFAULT_MAX_BYTES * 2, sizer.maxBytes)
+    }
+
+    @Test
+    fun `adaptive policy does not grow on metered connection or without backlog`() {
+        val sizer = QueueBatchSizer(adaptive = true) { unmetered }
+
+        sizer.onBatchSent(QueueData())
+        unmetered = false
+        sizer.onBatchSent(backlogBatch())
+
+        assertEquals(DEFAULT_BATCH_SIZE, sizer.batchSize)
+        assertEquals(DEFAULT_MAX_BYTES, sizer.maxBytes)
+    }
+
+    @Test
+    fun `adaptive policy shrinks after timeout, 413 and 5xx but not after other codes`() {
+        val sizer = QueueBatchSizer(adaptive = true) { unmetered }
+
+        sizer.onResponseCode(200)
+        sizer.onResponseCode(400)
+        assertEquals(DEFAULT_BATCH_SIZE, sizer.batchSize)
+
+        sizer.onTimeout()
+        assertEquals(DEFAULT_BATCH_SIZE / 2, sizer.batchSize)
+        assertEquals(DEFAULT_MAX_BYTES / 2, sizer.maxBytes)
+
+        sizer.onResponseCode(413)
+        assertEquals(DEFAULT_BATCH_SIZE / 4, sizer.batchSize)
+
+        sizer.onResponseCode(503)
+        assertEquals(MIN_BATCH_SIZE, sizer.batchSize)
+    }
+
+    @Test
+    fun `adaptive policy stays within bounds`() {
+        val sizer = QueueBatchSizer(adaptive = true) { unmetered }
+
+        repeat(20) { sizer.onBatchSent(backlogBatch()) }
+        assertEquals(MAX_BATCH_SIZE, sizer.batchSize)
+        assertEquals(MAX_MAX_BYTES, sizer.maxBytes)
+
+        repeat(20) { sizer.onTimeout() }
+        assertEquals(MIN_BATCH_SIZE, sizer.batchSize)
+        assertEquals(MIN_MAX_BYTES, sizer.maxBytes)
+    }
+}
@@ -6,11 +6,13 @@ import org.junit.*
 import org.junit.runner.*
 import org.robolectric.RobolectricTestRunner
 import org.robolectric.annotation.Config
+import java.io.StringWriter
 import kotlin.test.assertContains
 import kotlin.test.assertEquals
 import kotlin.test.assertFalse
 import kotlin.test.assertNotEquals
 import kotlin.test.assertNull
+import kotlin.test.assertTrue
 
 @RunWith(RobolectricTestRunner::class)
 @Config(sdk = [33])
@@ -152,6 +154,31 @@ class CtApiTest {
         assertContains(urlString, "ts=${ctApi.currentRequestTimestampSeconds}")
     }
 
+    @Test
+    fun test_sendQueue_streamsBody() {
+        val body = SendQueueRequestBody(JSONObject().put("type", "meta"), JSONArray().put(JSONObject()))
+
+        val request = ctApi.sendQueue(body).request
+
+        assertNull(request.body)
+        assertEquals(body, request.streamingBody)
+        assertFalse(request.gzip)
+        assertEquals(body.toString(), StringWriter().also { request.writeBody(it) }.toString())
+
+        val impressionsRequest = ctApi.sendImpressions(body).request
+        assertEquals(body, impressionsRequest.streamingBody)
+    }
+
+    @Test
+    fun test_sendQueue_gzipWhenEnabled() {
+        val gzipCtApi = CtApiTestProvider.provideDefaultTestCtApi(gzipRequests = true)
+
+        assertTrue(gzipCtApi.sendQueue(getEmptyQueueBody()).request.gzip)
+        assertTrue(gzipCtApi.sendImpressions(getEmptyQueueBody()).request.gzip)
+        // encrypted payloads are sent as is
+        assertFalse(gzipCtApi.sendQueue(getEmptyQueueBody().toString(), isEncrypted = true).request.gzip)
+    }
+
     @Test
     fun test_sendContentFetch_attachDefaultQueryParams() {
         val request = ctApi.sendContentFetch(getEmptyContentFetchBody()).request
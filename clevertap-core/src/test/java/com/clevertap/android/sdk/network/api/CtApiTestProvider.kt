@@ -20,7 +20,7 @@ internal object CtApiTestProvider {
     const val ACCOUNT_TOKEN = "accountToken"
     const val SDK_VERSION = "x.x.x-test"
 
-    fun provideDefaultTestCtApi(): CtApi {
+    fun provideDefaultTestCtApi(gzipRequests: Boolean = false): CtApi {
 
         return CtApi(
             httpClient = MockHttpClient(),
@@ -35,7 +35,8 @@ internal object CtApiTestProvider {
             accountToken = ACCOUNT_TOKEN,
             sdkVersion = SDK_VERSION,
             logger = mockk(relaxed = true),
-            logTag = "testCtApi"
+            logTag = "testCtApi",
+            gzipRequests = gzipRequests
         )
     }
 
@@ -0,0 +1,72 @@
+package com.clevertap.android.sdk.network.api
+
+import org.json.JSONArray
+import org.json.JSONObject
+import org.junit.*
+import java.io.StringWriter
+import kotlin.test.assertEquals
+
+class SendQueueRequestBodyTest {
+
+    private fun SendQueueRequestBody.written(): String =
+        StringWriter().also { writeTo(it) }.toString()
+
+    private fun queue(): JSONArray = JSONArray()
+        .put(JSONObject().put("evtName", "Product Viewed").put("evtData", JSONObject().put("price", 10.5)))
+        .put(JSONObject().put("type", "profile").put("profile", JSONObject().put("Name", "a\"b")))
+
+    @Test
+    fun `writeTo writes the same json as toString without header`() {
+        val body = SendQueueRequestBody(null, queue())
+
+        assertEquals(body.toString(), body.written())
+    }
+
+    @Test
+    fun `writeTo writes the same json as toString with header`() {
+        val header = JSONObject().put("type", "meta").put("g", "guid")
+        val body = SendQueueRequestBody(header, queue())
+
+        assertEquals(body.toString(), body.written())
+        assertEquals("meta", JSONArray(body.written()).getJSONObject(0).getString("type"))
+    }
+
+    @Test
+    fun `writeTo writes header only for empty queue`() {
+        val header = JSONObject().put("type", "meta")
+
+        assertEquals("[{\"type\":\"meta\"}]", SendQueueRequestBody(header, JSONArray()).written())
+        assertEquals("[]", SendQueueRequestBody(null, JSONArray()).written())
+    }
+
+    @Test
+    fun `writeTo writes non object elements`() {
+        val queue = JSONArray().put("a,b").put(1).put(JSONArray().put(true))
+        val body = SendQueueRequestBody(null, queue)
+
+        assertEquals(body.toString(), body.written())
+    }
+
+    @Test
+    fun `serialized queue is written instead of serializing the queue again`() {
+        val header = JSONObject().put("type", "meta")
+        val queue = queue()
+        val serialized = List(queue.length()) { queue.getJSONObject(it).toString() }
+
+        val expected = SendQueueRequestBody(header, queue).toString()
+        // mutating the parsed queue shows the serialized text is the one written
+        queue.getJSONObject(0).put("changed", true)
+        val body = SendQueueRequestBody(header, queue, serialized)
+
+        assertEquals(expected, body.written())
+        assertEquals(expected, body.toString())
+    }
+
+    @Test
+    fun `serialized queue is ignored when it does not match the queue`() {
+        val queue = queue()
+        val body = SendQueueRequestBody(null, queue, listOf("{}"))
+
+        assertEquals(queue.toString(), body.written())
+    }
+}
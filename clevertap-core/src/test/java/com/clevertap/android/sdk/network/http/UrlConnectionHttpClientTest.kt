@@ -0,0 +1,92 @@
+package com.clevertap.android.sdk.network.http
+
+import android.net.Uri
+import com.clevertap.android.sdk.Logger
+import com.clevertap.android.sdk.network.api.CtApiTestProvider
+import com.clevertap.android.sdk.network.api.SendQueueRequestBody
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import org.json.JSONArray
+import org.json.JSONObject
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import java.io.ByteArrayOutputStream
+import java.net.HttpURLConnection
+import java.util.zip.GZIPInputStream
+import kotlin.test.assertEquals
+
+@RunWith(RobolectricTestRunner::class)
+class UrlConnectionHttpClientTest {
+
+    private val body = "[{\"evtName\":\"Product Viewed\"}]"
+    private val output = ByteArrayOutputStream()
+    private val connection = mockk<HttpURLConnection>(relaxed = true) {
+        every { outputStream } returns output
+    }
+    private val client = UrlConnectionHttpClient(false, mockk<Logger>(relaxed = true), "test")
+
+    private fun request(body: String?, streamingBody: StreamingBody?, gzip: Boolean) = Request(
+        url = Uri.parse("https://clevertap.example/a1"),
+        headers = emptyMap(),
+        body = body,
+        streamingBody = streamingBody,
+        gzip = gzip
+    )
+
+    @Test
+    fun `string bodies are sent with a fixed length`() {
+        client.writeRequestBody(connection, request(body, null, gzip = false))
+
+        verify { connection.setFixedLengthStreamingMode(body.toByteArray().size) }
+        verify(exactly = 0) { connection.setChunkedStreamingMode(any()) }
+        verify(exactly = 0) { connection.setRequestProperty(UrlConnectionHttpClient.HEADER_CONTENT_ENCODING, any()) }
+        assertEquals(body, output.toString(Charsets.UTF_8.name()))
+    }
+
+    @Test
+    fun `streamed bodies are sent with a content length when gzip is off`() {
+        client.writeRequestBody(connection, request(null, { it.write(body) }, gzip = false))
+
+        verify { connection.setFixedLengthStreamingMode(body.toByteArray().size) }
+        verify(exactly = 0) { connection.setChunkedStreamingMode(any()) }
+        assertEquals(body, output.toString(Charsets.UTF_8.name()))
+    }
+
+    @Test
+    fun `queue uploads with the default config are sent with a content length`() {
+        val queue = SendQueueRequestBody(null, JSONArray().put(JSONObject().put("evtName", "Product Viewed")))
+        val request = CtApiTestProvider.provideDefaultTestCtApi().sendQueue(queue).request
+
+        client.writeRequestBody(connection, request)
+
+        verify { connection.setFixedLengthStreamingMode(output.size()) }
+        verify(exactly = 0) { connection.setChunkedStreamingMode(any()) }
+        assertEquals(queue.toString(), output.toString(Charsets.UTF_8.name()))
+    }
+
+    @Test
+    fun `gzip bodies are sent compressed in chunks with a content encoding header`() {
+        client.writeRequestBody(connection, request(null, { it.write(body) }, gzip = true))
+
+        verify { connection.setChunkedStreamingMode(0) }
+        verify(exactly = 0) { connection.setFixedLengthStreamingMode(any<Int>()) }
+        verify {
+            connection.setRequestProperty(
+                UrlConnectionHttpClient.HEADER_CONTENT_ENCODING,
+                UrlConnectionHttpClient.CONTENT_ENCODING_GZIP
+            )
+        }
+        val unzipped = GZIPInputStream(output.toByteArray().inputStream()).reader(Charsets.UTF_8).readText()
+        assertEquals(body, unzipped)
+    }
+
+    @Test
+    fun `requests without a body do not open the output stream`() {
+        client.writeRequestBody(connection, request(null, null, gzip = false))
+
+        verify(exactly = 0) { connection.outputStream }
+        verify(exactly = 0) { connection.doOutput = true }
+    }
+}
@@ -0,0 +1,77 @@
+package com.clevertap.android.sdk.profile
+
+import com.clevertap.android.sdk.cryption.ICryptHandler
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import org.junit.*
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+
+class PiiCipherCacheTest {
+
+    private lateinit var cryptHandler: ICryptHandler
+    private lateinit var cache: PiiCipherCache
+
+    @Before
+    fun setup() {
+        cryptHandler = mockk(relaxed = true)
+        every { cryptHandler.encryptSafe(any()) } answers { "enc-" + firstArg<String>() }
+        cache = PiiCipherCache(cryptHandler)
+    }
+
+    @Test
+    fun test_encrypt_when_valueUnchanged_should_reuseCipherText() {
+        assertEquals("enc-Jack", cache.encrypt("Jack"))
+        assertEquals("enc-Jack", cache.encrypt("Jack"))
+
+        verify(exactly = 1) { cryptHandler.encryptSafe("Jack") }
+    }
+
+    @Test
+    fun test_encrypt_when_valueChanged_should_encryptTheNewValue() {
+        cache.encrypt("Jack")
+
+        assertEquals("enc-Jill", cache.encrypt("Jill"))
+        assertEquals("enc-Jack", cache.encrypt("Jack"))
+
+        verify(exactly = 1) { cryptHandler.encryptSafe("Jack") }
+        verify(exactly = 1) { cryptHandler.encryptSafe("Jill") }
+    }
+
+    @Test
+    fun test_encrypt_when_aboveLimit_should_evictTheLeastRecentlyUsedValue() {
+        cache = PiiCipherCache(cryptHandler, maxEntries = 2)
+        cache.encrypt("Jack")
+        cache.encrypt("Jill")
+        cache.encrypt("Jack")
+        cache.encrypt("John")
+
+        // Jill was used least recently
+        cache.encrypt("Jack")
+        cache.encrypt("Jill")
+
+        verify(exactly = 1) { cryptHandler.encryptSafe("Jack") }
+        verify(exactly = 2) { cryptHandler.encryptSafe("Jill") }
+    }
+
+    @Test
+    fun test_encrypt_when_encryptionFails_should_notCache() {
+        every { cryptHandler.encryptSafe("Jack") } returns null
+
+        assertNull(cache.encrypt("Jack"))
+        assertNull(cache.encrypt("Jack"))
+
+        verify(exactly = 2) { cryptHandler.encryptSafe("Jack") }
+    }
+
+    @Test
+    fun test_clear_should_encryptAgain() {
+        cache.encrypt("Jack")
+
+        cache.clear()
+        cache.encrypt("Jack")
+
+        verify(exactly = 2) { cryptHandler.encryptSafe("Jack") }
+    }
+}
@@ -0,0 +1,59 @@
+package com.clevertap.android.sdk.profile
+
+import com.clevertap.android.sdk.Constants
+import com.clevertap.android.sdk.profile.traversal.ProfileOperation
+import com.clevertap.android.sdk.utils.NestedJsonBuilder
+import io.mockk.mockk
+import org.json.JSONArray
+import org.json.JSONObject
+import org.junit.Assert.*
+import org.junit.Test
+
+class ProfileSnapshotTest {
+
+    private val profile = JSONObject().apply {
+        put("name", "Jack")
+        put("age", 30)
+        put("address", JSONObject().put("city", "Pune").put("geo", JSONObject().put("lat", 18.5)))
+        put("tags", JSONArray().put("a").put("b"))
+        put("orders", JSONArray().put(JSONObject().put("id", 1)).put(JSONObject().put("id", 2)))
+        put("matrix", JSONArray().put(JSONArray().put(1).put(2)))
+    }
+
+    @Test
+    fun `get resolves the same values as a GET traversal`() {
+        val snapshot = ProfileSnapshot.of(profile, 1)
+        val traverser = ProfileStateTraverser(mockk(relaxed = true))
+        val paths = listOf(
+            "name", "age", "address.city", "address.geo.lat", "tags[1]", "orders[1].id",
+            "matrix[0]", "matrix[0][1]", "missing", "address.missing", "tags[5]", "name.first"
+        )
+
+        paths.forEach { path ->
+            val getJson = NestedJsonBuilder().buildFromPath(path, Constants.GET_MARKER)
+            val expected = traverser.traverse(profile, getJson, ProfileOperation.GET).changes[path]?.oldValue
+            assertEquals(path, expected?.toString(), snapshot.get(path)?.toString())
+        }
+    }
+
+    @Test
+    fun `snapshot is not affected by later changes to the profile or returned values`() {
+        val snapshot = ProfileSnapshot.of(profile, 1)
+
+        profile.put("name", "Jill")
+        profile.getJSONObject("address").put("city", "Mumbai")
+        (snapshot.get("address") as JSONObject).put("city", "Delhi")
+        snapshot.toJSONObject().getJSONArray("tags").put("c")
+
+        assertEquals("Jack", snapshot.get("name"))
+        assertEquals("Pune", snapshot.get("address.city"))
+        assertEquals(2, (snapshot.get("tags") as JSONArray).length())
+    }
+
+    @Test
+    fun `empty snapshot has no properties`() {
+        assertEquals(0L, ProfileSnapshot.EMPTY.version)
+        assertNull(ProfileSnapshot.EMPTY.get("name"))
+        assertEquals(0, ProfileSnapshot.EMPTY.toJSONObject().length())
+    }
+}
@@ -0,0 +1,113 @@
+package com.clevertap.android.sdk.pushnotification
+
+import android.graphics.Bitmap
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.clevertap.android.sdk.inapp.images.FileResourceProvider
+import com.clevertap.android.sdk.inapp.store.preference.FileStore
+import com.clevertap.android.sdk.inapp.store.preference.InAppAssetsStore
+import com.clevertap.android.sdk.store.preference.CTPreference
+import com.clevertap.android.sdk.utils.Clock
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+import kotlin.test.assertSame
+
+@RunWith(AndroidJUnit4::class)
+class PushMediaCacheTest {
+
+    private val url = "https://example.com/image.png"
+    private val bitmap = mockk<Bitmap>()
+    private val bytes = byteArrayOf(1, 2, 3)
+
+    private val fileResourceProvider = mockk<FileResourceProvider>(relaxed = true)
+    private val clock = mockk<Clock>()
+    private lateinit var expiryStore: FileStore
+    private lateinit var inAppFileStore: FileStore
+    private lateinit var inAppAssetsStore: InAppAssetsStore
+    private lateinit var pushMediaCache: PushMediaCache
+
+    @Before
+    fun setUp() {
+        expiryStore = FileStore(CTPreference(ApplicationProvider.getApplicationContext(), "push_media_test"))
+        inAppFileStore = FileStore(CTPreference(ApplicationProvider.getApplicationContext(), "in_app_files_test"))
+        inAppAssetsStore = InAppAssetsStore(CTPreference(ApplicationProvider.getApplicationContext(), "in_app_assets_test"))
+        pushMediaCache = PushMediaCache(fileResourceProvider, expiryStore, Pair(inAppFileStore, inAppAssetsStore), clock)
+        every { clock.currentTimeMillis() } returns 1000L
+    }
+
+    @Test
+    fun `media is served from the shared caches until it expires`() {
+        every { fileResourceProvider.cachedInAppImageV1(url) } returns bitmap
+        pushMediaCache.putBitmap(url, bitmap, bytes, 2000L)
+
+        assertSame(bitmap, pushMediaCache.getBitmap(url))
+        verify { fileResourceProvider.saveInAppImageV1(url, bitmap, bytes) }
+
+        every { clock.currentTimeMillis() } returns 2001L
+
+        assertNull(pushMediaCache.getBitmap(url))
+        verify { fileResourceProvider.deleteData(url) }
+        assertEquals(0L, expiryStore.expiryForUrl(url))
+    }
+
+    @Test
+    fun `media keeps the latest expiry of the notifications using it`() {
+        pushMediaCache.putBytes(url, bytes, 3000L)
+        pushMediaCache.putBytes(url, bytes, 2000L)
+
+        assertEquals(3000L, expiryStore.expiryForUrl(url))
+    }
+
+    @Test
+    fun `media cached without an expiry is served as is`() {
+        every { fileResourceProvider.cachedInAppGifV1(url) } returns bytes
+
+        assertSame(bytes, pushMediaCache.getBytes(url))
+        verify(exactly = 0) { fileResourceProvider.deleteData(any()) }
+    }
+
+    @Test
+    fun `removeExpired removes only the expired media`() {
+        val otherUrl = "https://example.com/other.png"
+        pushMediaCache.putBitmap(url, bitmap, bytes, 500L)
+        pushMediaCache.putBitmap(otherUrl, bitmap, bytes, 5000L)
+
+        pushMediaCache.removeExpired()
+
+        verify(exactly = 1) { fileResourceProvider.deleteData(url) }
+        verify(exactly = 0) { fileResourceProvider.deleteData(otherUrl) }
+        assertEquals(setOf(otherUrl), expiryStore.getAllFileUrls())
+    }
+
+    @Test
+    fun `expired media still used by in-apps is kept in the caches`() {
+        val fileUrl = "https://example.com/file.pdf"
+        every { fileResourceProvider.cachedInAppImageV1(url) } returns bitmap
+        inAppAssetsStore.saveAssetUrl(url, 5000L)
+        inAppFileStore.saveFileUrl(fileUrl, 5000L)
+        pushMediaCache.putBitmap(url, bitmap, bytes, 500L)
+        pushMediaCache.putBytes(fileUrl, bytes, 500L)
+
+        assertSame(bitmap, pushMediaCache.getBitmap(url))
+        pushMediaCache.removeExpired()
+
+        verify(exactly = 0) { fileResourceProvider.deleteData(any()) }
+        assertEquals(emptySet(), expiryStore.getAllFileUrls())
+    }
+
+    @Test
+    fun `expired media is removed once the in-apps using it expired too`() {
+        inAppAssetsStore.saveAssetUrl(url, 800L)
+        pushMediaCache.putBitmap(url, bitmap, bytes, 500L)
+
+        pushMediaCache.removeExpired()
+
+        verify(exactly = 1) { fileResourceProvider.deleteData(url) }
+    }
+}
@@ -33,4 +33,9 @@ class MockCTExecutors @JvmOverloads constructor(config: CleverTapInstanceConfig?
         val executor = MockExecutorService()
         return Task(config, executor, executor, "postAsyncSafelyTask")
     }
+
+    override fun <TResult : Any?> networkTask(): Task<TResult> {
+        val executor = MockExecutorService()
+        return Task(config, executor, executor, "networkTask")
+    }
 }
\ No newline at end of file
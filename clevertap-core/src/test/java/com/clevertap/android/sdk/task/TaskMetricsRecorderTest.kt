@@ -0,0 +1,181 @@
+package com.clevertap.android.sdk.task
+
+import com.clevertap.android.sdk.interfaces.TaskMetricsListener
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import org.junit.Before
+import org.junit.Test
+import java.util.concurrent.Executor
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.TimeUnit
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertTrue
+
+class TaskMetricsRecorderTest {
+
+    private var nowNanos = TimeUnit.SECONDS.toNanos(1)
+    private lateinit var recorder: TaskMetricsRecorder
+    private lateinit var listener: TaskMetricsListener
+
+    @Before
+    fun setUp() {
+        recorder = TaskMetricsRecorder { nowNanos }
+        listener = mockk(relaxed = true)
+    }
+
+    private fun advanceMs(ms: Long) {
+        nowNanos += TimeUnit.MILLISECONDS.toNanos(ms)
+    }
+
+    @Test
+    fun `tasks are not recorded without a listener`() {
+        val enqueuedAt = recorder.onEnqueued("IO")
+        val startedAt = recorder.onStarted("IO", enqueuedAt)
+        recorder.onFinished("IO", "task", enqueuedAt, startedAt, false)
+
+        assertEquals(TaskMetricsRecorder.NOT_RECORDED, enqueuedAt)
+        assertEquals(TaskMetricsRecorder.NOT_RECORDED, startedAt)
+        assertTrue(recorder.snapshot().executors.isEmpty())
+        assertTrue(recorder.snapshot().histograms.isEmpty())
+    }
+
+    @Test
+    fun `finished tasks report their wait time, execution time and queue depth`() {
+        recorder.listener = listener
+
+        val first = recorder.onEnqueued("IO")
+        recorder.onEnqueued("IO")
+        advanceMs(20)
+        val startedAt = recorder.onStarted("IO", first)
+        advanceMs(7)
+        recorder.onFinished("IO", "task", first, startedAt, false)
+
+        verify {
+            listener.onTaskCompleted(TaskMetrics("IO", "task", 20, 7, 1, false))
+        }
+        verify(exactly = 0) { listener.onLongRunningTask(any()) }
+    }
+
+    @Test
+    fun `tasks running longer than the threshold are reported as long running`() {
+        recorder.listener = listener
+        recorder.longRunningThresholdMs = 50
+
+        val enqueuedAt = recorder.onEnqueued("LocalDataStore")
+        val startedAt = recorder.onStarted("LocalDataStore", enqueuedAt)
+        advanceMs(60)
+        recorder.onFinished("LocalDataStore", "persist", enqueuedAt, startedAt, true)
+
+        val metrics = TaskMetrics("LocalDataStore", "persist", 0, 60, 0, true)
+        verify { listener.onTaskCompleted(metrics) }
+        verify { listener.onLongRunningTask(metrics) }
+        assertEquals(1, recorder.snapshot().executors.single().longRunningTasks)
+    }
+
+    @Test
+    fun `rejected tasks are reported and leave the queue`() {
+        recorder.listener = listener
+
+        val enqueuedAt = recorder.onEnqueued("Network")
+        recorder.onRejected("Network", "flush", enqueuedAt)
+
+        verify { listener.onTaskRejected("Network", "flush") }
+        val executor = recorder.snapshot().executors.single()
+        assertEquals(0, executor.queueDepth)
+        assertEquals(1, executor.rejectedTasks)
+    }
+
+    @Test
+    fun `snapshot buckets latencies and computes the utilisation of the executors`() {
+        recorder.listener = listener
+
+        listOf(0L, 3L, 30L, 6000L).forEach { executionMs ->
+            val enqueuedAt = recorder.onEnqueued("PostAsyncSafely")
+            val startedAt = recorder.onStarted("PostAsyncSafely", enqueuedAt)
+            advanceMs(executionMs)
+            recorder.onFinished("PostAsyncSafely", "queueEvent", enqueuedAt, startedAt, false)
+        }
+        // idle for as long as the tasks ran
+        advanceMs(6033)
+
+        val snapshot = recorder.snapshot()
+        val histogram = snapshot.histograms.single()
+        assertEquals(4, histogram.count)
+        assertEquals(listOf(1L, 1L, 0L, 1L, 0L, 0L, 0L, 0L, 1L), histogram.executionTimeCounts)
+        assertEquals(listOf(4L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L), histogram.waitTimeCounts)
+        assertEquals(6000, histogram.maxExecutionTimeMs)
+
+        val executor = snapshot.executors.single()
+        assertEquals(6033, executor.busyTimeMs)
+        assertEquals(12066, executor.windowMs)
+        assertEquals(0.5, executor.utilization)
+    }
+
+    @Test
+    fun `setting a listener again resets the collected stats`() {
+        recorder.listener = listener
+        val enqueuedAt = recorder.onEnqueued("IO")
+        recorder.onFinished("IO", "task", enqueuedAt, recorder.onStarted("IO", enqueuedAt), false)
+
+        recorder.listener = null
+        recorder.listener = listener
+
+        assertTrue(recorder.snapshot().histograms.isEmpty())
+    }
+
+    @Test
+    fun `setting a listener again keeps the depth of tasks still queued`() {
+        recorder.listener = listener
+        val enqueuedAt = recorder.onEnqueued("IO")
+
+        recorder.listener = null
+        recorder.listener = listener
+        recorder.onFinished("IO", "task", enqueuedAt, recorder.onStarted("IO", enqueuedAt), false)
+
+        assertEquals(0, recorder.snapshot().executors.single().queueDepth)
+        verify { listener.onTaskCompleted(TaskMetrics("IO", "task", 0, 0, 0, false)) }
+    }
+
+    @Test
+    fun `exceptions thrown by the listener do not reach the executors`() {
+        every { listener.onTaskCompleted(any()) } throws IllegalStateException()
+        every { listener.onLongRunningTask(any()) } throws IllegalStateException()
+        every { listener.onTaskRejected(any(), any()) } throws IllegalStateException()
+        recorder.listener = listener
+        recorder.longRunningThresholdMs = 0
+
+        val enqueuedAt = recorder.onEnqueued("IO")
+        recorder.onFinished("IO", "task", enqueuedAt, recorder.onStarted("IO", enqueuedAt), false)
+        recorder.onRejected("IO", "rejected", recorder.onEnqueued("IO"))
+
+        verify { listener.onLongRunningTask(any()) }
+        verify { listener.onTaskRejected("IO", "rejected") }
+        assertEquals(1, recorder.snapshot().executors.single().longRunningTasks)
+    }
+
+    @Test
+    fun `tasks of the executors are recorded under the executor and task names`() {
+        recorder.listener = listener
+        val task = Task<Unit>(null, MockExecutorService(), MockExecutorService(), "ioTask", recorder, "IO")
+
+        task.execute("first") { }
+        task.submit("second") { throw IllegalStateException() }
+
+        verify { listener.onTaskCompleted(TaskMetrics("IO", "first", 0, 0, 0, false)) }
+        verify { listener.onTaskCompleted(TaskMetrics("IO", "second", 0, 0, 0, true)) }
+    }
+
+    @Test
+    fun `tasks refused by the executor are reported as rejected`() {
+        recorder.listener = listener
+        val rejectingExecutor = Executor { throw RejectedExecutionException() }
+        val task = Task<Unit>(null, rejectingExecutor, rejectingExecutor, "ioTask", recorder, "IO")
+
+        assertFailsWith<RejectedExecutionException> { task.execute("task") { } }
+
+        verify { listener.onTaskRejected("IO", "task") }
+        assertEquals(0, recorder.snapshot().executors.single().queueDepth)
+    }
+}
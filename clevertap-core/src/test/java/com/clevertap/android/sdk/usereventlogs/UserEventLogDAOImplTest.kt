@@ -225,6 +225,52 @@ class UserEventLogDAOImplTest {
         }
     }
 
+    @Test
+    fun `test upsertEventLogs adds counts to existing events and inserts new ones`() {
+        // Given
+        userEventLogDAO.insertEvent(testDeviceId, testEventName, testEventNameNormalized)
+        val logs = listOf(
+            UserEventLog(testEventName, testEventNameNormalized, 100L, MOCK_TIME + 500, 3, testDeviceId),
+            UserEventLog(testEventName2, testEventNameNormalized2, MOCK_TIME + 100, MOCK_TIME + 200, 2, testDeviceId)
+        )
+
+        // When
+        val result = userEventLogDAO.upsertEventLogs(logs)
+
+        // Then
+        assertTrue(result)
+        with(requireNotNull(userEventLogDAO.readEventByDeviceIdAndNormalizedEventName(testDeviceId, testEventNameNormalized))) {
+            assertEquals(4, countOfEvents)
+            assertEquals(MOCK_TIME, firstTs)
+            assertEquals(MOCK_TIME + 500, lastTs)
+        }
+        with(requireNotNull(userEventLogDAO.readEventByDeviceIdAndNormalizedEventName(testDeviceId, testEventNameNormalized2))) {
+            assertEquals(testEventName2, eventName)
+            assertEquals(2, countOfEvents)
+            assertEquals(MOCK_TIME + 100, firstTs)
+            assertEquals(MOCK_TIME + 200, lastTs)
+        }
+    }
+
+    @Test
+    fun `test upsertEventLogs when db error occurs`() {
+        // Given
+        val dbHelper = mockk<DatabaseHelper>(relaxed = true)
+        every { dbHelper.belowMemThreshold() } returns true
+        every { dbHelper.writableDatabase.compileStatement(any()) } throws SQLiteException()
+
+        val dao = UserEventLogDAOImpl(dbHelper, logger, table)
+
+        // When
+        val result = dao.upsertEventLogs(
+            listOf(UserEventLog(testEventName, testEventNameNormalized, MOCK_TIME, MOCK_TIME, 1, testDeviceId))
+        )
+
+        // Then
+        assertFalse(result)
+        verify { dbHelper.writableDatabase.endTransaction() }
+    }
+
     @Test
     fun `test readEventByDeviceIdAndNormalizedEventName returns null when event does not exist`() {
         // When
@@ -0,0 +1,201 @@
+package com.clevertap.android.sdk.usereventlogs
+
+import com.clevertap.android.sdk.TestClock
+import org.junit.*
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertNull
+import kotlin.test.assertSame
+import kotlin.test.assertTrue
+
+class UserEventLogWriteBufferTest {
+
+    private lateinit var clock: TestClock
+    private lateinit var buffer: UserEventLogWriteBuffer
+
+    private val deviceId = "device"
+
+    @Before
+    fun setup() {
+        clock = TestClock(1_000L)
+        buffer = UserEventLogWriteBuffer(maxPendingEvents = 3, maxPendingAgeMs = 500L, clock = clock)
+    }
+
+    @Test
+    fun test_record_when_belowThresholds_should_notRequestFlush() {
+        assertFalse(buffer.record(deviceId, "Event A", "eventa"))
+        assertFalse(buffer.record(deviceId, "Event A", "eventa"))
+        assertFalse(buffer.isEmpty)
+    }
+
+    @Test
+    fun test_record_when_sizeThresholdReached_should_requestFlush() {
+        buffer.record(deviceId, "Event A", "eventa")
+        buffer.record(deviceId, "Event A", "eventa")
+        assertTrue(buffer.record(deviceId, "Event B", "eventb"))
+    }
+
+    @Test
+    fun test_record_when_oldestEventExpired_should_requestFlush() {
+        buffer.record(deviceId, "Event A", "eventa")
+        clock.advanceTime(500L)
+        assertTrue(buffer.record(deviceId, "Event B", "eventb"))
+    }
+
+    @Test
+    fun test_drain_should_returnOneLogPerEventWithCountsAndTimestamps() {
+        buffer.record(deviceId, "Event A", "eventa")
+        clock.advanceTime(10L)
+        buffer.record(deviceId, "Event B", "eventb")
+        clock.advanceTime(10L)
+        buffer.record(deviceId, "Event A", "eventa")
+
+        val drained = buffer.drain()
+
+        assertEquals(
+            listOf(
+                UserEventLog("Event A", "eventa", 1_000L, 1_020L, 2, deviceId),
+                UserEventLog("Event B", "eventb", 1_010L, 1_010L, 1, deviceId)
+            ),
+            drained
+        )
+        assertTrue(buffer.isEmpty)
+        assertEquals(emptyList(), buffer.drain())
+    }
+
+    @Test
+    fun test_drain_should_resetThresholds() {
+        buffer.record(deviceId, "Event A", "eventa")
+        buffer.record(deviceId, "Event A", "eventa")
+        buffer.drain()
+
+        assertFalse(buffer.record(deviceId, "Event A", "eventa"))
+    }
+
+    @Test
+    fun test_read_should_mergePersistedLogWithPendingOccurrences() {
+        val persisted = UserEventLog("Event A", "eventa", 100L, 200L, 5, deviceId)
+        buffer.record(deviceId, "Event A", "eventa")
+        buffer.record(deviceId, "Event A", "eventa")
+
+        val log = buffer.read(deviceId, "eventa") { persisted }
+
+        assertEquals(persisted.copy(lastTs = 1_000L, countOfEvents = 7), log)
+    }
+
+    @Test
+    fun test_read_should_returnPendingLogWhenNotPersisted() {
+        buffer.record(deviceId, "Event A", "eventa")
+
+        val log = buffer.read(deviceId, "eventa") { null }
+
+        assertEquals(UserEventLog("Event A", "eventa", 1_000L, 1_000L, 1, deviceId), log)
+        assertNull(buffer.read(deviceId, "eventb") { null })
+    }
+
+    @Test
+    fun test_read_should_serveFromMemoryAndTrackNewOccurrences() {
+        var loads = 0
+        val persisted = UserEventLog("Event A", "eventa", 100L, 200L, 5, deviceId)
+        val first = buffer.read(deviceId, "eventa") { loads++; persisted }
+        assertSame(persisted, first)
+
+        buffer.record(deviceId, "Event A", "eventa")
+        buffer.drain()
+        clock.advanceTime(100L)
+        buffer.record(deviceId, "Event A", "eventa")
+        val log = buffer.read(deviceId, "eventa") { loads++; null }
+
+        assertEquals(1, loads)
+        assertEquals(persisted.copy(lastTs = 1_100L, countOfEvents = 7), log)
+    }
+
+    @Test
+    fun test_read_should_keepLogsOfDevicesApart() {
+        buffer.record(deviceId, "Event A", "eventa")
+
+        assertNull(buffer.read("other", "eventa") { null })
+    }
+
+    @Test
+    fun test_invalidate_should_reloadPersistedLog() {
+        buffer.read(deviceId, "eventa") { UserEventLog("Event A", "eventa", 100L, 200L, 5, deviceId) }
+
+        buffer.invalidate()
+        val log = buffer.read(deviceId, "eventa") { UserEventLog("Event A", "eventa", 100L, 300L, 9, deviceId) }
+
+        assertEquals(9, log?.countOfEvents)
+    }
+
+    @Test
+    fun test_restage_should_mergeDrainedLogsWithNewOccurrences() {
+        buffer.record(deviceId, "Event A", "eventa")
+        val drained = buffer.drain()
+        clock.advanceTime(10L)
+        buffer.record(deviceId, "Event A", "eventa")
+
+        buffer.restage(drained)
+
+        assertEquals(
+            listOf(UserEventLog("Event A", "eventa", 1_000L, 1_010L, 2, deviceId)),
+            buffer.drain()
+        )
+    }
+
+    @Test
+    fun test_restage_should_countRestagedOccurrencesTowardsThresholds() {
+        buffer.record(deviceId, "Event A", "eventa")
+        buffer.record(deviceId, "Event A", "eventa")
+        buffer.restage(buffer.drain())
+
+        assertTrue(buffer.record(deviceId, "Event B", "eventb"))
+    }
+
+    @Test
+    fun test_restage_should_restartTheAgeThreshold() {
+        buffer = UserEventLogWriteBuffer(maxPendingEvents = 10, maxPendingAgeMs = 500L, clock = clock)
+        buffer.record(deviceId, "Event A", "eventa")
+        val drained = buffer.drain()
+        clock.advanceTime(1_000L)
+
+        buffer.restage(drained)
+
+        // the failed write is not retried on every event
+        assertFalse(buffer.record(deviceId, "Event B", "eventb"))
+        clock.advanceTime(500L)
+        assertTrue(buffer.record(deviceId, "Event B", "eventb"))
+    }
+
+    @Test
+    fun test_restage_when_aboveLimit_should_dropTheLeastRecentlyRaisedLogs() {
+        buffer = UserEventLogWriteBuffer(maxPendingEvents = 10, clock = clock, maxRestagedLogs = 2)
+        buffer.record(deviceId, "Event A", "eventa")
+        clock.advanceTime(10L)
+        buffer.record(deviceId, "Event B", "eventb")
+        clock.advanceTime(10L)
+        buffer.record(deviceId, "Event C", "eventc")
+
+        assertEquals(1, buffer.restage(buffer.drain()))
+
+        assertEquals(listOf("eventb", "eventc"), buffer.drain().map { it.normalizedEventName })
+    }
+
+    @Test
+    fun test_read_when_aboveCacheLimit_should_evictTheLeastRecentlyUsedLog() {
+        buffer = UserEventLogWriteBuffer(clock = clock, maxCachedLogs = 2)
+        var loads = 0
+        val load = { loads++; UserEventLog("Event", "event", 1L, 1L, 1, deviceId) }
+
+        buffer.read(deviceId, "eventa", load)
+        buffer.read(deviceId, "eventb", load)
+        buffer.read(deviceId, "eventa", load)
+        buffer.read(deviceId, "eventc", load)
+        assertEquals(3, loads)
+
+        // eventb was used least recently
+        buffer.read(deviceId, "eventa", load)
+        assertEquals(3, loads)
+        buffer.read(deviceId, "eventb", load)
+        assertEquals(4, loads)
+    }
+}
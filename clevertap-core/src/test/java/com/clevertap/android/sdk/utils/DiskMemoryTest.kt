@@ -11,7 +11,9 @@ import org.junit.Before
 import org.junit.Rule
 import org.junit.Test
 import org.junit.rules.TemporaryFolder
+import java.io.ByteArrayInputStream
 import java.io.File
+import java.io.IOException
 
 /**
  * We do not validate file read/write in unit tests, we will have to make instrumentation tests for
@@ -136,4 +138,58 @@ class DiskMemoryTest {
         assertTrue(cacheDirectory.listFiles().isNullOrEmpty()) // Directory should be empty
     }
 
-}
\ No newline at end of file
+    @Test
+    fun `add replaces existing file without leaving temporary files`() {
+        val key = "test_key"
+        diskMemory.add(key, "Old data".toByteArray())
+
+        diskMemory.add(key, "New data".toByteArray())
+
+        assertArrayEquals("New data".toByteArray(), diskMemory.get(key)!!.readBytes())
+        assertEquals(1, cacheDirectory.listFiles()!!.size)
+    }
+
+    @Test
+    fun `addStreamAndReturnFileInstance copies the stream to the cached file`() {
+        val key = "test_key"
+        val data = ByteArray(40 * 1024) { it.toByte() }
+
+        val file = diskMemory.addStreamAndReturnFileInstance(key, ByteArrayInputStream(data), data.size.toLong())
+
+        assertEquals(diskMemory.get(key), file)
+        assertArrayEquals(data, file.readBytes())
+        assertEquals(1, cacheDirectory.listFiles()!!.size)
+    }
+
+    @Test
+    fun `addStreamAndReturnFileInstance fails without caching when the stream exceeds the limit`() {
+        val key = "test_key"
+        val data = ByteArray(maxFileSizeKb * 1024 + 1)
+
+        try {
+            diskMemory.addStreamAndReturnFileInstance(key, ByteArrayInputStream(data))
+            throw AssertionError("Expected IllegalArgumentException")
+        } catch (e: IllegalArgumentException) {
+            // expected
+        }
+
+        assertNull(diskMemory.get(key))
+        assertTrue(cacheDirectory.listFiles().isNullOrEmpty())
+    }
+
+    @Test
+    fun `addStreamAndReturnFileInstance keeps the existing file when the stream ends early`() {
+        val key = "test_key"
+        diskMemory.add(key, "Old data".toByteArray())
+
+        try {
+            diskMemory.addStreamAndReturnFileInstance(key, ByteArrayInputStream("New".toByteArray()), 8)
+            throw AssertionError("Expected IOException")
+        } catch (e: IOException) {
+            // expected
+        }
+
+        assertArrayEquals("Old data".toByteArray(), diskMemory.get(key)!!.readBytes())
+        assertEquals(1, cacheDirectory.listFiles()!!.size)
+    }
+}
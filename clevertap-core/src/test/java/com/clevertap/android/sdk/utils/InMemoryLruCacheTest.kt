@@ -2,6 +2,7 @@ package com.clevertap.android.sdk.utils
 
 import org.junit.Before
 import org.junit.Test
+import java.io.File
 import kotlin.test.assertEquals
 import kotlin.test.assertNotNull
 import kotlin.test.assertNull
@@ -79,4 +80,14 @@ class InMemoryLruCacheTest {
         assertEquals(true, inMemoryLruCache.isEmpty())
     }
 
-}
\ No newline at end of file
+    @Test
+    fun `test add sizes pairs by their data`() {
+        val pairCache = InMemoryLruCache<Pair<ByteArray, File>>(
+            maxSize = 100,
+            memoryCache = TestCacheProvider<Pair<ByteArray, File>>().provide()
+        )
+
+        assertEquals(false, pairCache.add(cacheKey, Pair(sizeExceedingData, File("file"))))
+        assertEquals(true, pairCache.add(cacheKey, Pair(validData, File("file"))))
+    }
+}
@@ -0,0 +1,40 @@
+package com.clevertap.android.sdk.utils
+
+import com.clevertap.android.sdk.benchmark.MicroBenchmark
+import com.clevertap.android.shared.test.BaseTestCase
+import org.json.JSONArray
+import org.json.JSONObject
+import org.junit.Test
+
+/**
+ * Benchmark of [JsonFlattener.flatten] on event properties nested like a charged event.
+ *
+ * See [MicroBenchmark] for running with baselines.
+ */
+class JsonFlattenerBenchmarkTest : BaseTestCase() {
+
+    companion object {
+        private const val FLATTENS_PER_RUN = 1000
+    }
+
+    @Test
+    fun benchmark_flatten() {
+        val json = JSONObject()
+            .put("category", "shoes")
+            .put("price", 49.99)
+            .put("tags", JSONArray().put("sale").put("new"))
+            .put(
+                "product", JSONObject()
+                    .put("id", "sku-1")
+                    .put("brand", JSONObject().put("name", "brand").put("country", "IN"))
+                    .put("sizes", JSONArray().put(40).put(41).put(42))
+            )
+            .put("shipping", JSONObject().put("express", true).put("days", 2))
+
+        MicroBenchmark.measure("jsonFlattener.flatten", FLATTENS_PER_RUN) {
+            var keys = 0
+            repeat(FLATTENS_PER_RUN) { keys += JsonFlattener.flatten(json).size }
+            keys
+        }
+    }
+}
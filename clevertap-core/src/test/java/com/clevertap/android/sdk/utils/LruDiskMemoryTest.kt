@@ -0,0 +1,136 @@
+package com.clevertap.android.sdk.utils
+
+import com.clevertap.android.sdk.TestLogger
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNotNull
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.ByteArrayInputStream
+import java.io.File
+
+class LruDiskMemoryTest {
+    @get:Rule
+    val tempFolder = TemporaryFolder()
+
+    private lateinit var cacheDirectory: File
+    private lateinit var diskMemory: LruDiskMemory
+    private val logger = TestLogger()
+    private val maxFileSizeKb = 4
+    private val maxTotalSizeKb = 8L
+
+    @Before
+    fun setup() {
+        cacheDirectory = tempFolder.newFolder("lru_cache")
+        diskMemory = newDiskMemory()
+    }
+
+    private fun newDiskMemory() = LruDiskMemory(cacheDirectory, maxFileSizeKb, maxTotalSizeKb, logger)
+
+    private fun cachedFile(key: String) = File(cacheDirectory, "CT_FILE_${diskMemory.hashFunction(key)}")
+
+    private fun kb(count: Int) = ByteArray(count * 1024)
+
+    @Test
+    fun `add and get return the cached file`() {
+        val data = "Test data".toByteArray()
+
+        assertTrue(diskMemory.add("key", data))
+
+        val file = diskMemory.get("key")
+        assertNotNull(file)
+        assertArrayEquals(data, file!!.readBytes())
+        assertEquals(data.size.toLong(), diskMemory.size)
+    }
+
+    @Test
+    fun `add evicts least recently used files beyond the total size`() {
+        diskMemory.add("first", kb(3))
+        diskMemory.add("second", kb(3))
+        // reading first makes second the least recently used file
+        diskMemory.get("first")
+
+        diskMemory.add("third", kb(3))
+
+        assertNotNull(diskMemory.get("first"))
+        assertNull(diskMemory.get("second"))
+        assertFalse(cachedFile("second").exists())
+        assertNotNull(diskMemory.get("third"))
+        assertEquals(6 * 1024L, diskMemory.size)
+    }
+
+    @Test
+    fun `add replacing a file updates the total size`() {
+        diskMemory.add("key", kb(3))
+
+        diskMemory.add("key", kb(1))
+
+        assertEquals(1024L, diskMemory.size)
+    }
+
+    @Test
+    fun `remove deletes the file and frees its size`() {
+        diskMemory.add("key", kb(2))
+
+        assertTrue(diskMemory.remove("key"))
+
+        assertFalse(cachedFile("key").exists())
+        assertNull(diskMemory.get("key"))
+        assertEquals(0L, diskMemory.size)
+        assertFalse(diskMemory.remove("key"))
+    }
+
+    @Test
+    fun `index and access order are restored from the journal`() {
+        diskMemory.add("first", kb(3))
+        diskMemory.add("second", kb(3))
+        diskMemory.get("first")
+
+        val reopened = newDiskMemory()
+        reopened.add("third", kb(3))
+
+        assertNotNull(reopened.get("first"))
+        assertNull(reopened.get("second"))
+        assertNotNull(reopened.get("third"))
+    }
+
+    @Test
+    fun `files unknown to the journal are indexed and temporary files deleted`() {
+        cachedFile("legacy").writeBytes(kb(2))
+        val leftover = File(cacheDirectory, "CT_FILE_partial.tmp").apply { writeBytes(kb(1)) }
+
+        val reopened = newDiskMemory()
+
+        assertNotNull(reopened.get("legacy"))
+        assertEquals(2 * 1024L, reopened.size)
+        assertFalse(leftover.exists())
+    }
+
+    @Test
+    fun `empty clears the directory and the index`() {
+        diskMemory.add("key", kb(1))
+
+        assertTrue(diskMemory.empty())
+
+        assertNull(diskMemory.get("key"))
+        assertEquals(0L, diskMemory.size)
+        assertTrue(diskMemory.add("key", kb(1)))
+    }
+
+    @Test
+    fun `addStreamAndReturnFileInstance indexes the file and evicts beyond the total size`() {
+        diskMemory.add("first", kb(3))
+        diskMemory.add("second", kb(3))
+
+        val file = diskMemory.addStreamAndReturnFileInstance("third", ByteArrayInputStream(kb(3)), 3 * 1024L)
+
+        assertEquals(file, diskMemory.get("third"))
+        assertNull(diskMemory.get("first"))
+        assertEquals(6 * 1024L, diskMemory.size)
+    }
+}
@@ -0,0 +1,57 @@
+package com.clevertap.android.sdk.validation
+
+import com.clevertap.android.sdk.TestLogger
+import com.clevertap.android.sdk.benchmark.MicroBenchmark
+import com.clevertap.android.sdk.validation.pipeline.ValidationPipelineProvider
+import com.clevertap.android.shared.test.BaseTestCase
+import org.junit.Test
+
+/**
+ * Benchmark of the validation pipelines an event goes through before it is queued, with the default
+ * limits.
+ *
+ * See [MicroBenchmark] for running with baselines.
+ */
+class ValidationPipelinesBenchmarkTest : BaseTestCase() {
+
+    companion object {
+        private const val VALIDATIONS_PER_RUN = 1000
+    }
+
+    private val pipelines = ValidationPipelineProvider(ValidationResultStack(), TestLogger())
+    private val config = ValidationConfig.default().build()
+
+    @Test
+    fun benchmark_eventName() {
+        MicroBenchmark.measure("validation.eventName", VALIDATIONS_PER_RUN) {
+            repeat(VALIDATIONS_PER_RUN) { pipelines.eventNamePipeline.execute("Product Viewed", config) }
+        }
+    }
+
+    @Test
+    fun benchmark_eventData() {
+        val properties = mapOf(
+            "category" to "shoes",
+            "price" to 49.99,
+            "size" to 42,
+            "on sale" to true,
+            "tags" to listOf("sale", "new"),
+            "product" to mapOf("id" to "sku-1", "brand" to "brand")
+        )
+
+        MicroBenchmark.measure("validation.eventData", VALIDATIONS_PER_RUN) {
+            repeat(VALIDATIONS_PER_RUN) { pipelines.eventDataPipeline.execute(properties, config) }
+        }
+    }
+
+    @Test
+    fun benchmark_chargedEventItems() {
+        val items = List(10) { index ->
+            mapOf("id" to "sku-$index", "name" to "Item $index", "price" to 9.99, "quantity" to 1)
+        }
+
+        MicroBenchmark.measure("validation.chargedEventItems", VALIDATIONS_PER_RUN) {
+            repeat(VALIDATIONS_PER_RUN) { pipelines.chargedEventItemsValidationPipeline.execute(items, config) }
+        }
+    }
+}
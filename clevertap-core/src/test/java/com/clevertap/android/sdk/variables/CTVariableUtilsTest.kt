@@ -21,6 +21,27 @@ class CTVariableUtilsTest : BaseTestCase() {
     assertTrue(arrayOf("a", "b", "c").contentEquals(CTVariableUtils.getNameComponents("a.b.c")))
   }
 
+  @Test
+  fun `test collectChangedPaths`() {
+    val old = mapOf(
+      "a" to mapOf("b" to 1, "c" to 2),
+      "d" to "text",
+      "e" to mapOf("f" to 1),
+      "g" to 1
+    )
+    val new = mapOf(
+      "a" to mapOf("b" to 1, "c" to 3),
+      "d" to "text",
+      "e" to 5,
+      "h" to mapOf("i" to 1)
+    )
+    val changedPaths = mutableSetOf<String>()
+
+    assertTrue(CTVariableUtils.collectChangedPaths(old, new, "", changedPaths))
+    assertEquals(setOf("a", "a.c", "e", "e.f", "g", "h", "h.i"), changedPaths)
+    assertTrue(!CTVariableUtils.collectChangedPaths(old, HashMap(old), "", mutableSetOf()))
+  }
+
   @Test
   fun `test mergeHelper with null diff`() {
     val vars = mapOf("a" to 1, "b" to 2)
@@ -20,6 +20,7 @@ import io.mockk.verifyOrder
 import org.junit.Before
 import org.junit.Test
 import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
 import kotlin.test.assertNull
 
 class VarCacheTest : BaseTestCase() {
@@ -84,6 +85,36 @@ class VarCacheTest : BaseTestCase() {
         }
     }
 
+    @Test
+    fun `test updateDiffsAndTriggerHandlers updates only the vars whose value changed`() {
+        ctVariables.setHasVarsRequestCompleted(true)
+        val var1 = Var.define("var1", 1, ctVariables)
+        val var2 = Var.define("group.var2", 2, ctVariables)
+        varCache.updateDiffsAndTriggerHandlers(mapOf("var1" to 10), {})
+
+        val handler1: VariableCallback<Int> = mockk(relaxed = true)
+        val handler2: VariableCallback<Int> = mockk(relaxed = true)
+        var1.addValueChangedCallback(handler1)
+        var2.addValueChangedCallback(handler2)
+        varCache.updateDiffsAndTriggerHandlers(mapOf("var1" to 10, "group" to mapOf("var2" to 20)), {})
+
+        verify(exactly = 0) { handler1.run() }
+        verify(exactly = 1) { handler2.run() }
+        assertEquals(10, var1.value())
+        assertEquals(20, var2.value())
+    }
+
+    @Test
+    fun `test getMergedValue returns unmodifiable groups`() {
+        Var.define("group.var1", 1, ctVariables)
+        varCache.updateDiffsAndTriggerHandlers(mapOf("group" to mapOf("var2" to 2)), {})
+
+        val group = varCache.getMergedValue("group") as MutableMap<String, Any>
+
+        assertEquals(mapOf("var1" to 1, "var2" to 2), group)
+        assertFailsWith<UnsupportedOperationException> { group["var3"] = 3 }
+    }
+
     @Test
     fun `test updateAbVariants method - some data`() {
         val list: List<Map<String, Any>> = listOf(
@@ -30,9 +30,7 @@ import androidx.core.app.NotificationCompat;
 import androidx.core.app.NotificationCompat.Builder;
 import androidx.core.app.RemoteInput;
 import com.clevertap.android.pushtemplates.content.PendingIntentFactory;
-import com.clevertap.android.pushtemplates.media.GifDecoderImpl;
 import com.clevertap.android.pushtemplates.media.TemplateMediaManager;
-import com.clevertap.android.pushtemplates.media.TemplateRepository;
 import com.clevertap.android.sdk.CleverTapAPI;
 import com.clevertap.android.sdk.CleverTapInstanceConfig;
 import com.clevertap.android.sdk.Constants;
@@ -738,7 +736,7 @@ public class PushTemplateReceiver extends BroadcastReceiver {
                                               NotificationCompat.Builder notificationBuilder, String altText) {
         if (imgUrl != null && imgUrl.startsWith("http")) {
             try {
-                TemplateMediaManager templateMediaManager = new TemplateMediaManager(new TemplateRepository(context, config), new GifDecoderImpl());
+                TemplateMediaManager templateMediaManager = TemplateMediaManager.forNotification(context, config, extras);
                 Bitmap bpMap = templateMediaManager.getNotificationBitmap(imgUrl, false, context);
 
                 if (bpMap == null) {
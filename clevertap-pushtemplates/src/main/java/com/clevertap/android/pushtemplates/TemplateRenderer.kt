@@ -20,7 +20,6 @@ import com.clevertap.android.pushtemplates.content.FiveIconSmallContentView
 import com.clevertap.android.pushtemplates.handlers.CancelTemplateHandler
 import com.clevertap.android.pushtemplates.handlers.TimerTemplateHandler
 import com.clevertap.android.pushtemplates.media.TemplateMediaManager
-import com.clevertap.android.pushtemplates.media.TemplateRepository
 import com.clevertap.android.pushtemplates.styles.AutoCarouselStyle
 import com.clevertap.android.pushtemplates.styles.BasicStyle
 import com.clevertap.android.pushtemplates.styles.FiveIconStyle
@@ -50,7 +49,7 @@ import java.util.*
 private const val TAG = "TemplateRenderer"
 class TemplateRenderer(context: Context, private val extras: Bundle, internal val config: CleverTapInstanceConfig? = null) : INotificationRenderer, AudibleNotification {
     internal val templateMediaManager: TemplateMediaManager by lazy {
-        TemplateMediaManager(templateRepository = TemplateRepository(context, config))
+        TemplateMediaManager.forNotification(context, config, extras)
     }
     internal var smallIcon = 0
     internal var smallIconBitmap : Bitmap? = null
@@ -214,7 +213,21 @@ class TemplateRenderer(context: Context, private val extras: Bundle, internal va
     }
 
     private fun <T : TemplateData> T.buildIfValid(builder: (T) -> Builder?): Builder? =
-        ValidatorFactory.getValidator(this)?.takeIf { it.validate() }?.let { builder(this) }
+        ValidatorFactory.getValidator(this)?.takeIf { it.validate() }?.let {
+            templateMediaManager.prefetchImages(prefetchImageUrls())
+            builder(this)
+        }
+
+    /**
+     * Images of the templates showing several of them, downloaded in parallel before rendering
+     */
+    private fun TemplateData.prefetchImageUrls(): List<String?> = when (this) {
+        is AutoCarouselTemplateData -> carouselData.imageList.map { it.url } + carouselData.baseContent.iconData.largeIcon
+        is ManualCarouselTemplateData -> carouselData.imageList.map { it.url } + carouselData.baseContent.iconData.largeIcon
+        is ProductTemplateData -> imageList.map { it.url } + baseContent.iconData.largeIcon
+        is FiveIconsTemplateData -> imageList.map { it.url }
+        else -> emptyList()
+    }
 
 
     override fun setSmallIcon(smallIcon: Int, context: Context) {
@@ -2,19 +2,75 @@ package com.clevertap.android.pushtemplates.media
 
 import android.content.Context
 import android.graphics.Bitmap
+import android.os.Bundle
+import android.util.LruCache
 import com.clevertap.android.pushtemplates.PTLog
 import com.clevertap.android.pushtemplates.Utils
+import com.clevertap.android.sdk.CleverTapInstanceConfig
+import com.clevertap.android.sdk.Constants
 import com.clevertap.android.sdk.network.DownloadedBitmap
+import com.clevertap.android.sdk.pushnotification.PushMediaCache
+import com.clevertap.android.sdk.utils.Clock
+import java.util.Collections
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
 import kotlin.system.measureTimeMillis
 
+/**
+ * Loads the media of a template. Media is looked up in the caches of this render, then in the
+ * [mediaCache] shared by all notifications and only downloaded when missing from both, successful
+ * downloads are saved in the [mediaCache] until [mediaExpiryMillis].
+ */
 internal class TemplateMediaManager(
     private val templateRepository: TemplateRepository,
-    private val gifDecoder: GifDecoderImpl = GifDecoderImpl()
+    private val gifDecoder: GifDecoderImpl = GifDecoderImpl(),
+    private val mediaCache: PushMediaCache? = null,
+    private val mediaExpiryMillis: Long = 0L
 ) {
 
-    // Simple in-memory cache to avoid duplicate downloads of successful results
-    private val bitmapCache = mutableMapOf<String, Bitmap>()
-    private val bytesCache = mutableMapOf<String, ByteArray>()
+    companion object {
+        internal const val PREFETCH_TIMEOUT_MS = 8000L
+        private const val MAX_PARALLEL_DOWNLOADS = 4
+        private const val MAX_CACHED_BITMAPS = 20
+        private const val MAX_CACHED_BYTES = 10 * 1024 * 1024
+
+        /**
+         * Creates the media manager of a notification, its media is shared with the other
+         * notifications through the [PushMediaCache] until the notification expires.
+         */
+        @JvmStatic
+        fun forNotification(
+            context: Context,
+            config: CleverTapInstanceConfig?,
+            extras: Bundle
+        ): TemplateMediaManager = TemplateMediaManager(
+            templateRepository = TemplateRepository(context, config),
+            mediaCache = PushMediaCache(context, config?.accountId),
+            mediaExpiryMillis = mediaExpiryMillis(extras)
+        )
+
+        /**
+         * @return the expiry of the notification in [extras], the default push ttl from now when
+         * the payload has none
+         */
+        internal fun mediaExpiryMillis(extras: Bundle, clock: Clock = Clock.SYSTEM): Long {
+            val ttlSeconds = extras.getString(Constants.WZRK_TIME_TO_LIVE)?.toLongOrNull()
+                ?: (clock.currentTimeSeconds() + Constants.DEFAULT_PUSH_TTL_SECONDS)
+            return TimeUnit.SECONDS.toMillis(ttlSeconds)
+        }
+    }
+
+    // Bounded in-memory caches to avoid duplicate downloads of successful results, thread-safe
+    // since prefetched images are added from the download threads' results
+    private val bitmapCache = LruCache<String, Bitmap>(MAX_CACHED_BITMAPS)
+    private val bytesCache = object : LruCache<String, ByteArray>(MAX_CACHED_BYTES) {
+        override fun sizeOf(key: String, value: ByteArray): Int = value.size
+    }
+
+    // Images which were not prefetched in time, templates render without them
+    private val failedPrefetches: MutableSet<String> = Collections.synchronizedSet(HashSet())
 
     fun getGifFrames(gifUrl: String?, maxFrames: Int): GifResult {
         if (gifUrl.isNullOrBlank() || !gifUrl.startsWith("https") || !gifUrl.lowercase()
@@ -24,7 +80,7 @@ internal class TemplateMediaManager(
         }
 
         // Check if already downloaded and successful
-        val cachedBytes = bytesCache[gifUrl]
+        val cachedBytes = bytesCache[gifUrl] ?: getSharedBytes(gifUrl)
         val rawBytes = if (cachedBytes != null) {
             PTLog.verbose("GIF loaded from cache: $gifUrl")
             cachedBytes
@@ -39,7 +95,8 @@ internal class TemplateMediaManager(
             }
             // Only cache successful downloads
             if (bytes != null) {
-                bytesCache[gifUrl] = bytes
+                bytesCache.put(gifUrl, bytes)
+                mediaCache?.putBytes(gifUrl, bytes, mediaExpiryMillis)
             }
             bytes
         }
@@ -85,6 +142,14 @@ internal class TemplateMediaManager(
                 bitmapCache.remove(imageUrl)
             }
         }
+        getSharedBitmap(imageUrl)?.let {
+            PTLog.verbose("IMAGE loaded from shared cache: $imageUrl")
+            return it
+        }
+        if (failedPrefetches.contains(imageUrl)) {
+            PTLog.verbose("IMAGE could not be prefetched, skipping: $imageUrl")
+            return null
+        }
         var downloadedBitmap: DownloadedBitmap
         val downloadTime = measureTimeMillis {
             downloadedBitmap = templateRepository.getBitmap(imageUrl)
@@ -104,18 +169,104 @@ internal class TemplateMediaManager(
 
         // Only cache successful downloads
         if (bitmap != null) {
-            bitmapCache[imageUrl] = bitmap
+            cacheDownloadedBitmap(imageUrl, bitmap, downloadedBitmap)
         }
         return bitmap
 
     }
 
     /**
-     * Clears both bitmap and bytes caches. Useful for cleanup after template processing.
+     * Downloads the images of a template in parallel, waiting at most [timeoutMillis] for all of
+     * them, so templates with several images render within the time given to handle the push.
+     * The network is checked once for all the downloads.
+     *
+     * Images which did not arrive in time are not downloaded again by [getImageBitmap], the
+     * template renders with the images which did. Images in the shared cache are not downloaded.
+     */
+    fun prefetchImages(imageUrls: Collection<String?>, timeoutMillis: Long = PREFETCH_TIMEOUT_MS) {
+        val urls = imageUrls.filterNotNull()
+            .filter { it.isNotBlank() && it.startsWith("https") && bitmapCache.get(it)?.isRecycled != false }
+            .distinct()
+            .filter { getSharedBitmap(it) == null }
+        if (urls.isEmpty()) {
+            return
+        }
+
+        if (!templateRepository.isNetworkAvailable()) {
+            PTLog.verbose("Cannot prefetch ${urls.size} images: network unavailable")
+            failedPrefetches.addAll(urls)
+            return
+        }
+
+        val executor = Executors.newFixedThreadPool(minOf(urls.size, MAX_PARALLEL_DOWNLOADS))
+        var prefetched = 0
+        try {
+            val prefetchTime = measureTimeMillis {
+                val futures = executor.invokeAll(
+                    urls.map { url -> Callable { templateRepository.downloadBitmap(url) } },
+                    timeoutMillis,
+                    TimeUnit.MILLISECONDS
+                )
+                urls.zip(futures).forEach { (url, future) ->
+                    val downloadedBitmap = try {
+                        if (future.isCancelled) null else future.get()
+                    } catch (e: ExecutionException) {
+                        PTLog.verbose("Prefetch failed for IMAGE $url", e.cause)
+                        null
+                    }
+                    val bitmap = downloadedBitmap
+                        ?.takeIf { it.status == DownloadedBitmap.Status.SUCCESS }
+                        ?.bitmap
+                    if (downloadedBitmap != null && bitmap != null) {
+                        cacheDownloadedBitmap(url, bitmap, downloadedBitmap)
+                        prefetched++
+                    } else {
+                        PTLog.verbose("IMAGE not prefetched. URL: $url, Status: ${downloadedBitmap?.status ?: "timed out"}")
+                        failedPrefetches.add(url)
+                    }
+                }
+            }
+            PTLog.verbose("Prefetched $prefetched of ${urls.size} images in $prefetchTime ms")
+        } catch (e: InterruptedException) {
+            Thread.currentThread().interrupt()
+        } finally {
+            // downloads still running when the time ran out are abandoned
+            executor.shutdownNow()
+        }
+    }
+
+    /**
+     * Clears the bitmap and bytes caches and the failed prefetches, and removes the expired media
+     * from the shared cache. Useful for cleanup after template processing.
      */
     fun clearCaches() {
-        bitmapCache.clear()
-        bytesCache.clear()
+        bitmapCache.evictAll()
+        bytesCache.evictAll()
+        failedPrefetches.clear()
+        sharedCacheCall { mediaCache?.removeExpired() }
         PTLog.verbose("Media caches cleared")
     }
+
+    private fun getSharedBitmap(url: String): Bitmap? =
+        sharedCacheCall { mediaCache?.getBitmap(url) }?.also { bitmapCache.put(url, it) }
+
+    private fun getSharedBytes(url: String): ByteArray? =
+        sharedCacheCall { mediaCache?.getBytes(url) }?.also { bytesCache.put(url, it) }
+
+    private fun cacheDownloadedBitmap(url: String, bitmap: Bitmap, downloadedBitmap: DownloadedBitmap) {
+        bitmapCache.put(url, bitmap)
+        val cache = mediaCache ?: return
+        val bytes = downloadedBitmap.bytes ?: return
+        sharedCacheCall { cache.putBitmap(url, bitmap, bytes, mediaExpiryMillis) }
+    }
+
+    // the shared cache is an optimization, templates render with the downloaded media when it fails
+    private fun <T> sharedCacheCall(block: () -> T?): T? {
+        return try {
+            block()
+        } catch (e: Exception) {
+            PTLog.verbose("Shared media cache call failed", e)
+            null
+        }
+    }
 }
\ No newline at end of file
@@ -17,7 +17,7 @@ internal class TemplateRepository(val context: Context, val config: CleverTapIns
         private const val BYTES_DOWNLOAD_TIMEOUT_MS = 5000L
     }
 
-    private fun isNetworkAvailable(): Boolean {
+    internal fun isNetworkAvailable(): Boolean {
         return try {
             val cm = context.getSystemService(Context.CONNECTIVITY_SERVICE) as? ConnectivityManager
             val caps = cm?.getNetworkCapabilities(cm.activeNetwork) ?: return false
@@ -65,6 +65,14 @@ internal class TemplateRepository(val context: Context, val config: CleverTapIns
             return DownloadedBitmapFactory.nullBitmapWithStatus(DownloadedBitmap.Status.NO_NETWORK)
         }
 
+        return downloadBitmap(url)
+    }
+
+    /**
+     * Downloads a bitmap without checking the network first, for callers which checked it once
+     * for several downloads. The downloaded bytes are kept so the image can be saved in the disk cache.
+     */
+    internal fun downloadBitmap(url: String): DownloadedBitmap {
         val request = BitmapDownloadRequest(
             url,
             false,
@@ -73,7 +81,7 @@ internal class TemplateRepository(val context: Context, val config: CleverTapIns
         )
 
         return HttpBitmapLoader.getHttpBitmap(
-            HttpBitmapLoader.HttpBitmapOperation.DOWNLOAD_ANY_BITMAP,
+            HttpBitmapLoader.HttpBitmapOperation.DOWNLOAD_ANY_BITMAP_WITH_BYTES,
             request
         )
     }
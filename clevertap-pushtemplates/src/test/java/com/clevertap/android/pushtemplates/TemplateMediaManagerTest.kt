@@ -2,11 +2,15 @@ package com.clevertap.android.pushtemplates
 
 import android.content.Context
 import android.graphics.Bitmap
+import android.os.Bundle
 import com.clevertap.android.pushtemplates.media.GifDecoderImpl
 import com.clevertap.android.pushtemplates.media.GifResult
 import com.clevertap.android.pushtemplates.media.TemplateMediaManager
 import com.clevertap.android.pushtemplates.media.TemplateRepository
+import com.clevertap.android.sdk.Constants
 import com.clevertap.android.sdk.network.DownloadedBitmap
+import com.clevertap.android.sdk.pushnotification.PushMediaCache
+import com.clevertap.android.sdk.utils.Clock
 import io.mockk.*
 import org.junit.After
 import org.junit.Assert.*
@@ -686,4 +690,160 @@ class TemplateMediaManagerTest {
         verify { spyTemplateMediaManager.getImageBitmap(invalidIconUrl) }
         verify { Utils.getAppIcon(mockContext) }
     }
+
+    // Tests for prefetchImages method
+
+    @Test
+    fun `prefetchImages should download images in parallel and serve them from cache`() {
+        // Given
+        val imageUrls = listOf("https://example.com/1.jpg", "https://example.com/2.jpg", "https://example.com/3.jpg")
+        val mockBitmap = mockk<Bitmap>()
+        every { mockBitmap.isRecycled } returns false
+        val mockDownloadedBitmap = mockk<DownloadedBitmap>()
+        every { mockDownloadedBitmap.status } returns DownloadedBitmap.Status.SUCCESS
+        every { mockDownloadedBitmap.bitmap } returns mockBitmap
+        every { mockTemplateRepository.isNetworkAvailable() } returns true
+        val downloadThreads = mutableSetOf<Thread>()
+        every { mockTemplateRepository.downloadBitmap(any()) } answers {
+            synchronized(downloadThreads) { downloadThreads.add(Thread.currentThread()) }
+            Thread.sleep(100)
+            mockDownloadedBitmap
+        }
+
+        // When
+        templateMediaManager.prefetchImages(imageUrls + null + imageUrls[0])
+
+        // Then
+        imageUrls.forEach { assertEquals(mockBitmap, templateMediaManager.getImageBitmap(it)) }
+        assertEquals(3, downloadThreads.size)
+        verify(exactly = 1) { mockTemplateRepository.isNetworkAvailable() }
+        verify(exactly = 3) { mockTemplateRepository.downloadBitmap(any()) }
+        verify(exactly = 0) { mockTemplateRepository.getBitmap(any()) }
+    }
+
+    @Test
+    fun `prefetchImages should skip images which did not arrive before the deadline`() {
+        // Given
+        val fastUrl = "https://example.com/fast.jpg"
+        val slowUrl = "https://example.com/slow.jpg"
+        val mockBitmap = mockk<Bitmap>()
+        every { mockBitmap.isRecycled } returns false
+        val mockDownloadedBitmap = mockk<DownloadedBitmap>()
+        every { mockDownloadedBitmap.status } returns DownloadedBitmap.Status.SUCCESS
+        every { mockDownloadedBitmap.bitmap } returns mockBitmap
+        every { mockTemplateRepository.isNetworkAvailable() } returns true
+        every { mockTemplateRepository.downloadBitmap(fastUrl) } returns mockDownloadedBitmap
+        every { mockTemplateRepository.downloadBitmap(slowUrl) } answers {
+            Thread.sleep(5000)
+            mockDownloadedBitmap
+        }
+
+        // When
+        templateMediaManager.prefetchImages(listOf(fastUrl, slowUrl), timeoutMillis = 200)
+
+        // Then
+        assertEquals(mockBitmap, templateMediaManager.getImageBitmap(fastUrl))
+        assertNull(templateMediaManager.getImageBitmap(slowUrl))
+        verify(exactly = 0) { mockTemplateRepository.getBitmap(any()) }
+    }
+
+    @Test
+    fun `prefetchImages should not download when network is unavailable`() {
+        // Given
+        val imageUrls = listOf("https://example.com/1.jpg", "https://example.com/2.jpg")
+        every { mockTemplateRepository.isNetworkAvailable() } returns false
+
+        // When
+        templateMediaManager.prefetchImages(imageUrls)
+
+        // Then
+        imageUrls.forEach { assertNull(templateMediaManager.getImageBitmap(it)) }
+        verify(exactly = 1) { mockTemplateRepository.isNetworkAvailable() }
+        verify(exactly = 0) { mockTemplateRepository.downloadBitmap(any()) }
+        verify(exactly = 0) { mockTemplateRepository.getBitmap(any()) }
+    }
+
+    @Test
+    fun `clearCaches should allow images which failed to prefetch to be downloaded again`() {
+        // Given
+        val imageUrl = "https://example.com/1.jpg"
+        every { mockTemplateRepository.isNetworkAvailable() } returns false
+        templateMediaManager.prefetchImages(listOf(imageUrl))
+
+        // When
+        templateMediaManager.clearCaches()
+        templateMediaManager.getImageBitmap(imageUrl)
+
+        // Then
+        verify(exactly = 1) { mockTemplateRepository.getBitmap(imageUrl) }
+    }
+
+    @Test
+    fun `getImageBitmap should serve images from the shared cache without downloading`() {
+        // Given
+        val imageUrl = "https://example.com/shared.jpg"
+        val mockBitmap = mockk<Bitmap>()
+        every { mockBitmap.isRecycled } returns false
+        val mediaCache = mockk<PushMediaCache>(relaxed = true)
+        every { mediaCache.getBitmap(imageUrl) } returns mockBitmap
+        val manager = TemplateMediaManager(mockTemplateRepository, mockGifDecoder, mediaCache, 1000L)
+
+        // When
+        manager.prefetchImages(listOf(imageUrl))
+        val result = manager.getImageBitmap(imageUrl)
+
+        // Then
+        assertEquals(mockBitmap, result)
+        verify(exactly = 1) { mediaCache.getBitmap(imageUrl) }
+        verify(exactly = 0) { mockTemplateRepository.downloadBitmap(any()) }
+        verify(exactly = 0) { mockTemplateRepository.getBitmap(any()) }
+    }
+
+    @Test
+    fun `downloaded media should be saved in the shared cache until the notification expires`() {
+        // Given
+        val imageUrl = "https://example.com/image.jpg"
+        val gifUrl = "https://example.com/animation.gif"
+        val mockBitmap = mockk<Bitmap>()
+        val imageBytes = byteArrayOf(1, 2)
+        val gifBytes = byteArrayOf(3, 4)
+        val downloadedImage = mockk<DownloadedBitmap>()
+        every { downloadedImage.status } returns DownloadedBitmap.Status.SUCCESS
+        every { downloadedImage.bitmap } returns mockBitmap
+        every { downloadedImage.bytes } returns imageBytes
+        val downloadedGif = mockk<DownloadedBitmap>()
+        every { downloadedGif.status } returns DownloadedBitmap.Status.SUCCESS
+        every { downloadedGif.bytes } returns gifBytes
+        every { mockTemplateRepository.getBitmap(imageUrl) } returns downloadedImage
+        every { mockTemplateRepository.getBytes(gifUrl) } returns downloadedGif
+        val mediaCache = mockk<PushMediaCache>(relaxed = true)
+        every { mediaCache.getBitmap(any()) } returns null
+        every { mediaCache.getBytes(any()) } returns null
+        val manager = TemplateMediaManager(mockTemplateRepository, mockGifDecoder, mediaCache, 1000L)
+
+        // When
+        manager.getImageBitmap(imageUrl)
+        manager.getGifFrames(gifUrl, 10)
+
+        // Then
+        verify(exactly = 1) { mediaCache.putBitmap(imageUrl, mockBitmap, imageBytes, 1000L) }
+        verify(exactly = 1) { mediaCache.putBytes(gifUrl, gifBytes, 1000L) }
+    }
+
+    @Test
+    fun `mediaExpiryMillis should use the ttl of the payload or the default push ttl`() {
+        // Given
+        val clock = mockk<Clock>()
+        every { clock.currentTimeSeconds() } returns 100L
+
+        // When
+        val withTtl = TemplateMediaManager.mediaExpiryMillis(
+            Bundle().apply { putString(Constants.WZRK_TIME_TO_LIVE, "5000") }, clock
+        )
+        val withoutTtl = TemplateMediaManager.mediaExpiryMillis(Bundle(), clock)
+
+        // Then
+        assertEquals(5_000_000L, withTtl)
+        assertEquals((100L + Constants.DEFAULT_PUSH_TTL_SECONDS) * 1000, withoutTtl)
+    }
 }
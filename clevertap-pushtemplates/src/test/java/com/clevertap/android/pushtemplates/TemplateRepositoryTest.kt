@@ -241,7 +241,7 @@ class TemplateRepositoryTest {
         
         every { 
             HttpBitmapLoader.getHttpBitmap(
-                HttpBitmapLoader.HttpBitmapOperation.DOWNLOAD_ANY_BITMAP,
+                HttpBitmapLoader.HttpBitmapOperation.DOWNLOAD_ANY_BITMAP_WITH_BYTES,
                 any()
             )
         } returns expectedDownloadedBitmap
@@ -255,7 +255,7 @@ class TemplateRepositoryTest {
         // Verify HttpBitmapLoader was called with correct parameters
         verify { 
             HttpBitmapLoader.getHttpBitmap(
-                HttpBitmapLoader.HttpBitmapOperation.DOWNLOAD_ANY_BITMAP,
+                HttpBitmapLoader.HttpBitmapOperation.DOWNLOAD_ANY_BITMAP_WITH_BYTES,
                 match { request ->
                     request.bitmapPath == url &&
                     !request.fallbackToAppIcon &&
@@ -279,7 +279,7 @@ class TemplateRepositoryTest {
         
         every { 
             HttpBitmapLoader.getHttpBitmap(
-                HttpBitmapLoader.HttpBitmapOperation.DOWNLOAD_ANY_BITMAP,
+                HttpBitmapLoader.HttpBitmapOperation.DOWNLOAD_ANY_BITMAP_WITH_BYTES,
                 any()
             )
         } returns expectedDownloadedBitmap
@@ -292,7 +292,7 @@ class TemplateRepositoryTest {
             assertEquals(expectedDownloadedBitmap, result)
             verify { 
                 HttpBitmapLoader.getHttpBitmap(
-                    HttpBitmapLoader.HttpBitmapOperation.DOWNLOAD_ANY_BITMAP,
+                    HttpBitmapLoader.HttpBitmapOperation.DOWNLOAD_ANY_BITMAP_WITH_BYTES,
                     match { request -> request.bitmapPath == url }
                 )
             }
@@ -423,10 +423,10 @@ class TemplateRepositoryTest {
             )
         }
         
-        // getBitmap should use HttpBitmapLoader with DOWNLOAD_ANY_BITMAP and null config
+        // getBitmap should use HttpBitmapLoader with DOWNLOAD_ANY_BITMAP_WITH_BYTES and null config
         verify { 
             HttpBitmapLoader.getHttpBitmap(
-                HttpBitmapLoader.HttpBitmapOperation.DOWNLOAD_ANY_BITMAP,
+                HttpBitmapLoader.HttpBitmapOperation.DOWNLOAD_ANY_BITMAP_WITH_BYTES,
                 match { request -> request.instanceConfig == null }
             )
         }
@@ -475,7 +475,7 @@ class TemplateRepositoryTest {
         // Should create separate request instances for each call
         verify(exactly = 2) { 
             HttpBitmapLoader.getHttpBitmap(
-                HttpBitmapLoader.HttpBitmapOperation.DOWNLOAD_ANY_BITMAP,
+                HttpBitmapLoader.HttpBitmapOperation.DOWNLOAD_ANY_BITMAP_WITH_BYTES,
                 any()
             )
         }